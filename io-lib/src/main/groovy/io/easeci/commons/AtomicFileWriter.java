@@ -0,0 +1,245 @@
+package io.easeci.commons;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Writes content of file in one batch, after short delay since first change,
+ * so many changes made in memory end with one write of file.
+ * File is written to temporary file, forced to disk and moved over previous one
+ * atomically, so crash in the middle of saving leaves previous, complete file.
+ * Write that failed keeps content marked as changed and is repeated with
+ * exponential backoff, until it succeeds or next write is requested.
+ * All writers share one scheduler thread and one shutdown hook,
+ * that writes pending changes of writers that are not closed yet.
+ * @author Karol Meksuła
+ * 2020-11-08
+ * */
+@Slf4j
+public class AtomicFileWriter implements Closeable {
+    private final static String TEMPORARY_SUFFIX = ".tmp";
+    private final static long MIN_RETRY_MILLIS = 100,
+                              MAX_RETRY_MILLIS = 60_000;
+    private final static ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "atomic-file-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final static Set<AtomicFileWriter> OPEN_WRITERS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static boolean shutdownHookAdded = false;
+
+    private final Path target;
+    private final long delayMillis;
+    private final Content content;
+    private final Runnable onCommit;
+    private final Consumer<Exception> onFailure;
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final AtomicLong commits = new AtomicLong(0);
+    private final Object fileLock = new Object();
+    private volatile int failures = 0;
+
+    /**
+     * Content of file, taken just before each write, so it covers all changes made until then.
+     * */
+    @FunctionalInterface
+    public interface Content {
+        byte[] get() throws IOException;
+    }
+
+    /**
+     * @param target file written by this writer
+     * @param delayMillis time between first change and write of file
+     * @param content supplies current content of file
+     * @param onCommit optional action called after each successful write
+     * @param onFailure optional action called after each failed write
+     * */
+    @Builder
+    private AtomicFileWriter(Path target, long delayMillis, Content content, Runnable onCommit, Consumer<Exception> onFailure) {
+        if (isNull(target)) throw new IllegalArgumentException("'target' of AtomicFileWriter cannot be null");
+        if (isNull(content)) throw new IllegalArgumentException("'content' of AtomicFileWriter cannot be null");
+        this.target = target;
+        this.delayMillis = Math.max(0, delayMillis);
+        this.content = content;
+        this.onCommit = onCommit;
+        this.onFailure = onFailure;
+        register(this);
+    }
+
+    /**
+     * Writes content to temporary file placed next to target, forces it to disk
+     * and moves it over target atomically, or by plain replacement when file system
+     * does not support atomic move.
+     * */
+    public static void writeAtomically(Path target, byte[] content) throws IOException {
+        writeAtomically(target, content, temporaryFile(target));
+    }
+
+    /**
+     * Writes content atomically through given temporary file, for instance file with unique name,
+     * when many threads may write the same target at once. Temporary file must be placed
+     * on the same file system as target.
+     * */
+    public static void writeAtomically(Path target, byte[] content, Path temporaryFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Path temporaryFile(Path target) {
+        return target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Marks content as changed and schedules write,
+     * all changes made until write starts are written at once.
+     * */
+    public void changed() {
+        changed.set(true);
+        schedule(delayMillis);
+    }
+
+    /**
+     * Writes pending changes immediately, without waiting for scheduled write.
+     * @throws IOException when file could not be written, changes stay pending
+     *         and write is repeated later
+     * */
+    public void flush() throws IOException {
+        commit();
+    }
+
+    /**
+     * Removes temporary file left by write that was broken by crash.
+     * */
+    public void deleteTemporary() throws IOException {
+        synchronized (fileLock) {
+            Files.deleteIfExists(temporaryFile(target));
+        }
+    }
+
+    /**
+     * @return number of writes of file, one write covers many changes
+     * */
+    public long commits() {
+        return commits.get();
+    }
+
+    public boolean isChanged() {
+        return changed.get();
+    }
+
+    /**
+     * Writes pending changes, later changes are not written in background
+     * and writer is not flushed at shutdown of JVM.
+     * */
+    @Override
+    public void close() throws IOException {
+        closed.set(true);
+        synchronized (OPEN_WRITERS) {
+            OPEN_WRITERS.remove(this);
+        }
+        flush();
+    }
+
+    private void schedule(long delay) {
+        if (!closed.get() && scheduled.compareAndSet(false, true)) {
+            SCHEDULER.schedule(this::scheduledCommit, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduledCommit() {
+        scheduled.set(false);
+        try {
+            commit();
+        } catch (IOException exception) {
+            log.error("Scheduled write of file {} failed, it will be repeated", target, exception);
+        }
+    }
+
+    private void commit() throws IOException {
+        synchronized (fileLock) {
+            if (!changed.compareAndSet(true, false)) {
+                return;
+            }
+            try {
+                writeAtomically(target, content.get());
+                commits.incrementAndGet();
+                failures = 0;
+            } catch (IOException | RuntimeException exception) {
+                changed.set(true);
+                failures++;
+                long retryDelay = retryDelay();
+                log.error("Cannot write file {}, attempt no. {} will be made in {} ms", target, failures + 1, retryDelay, exception);
+                if (nonNull(onFailure)) {
+                    onFailure.accept(exception);
+                }
+                schedule(retryDelay);
+                throw exception instanceof IOException
+                        ? (IOException) exception
+                        : new IOException("Cannot write file " + target, exception);
+            }
+        }
+        if (nonNull(onCommit)) {
+            onCommit.run();
+        }
+    }
+
+    private long retryDelay() {
+        long base = Math.max(MIN_RETRY_MILLIS, delayMillis);
+        return Math.min(MAX_RETRY_MILLIS, base << Math.min(failures - 1, 20));
+    }
+
+    private static void register(AtomicFileWriter writer) {
+        synchronized (OPEN_WRITERS) {
+            OPEN_WRITERS.add(writer);
+            if (!shutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(AtomicFileWriter::flushAll, "atomic-file-writer-shutdown"));
+                shutdownHookAdded = true;
+            }
+        }
+    }
+
+    private static void flushAll() {
+        List<AtomicFileWriter> writers;
+        synchronized (OPEN_WRITERS) {
+            writers = new ArrayList<>(OPEN_WRITERS);
+        }
+        for (AtomicFileWriter writer : writers) {
+            try {
+                writer.flush();
+            } catch (IOException exception) {
+                log.error("Pending changes of file {} are lost at shutdown", writer.target, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.easeci.core.engine.pipeline.interpolation;
+
+import io.easeci.core.workspace.vars.Variable;
+import io.easeci.extension.command.VariableType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rendering invocation bodies of thousands of steps with variables
+ * resolved through step, stage, Easefile and global scope.
+ * Compiled Templates are compared with scanning each body by regex
+ * and looking up variables in merged map on every render.
+ * Run with: ./gradlew jmh -PjmhInclude=TemplateBenchmark
+ * */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+    private final static Pattern VARIABLE = Pattern.compile("\\{([A-Za-z_][A-Za-z0-9_.\\-]*)}");
+    private final static int STEPS_PER_STAGE = 50;
+
+    @Param({"1000", "10000"})
+    public int steps;
+
+    private String[] bodies;
+    private Template[] templates;
+    private VariableScope[] stepScopes;
+    private List<Map<String, String>> mergedScopes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VariableScope globalScope = VariableScope.EMPTY.child(variables("global", 200));
+        VariableScope easefileScope = globalScope.child(variables("easefile", 20));
+        bodies = new String[steps];
+        templates = new Template[steps];
+        stepScopes = new VariableScope[steps];
+        mergedScopes = new ArrayList<>(steps);
+        VariableScope stageScope = null;
+        for (int i = 0; i < steps; i++) {
+            if (i % STEPS_PER_STAGE == 0) {
+                stageScope = easefileScope.child(variables("stage", 5));
+            }
+            bodies[i] = "deploy --from {easefile_" + (i % 20) + "} --to {global_" + (i % 200) + "}:{stage_" + (i % 5)
+                    + "} --step {step_0} --unknown {not_defined} " + i;
+            templates[i] = Template.compile(bodies[i]);
+            stepScopes[i] = stageScope.child(variables("step", 1));
+            mergedScopes.add(merged(variables("global", 200), variables("easefile", 20),
+                                    variables("stage", 5), variables("step", 1)));
+        }
+    }
+
+    @Benchmark
+    public void compiledTemplates(Blackhole blackhole) {
+        for (int i = 0; i < steps; i++) {
+            blackhole.consume(templates[i].render(stepScopes[i]));
+        }
+    }
+
+    @Benchmark
+    public void compileAndRender(Blackhole blackhole) {
+        for (int i = 0; i < steps; i++) {
+            blackhole.consume(Template.compile(bodies[i]).render(stepScopes[i]));
+        }
+    }
+
+    @Benchmark
+    public void regexOnEachRender(Blackhole blackhole) {
+        for (int i = 0; i < steps; i++) {
+            Map<String, String> scope = mergedScopes.get(i);
+            Matcher matcher = VARIABLE.matcher(bodies[i]);
+            StringBuffer buffer = new StringBuffer();
+            while (matcher.find()) {
+                String value = scope.get(matcher.group(1));
+                matcher.appendReplacement(buffer, Matcher.quoteReplacement(value == null ? matcher.group() : value));
+            }
+            matcher.appendTail(buffer);
+            blackhole.consume(buffer.toString());
+        }
+    }
+
+    /**
+     * Scopes merged to one map for each render, as it would be done without chain of scopes.
+     * */
+    @SafeVarargs
+    private static Map<String, String> merged(List<Variable<?>>... levels) {
+        Map<String, String> merged = new HashMap<>();
+        for (List<Variable<?>> level : levels) {
+            level.forEach(variable -> merged.put(variable.getName(), String.valueOf(variable.getValue())));
+        }
+        return merged;
+    }
+
+    private static List<Variable<?>> variables(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Variable.of(VariableType.STRING, prefix + "_" + i, prefix + "-value-" + i))
+                .collect(Collectors.toList());
+    }
+}
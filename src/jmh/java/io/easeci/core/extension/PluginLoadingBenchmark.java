@@ -0,0 +1,175 @@
+package io.easeci.core.extension;
+
+import io.easeci.extension.ExtensionType;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Startup time of plugin system: loading of synthetic plugin jars
+ * by DefaultPluginLoader, sequentially and in parallel mode.
+ * Each synthetic plugin has entry class that loads and initializes
+ * a number of helper classes, like real plugins do.
+ * Run with: ./gradlew jmh -PjmhInclude=PluginLoadingBenchmark
+ * */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PluginLoadingBenchmark {
+    private final static int HELPER_CLASSES = 40;
+
+    @Param({"8", "32"})
+    public int plugins;
+
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    private Path directory;
+    private List<Path> jars;
+    private PluginStrategy pluginStrategy;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("plugin-loading-benchmark");
+        jars = new ArrayList<>(plugins);
+        for (int plugin = 0; plugin < plugins; plugin++) {
+            jars.add(createPluginJar(plugin));
+        }
+        pluginStrategy = new EnabledPluginStrategy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Benchmark
+    public PluginContainer loadPlugins() throws IOException {
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        PluginLoader pluginLoader = new DefaultPluginLoader(pluginContainer, new JarJoiner(), parallelism);
+        Set<Plugin> notLoaded = pluginLoader.loadPlugins(pluginSet(), pluginStrategy);
+        if (!notLoaded.isEmpty()) {
+            throw new IllegalStateException("Plugins not loaded: " + notLoaded);
+        }
+        return pluginContainer;
+    }
+
+    private Set<Plugin> pluginSet() throws IOException {
+        Set<Plugin> pluginSet = new HashSet<>();
+        for (Path jar : jars) {
+            String fileName = jar.getFileName().toString();
+            Plugin.JarArchive jarArchive = Plugin.JarArchive.of(fileName, true, jar.toUri().toURL(), jar, null);
+            pluginSet.add(Plugin.of(Plugin.of(fileName.replace(".jar", ""), "0.0.1"), jarArchive));
+        }
+        return pluginSet;
+    }
+
+    private Path createPluginJar(int plugin) throws IOException {
+        String packageName = "benchmark.plugin" + plugin;
+        Path sources = Files.createDirectories(directory.resolve("src-" + plugin));
+        Path classes = Files.createDirectories(directory.resolve("classes-" + plugin));
+        List<String> sourceFiles = new ArrayList<>();
+        StringBuilder entryConstructor = new StringBuilder();
+        for (int helper = 0; helper < HELPER_CLASSES; helper++) {
+            String helperSource = "package " + packageName + ";\n"
+                    + "public class Helper" + helper + " {\n"
+                    + "    static final int[] TABLE = new int[1024];\n"
+                    + "    static { for (int i = 0; i < TABLE.length; i++) { TABLE[i] = Integer.toString(i * " + helper + ").hashCode(); } }\n"
+                    + "    public int value() { return TABLE[" + helper + "]; }\n"
+                    + "}\n";
+            sourceFiles.add(write(sources.resolve("Helper" + helper + ".java"), helperSource));
+            entryConstructor.append("        sum += new Helper").append(helper).append("().value();\n");
+        }
+        String entrySource = "package " + packageName + ";\n"
+                + "public class Entry {\n"
+                + "    public int sum;\n"
+                + "    public Entry() {\n" + entryConstructor + "    }\n"
+                + "}\n";
+        sourceFiles.add(write(sources.resolve("Entry.java"), entrySource));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+        arguments.addAll(sourceFiles);
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Cannot compile synthetic plugin " + plugin);
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(ExtensionManifest.IMPLEMENTS, "io.easeci.extension.bootstrap.OnStartup");
+        manifest.getMainAttributes().putValue(ExtensionManifest.ENTRY_CLASS, packageName + ".Entry");
+        Path jar = directory.resolve("synthetic-plugin-" + plugin + ".jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar), manifest);
+             Stream<Path> classFiles = Files.walk(classes)) {
+            for (Path classFile : classFiles.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                output.putNextEntry(new JarEntry(classes.relativize(classFile).toString()));
+                output.write(Files.readAllBytes(classFile));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String write(Path path, String content) throws IOException {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return path.toString();
+    }
+
+    private static class EnabledPluginStrategy implements PluginStrategy {
+
+        @Override
+        public Instance choose(List<Instance> instanceList, String interfaceName) {
+            return instanceList.get(0);
+        }
+
+        @Override
+        public PluginsConfigFile pluginsConfigFile() {
+            return null;
+        }
+
+        @Override
+        public ConfigDescription find(ExtensionType extensionType, String pluginName, String pluginVersion) {
+            return find(pluginName, pluginVersion);
+        }
+
+        @Override
+        public ConfigDescription find(ExtensionType extensionType, UUID uuid) {
+            return null;
+        }
+
+        @Override
+        public ConfigDescription find(String pluginName, String pluginVersion) {
+            return ConfigDescription.builder()
+                    .uuid(UUID.randomUUID())
+                    .name(pluginName)
+                    .version(pluginVersion)
+                    .enabled(true)
+                    .build();
+        }
+
+        @Override
+        public long configurationVersion() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.easeci.core.log;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.TECHNICAL_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.Publishers.SYSTEM;
+
+/**
+ * Cost and allocation rate of logging with ApplicationLevelLogFacade.
+ * Compare 'gc.alloc.rate.norm' (bytes per operation) of disabled levels,
+ * which should be zero, and of Event construction before and after LogEvents.
+ * Run with: ./gradlew jmh -PjmhInclude=ApplicationLevelLogFacadeBenchmark
+ * */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApplicationLevelLogFacadeBenchmark {
+    private final static String CONTENT = "Project with id: 42 was created";
+
+    private Object projectId;
+    private Object projectName;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ApplicationLevelLogFacade.disable(TECHNICAL_EVENT);
+        projectId = 42L;
+        projectName = "benchmark";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ApplicationLevelLogFacade.enable(TECHNICAL_EVENT);
+    }
+
+    @Benchmark
+    public void disabledString() {
+        ApplicationLevelLogFacade.logit(TECHNICAL_EVENT, CONTENT, THREE);
+    }
+
+    @Benchmark
+    public void disabledSupplier() {
+        ApplicationLevelLogFacade.logit(TECHNICAL_EVENT, () -> "Project with id: " + projectId + " was created", THREE);
+    }
+
+    @Benchmark
+    public void disabledTemplate() {
+        ApplicationLevelLogFacade.logit(TECHNICAL_EVENT, THREE, "Project with id: {} and name: {} was created", projectId, projectName);
+    }
+
+    /**
+     * The way Events were built before LogEvents: builders, LocalDateTime and eager concatenation.
+     * */
+    @Benchmark
+    public Event enabledEventLegacy(Blackhole blackhole) {
+        blackhole.consume(THREE.toPrefix() + " " + CONTENT);
+        return Event.builder()
+                .eventMeta(Event.EventMeta.builder()
+                        .eventType(EventType.API)
+                        .publishedBy(SYSTEM.name())
+                        .publishTimestamp(LocalDateTime.now())
+                        .title(WORKSPACE_EVENT.toLevelName())
+                        .build())
+                .content(CONTENT)
+                .build();
+    }
+
+    @Benchmark
+    public Event enabledEvent() {
+        return LogEvents.event(WORKSPACE_EVENT, CONTENT);
+    }
+
+    @Benchmark
+    public long epochNanos() {
+        return LogEvents.epochNanos();
+    }
+}
@@ -0,0 +1,152 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import io.easeci.core.output.consumer.BatchEventConsumer;
+import io.easeci.core.output.consumer.GroupEventConsumer;
+import io.easeci.core.output.publisher.Publisher;
+import io.easeci.core.output.publisher.PublishException;
+import io.easeci.core.output.publisher.TopicEventPublisher;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency of publishing Events to PartitionedTopic
+ * with one consumer group consuming in background.
+ * Run with: ./gradlew jmh -PjmhInclude=PartitionedTopicBenchmark
+ * */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PartitionedTopicBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int partitions;
+
+    private PartitionedTopic topic;
+    private CountingConsumer consumer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        topic = new PartitionedTopic("benchmark", TopicSettings.builder()
+                .partitions(partitions)
+                .build());
+        consumer = new CountingConsumer();
+        consumer.subscribe(topic);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        topic.close();
+    }
+
+    @State(Scope.Thread)
+    public static class PublisherState {
+        Publisher publisher;
+        Event event;
+
+        @Setup(Level.Trial)
+        public void setup(PartitionedTopicBenchmark benchmark) {
+            publisher = new TopicEventPublisher(benchmark.topic);
+            event = Event.builder()
+                    .eventMeta(Event.EventMeta.builder()
+                            .eventType(EventType.RUNTIME)
+                            .title("Benchmark event")
+                            .publishTimestamp(LocalDateTime.now())
+                            .publishedBy(Thread.currentThread().getName())
+                            .build())
+                    .content("Benchmark event content")
+                    .build();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean throughput_1_publisher(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean throughput_8_publishers(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean throughput_64_publishers(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean latency_1_publisher(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean latency_8_publishers(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean latency_64_publishers(PublisherState state) throws PublishException {
+        return state.publisher.publish(state.event);
+    }
+
+    /**
+     * Measures time from publication of Event to its consumption by consumer group.
+     * */
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long latency_end_to_end(PublisherState state) throws PublishException {
+        state.publisher.publish(state.event);
+        final long expected = topic.published();
+        long consumed;
+        while ((consumed = consumer.consumed.get()) < expected) {
+            Thread.onSpinWait();
+        }
+        return consumed;
+    }
+
+    static class CountingConsumer extends GroupEventConsumer implements BatchEventConsumer {
+        final AtomicLong consumed = new AtomicLong();
+
+        CountingConsumer() {
+            super("benchmark-group");
+        }
+
+        @Override
+        public int consumeBatch(List<Event> events) {
+            consumed.addAndGet(events.size());
+            return events.size();
+        }
+
+        @Override
+        public boolean consume(Event event) {
+            consumed.incrementAndGet();
+            return true;
+        }
+    }
+}
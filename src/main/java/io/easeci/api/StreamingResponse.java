@@ -0,0 +1,141 @@
+package io.easeci.api;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import ratpack.exec.Blocking;
+import ratpack.func.Action;
+import ratpack.stream.Streams;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Body of HTTP response written to OutputStream by producer working on its own thread.
+ * Written bytes are sent to client in chunks while producer still works,
+ * so response does not have to be built in memory before sending.
+ * Producer waits when client does not read chunks, and gives up
+ * when client stops reading at all. When producer fails or does not write
+ * anything for too long, stream ends with error, so connection is reset
+ * and client never takes truncated body as complete response.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Slf4j
+public class StreamingResponse {
+    private final static int CHUNK_SIZE = 16 * 1024,
+                             QUEUED_CHUNKS = 16;
+    private final static long CLIENT_TIMEOUT_SECONDS = 30,
+                              PRODUCER_TIMEOUT_SECONDS = 30;
+    private final static ByteBuf END = Unpooled.EMPTY_BUFFER,
+                                 FAILED = Unpooled.buffer(1);
+    private final static ExecutorService PRODUCERS = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "streaming-response-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * @param producer writes body of response, it is started when client requests first chunk
+     * */
+    public static Publisher<ByteBuf> publish(Action<OutputStream> producer) {
+        BlockingQueue<ByteBuf> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        AtomicBoolean started = new AtomicBoolean(false);
+        return Streams.flatYield(request -> {
+            if (started.compareAndSet(false, true)) {
+                PRODUCERS.execute(() -> produce(producer, chunks));
+            }
+            return Blocking.get(() -> {
+                ByteBuf chunk = chunks.poll(PRODUCER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (chunk == null) {
+                    throw new TimeoutException("Producer of response did not write anything for " + PRODUCER_TIMEOUT_SECONDS + " seconds");
+                }
+                if (chunk == FAILED) {
+                    throw new IOException("Producer of response failed, response is not complete");
+                }
+                return chunk == END ? null : chunk;
+            });
+        });
+    }
+
+    private static void produce(Action<OutputStream> producer, BlockingQueue<ByteBuf> chunks) {
+        ByteBuf last = END;
+        try (ChunkedOutputStream outputStream = new ChunkedOutputStream(chunks)) {
+            producer.execute(outputStream);
+        } catch (Exception exception) {
+            last = FAILED;
+            log.error("Streaming of response was broken", exception);
+        } finally {
+            try {
+                chunks.offer(last, CLIENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class ChunkedOutputStream extends OutputStream {
+        private final BlockingQueue<ByteBuf> chunks;
+        private byte[] buffer = new byte[CHUNK_SIZE];
+        private int position = 0;
+
+        private ChunkedOutputStream(BlockingQueue<ByteBuf> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == buffer.length) {
+                    flush();
+                }
+                int copied = Math.min(length, buffer.length - position);
+                System.arraycopy(bytes, offset, buffer, position, copied);
+                position += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (position == 0) {
+                return;
+            }
+            ByteBuf chunk = Unpooled.wrappedBuffer(buffer, 0, position);
+            try {
+                if (!chunks.offer(chunk, CLIENT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IOException("Client does not read response for " + CLIENT_TIMEOUT_SECONDS + " seconds");
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Streaming of response was interrupted");
+            }
+            buffer = new byte[CHUNK_SIZE];
+            position = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
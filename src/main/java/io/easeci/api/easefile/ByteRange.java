@@ -0,0 +1,69 @@
+package io.easeci.api.easefile;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Single range of bytes requested by 'Range' header, for instance 'bytes=0-499',
+ * 'bytes=500-' or 'bytes=-500'. Request for many ranges at once is served
+ * as request without range, what is allowed by RFC 7233.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class ByteRange {
+    final static ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+    private final static String UNIT = "bytes=";
+
+    private final long first;
+    private final long last;
+
+    /**
+     * @return range of file with given size, null when whole file should be sent,
+     *         or UNSATISFIABLE when range does not overlap file
+     * */
+    static ByteRange parse(String header, long size) {
+        if (isNull(header) || !header.startsWith(UNIT) || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String firstPart = spec.substring(0, dash).trim(),
+                   lastPart = spec.substring(dash + 1).trim();
+            if (firstPart.isEmpty()) {
+                long suffixLength = Long.parseLong(lastPart);
+                if (suffixLength <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+            }
+            long first = Long.parseLong(firstPart);
+            long last = lastPart.isEmpty() ? size - 1 : Math.min(Long.parseLong(lastPart), size - 1);
+            if (first >= size) {
+                return UNSATISFIABLE;
+            }
+            if (last < first) {
+                return null;
+            }
+            return new ByteRange(first, last);
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    long length() {
+        return last - first + 1;
+    }
+
+    String contentRange(long size) {
+        return "bytes " + first + "-" + last + "/" + size;
+    }
+}
@@ -2,24 +2,47 @@ package io.easeci.api.easefile;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
-import io.easeci.core.workspace.easefiles.DefaultEasefileManager;
-import io.easeci.core.workspace.easefiles.EasefileManager;
-import io.easeci.core.workspace.easefiles.EasefileOut;
-import io.easeci.core.workspace.easefiles.EasefileStatus;
+import io.easeci.api.StreamingResponse;
+import io.easeci.api.validation.ApiRequestValidator;
+import io.easeci.core.workspace.easefiles.*;
+import io.easeci.core.workspace.easefiles.filetree.FileTreeWalker;
+import io.easeci.core.workspace.easefiles.filetree.WalkOptions;
 import io.easeci.server.EndpointDeclaration;
 import io.easeci.server.InternalHandlers;
+import ratpack.exec.Blocking;
+import ratpack.handling.Context;
+import ratpack.http.Headers;
 import ratpack.http.HttpMethod;
+import ratpack.http.RequestBodyTooLargeException;
+import ratpack.http.Response;
+import ratpack.http.Status;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import static io.easeci.api.validation.ApiRequestValidator.extractBody;
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.Optional.ofNullable;
 import static ratpack.http.MediaType.APPLICATION_JSON;
+import static ratpack.http.MediaType.PLAIN_TEXT_UTF8;
 
 public class EasefileManagementHandlers implements InternalHandlers {
     private final static String MAPPING = "easefile/";
+    private final static long MAX_UPLOAD_BYTES = 64 * 1024 * 1024;
     private EasefileManager easefileManager;
     private ObjectMapper objectMapper;
 
@@ -34,9 +57,12 @@ public class EasefileManagementHandlers implements InternalHandlers {
                 getRootEasefileDirectory(),
                 scanWorkspaceDirectoryTree(),
                 scanPathDirectoryTree(),
+                walkDirectoryTree(),
                 createDirectory(),
                 deleteDirectory(),
                 getEasefileContent(),
+                streamEasefileContent(),
+                uploadEasefileContent(),
                 addEasefile(),
                 updateEasefile(),
                 deleteEasefile()
@@ -83,6 +109,48 @@ public class EasefileManagementHandlers implements InternalHandlers {
                 .build();
     }
 
+    /**
+     * Walks directory on disk and streams FileTree as JSON while walking,
+     * for cases when tree from index is not enough, for instance when files
+     * must be filtered by glob or tree is limited by depth or number of entries.
+     * */
+    public EndpointDeclaration walkDirectoryTree() {
+        return EndpointDeclaration.builder()
+                .httpMethod(HttpMethod.POST)
+                .endpointUri(MAPPING + "workspace/walk")
+                .handler(ctx -> extractBody(ctx, EasefileWalkRequest.class)
+                        .onError(throwable -> {
+                            if (throwable instanceof ApiRequestValidator.ValidationErrorSignal) {
+                                ctx.getResponse()
+                                   .status(Status.BAD_REQUEST)
+                                   .contentType(APPLICATION_JSON)
+                                   .send(((ApiRequestValidator.ValidationErrorSignal) throwable).getResponse());
+                                return;
+                            }
+                            ctx.getResponse()
+                               .contentType(APPLICATION_JSON)
+                               .send(objectMapper.writeValueAsBytes(errorMapping(throwable)));
+                        })
+                        .then(walkRequest -> {
+                            Path path = Paths.get(walkRequest.getPath()).toAbsolutePath().normalize();
+                            if (!EasefileManager.hasAccessRight(path)) {
+                                ctx.getResponse()
+                                   .contentType(APPLICATION_JSON)
+                                   .send(objectMapper.writeValueAsBytes(EasefileWorkspaceResponse.withError("Access denied")));
+                                return;
+                            }
+                            FileTreeWalker fileTreeWalker = new FileTreeWalker(path, WalkOptions.builder()
+                                    .maxDepth(ofNullable(walkRequest.getMaxDepth()).orElse(Integer.MAX_VALUE))
+                                    .maxEntries(ofNullable(walkRequest.getMaxEntries()).orElse(Integer.MAX_VALUE))
+                                    .glob(walkRequest.getGlob())
+                                    .build());
+                            ctx.getResponse()
+                               .contentType(APPLICATION_JSON)
+                               .sendStream(StreamingResponse.publish(fileTreeWalker::writeTo));
+                        }))
+                .build();
+    }
+
     public EndpointDeclaration createDirectory() {
         return EndpointDeclaration.builder()
                 .httpMethod(HttpMethod.POST)
@@ -137,6 +205,152 @@ public class EasefileManagementHandlers implements InternalHandlers {
         return EasefileResponse.of(easefileOut.getEasefileStatus(), easefileOut.getErrorMessage(), encodedContentAsString);
     }
 
+    /**
+     * Sends raw content of Easefile indicated by 'path' query parameter.
+     * Whole file is sent by Ratpack's file rendering, without loading it to memory.
+     * Supports conditional requests with ETag built from size and modification time
+     * ('If-None-Match', 'If-Range') and single range of bytes requested by 'Range' header.
+     * */
+    public EndpointDeclaration streamEasefileContent() {
+        return EndpointDeclaration.builder()
+                .httpMethod(HttpMethod.GET)
+                .endpointUri(MAPPING + "content")
+                .handler(ctx -> {
+                    String requestedPath = ctx.getRequest().getQueryParams().get("path");
+                    if (isNull(requestedPath) || !EasefileManager.hasAccessRight(Paths.get(requestedPath).normalize())) {
+                        ctx.getResponse()
+                           .status(403)
+                           .contentType(APPLICATION_JSON)
+                           .send(objectMapper.writeValueAsBytes(EasefileResponse.withError("Access denied", EasefileStatus.REQUEST_ERROR)));
+                        return;
+                    }
+                    Path path = Paths.get(requestedPath).normalize();
+                    Blocking.get(() -> Files.isRegularFile(path) ? Optional.of(EasefileVersion.of(path)) : Optional.<EasefileVersion>empty())
+                            .then(version -> {
+                                if (version.isEmpty()) {
+                                    ctx.getResponse()
+                                       .status(404)
+                                       .contentType(APPLICATION_JSON)
+                                       .send(objectMapper.writeValueAsBytes(EasefileResponse.withError("File not exists: " + path, EasefileStatus.NOT_EXISTS)));
+                                    return;
+                                }
+                                sendContent(ctx, path, version.get());
+                            });
+                })
+                .build();
+    }
+
+    private void sendContent(Context ctx, Path path, EasefileVersion version) {
+        Headers requestHeaders = ctx.getRequest().getHeaders();
+        Response response = ctx.getResponse();
+        response.getHeaders()
+                .set(ETAG, version.etag())
+                .set(ACCEPT_RANGES, "bytes")
+                .setDate(LAST_MODIFIED, new Date(version.getLastModifiedMillis()));
+        if (version.matches(requestHeaders.get(IF_NONE_MATCH))) {
+            response.status(304).send();
+            return;
+        }
+        String ifRange = requestHeaders.get(IF_RANGE);
+        ByteRange range = isNull(ifRange) || version.matches(ifRange)
+                ? ByteRange.parse(requestHeaders.get(RANGE), version.getSize())
+                : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.getHeaders().set(CONTENT_RANGE, "bytes */" + version.getSize());
+            response.status(416).send();
+            return;
+        }
+        response.contentType(PLAIN_TEXT_UTF8);
+        if (isNull(range)) {
+            response.sendFile(path);
+            return;
+        }
+        response.getHeaders()
+                .set(CONTENT_RANGE, range.contentRange(version.getSize()))
+                .set(CONTENT_LENGTH, range.length());
+        response.status(206)
+                .sendStream(StreamingResponse.publish(outputStream -> copyRange(path, range, outputStream)));
+    }
+
+    private static void copyRange(Path path, ByteRange range, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = range.getFirst(),
+                 end = range.getLast() + 1;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * Writes request body to Easefile indicated by 'path' query parameter while body is received.
+     * Existing file is replaced only when 'overwrite' query parameter is true,
+     * and when 'If-Match' header is present, only if file still has given ETag.
+     * File is replaced by atomic rename after whole body was written, so broken upload
+     * leaves previous content untouched.
+     * */
+    public EndpointDeclaration uploadEasefileContent() {
+        return EndpointDeclaration.builder()
+                .httpMethod(HttpMethod.PUT)
+                .endpointUri(MAPPING + "content")
+                .handler(ctx -> {
+                    String requestedPath = ctx.getRequest().getQueryParams().get("path");
+                    boolean overwrite = Boolean.parseBoolean(ctx.getRequest().getQueryParams().get("overwrite"));
+                    String ifMatch = ctx.getRequest().getHeaders().get(IF_MATCH);
+                    if (isNull(requestedPath)) {
+                        sendUploadError(ctx, new EasefileUploadException("Query parameter 'path' is required", EasefileStatus.REQUEST_ERROR));
+                        return;
+                    }
+                    Blocking.get(() -> EasefileUpload.open(Paths.get(requestedPath), overwrite, ifMatch))
+                            .onError(throwable -> sendUploadError(ctx, throwable))
+                            .then(upload -> ctx.getRequest().getBodyStream(MAX_UPLOAD_BYTES)
+                                    .flatMap(buffer -> Blocking.get(() -> {
+                                        try {
+                                            int length = buffer.readableBytes();
+                                            upload.write(buffer.nioBuffer());
+                                            return (long) length;
+                                        } finally {
+                                            buffer.release();
+                                        }
+                                    }))
+                                    .reduce(0L, Long::sum)
+                                    .blockingMap(written -> upload.commit())
+                                    .close(upload)
+                                    .onError(throwable -> sendUploadError(ctx, throwable))
+                                    .then(status -> ctx.getResponse()
+                                            .contentType(APPLICATION_JSON)
+                                            .send(objectMapper.writeValueAsBytes(AddEasefileResponse.of(upload.getTarget(), status)))));
+                })
+                .build();
+    }
+
+    private void sendUploadError(Context ctx, Throwable throwable) throws Exception {
+        AddEasefileResponse response;
+        int status;
+        if (throwable instanceof EasefileUploadException) {
+            EasefileStatus easefileStatus = ((EasefileUploadException) throwable).getEasefileStatus();
+            response = AddEasefileResponse.withError(throwable.getMessage(), easefileStatus);
+            status = easefileStatus == EasefileStatus.CHANGED_CONCURRENTLY ? 412
+                   : easefileStatus == EasefileStatus.JUST_EXISTS ? 409
+                   : 400;
+        } else if (throwable instanceof RequestBodyTooLargeException) {
+            response = AddEasefileResponse.withError("Easefile is too large, limit is " + MAX_UPLOAD_BYTES + " bytes", EasefileStatus.SAVE_FAILED);
+            status = 413;
+        } else {
+            response = AddEasefileResponse.withError("Not expected, unrecognized exception occurred while processing request", EasefileStatus.SAVE_FAILED);
+            status = 500;
+        }
+        ctx.getResponse()
+           .status(status)
+           .contentType(APPLICATION_JSON)
+           .send(objectMapper.writeValueAsBytes(response));
+    }
+
     public EndpointDeclaration addEasefile() {
         return EndpointDeclaration.builder()
                 .httpMethod(HttpMethod.POST)
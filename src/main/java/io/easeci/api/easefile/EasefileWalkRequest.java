@@ -0,0 +1,29 @@
+package io.easeci.api.easefile;
+
+import io.easeci.api.validation.ValidationError;
+import io.easeci.api.validation.Validator;
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.easeci.api.validation.CommonValidatorSet.*;
+
+@Data
+public class EasefileWalkRequest implements Validator {
+    private String path;
+    private Integer maxDepth;
+    private Integer maxEntries;
+    private String glob;
+
+    @Override
+    public List<ValidationError> validate() {
+        return combine(
+                Arrays.asList(
+                        nullCheck(path, "path"),
+                        validateMinValue(maxDepth, 0, "maxDepth", true),
+                        validateMinValue(maxEntries, 0, "maxEntries", true),
+                        validateGlob(glob, "glob", true)
+                ));
+    }
+}
@@ -26,15 +26,17 @@ public class ExtensionHandlers implements InternalHandlers {
     private DirectivesCollector directivesCollector;
     private PluginUpdate pluginUpdate;
     private PluginDetails pluginDetails;
+    private RegistryProxy registryProxy;
     private ObjectMapper objectMapper;
 
     public ExtensionHandlers() throws PluginSystemCriticalException {
         ExtensionSystem extensionSystem = ExtensionSystem.getInstance();
         this.controllable = extensionSystem;
-        this.directivesCollector = extensionSystem;
+        this.directivesCollector = extensionSystem.getDirectiveRegistry();
         final RegistryProxy registryProxy = new RegistryProxy();
         this.pluginUpdate = registryProxy;
         this.pluginDetails = registryProxy;
+        this.registryProxy = registryProxy;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -46,7 +48,9 @@ public class ExtensionHandlers implements InternalHandlers {
                 enableExtension(),
                 restartExtension(),
                 checkForUpdate(),
+                checkForUpdates(),
                 fetchDetails(),
+                registryCacheMetrics(),
                 fetchAllAvailableDirectives()
         );
     }
@@ -115,6 +119,18 @@ public class ExtensionHandlers implements InternalHandlers {
                 }).build();
     }
 
+    private EndpointDeclaration checkForUpdates() {
+        return EndpointDeclaration.builder()
+                .httpMethod(POST)
+                .endpointUri(MAPPING + "update/check")
+                .handler(ctx -> extractBody(ctx.getRequest(), UpdateCheckRequest.class)
+                        .flatMap(updateCheckRequest -> this.pluginUpdate.checkForUpdates(updateCheckRequest.getPlugins()))
+                        .map(pluginUpdateCheckResponses -> this.objectMapper.writeValueAsBytes(pluginUpdateCheckResponses))
+                        .mapError(ApiRequestValidator::handleException)
+                        .then(bytes -> ctx.getResponse().contentType(APPLICATION_JSON).send(bytes)))
+                .build();
+    }
+
     private EndpointDeclaration fetchDetails() {
         final String PLUGIN_NAME = "pluginName",
                   PLUGIN_VERSION = "pluginVersion";
@@ -131,6 +147,16 @@ public class ExtensionHandlers implements InternalHandlers {
                 }).build();
     }
 
+    private EndpointDeclaration registryCacheMetrics() {
+        return EndpointDeclaration.builder()
+                .httpMethod(GET)
+                .endpointUri(MAPPING + "registry/cache")
+                .handler(ctx -> Promise.value(this.registryProxy.cacheMetrics())
+                        .map(metrics -> this.objectMapper.writeValueAsBytes(metrics))
+                        .then(bytes -> ctx.getResponse().contentType(APPLICATION_JSON).send(bytes)))
+                .build();
+    }
+
     // find all directives from all installed plugins in EaseCI system
     private EndpointDeclaration fetchAllAvailableDirectives() {
         return EndpointDeclaration.builder()
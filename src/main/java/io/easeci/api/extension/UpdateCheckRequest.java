@@ -0,0 +1,35 @@
+package io.easeci.api.extension;
+
+import io.easeci.api.validation.ValidationError;
+import io.easeci.api.validation.Validator;
+import io.easeci.core.registry.dto.PluginReference;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.easeci.api.validation.CommonValidatorSet.combine;
+import static io.easeci.api.validation.CommonValidatorSet.nullCheck;
+
+@Data
+public class UpdateCheckRequest implements Validator {
+    private List<PluginReference> plugins;
+
+    @Override
+    public List<ValidationError> validate() {
+        List<List<ValidationError>> errors = new ArrayList<>();
+        errors.add(nullCheck(this.plugins, "plugins"));
+        if (this.plugins != null) {
+            for (int i = 0; i < this.plugins.size(); i++) {
+                PluginReference reference = this.plugins.get(i);
+                if (reference == null) {
+                    errors.add(nullCheck(null, "plugins[" + i + "]"));
+                    continue;
+                }
+                errors.add(nullCheck(reference.getPluginName(), "pluginName"));
+                errors.add(nullCheck(reference.getPluginVersion(), "pluginVersion"));
+            }
+        }
+        return combine(errors);
+    }
+}
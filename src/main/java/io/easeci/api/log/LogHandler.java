@@ -2,25 +2,54 @@ package io.easeci.api.log;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.easeci.api.log.dto.EventRequest;
+import io.easeci.core.engine.runtime.LocalProcessLogHandler;
+import io.easeci.core.engine.runtime.PipelineRuntimeLogHandler;
 import io.easeci.core.log.ApplicationLevelLog;
+import io.easeci.core.log.file.BinaryLogRenderer;
+import io.easeci.core.workspace.LocationUtils;
 import io.easeci.core.output.Event;
 import io.easeci.core.output.EventType;
+import io.easeci.core.output.topic.SystemTopic;
 import io.easeci.server.EndpointDeclaration;
 import io.easeci.server.InternalHandlers;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import ratpack.exec.Blocking;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
+import static io.easeci.core.log.ApplicationLevelLog.LOG_DIRECTORY;
+import static ratpack.http.HttpMethod.GET;
 import static ratpack.http.HttpMethod.POST;
 import static ratpack.http.MediaType.APPLICATION_JSON;
+import static ratpack.http.MediaType.PLAIN_TEXT_UTF8;
 
 public class LogHandler implements InternalHandlers {
+    private final static int DEFAULT_MAX_LINES = 1000,
+                              MAX_LINES_LIMIT = 10_000;
+    private final PipelineRuntimeLogHandler pipelineRuntimeLogHandler;
+    private final ObjectMapper objectMapper;
+
+    public LogHandler() {
+        this(new LocalProcessLogHandler());
+    }
+
+    public LogHandler(PipelineRuntimeLogHandler pipelineRuntimeLogHandler) {
+        this.pipelineRuntimeLogHandler = pipelineRuntimeLogHandler;
+        this.objectMapper = new ObjectMapper();
+    }
 
     @Override
     public List<EndpointDeclaration> endpoints() {
         return List.of(
-                addEvent()
+                addEvent(),
+                renderBinaryLog(),
+                readPipelineRunLog()
         );
     }
 
@@ -29,21 +58,87 @@ public class LogHandler implements InternalHandlers {
                 .httpMethod(POST)
                 .endpointUri("api/v1/log")
                 .handler(ctx -> ctx.getRequest().getBody()
-                        .map(typedData -> new ObjectMapper().readValue(typedData.getBytes(), EventRequest.class))
-                        .next(request -> ApplicationLevelLog.getInstance()
-                                .handle(Event.builder()
-                                        .eventMeta(Event.EventMeta.builder()
-                                                .publishedBy("API request")
-                                                .title(request.getTitle())
-                                                .publishTimestamp(LocalDateTime.now())
-                                                .eventType(EventType.API)
-                                                .build())
-                                        .content(request.getContent())
-                                        .build()))
+                        .map(typedData -> objectMapper.readValue(typedData.getBytes(), EventRequest.class))
+                        .next(request -> {
+                            Event event = Event.builder()
+                                    .eventMeta(Event.EventMeta.builder()
+                                            .publishedBy("API request")
+                                            .title(request.getTitle())
+                                            .publishTimestamp(LocalDateTime.now())
+                                            .eventType(EventType.API)
+                                            .build())
+                                    .content(request.getContent())
+                                    .build();
+                            if (!SystemTopic.publisher().publish(event)) {
+                                ApplicationLevelLog.getInstance().handle(event);
+                            }
+                        })
                         .then(request -> ctx.getResponse()
                                 .contentType(APPLICATION_JSON)
                                 .status(HttpResponseStatus.OK.code())
                                 .send()))
                 .build();
     }
+
+    /**
+     * Renders binary logfile from workspace's log directory to legacy text format.
+     * */
+    private EndpointDeclaration renderBinaryLog() {
+        final String FILE_NAME = "fileName";
+        return EndpointDeclaration.builder()
+                .httpMethod(GET)
+                .endpointUri("api/v1/log/render/:" + FILE_NAME)
+                .handler(ctx -> {
+                    Path logDirectory = Paths.get(LocationUtils.getWorkspaceLocation().concat(LOG_DIRECTORY)).normalize();
+                    Path binaryLogfile = logDirectory.resolve(ctx.getPathTokens().get(FILE_NAME)).normalize();
+                    if (!binaryLogfile.startsWith(logDirectory) || !Files.isRegularFile(binaryLogfile)) {
+                        ctx.getResponse().status(HttpResponseStatus.NOT_FOUND.code()).send();
+                        return;
+                    }
+                    Blocking.get(() -> {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        BinaryLogRenderer.render(binaryLogfile, outputStream);
+                        return outputStream.toByteArray();
+                    }).then(bytes -> ctx.getResponse()
+                            .contentType(PLAIN_TEXT_UTF8)
+                            .status(HttpResponseStatus.OK.code())
+                            .send(bytes));
+                })
+                .build();
+    }
+
+    /**
+     * Reads logs of pipeline run, captured now or persisted in workspace.
+     * Query parameters 'from' and 'max' point first line and maximal number of lines,
+     * 'max' greater than MAX_LINES_LIMIT is rejected, so one request never holds huge page in memory.
+     * */
+    private EndpointDeclaration readPipelineRunLog() {
+        final String PIPELINE_RUN_ID = "pipelineRunId";
+        return EndpointDeclaration.builder()
+                .httpMethod(GET)
+                .endpointUri("api/v1/log/pipeline/:" + PIPELINE_RUN_ID)
+                .handler(ctx -> {
+                    UUID pipelineRunId;
+                    long fromLine;
+                    int maxLines;
+                    try {
+                        pipelineRunId = UUID.fromString(ctx.getPathTokens().get(PIPELINE_RUN_ID));
+                        fromLine = Long.parseLong(ctx.getRequest().getQueryParams().getOrDefault("from", "0"));
+                        maxLines = Integer.parseInt(ctx.getRequest().getQueryParams().getOrDefault("max", String.valueOf(DEFAULT_MAX_LINES)));
+                    } catch (IllegalArgumentException exception) {
+                        ctx.getResponse().status(HttpResponseStatus.BAD_REQUEST.code()).send();
+                        return;
+                    }
+                    if (fromLine < 0 || maxLines < 1 || maxLines > MAX_LINES_LIMIT) {
+                        ctx.getResponse().status(HttpResponseStatus.BAD_REQUEST.code()).send();
+                        return;
+                    }
+                    Blocking.get(() -> objectMapper.writeValueAsBytes(pipelineRuntimeLogHandler.read(pipelineRunId, fromLine, maxLines)))
+                            .then(bytes -> ctx.getResponse()
+                                    .contentType(APPLICATION_JSON)
+                                    .status(HttpResponseStatus.OK.code())
+                                    .send(bytes));
+                })
+                .build();
+    }
 }
@@ -15,6 +15,10 @@ public class RunParseProcess implements Validator {
     private Source source;
     private String localStoragePath;
     private String gitRepositoryUrl;
+    // optional, branch, tag or commit of git repository, HEAD of remote when not set
+    private String gitRef;
+    // optional, path of Easefile in git repository, Easefile in root directory is searched when not set
+    private String gitEasefilePath;
     private String encodedEasefileContent;
 
     @Override
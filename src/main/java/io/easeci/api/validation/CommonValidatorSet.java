@@ -1,5 +1,6 @@
 package io.easeci.api.validation;
 
+import java.nio.file.FileSystems;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -85,6 +86,53 @@ public class CommonValidatorSet {
         return errors;
     }
 
+    public static List<ValidationError> validateMinValue(Integer value, int minValue, String fieldName, boolean optional) {
+        List<ValidationError> errors = new ArrayList<>(0);
+        if (!optional) {
+            List<ValidationError> nullErrors = nullCheck(value, fieldName);
+            if (!nullErrors.isEmpty()) {
+                return nullErrors;
+            }
+        } else {
+            if (value == null) {
+                return errors;
+            }
+        }
+        if (value < minValue) {
+            errors.add(ValidationError.builder()
+                    .field(fieldName)
+                    .errorCode("Value too small")
+                    .errorMessage("Value cannot be less than " + minValue)
+                    .build());
+        }
+        return errors;
+    }
+
+    // PatternSyntaxException thrown for incorrect glob is also IllegalArgumentException
+    public static List<ValidationError> validateGlob(String value, String fieldName, boolean optional) {
+        List<ValidationError> errors = new ArrayList<>(0);
+        if (!optional) {
+            List<ValidationError> nullErrors = nullCheck(value, fieldName);
+            if (!nullErrors.isEmpty()) {
+                return nullErrors;
+            }
+        } else {
+            if (value == null) {
+                return errors;
+            }
+        }
+        try {
+            FileSystems.getDefault().getPathMatcher("glob:" + value);
+        } catch (IllegalArgumentException exception) {
+            errors.add(ValidationError.builder()
+                    .field(fieldName)
+                    .errorCode("Glob pattern invalid")
+                    .errorMessage(fieldName + " is not correct glob pattern: " + exception.getMessage())
+                    .build());
+        }
+        return errors;
+    }
+
     public static List<ValidationError> nullCheck(Object value, String fieldName) {
         if (value == null) {
             return Collections.singletonList(ValidationError.builder()
@@ -6,6 +6,7 @@ import io.easeci.core.log.ApplicationLevelLog;
 import io.easeci.core.log.LogManager;
 import io.easeci.core.output.Event;
 import io.easeci.core.output.EventType;
+import io.easeci.core.output.topic.SystemTopic;
 import io.easeci.core.workspace.LinuxWorkspaceInitializer;
 import io.easeci.core.workspace.WorkspaceGuard;
 import io.easeci.core.workspace.WorkspaceInitializer;
@@ -43,7 +44,10 @@ public class LinuxBootstrapper implements Bootstrapper {
         if (!scanResult.getValue0()) {
             workspaceGuard.fix(scanResult.getValue1());
         }
+        ApplicationLevelLog.disableLevels();
+        ApplicationLevelLog.configureLimits();
         this.logManager = ApplicationLevelLog.getInstance();
+        SystemTopic.start(this.logManager);
         this.logManager.handle(Event.builder()
                 .eventMeta(Event.EventMeta.builder()
                         .eventType(EventType.RUNTIME)
@@ -1,14 +1,8 @@
 package io.easeci.core.engine.easefile.loader;
 
-import io.easeci.core.workspace.LocationUtils;
-import io.easeci.core.workspace.cache.CacheGarbageCollector;
-import io.easeci.core.workspace.cache.CacheManager;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -19,88 +13,60 @@ import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static io.easeci.core.workspace.LocationUtils.getEasefilesStorageLocation;
 
+/**
+ * Loads Easefile from remote git repository through mirror kept in workspace's cache,
+ * so repository is cloned once and each next load only fetches new objects.
+ * */
 @Slf4j
 public class GitLoader implements EasefileLoader {
     private String gitRepositoryUrl;
+    private String gitRef;
+    private String gitEasefilePath;
     private Path easefileLocalStoragePath;
+    private GitMirrorCache gitMirrorCache;
 
     public static EasefileLoader of(String gitRepositoryUrl) {
+        return of(gitRepositoryUrl, null, null);
+    }
+
+    /**
+     * @param gitRef branch, tag or commit that Easefile is read from, HEAD of remote when null
+     * @param gitEasefilePath path of Easefile in repository, Easefile in root directory is searched when null
+     * */
+    public static EasefileLoader of(String gitRepositoryUrl, String gitRef, String gitEasefilePath) {
+        return of(gitRepositoryUrl, gitRef, gitEasefilePath, GitMirrorCache.getInstance());
+    }
+
+    static EasefileLoader of(String gitRepositoryUrl, String gitRef, String gitEasefilePath, GitMirrorCache gitMirrorCache) {
         GitLoader easefileLoader = new GitLoader();
         easefileLoader.gitRepositoryUrl = gitRepositoryUrl;
+        easefileLoader.gitRef = gitRef;
+        easefileLoader.gitEasefilePath = gitEasefilePath;
+        easefileLoader.gitMirrorCache = gitMirrorCache;
         return easefileLoader;
     }
 
     @Override
     public String provide() throws GitAPIException, IOException {
-        final File repositoryDestination = repositoryFilesDestination();
-
-        if (Files.exists(repositoryDestination.toPath())) {
-            final Path easefile = findEasefile(repositoryDestination.toPath());
-            logit(EASEFILE_EVENT, "Loading content to parsing Easefile from git repository from remote: "
-                    + gitRepositoryUrl + ". That just exists in local workspace", THREE);
-            return readFile(easefile.toFile());
-        }
-
-        Git.cloneRepository()
-                .setURI(gitRepositoryUrl)
-                .setDirectory(repositoryDestination)
-                .call();
-
-        this.easefileLocalStoragePath = findEasefile(repositoryDestination.toPath());
-        this.copyEasefile();
-        final String easefileContent = readFile(this.easefileLocalStoragePath.toFile());
-
-        CacheGarbageCollector cacheGarbageCollector = CacheManager.getInstance();
-        cacheGarbageCollector.cleanup(repositoryDestination.toPath());
+        final String easefileContent = gitMirrorCache.loadEasefile(gitRepositoryUrl, gitRef, gitEasefilePath);
+        this.easefileLocalStoragePath = copyEasefile(easefileContent);
         logit(EASEFILE_EVENT, "Loading content to parsing Easefile from git repository from remote: " + gitRepositoryUrl, THREE);
         return easefileContent;
     }
 
-    private void copyEasefile() {
-        if (this.easefileLocalStoragePath != null) {
-            String easefilesStorageLocationString = getEasefilesStorageLocation().concat("_")
-                                                                                 .concat(String.valueOf(System.currentTimeMillis()));
-            Path easefilesStorageLocation = Paths.get(easefilesStorageLocationString);
-            try {
-                Files.copy(this.easefileLocalStoragePath, easefilesStorageLocation);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    private Path copyEasefile(String easefileContent) {
+        Path easefilesStorageLocation = Paths.get(getEasefilesStorageLocation().concat("_")
+                                                                               .concat(String.valueOf(System.currentTimeMillis())));
+        try {
+            return Files.writeString(easefilesStorageLocation, easefileContent);
+        } catch (IOException e) {
+            log.error("Cannot copy Easefile downloaded from git repository to {}", easefilesStorageLocation, e);
+            return null;
         }
-        log.error("Cannot copy easefile downloaded from github, because easefileLocalStoragePath is null");
     }
 
     @Override
     public Path easefileSource() {
         return this.easefileLocalStoragePath;
     }
-
-    private String readFile(File easefile) throws IOException {
-        return FileUtils.readFileToString(easefile, "UTF-8");
-    }
-
-    private File repositoryFilesDestination() {
-        return Paths.get(LocationUtils.getCacheDirectoryLocation().toString()
-                .concat("/")
-                .concat(repositoryName()))
-                .toFile();
-    }
-
-    private String repositoryName() {
-        String[] parts = gitRepositoryUrl.split("/");
-        return parts[parts.length - 1].trim();
-    }
-
-    private Path findEasefile(Path repositoryLocalPath) throws IOException {
-        final String EASEFILE_NAME_PATTERN = ".+/[Ee]asefile[./\\s^]*?";
-        return Files.list(repositoryLocalPath)
-                .filter(path -> Files.isRegularFile(path))
-                .filter(path -> path.toString().matches(EASEFILE_NAME_PATTERN))
-                .findFirst()
-                .orElseThrow(() -> {
-                    CacheGarbageCollector cacheGarbageCollector = CacheManager.getInstance();
-                    cacheGarbageCollector.cleanup(repositoryLocalPath);
-                    throw new IllegalStateException("Easefile not exists in repository");
-                });
-    }
 }
@@ -0,0 +1,350 @@
+package io.easeci.core.engine.easefile.loader;
+
+import io.easeci.core.workspace.WorkspaceManifest;
+import io.easeci.core.workspace.cache.CacheManager;
+import io.easeci.core.workspace.cache.NamespacedCache;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.RevisionSyntaxException;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.EASEFILE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static io.easeci.core.workspace.LocationUtils.retrieveFromGeneralInt;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Bare mirrors of remote git repositories kept in workspace's cache.
+ * Mirror is identified by normalized URL of remote, so the same repository
+ * given by slightly different URLs shares one mirror, and different repositories
+ * with the same name do not collide. Each load fetches only objects that are
+ * missing in mirror. Easefile is read straight from
+ * object database for requested reference, working tree is never checked out.
+ * Operations on one mirror are serialized by lock of this mirror, mirrors
+ * of different repositories are used concurrently. When there are more mirrors
+ * than limit, least recently used ones are removed under lock of the mirror.
+ * Mirrors are exempt from quota eviction of cache, so no mirror is removed
+ * while Easefile is read from it. Size of mirror in cache is measured again
+ * only when fetch changed any reference.
+ * Mirror keeps only references that Easefiles were requested from, each load
+ * fetches one reference and reads one blob found by TreeWalk.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Slf4j
+class GitMirrorCache {
+    final static String NAMESPACE = "git-mirrors";
+    final static int DEFAULT_MAX_MIRRORS = 16;
+    private final static Pattern EASEFILE_NAME_PATTERN = Pattern.compile("[Ee]asefile[.\\s^]*");
+    private final static String REVISION_SUFFIX_CHARACTERS = "~^@:";
+    private final static long MAX_EASEFILE_BYTES = 16 * 1024 * 1024;
+    private static GitMirrorCache gitMirrorCache;
+
+    private final NamespacedCache cache;
+    private final int maxMirrors;
+    private final Map<String, ReentrantLock> locks;
+    private final LinkedHashMap<String, Boolean> recentlyUsed;
+
+    GitMirrorCache(NamespacedCache cache, int maxMirrors) {
+        this.cache = cache;
+        this.maxMirrors = Math.max(1, maxMirrors);
+        this.locks = new ConcurrentHashMap<>();
+        this.recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+        this.cache.exemptFromEviction(NAMESPACE);
+    }
+
+    static synchronized GitMirrorCache getInstance() {
+        if (isNull(gitMirrorCache)) {
+            gitMirrorCache = new GitMirrorCache(CacheManager.getInstance(), maxMirrorsOrDefault());
+        }
+        return gitMirrorCache;
+    }
+
+    /**
+     * @param remoteUrl URL of remote repository
+     * @param ref name of branch or tag, full name of reference or commit's id,
+     *            optionally followed by revision suffix like '~1', HEAD of remote when null
+     * @param easefilePath path of Easefile in repository, Easefile placed in root directory is searched when null
+     * @return content of Easefile
+     * @throws IllegalStateException when reference or Easefile does not exist in repository
+     * */
+    String loadEasefile(String remoteUrl, String ref, String easefilePath) throws GitAPIException, IOException {
+        String key = normalize(remoteUrl);
+        ReentrantLock lock = lock(key);
+        try {
+            Path mirror = cache.locate(NAMESPACE, key);
+            boolean exists = cache.get(NAMESPACE, key).isPresent() && isMirror(mirror);
+            if (!exists) {
+                initMirror(mirror);
+            }
+            try (Git git = Git.open(mirror.toFile())) {
+                Fetched fetched = fetch(git, remoteUrl, isNull(ref) ? Constants.HEAD : ref.trim());
+                if (!exists || fetched.changed) {
+                    cache.track(NAMESPACE, key, 0);
+                }
+                String revision = fetched.revision;
+                logit(EASEFILE_EVENT, (exists ? "Fetched changes to mirror of git repository: " : "Fetched first time mirror of git repository: ")
+                        + remoteUrl + ", reference: " + revision, THREE);
+                return readEasefile(git.getRepository(), revision, easefilePath);
+            }
+        } finally {
+            lock.unlock();
+            markUsed(key);
+        }
+    }
+
+    String loadEasefile(String remoteUrl, String ref) throws GitAPIException, IOException {
+        return loadEasefile(remoteUrl, ref, null);
+    }
+
+    /**
+     * Scheme and host are lowercase, user's credentials, trailing '/' and '.git' suffix are removed,
+     * for instance 'https://user@GitHub.com/easeci/easeci-core.git/' gives 'https://github.com/easeci/easeci-core'
+     * */
+    static String normalize(String remoteUrl) {
+        if (isNull(remoteUrl) || remoteUrl.isBlank()) {
+            throw new IllegalArgumentException("URL of git repository cannot be empty");
+        }
+        try {
+            URIish uri = new URIish(remoteUrl.trim());
+            String path = uri.getPath();
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (path.endsWith(".git")) {
+                path = path.substring(0, path.length() - 4);
+            }
+            uri = uri.setUser(null)
+                     .setPass(null)
+                     .setPath(path);
+            if (uri.getScheme() != null) {
+                uri = uri.setScheme(uri.getScheme().toLowerCase());
+            }
+            if (uri.getHost() != null) {
+                uri = uri.setHost(uri.getHost().toLowerCase());
+            }
+            return uri.toString();
+        } catch (URISyntaxException exception) {
+            throw new IllegalArgumentException("URL of git repository is not correct: " + remoteUrl, exception);
+        }
+    }
+
+    /**
+     * Lock is removed from map when mirror is removed, so lock taken from map
+     * is used only if it is still mapped to key after it was acquired.
+     * */
+    private ReentrantLock lock(String key) {
+        while (true) {
+            ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+            lock.lock();
+            if (locks.get(key) == lock) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void initMirror(Path mirror) throws GitAPIException, IOException {
+        Path initialized = mirror.resolveSibling(mirror.getFileName() + ".init");
+        FileUtils.deleteDirectory(initialized.toFile());
+        FileUtils.deleteDirectory(mirror.toFile());
+        WorkspaceManifest.getInstance().invalidate(mirror);
+        try {
+            Git.init()
+               .setBare(true)
+               .setDirectory(initialized.toFile())
+               .call()
+               .close();
+            Files.move(initialized, mirror, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteDirectory(initialized.toFile());
+        }
+    }
+
+    /**
+     * Fetches only one reference that requested revision comes from, without tags,
+     * instead of all branches and tags of remote.
+     * JGit used here does not support shallow fetch, so history of this reference is fetched,
+     * but only once, next fetches transfer only new objects.
+     * @return revision that can be resolved in local repository after fetch
+     * */
+    private Fetched fetch(Git git, String remoteUrl, String ref) throws GitAPIException {
+        int suffixStart = indexOfRevisionSuffix(ref);
+        String base = suffixStart < 0 ? ref : ref.substring(0, suffixStart),
+               suffix = suffixStart < 0 ? "" : ref.substring(suffixStart);
+        Map<String, Ref> advertised = Git.lsRemoteRepository()
+                                         .setRemote(remoteUrl)
+                                         .callAsMap();
+        String source, target;
+        if (advertised.containsKey(Constants.R_HEADS + base)) {
+            source = Constants.R_HEADS + base;
+            target = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + base;
+        } else if (advertised.containsKey(Constants.R_TAGS + base)) {
+            source = Constants.R_TAGS + base;
+            target = source;
+        } else if (base.startsWith(Constants.R_REFS) && advertised.containsKey(base)) {
+            source = base;
+            target = source;
+        } else {
+            source = Constants.HEAD;
+            target = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + Constants.HEAD;
+        }
+        FetchResult fetchResult = git.fetch()
+                                     .setRemote(remoteUrl)
+                                     .setRefSpecs(new RefSpec("+" + source + ":" + target))
+                                     .setTagOpt(TagOpt.NO_TAGS)
+                                     .call();
+        boolean commitId = source.equals(Constants.HEAD) && !base.equals(Constants.HEAD);
+        return new Fetched(commitId ? ref : target + suffix, !fetchResult.getTrackingRefUpdates().isEmpty());
+    }
+
+    private static int indexOfRevisionSuffix(String ref) {
+        for (int i = 0; i < ref.length(); i++) {
+            if (REVISION_SUFFIX_CHARACTERS.indexOf(ref.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String readEasefile(Repository repository, String revision, String easefilePath) throws IOException {
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            RevTree tree = resolveCommit(repository, revWalk, revision).getTree();
+            if (nonNull(easefilePath)) {
+                String path = easefilePath.replaceAll("^/+", "");
+                try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, tree)) {
+                    if (isNull(treeWalk) || !isFile(treeWalk)) {
+                        throw new IllegalStateException("Easefile not exists in repository under path: " + easefilePath);
+                    }
+                    return readBlob(repository, treeWalk.getObjectId(0));
+                }
+            }
+            try (TreeWalk treeWalk = new TreeWalk(repository)) {
+                treeWalk.addTree(tree);
+                treeWalk.setRecursive(false);
+                while (treeWalk.next()) {
+                    if (isFile(treeWalk) && EASEFILE_NAME_PATTERN.matcher(treeWalk.getNameString()).matches()) {
+                        return readBlob(repository, treeWalk.getObjectId(0));
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Easefile not exists in repository");
+    }
+
+    /**
+     * Revision is resolved first and peeled to commit after, because suffix
+     * '^{commit}' appended to revision like 'v1:ci' would apply to path, not to commit.
+     * */
+    private static RevCommit resolveCommit(Repository repository, RevWalk revWalk, String revision) throws IOException {
+        ObjectId objectId;
+        try {
+            objectId = repository.resolve(revision);
+        } catch (RevisionSyntaxException exception) {
+            throw new IllegalStateException("Reference " + revision + " is not correct", exception);
+        }
+        if (isNull(objectId)) {
+            throw new IllegalStateException("Reference " + revision + " not exists in repository");
+        }
+        RevObject object = revWalk.peel(revWalk.parseAny(objectId));
+        if (!(object instanceof RevCommit)) {
+            throw new IllegalStateException("Reference " + revision + " does not point to commit");
+        }
+        return (RevCommit) object;
+    }
+
+    private static boolean isFile(TreeWalk treeWalk) {
+        return FileMode.REGULAR_FILE.equals(treeWalk.getRawMode(0))
+            || FileMode.EXECUTABLE_FILE.equals(treeWalk.getRawMode(0));
+    }
+
+    /**
+     * Blob is read by stream, so large blob is not loaded to memory by ObjectLoader twice.
+     * */
+    private static String readBlob(Repository repository, ObjectId blobId) throws IOException {
+        ObjectLoader loader = repository.open(blobId, Constants.OBJ_BLOB);
+        if (loader.getSize() > MAX_EASEFILE_BYTES) {
+            throw new IllegalStateException("Easefile is too large, size: " + loader.getSize() + " bytes, limit: " + MAX_EASEFILE_BYTES);
+        }
+        try (ObjectStream stream = loader.openStream()) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private boolean isMirror(Path mirror) {
+        return Files.isDirectory(mirror) && Files.isRegularFile(mirror.resolve(Constants.CONFIG));
+    }
+
+    /**
+     * Least recently used mirrors above limit are removed,
+     * but never mirror that is used at the moment.
+     * */
+    private void markUsed(String key) {
+        synchronized (recentlyUsed) {
+            recentlyUsed.put(key, Boolean.TRUE);
+            Iterator<String> eldest = recentlyUsed.keySet().iterator();
+            int overLimit = recentlyUsed.size() - maxMirrors;
+            while (overLimit > 0 && eldest.hasNext()) {
+                String candidate = eldest.next();
+                if (candidate.equals(key)) {
+                    continue;
+                }
+                ReentrantLock lock = locks.get(candidate);
+                if (isNull(lock) || !lock.tryLock()) {
+                    continue;
+                }
+                try {
+                    cache.invalidate(NAMESPACE, candidate);
+                    locks.remove(candidate, lock);
+                    logit(EASEFILE_EVENT, "Removed least recently used mirror of git repository: " + candidate, THREE);
+                } finally {
+                    lock.unlock();
+                }
+                eldest.remove();
+                overLimit--;
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Fetched {
+        private final String revision;
+        private final boolean changed;
+    }
+
+    private static int maxMirrorsOrDefault() {
+        try {
+            return retrieveFromGeneralInt("git.mirrors.max-count");
+        } catch (Throwable throwable) {
+            log.info("Value of [git.mirrors.max-count] not found in general.yml, default {} is taken", DEFAULT_MAX_MIRRORS);
+            return DEFAULT_MAX_MIRRORS;
+        }
+    }
+}
@@ -1,27 +1,27 @@
 package io.easeci.core.engine.easefile.loader;
 
-import io.easeci.commons.DirUtils;
+import com.google.common.hash.Hashing;
+import io.easeci.core.workspace.WorkspaceManifest;
+import io.easeci.core.workspace.cache.CacheManager;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Base64;
-import java.util.Date;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.EASEFILE_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
-import static io.easeci.core.workspace.LocationUtils.getCacheDirectoryLocation;
 import static io.easeci.core.workspace.LocationUtils.getWorkspaceLocation;
 import static io.easeci.core.workspace.cache.CacheManager.CACHE_DIRECTORY;
 import static java.util.Objects.nonNull;
 
 public class LiveLoader implements EasefileLoader, Serializable {
     private static final String LIVE_CACHED_FILES = "/easefiles-live/";
+    static final String LIVE_CACHE_NAMESPACE = "easefiles-live";
     private Path localStoragePath;
     private String encodedEasefileContent;
     private Path easefileLocalPath;
@@ -46,26 +46,25 @@ public class LiveLoader implements EasefileLoader, Serializable {
     private static Path initializeDirectory() {
         final String workspaceLocation = getWorkspaceLocation();
         final String cacheDirLiveFilesLocation = workspaceLocation.concat(CACHE_DIRECTORY + LIVE_CACHED_FILES);
-        if (!DirUtils.isDirectoryExists(cacheDirLiveFilesLocation)) {
-            Path path = DirUtils.directoryCreate(cacheDirLiveFilesLocation);
+        Path path = Path.of(cacheDirLiveFilesLocation);
+        if (WorkspaceManifest.getInstance().ensureDirectory(path)) {
             logit(WORKSPACE_EVENT, "Directory for caching easefiles from live analyse just created at here: " + path, THREE);
-            return path;
         }
-        return Path.of(cacheDirLiveFilesLocation);
+        return path;
     }
 
+    /**
+     * Content is kept in workspace's cache under key equal to its hash,
+     * so the same Easefile sent many times is stored once, and old ones
+     * are evicted by CacheManager.
+     * */
     @Override
     public String provide() throws IOException, EasefileContentMalformed {
-        final String tmpEasefileName = getCacheDirectoryLocation()
-                                            .toString()
-                                            .concat(LIVE_CACHED_FILES).concat("Easefile")
-                                            .concat(String.valueOf(new Date().hashCode()));
         try {
             byte[] decode = Base64.getDecoder().decode(encodedEasefileContent);
             String decodedContent = new String(decode, StandardCharsets.UTF_8);
-            Path createdFile = Files.createFile(Paths.get(tmpEasefileName));
-            this.easefileLocalPath = createdFile;
-            Files.writeString(createdFile, decodedContent);
+            String key = Hashing.sha256().hashBytes(decode).toString();
+            this.easefileLocalPath = CacheManager.getInstance().put(LIVE_CACHE_NAMESPACE, key, decode);
             if (nonNull(this.localStoragePath)) {
                 Files.writeString(this.localStoragePath, decodedContent);
             }
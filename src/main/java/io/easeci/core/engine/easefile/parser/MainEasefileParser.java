@@ -5,6 +5,9 @@ import io.easeci.core.engine.easefile.parser.analyse.StaticAnalyseException;
 import io.easeci.core.engine.easefile.parser.analyse.SyntaxError;
 import io.easeci.core.engine.easefile.parser.parts.*;
 import io.easeci.core.engine.pipeline.*;
+import io.easeci.core.engine.pipeline.interpolation.VariableScope;
+import io.easeci.core.engine.script.ScriptAssembler;
+import io.easeci.core.engine.script.ScriptAssemblyException;
 import io.easeci.core.workspace.SerializeUtils;
 import io.easeci.core.workspace.projects.PipelinePointerIO;
 import io.easeci.core.workspace.vars.Variable;
@@ -12,10 +15,12 @@ import io.vavr.Tuple2;
 import lombok.Builder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 
 import static io.easeci.core.workspace.LocationUtils.getPipelineFilesLocation;
 import static java.util.Objects.isNull;
@@ -28,6 +33,8 @@ class MainEasefileParser extends EasefileParserTemplate {
     private PipelinePartProcessor<List<Variable>> varsProcessor;
     private PipelinePartProcessor<List<Stage>> stagesProcessor;
     private PipelinePartProcessor<byte[]> scriptFileProcessor;
+    private Supplier<Optional<ScriptAssembler>> scriptAssemblerSupplier;
+    private Supplier<VariableScope> globalScopeSupplier;
     private EasefileExtractor easefileExtractor;
 
     @Builder
@@ -38,7 +45,9 @@ class MainEasefileParser extends EasefileParserTemplate {
                        PipelinePartProcessor<ExecutorConfiguration> executorsProcessor,
                        PipelinePartProcessor<List<Variable>> varsProcessor,
                        PipelinePartProcessor<List<Stage>> stagesProcessor,
-                       PipelinePartProcessor<byte[]> scriptFileProcessor) {
+                       PipelinePartProcessor<byte[]> scriptFileProcessor,
+                       Supplier<Optional<ScriptAssembler>> scriptAssemblerSupplier,
+                       Supplier<VariableScope> globalScopeSupplier) {
         super(pipelinePointerIO);
         this.easefileExtractor = easefileExtractor;
         this.metadataProcessor = metadataProcessor;
@@ -47,6 +56,8 @@ class MainEasefileParser extends EasefileParserTemplate {
         this.varsProcessor = varsProcessor;
         this.stagesProcessor = stagesProcessor;
         this.scriptFileProcessor = scriptFileProcessor;
+        this.scriptAssemblerSupplier = isNull(scriptAssemblerSupplier) ? Optional::empty : scriptAssemblerSupplier;
+        this.globalScopeSupplier = isNull(globalScopeSupplier) ? () -> VariableScope.EMPTY : globalScopeSupplier;
     }
 
     byte[] serialize(EasefileObjectModel pipeline) {
@@ -101,18 +112,45 @@ class MainEasefileParser extends EasefileParserTemplate {
 //        collectErrors(scriptEncoded, syntaxErrors);
 
         if (syntaxErrors.isEmpty()) {
+            List<Stage> parsedStages = stages._1.orElse(Collections.emptyList());
             return EasefileObjectModel.builder()
                     .metadata(metadata._1.orElse(new EasefileObjectModel.Metadata()))
                     .key(key._1.orElse(Key.of(Key.KeyType.PIPELINE)))
                     .executorConfiguration(executors._1.orElse(new ExecutorConfiguration()))
                     .variables(variables._1.orElse(Collections.emptyList()))
-                    .stages(stages._1.orElse(Collections.emptyList()))
-//                    .scriptEncoded(scriptEncoded._1.orElse(new byte[0]))
+                    .stages(parsedStages)
+                    .scriptEncoded(assembleScript(parsedStages, variables._1.orElse(Collections.emptyList())))
                     .build();
         }
         throw new StaticAnalyseException(EngineStatus.F_EP_0002, new ArrayList<>(syntaxErrors));
     }
 
+    /**
+     * Script is assembled from steps by Directive plugins, only when plugins are started.
+     * Easefile's variables hide global variables of the same name in placeholders of steps.
+     * @return script encoded in Base64 or empty array when there is nothing to assemble
+     * */
+    private <V extends Variable<?>> byte[] assembleScript(List<Stage> stages, List<V> easefileVariables) throws PipelinePartCriticalError {
+        Optional<ScriptAssembler> scriptAssembler = scriptAssemblerSupplier.get();
+        if (scriptAssembler.isEmpty() || stages.isEmpty()) {
+            return new byte[0];
+        }
+        try {
+            VariableScope pipelineScope = globalScopeSupplier.get().child(easefileVariables);
+            String script = ScriptAssembler.join(scriptAssembler.get().assemble(stages, pipelineScope));
+            return Base64.getEncoder().encode(script.getBytes(StandardCharsets.UTF_8));
+        } catch (ScriptAssemblyException exception) {
+            Step step = exception.getStep();
+            throw new PipelinePartCriticalError(List.of(
+                    ParsingError.of(
+                            "Cannot assemble script of pipeline",
+                            exception.getMessage(),
+                            isNull(step) ? "Script assembly failed" : "Step failed: " + step.getDirectiveName() + " " + step.getInvocationBody()
+                    )
+            ));
+        }
+    }
+
     private <T> void collectErrors(Tuple2<Optional<T>, List<SyntaxError>> tuple, Queue<SyntaxError> syntaxErrors) {
         Optional.ofNullable(tuple)
                 .map(tpl -> tpl._2)
@@ -3,11 +3,22 @@ package io.easeci.core.engine.easefile.parser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.easeci.core.engine.easefile.parser.parts.*;
+import io.easeci.core.engine.pipeline.interpolation.VariableScope;
+import io.easeci.core.engine.script.ScriptAssembler;
+import io.easeci.core.engine.script.ScriptAssemblySettings;
+import io.easeci.core.extension.DirectiveRegistry;
+import io.easeci.core.extension.ExtensionSystem;
 import io.easeci.core.workspace.projects.ProjectManager;
+import io.easeci.core.workspace.vars.GlobalVariablesManager;
+
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
 
 public class ParserFactory {
 
     private static final ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory());
+    private static ScriptAssembler scriptAssembler;
 
     public enum ParserType {
         STANDARD
@@ -22,10 +33,27 @@ public class ParserFactory {
                     .keyProcessor(new KeyProcessor())
                     .executorsProcessor(new ExecutorProcessor(objectMapper))
                     .varsProcessor(new VariableProcessor(objectMapper))
-                    .stagesProcessor(new StageProcessor(objectMapper))
+                    .stagesProcessor(new StageProcessor(objectMapper, ExtensionSystem::startedDirectiveRegistry))
                     .scriptFileProcessor(new ScriptFileProcessor())
+                    .scriptAssemblerSupplier(ParserFactory::startedScriptAssembler)
+                    .globalScopeSupplier(() -> VariableScope.global(GlobalVariablesManager.getInstance()))
                     .build();
         }
         throw new IllegalArgumentException("Cannot match any EasefileParser to factorize");
     }
+
+    /**
+     * ScriptAssembler is shared by all parsers, so its limits of plugin calls
+     * and memoized CodeChunks are common. It is created when plugins are started.
+     * */
+    private static synchronized Optional<ScriptAssembler> startedScriptAssembler() {
+        if (isNull(scriptAssembler)) {
+            Optional<DirectiveRegistry> directiveRegistry = ExtensionSystem.startedDirectiveRegistry();
+            if (directiveRegistry.isEmpty()) {
+                return Optional.empty();
+            }
+            scriptAssembler = new ScriptAssembler(directiveRegistry.get(), ScriptAssemblySettings.fromGeneral());
+        }
+        return Optional.of(scriptAssembler);
+    }
 }
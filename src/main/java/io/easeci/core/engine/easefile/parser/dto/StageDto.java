@@ -11,7 +11,7 @@ public class StageDto {
 
     @JsonProperty("stage_name")
     private String stageName;
-    private List<String> steps;
+    private List<StepDto> steps;
     @JsonProperty("stage_variables")
     private Map<String, Object> variables;
 }
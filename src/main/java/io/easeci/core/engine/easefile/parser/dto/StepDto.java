@@ -0,0 +1,27 @@
+package io.easeci.core.engine.easefile.parser.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Step is declared in Easefile as plain string with directive name and invocation body,
+ * or as object with 'step' and 'step_variables' properties when step has its own variables.
+ * */
+@Data
+@NoArgsConstructor
+public class StepDto {
+    private String step;
+    @JsonProperty("step_variables")
+    private Map<String, Object> variables;
+
+    @JsonCreator
+    public static StepDto of(String step) {
+        StepDto stepDto = new StepDto();
+        stepDto.setStep(step);
+        return stepDto;
+    }
+}
@@ -5,8 +5,10 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.easeci.core.engine.easefile.parser.analyse.SyntaxError;
 import io.easeci.core.engine.easefile.parser.dto.StageDto;
+import io.easeci.core.engine.easefile.parser.dto.StepDto;
 import io.easeci.core.engine.pipeline.Stage;
 import io.easeci.core.engine.pipeline.Step;
+import io.easeci.core.extension.DirectiveRegistry;
 import io.easeci.core.workspace.vars.Variable;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
@@ -15,20 +17,33 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.easeci.core.engine.easefile.parser.parts.Utils.findLineStartingWith;
 import static io.easeci.core.engine.easefile.parser.parts.Utils.propertyToList;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 @Slf4j
 public class StageProcessor implements PipelinePartProcessor<List<Stage>> {
 
     public static final String PARSING_COMMAND_ERROR_TITLE = "Cannot parse step command and retrieve directive name and invocation body";
+    public static final String DIRECTIVE_NOT_FOUND_ERROR_TITLE = "Cannot find plugin that exposes directive used in step";
 
     private final ObjectMapper objectMapper;
+    private final Supplier<Optional<DirectiveRegistry>> directiveRegistrySupplier;
 
     public StageProcessor(ObjectMapper objectMapper) {
+        this(objectMapper, Optional::empty);
+    }
+
+    /**
+     * @param directiveRegistrySupplier supplies registry used to validate directive names
+     *                                  of steps, when it is empty steps are not validated
+     * */
+    public StageProcessor(ObjectMapper objectMapper, Supplier<Optional<DirectiveRegistry>> directiveRegistrySupplier) {
         this.objectMapper = objectMapper;
+        this.directiveRegistrySupplier = directiveRegistrySupplier;
     }
 
     @Override
@@ -42,9 +57,11 @@ public class StageProcessor implements PipelinePartProcessor<List<Stage>> {
         final String joined = propertyToList(lines);
         try {
             List<StageDto> stageDtos = objectMapper.readValue(joined, new TypeReference<List<StageDto>>() {});
+            Optional<DirectiveRegistry> directiveRegistry = directiveRegistrySupplier.get();
             List<Stage> stages = stageDtos.stream()
                                           .map(stageDto -> from(stageDto, lines, syntaxErrors, stageDtos.indexOf(stageDto)))
                                           .collect(Collectors.toList());
+            directiveRegistry.ifPresent(registry -> validateDirectives(registry, stages, lines, syntaxErrors));
             return Tuple.of(Optional.of(stages), syntaxErrors);
         } catch (JsonProcessingException e) {
             final int lineNr = e.getLocation().getLineNr() + 1;
@@ -68,21 +85,54 @@ public class StageProcessor implements PipelinePartProcessor<List<Stage>> {
         return Stage.builder()
                 .name(stageDto.getStageName())
                 .order(order)
-                .steps(stageDto.getSteps().stream().map(cmd -> {
-                    final String[] split = cmd.split("\\s", 2);
-                    if (split.length < 2) {
-                        log.error(PARSING_COMMAND_ERROR_TITLE);
-                        syntaxErrors.add(SyntaxError.builder()
-                                .lineNumber(findLineStartingWith(lines, cmd)
-                                        .map(line -> line.getLineNumber() + 1)
-                                        .orElse(1))
-                                .title(PARSING_COMMAND_ERROR_TITLE)
-                                .info("Declaration of step is not correct. It must consists of $ sign, directive name and other parameters")
-                                .build());
-                    }
-                    return new Step(stageDto.getSteps().indexOf(cmd), split[0].trim(), split[1].trim());
-                }).collect(Collectors.toList()))
+                .steps(IntStream.range(0, stageDto.getSteps().size())
+                                .mapToObj(stepOrder -> from(stageDto.getSteps().get(stepOrder), stepOrder, lines, syntaxErrors))
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()))
                 .variables(variables)
                 .build();
     }
+
+    /**
+     * @return Step with its own variables or null when declaration of step is not correct
+     * */
+    private Step from(StepDto stepDto, int order, List<Line> lines, List<SyntaxError> syntaxErrors) {
+        final String cmd = isNull(stepDto.getStep()) ? "" : stepDto.getStep();
+        final String[] split = cmd.split("\\s", 2);
+        if (split.length < 2) {
+            log.error(PARSING_COMMAND_ERROR_TITLE);
+            syntaxErrors.add(SyntaxError.builder()
+                    .lineNumber(findLineStartingWith(lines, cmd)
+                            .map(line -> line.getLineNumber() + 1)
+                            .orElse(1))
+                    .title(PARSING_COMMAND_ERROR_TITLE)
+                    .info("Declaration of step is not correct. It must consists of $ sign, directive name and other parameters")
+                    .build());
+            return null;
+        }
+        List<Variable<?>> variables = Collections.emptyList();
+        if (nonNull(stepDto.getVariables())) {
+            Tuple2<? extends List<?>, List<SyntaxError>> tupleResult = VariableProcessor.mapVariables(stepDto.getVariables(), lines);
+            variables = tupleResult._1.stream()
+                                      .map(variable -> (Variable<?>) variable)
+                                      .collect(Collectors.toList());
+            syntaxErrors.addAll(tupleResult._2);
+        }
+        return new Step(order, split[0].trim(), split[1].trim(), variables);
+    }
+
+    private void validateDirectives(DirectiveRegistry directiveRegistry, List<Stage> stages, List<Line> lines, List<SyntaxError> syntaxErrors) {
+        stages.stream()
+              .flatMap(stage -> stage.getSteps().stream())
+              .filter(step -> !directiveRegistry.contains(step.getDirectiveName()))
+              .forEach(step -> syntaxErrors.add(SyntaxError.builder()
+                        .lineNumber(findLineStartingWith(lines, step.getDirectiveName() + " " + step.getInvocationBody())
+                                .map(line -> line.getLineNumber() + 1)
+                                .orElse(1))
+                        .title(DIRECTIVE_NOT_FOUND_ERROR_TITLE)
+                        .info(directiveRegistry.isInstalled(step.getDirectiveName())
+                                ? "Directive " + step.getDirectiveName() + " is exposed by installed plugin that is not enabled"
+                                : "Directive " + step.getDirectiveName() + " is not exposed by any installed and enabled plugin")
+                        .build()));
+    }
 }
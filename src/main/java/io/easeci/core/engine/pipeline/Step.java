@@ -1,12 +1,38 @@
 package io.easeci.core.engine.pipeline;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.easeci.core.engine.pipeline.interpolation.Template;
+import io.easeci.core.workspace.vars.Variable;
 import lombok.Getter;
 
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
 @Getter
-@AllArgsConstructor
 public class Step {
     private final int order;
     private final String directiveName;
     private final String invocationBody;
+    private final List<Variable<?>> variables;
+    @JsonIgnore
+    private final Template template;
+
+    public Step(int order, String directiveName, String invocationBody) {
+        this(order, directiveName, invocationBody, Collections.emptyList());
+    }
+
+    /**
+     * Invocation body is compiled to Template at once,
+     * so it is not parsed again each time it is rendered.
+     * @param variables step's own variables, they hide stage's, Easefile's and global ones
+     * */
+    public Step(int order, String directiveName, String invocationBody, List<Variable<?>> variables) {
+        this.order = order;
+        this.directiveName = directiveName;
+        this.invocationBody = invocationBody;
+        this.variables = isNull(variables) ? Collections.emptyList() : variables;
+        this.template = Template.compile(invocationBody);
+    }
 }
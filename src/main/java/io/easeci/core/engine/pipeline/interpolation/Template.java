@@ -0,0 +1,135 @@
+package io.easeci.core.engine.pipeline.interpolation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Invocation body of step compiled once, when Easefile is parsed,
+ * to literal segments and names of variables placed between them.
+ * Variable is written in braces, for instance {_repo_address}.
+ * Braces with content that is not correct variable name, like bash's {a,b},
+ * are left as literal. Rendering only appends segments to StringBuilder
+ * reused by thread, so body is never scanned again.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+public class Template implements Serializable {
+    private final static int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private final static ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+    private final String[] literals;
+    private final String[] names;
+
+    private Template(String source, String[] literals, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+    }
+
+    public static Template compile(String source) {
+        if (isNull(source)) {
+            return new Template("", new String[]{""}, new String[0]);
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int open = source.indexOf('{');
+        while (open >= 0) {
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int nestedOpen = source.lastIndexOf('{', close);
+            if (nestedOpen > open) {
+                open = nestedOpen;
+            }
+            if (isVariableName(source, open + 1, close)) {
+                literals.add(source.substring(literalStart, open));
+                names.add(source.substring(open + 1, close));
+                literalStart = close + 1;
+            }
+            open = source.indexOf('{', close + 1);
+        }
+        if (names.isEmpty()) {
+            return new Template(source, new String[]{source}, new String[0]);
+        }
+        literals.add(source.substring(literalStart));
+        return new Template(source, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * @return body with variables replaced by values found in scope,
+     *         variables that are not found stay in body unchanged
+     * */
+    public String render(VariableScope scope) {
+        if (names.length == 0) {
+            return source;
+        }
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        try {
+            return render(scope, builder).toString();
+        } finally {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                BUILDER.remove();
+            }
+        }
+    }
+
+    /**
+     * Appends rendered body to given builder.
+     * */
+    public StringBuilder render(VariableScope scope, StringBuilder builder) {
+        for (int i = 0; i < names.length; i++) {
+            builder.append(literals[i]);
+            String value = scope.lookup(names[i]);
+            if (isNull(value)) {
+                builder.append('{').append(names[i]).append('}');
+            } else {
+                builder.append(value);
+            }
+        }
+        return builder.append(literals[names.length]);
+    }
+
+    public boolean hasVariables() {
+        return names.length > 0;
+    }
+
+    /**
+     * @return names of variables in order of appearance, with repetitions
+     * */
+    public List<String> variableNames() {
+        return List.of(names);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    private static boolean isVariableName(String source, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        char first = source.charAt(start);
+        if (!Character.isLetter(first) && first != '_') {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = source.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
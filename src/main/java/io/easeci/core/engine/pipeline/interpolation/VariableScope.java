@@ -0,0 +1,86 @@
+package io.easeci.core.engine.pipeline.interpolation;
+
+import io.easeci.core.workspace.vars.GlobalVariables;
+import io.easeci.core.workspace.vars.Variable;
+
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * One level of chain in which values of variables are looked up:
+ * step, then stage, then Easefile, then global variables.
+ * Values of each level are turned to text once, when scope is created,
+ * and kept in flat HashMap, so lookup is one get() per level.
+ * LIST is rendered as elements separated by space, DICTIONARY as key=value pairs.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+public class VariableScope {
+    public final static VariableScope EMPTY = new VariableScope(Collections.emptyMap(), null);
+
+    private final Map<String, String> values;
+    private final VariableScope parent;
+
+    private VariableScope(Map<String, String> values, VariableScope parent) {
+        this.values = values;
+        this.parent = parent;
+    }
+
+    /**
+     * @return scope of global variables, from snapshot taken at the moment of call
+     * */
+    public static VariableScope global(GlobalVariables globalVariables) {
+        return EMPTY.child(globalVariables.getAllVariables().values());
+    }
+
+    /**
+     * @return scope whose variables hide variables of the same name in this scope,
+     *         or this scope when there are no variables
+     * */
+    public <V extends Variable<?>> VariableScope child(Collection<V> variables) {
+        if (isNull(variables) || variables.isEmpty()) {
+            return this;
+        }
+        Map<String, String> values = new HashMap<>((int) (variables.size() / 0.75f) + 1);
+        for (Variable<?> variable : variables) {
+            if (nonNull(variable) && nonNull(variable.getName())) {
+                values.put(variable.getName(), format(variable.getValue()));
+            }
+        }
+        return new VariableScope(values, this == EMPTY ? null : this);
+    }
+
+    /**
+     * @return value of the nearest variable of given name, or null when no scope has it
+     * */
+    public String lookup(String name) {
+        VariableScope scope = this;
+        do {
+            String value = scope.values.get(name);
+            if (nonNull(value)) {
+                return value;
+            }
+            scope = scope.parent;
+        } while (nonNull(scope));
+        return null;
+    }
+
+    static String format(Object value) {
+        if (isNull(value)) {
+            return "";
+        }
+        if (value instanceof Collection) {
+            StringJoiner joiner = new StringJoiner(" ");
+            ((Collection<?>) value).forEach(element -> joiner.add(format(element)));
+            return joiner.toString();
+        }
+        if (value instanceof Map) {
+            StringJoiner joiner = new StringJoiner(" ");
+            ((Map<?, ?>) value).forEach((key, element) -> joiner.add(key + "=" + format(element)));
+            return joiner.toString();
+        }
+        return String.valueOf(value);
+    }
+}
@@ -1,21 +1,127 @@
 package io.easeci.core.engine.runtime;
 
+import lombok.extern.slf4j.Slf4j;
 import org.zeroturnaround.exec.ProcessExecutor;
+import org.zeroturnaround.exec.ProcessResult;
+import org.zeroturnaround.exec.listener.ProcessListener;
 import org.zeroturnaround.exec.stream.LogOutputStream;
 
 import java.io.IOException;
-import java.util.concurrent.TimeoutException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PIPELINE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static io.easeci.core.workspace.LocationUtils.getRunLogsLocation;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * PipelineRuntimeLogHandler that captures logs of local processes,
+ * for instance 'docker logs -f' of container where pipeline is running.
+ * Stdout and stderr are read line by line by zt-exec LogOutputStream.
+ * Logs of each pipeline run are stored in separated directory.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+@Slf4j
 public class LocalProcessLogHandler implements PipelineRuntimeLogHandler {
+    final static int DEFAULT_BUFFER_CAPACITY = 20_000,
+                     DEFAULT_LINES_PER_CHUNK = 10_000;
+    private final Path runLogsDirectory;
+    private final int bufferCapacity;
+    private final int linesPerChunk;
+    private final Map<UUID, RunLog> runningLogs;
+
+    public LocalProcessLogHandler() {
+        this(getRunLogsLocation(), DEFAULT_BUFFER_CAPACITY, DEFAULT_LINES_PER_CHUNK);
+    }
+
+    public LocalProcessLogHandler(Path runLogsDirectory, int bufferCapacity, int linesPerChunk) {
+        if (isNull(runLogsDirectory)) {
+            throw new IllegalArgumentException("'runLogsDirectory' of LocalProcessLogHandler cannot be null!");
+        }
+        if (linesPerChunk < 1) {
+            throw new IllegalArgumentException("'linesPerChunk' of LocalProcessLogHandler must be positive!");
+        }
+        this.runLogsDirectory = runLogsDirectory;
+        this.bufferCapacity = bufferCapacity;
+        this.linesPerChunk = linesPerChunk;
+        this.runningLogs = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public RunLog handle(UUID pipelineRunId, LogSource logSource) throws IOException {
+        RunLog runLog = new RunLog(pipelineRunId, runDirectory(pipelineRunId), bufferCapacity, linesPerChunk);
+        if (nonNull(runningLogs.putIfAbsent(pipelineRunId, runLog))) {
+            throw new IllegalStateException("Logs of pipeline run " + pipelineRunId + " are just captured");
+        }
+        try {
+            new ProcessExecutor().command(logSource.getCommand())
+                    .redirectOutput(lineStream(runLog, LogStream.STDOUT))
+                    .redirectError(lineStream(runLog, LogStream.STDERR))
+                    .addListener(new ProcessListener() {
+                        @Override
+                        public void afterFinish(Process process, ProcessResult result) {
+                            finish(runLog, result.getExitValue());
+                        }
+                    })
+                    .destroyOnExit()
+                    .start();
+        } catch (IOException exception) {
+            finish(runLog, -1);
+            throw exception;
+        }
+        logit(PIPELINE_EVENT, "Started capturing logs of pipeline run " + pipelineRunId + " from " + logSource.getIdentifier(), THREE);
+        return runLog;
+    }
+
+    private static LogOutputStream lineStream(RunLog runLog, LogStream stream) {
+        return new LogOutputStream() {
+            @Override
+            protected void processLine(String line) {
+                runLog.append(stream, line);
+            }
+        };
+    }
+
+    private void finish(RunLog runLog, int exitCode) {
+        runLog.complete(exitCode);
+        runningLogs.remove(runLog.getPipelineRunId());
+        logit(PIPELINE_EVENT, "Finished capturing logs of pipeline run " + runLog.getPipelineRunId()
+                + ", lines: " + runLog.size() + ", exit code: " + exitCode, THREE);
+    }
+
+    @Override
+    public Optional<RunLog> find(UUID pipelineRunId) {
+        RunLog runLog = runningLogs.get(pipelineRunId);
+        if (nonNull(runLog)) {
+            return Optional.of(runLog);
+        }
+        try {
+            return Optional.ofNullable(RunLog.restore(pipelineRunId, runDirectory(pipelineRunId), linesPerChunk));
+        } catch (IOException exception) {
+            log.error("Cannot restore logs of pipeline run {}", pipelineRunId, exception);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<RunLogLine> read(UUID pipelineRunId, long fromLine, int maxLines) throws IOException {
+        Optional<RunLog> runLog = find(pipelineRunId);
+        if (runLog.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return runLog.get().read(fromLine, maxLines);
+    }
 
-    public void handle() throws InterruptedException, TimeoutException, IOException {
-        new ProcessExecutor().command("docker", "logs", "fc635b8829c6", "-f")
-                .redirectOutput(new LogOutputStream() {
-                    @Override
-                    protected void processLine(String line) {
-                        System.out.println(line);
-                    }
-                })
-                .execute();
+    private Path runDirectory(UUID pipelineRunId) {
+        return runLogsDirectory.resolve(pipelineRunId.toString());
     }
 }
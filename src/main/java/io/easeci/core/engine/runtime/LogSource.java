@@ -0,0 +1,47 @@
+package io.easeci.core.engine.runtime;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Defines where logs of pipeline run come from.
+ * This is simply a command that prints logs to stdout and stderr,
+ * for instance 'docker logs -f' for container or pipeline's process itself.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class LogSource {
+    private final String identifier;
+    private final List<String> command;
+
+    /**
+     * Follows logs of container running with docker.
+     * @param containerId is an identifier of docker container
+     * */
+    public static LogSource container(String containerId) {
+        if (isNull(containerId) || containerId.isBlank()) {
+            throw new IllegalArgumentException("Cannot create LogSource, containerId is null or empty");
+        }
+        return new LogSource(containerId, List.of("docker", "logs", containerId, "-f"));
+    }
+
+    /**
+     * Captures output of local process started with command.
+     * @param command is a command and its arguments
+     * */
+    public static LogSource process(List<String> command) {
+        if (isNull(command) || command.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create LogSource, command is null or empty");
+        }
+        return new LogSource(command.get(0), List.copyOf(command));
+    }
+}
@@ -0,0 +1,11 @@
+package io.easeci.core.engine.runtime;
+
+/**
+ * Standard stream of process that produced line of runtime log.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+public enum LogStream {
+    STDOUT,
+    STDERR
+}
@@ -1,9 +1,41 @@
 package io.easeci.core.engine.runtime;
 
 import java.io.IOException;
-import java.util.concurrent.TimeoutException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+/**
+ * Main interface of runtime log subsystem.
+ * Implementation captures stdout and stderr of pipeline run,
+ * persists these on local storage and serves to readers.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
 public interface PipelineRuntimeLogHandler {
 
-    void handle() throws InterruptedException, TimeoutException, IOException;
+    /**
+     * Starts capturing of logs for pipeline run.
+     * Method does not block, logs are captured in background until process ends.
+     * @param pipelineRunId is an identifier of pipeline run, unique for each run
+     * @param logSource defines process from which logs are captured
+     * @return RunLog of pipeline run that could be subscribed or read
+     * @throws IOException when process could not be started
+     * */
+    RunLog handle(UUID pipelineRunId, LogSource logSource) throws IOException;
+
+    /**
+     * @return RunLog of pipeline run that is just running
+     *          or was finished and its logs are persisted on local storage.
+     * */
+    Optional<RunLog> find(UUID pipelineRunId);
+
+    /**
+     * Reads historical logs of pipeline run.
+     * @param pipelineRunId is an identifier of pipeline run
+     * @param fromLine is a number of first line to read
+     * @param maxLines is a maximal number of lines to read
+     * @return lines of log, empty when there is no such pipeline run
+     * */
+    List<RunLogLine> read(UUID pipelineRunId, long fromLine, int maxLines) throws IOException;
 }
@@ -0,0 +1,245 @@
+package io.easeci.core.engine.runtime;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Log of one pipeline run.
+ * Recent lines are kept in bounded, in-memory ring buffer, all lines
+ * are persisted in compressed chunks on local storage.
+ * Ring buffer is never smaller than one chunk, so each line that is not
+ * in buffer anymore is for sure persisted in complete chunk.
+ * Readers could subscribe log live or read historical lines.
+ * Subscribers are notified outside of RunLog's lock, so slow subscriber does not
+ * block readers. Notifications are serialized by separate delivery lock,
+ * so each subscriber still receives lines in order and without gaps.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+@Slf4j
+public class RunLog {
+    private final static int REPLAY_BATCH_SIZE = 1024;
+    @Getter
+    private final UUID pipelineRunId;
+    private final RunLogFiles runLogFiles;
+    private final RunLogLine[] buffer;
+    private final List<RunLogSubscriber> subscribers;
+    private final Object deliveryLock;
+    private final boolean restored;
+    private long nextNumber;
+    private boolean persistenceFailed;
+    @Getter
+    private volatile boolean completed;
+    @Getter
+    private volatile int exitCode;
+
+    RunLog(UUID pipelineRunId, Path directory, int bufferCapacity, int linesPerChunk) {
+        this(pipelineRunId, new RunLogFiles(directory, linesPerChunk), new RunLogLine[Math.max(bufferCapacity, linesPerChunk)], false);
+    }
+
+    private RunLog(UUID pipelineRunId, RunLogFiles runLogFiles, RunLogLine[] buffer, boolean restored) {
+        this.pipelineRunId = pipelineRunId;
+        this.runLogFiles = runLogFiles;
+        this.buffer = buffer;
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.deliveryLock = new Object();
+        this.restored = restored;
+    }
+
+    /**
+     * Restores log of finished pipeline run from local storage.
+     * @return restored RunLog or null when there is no finished run in directory
+     * */
+    static RunLog restore(UUID pipelineRunId, Path directory, int linesPerChunk) throws IOException {
+        RunLogFiles runLogFiles = new RunLogFiles(directory, linesPerChunk);
+        long[] meta = runLogFiles.readMeta();
+        if (isNull(meta)) {
+            return null;
+        }
+        RunLog runLog = new RunLog(pipelineRunId, runLogFiles, new RunLogLine[0], true);
+        runLog.nextNumber = meta[0];
+        runLog.exitCode = (int) meta[1];
+        runLog.completed = true;
+        return runLog;
+    }
+
+    void append(LogStream stream, String text) {
+        synchronized (deliveryLock) {
+            RunLogLine line;
+            List<RunLogSubscriber> notified;
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                line = RunLogLine.of(nextNumber++, stream, System.currentTimeMillis(), text);
+                buffer[(int) (line.getNumber() % buffer.length)] = line;
+                persist(line);
+                notified = List.copyOf(subscribers);
+            }
+            for (RunLogSubscriber subscriber : notified) {
+                try {
+                    subscriber.onLine(line);
+                } catch (RuntimeException exception) {
+                    log.error("Subscriber of pipeline run {} failed and is removed", pipelineRunId, exception);
+                    subscribers.remove(subscriber);
+                }
+            }
+        }
+    }
+
+    private void persist(RunLogLine line) {
+        if (persistenceFailed) {
+            return;
+        }
+        try {
+            runLogFiles.write(line);
+        } catch (IOException exception) {
+            this.persistenceFailed = true;
+            log.error("Cannot persist log of pipeline run {}, only in-memory buffer is available from now", pipelineRunId, exception);
+        }
+    }
+
+    void complete(int exitCode) {
+        synchronized (deliveryLock) {
+            List<RunLogSubscriber> notified;
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                this.exitCode = exitCode;
+                this.completed = true;
+                try {
+                    runLogFiles.complete(nextNumber, exitCode);
+                } catch (IOException exception) {
+                    log.error("Cannot complete log files of pipeline run {}", pipelineRunId, exception);
+                }
+                notified = List.copyOf(subscribers);
+                subscribers.clear();
+            }
+            for (RunLogSubscriber subscriber : notified) {
+                try {
+                    subscriber.onComplete(exitCode);
+                } catch (RuntimeException exception) {
+                    log.error("Subscriber of pipeline run {} failed on completion", pipelineRunId, exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscribes log of pipeline run. Subscriber receives all lines
+     * from pointed one, firstly historical and next live lines, without gaps.
+     * When run is just finished, subscriber is completed immediately after replay.
+     * @param fromLine is a number of first line that subscriber wants to receive
+     * */
+    public void subscribe(long fromLine, RunLogSubscriber subscriber) throws IOException {
+        long next = Math.max(0, fromLine);
+        while (true) {
+            long oldestBuffered;
+            synchronized (deliveryLock) {
+                List<RunLogLine> buffered = null;
+                boolean finished;
+                synchronized (this) {
+                    oldestBuffered = oldestBuffered();
+                    finished = completed;
+                    if (next >= oldestBuffered) {
+                        buffered = new ArrayList<>((int) (nextNumber - next));
+                        for (long number = next; number < nextNumber; number++) {
+                            buffered.add(buffer[(int) (number % buffer.length)]);
+                        }
+                        if (!finished) {
+                            subscribers.add(subscriber);
+                        }
+                    }
+                }
+                if (nonNull(buffered)) {
+                    replay(subscriber, buffered, finished);
+                    return;
+                }
+            }
+            List<RunLogLine> lines = runLogFiles.read(next, (int) Math.min(REPLAY_BATCH_SIZE, oldestBuffered - next));
+            if (lines.isEmpty()) {
+                log.warn("Lines [{}, {}) of pipeline run {} are not available anymore", next, oldestBuffered, pipelineRunId);
+                next = oldestBuffered;
+                continue;
+            }
+            lines.forEach(subscriber::onLine);
+            next = lines.get(lines.size() - 1).getNumber() + 1;
+        }
+    }
+
+    /**
+     * Delivers buffered lines while delivery lock is held, so live lines
+     * appended in the meantime are delivered to subscriber after these.
+     * */
+    private void replay(RunLogSubscriber subscriber, List<RunLogLine> buffered, boolean finished) {
+        try {
+            buffered.forEach(subscriber::onLine);
+        } catch (RuntimeException exception) {
+            subscribers.remove(subscriber);
+            throw exception;
+        }
+        if (finished) {
+            subscriber.onComplete(exitCode);
+        }
+    }
+
+    public boolean unsubscribe(RunLogSubscriber subscriber) {
+        return subscribers.remove(subscriber);
+    }
+
+    /**
+     * Reads historical lines of log.
+     * @param fromLine is a number of first line to read
+     * @param maxLines is a maximal number of lines to read
+     * @return lines in order of capture
+     * */
+    public List<RunLogLine> read(long fromLine, int maxLines) throws IOException {
+        List<RunLogLine> lines = new ArrayList<>(Math.min(Math.max(maxLines, 0), REPLAY_BATCH_SIZE));
+        long next = Math.max(0, fromLine);
+        while (lines.size() < maxLines) {
+            long oldestBuffered;
+            synchronized (this) {
+                oldestBuffered = oldestBuffered();
+                if (next >= oldestBuffered) {
+                    for (long number = next; number < nextNumber && lines.size() < maxLines; number++) {
+                        lines.add(buffer[(int) (number % buffer.length)]);
+                    }
+                    return lines;
+                }
+            }
+            List<RunLogLine> persisted = runLogFiles.read(next, (int) Math.min(maxLines - lines.size(), oldestBuffered - next));
+            if (persisted.isEmpty()) {
+                next = oldestBuffered;
+                continue;
+            }
+            lines.addAll(persisted);
+            next = persisted.get(persisted.size() - 1).getNumber() + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * @return number of lines captured so far
+     * */
+    public synchronized long size() {
+        return nextNumber;
+    }
+
+    private long oldestBuffered() {
+        if (restored) {
+            return nextNumber;
+        }
+        return Math.max(0, nextNumber - buffer.length);
+    }
+}
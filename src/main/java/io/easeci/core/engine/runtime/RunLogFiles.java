@@ -0,0 +1,202 @@
+package io.easeci.core.engine.runtime;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Persistence of pipeline run's log on local storage.
+ * Log is split into gzip compressed chunks with constant number of lines,
+ * so chunk that holds some line is computed without any index.
+ * Chunk is written to temporary '.part' file and is renamed when it is complete,
+ * so readers could see only complete chunks.
+ * When run is finished, meta file with number of lines and exit code is written.
+ * Package scope should be kept.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+class RunLogFiles {
+    private final static String CHUNK_PREFIX = "run-log-",
+                                CHUNK_SUFFIX = ".log.gz",
+                                PART_SUFFIX = ".part",
+                                META_FILE = "run-log.meta",
+                                LINES_PROPERTY = "lines",
+                                EXIT_CODE_PROPERTY = "exitCode";
+    private final static char SEPARATOR = '\t';
+    private final Path directory;
+    private final int linesPerChunk;
+    private Writer chunkWriter;
+    private long currentChunk = -1;
+
+    RunLogFiles(Path directory, int linesPerChunk) {
+        this.directory = directory;
+        this.linesPerChunk = linesPerChunk;
+    }
+
+    int getLinesPerChunk() {
+        return linesPerChunk;
+    }
+
+    void write(RunLogLine line) throws IOException {
+        long chunk = line.getNumber() / linesPerChunk;
+        if (chunk != currentChunk) {
+            closeChunk();
+            openChunk(chunk);
+        }
+        chunkWriter.write(Long.toString(line.getNumber()));
+        chunkWriter.write(SEPARATOR);
+        chunkWriter.write(line.getStream().name());
+        chunkWriter.write(SEPARATOR);
+        chunkWriter.write(Long.toString(line.getTimestamp()));
+        chunkWriter.write(SEPARATOR);
+        chunkWriter.write(escape(line.getText()));
+        chunkWriter.write('\n');
+    }
+
+    private void openChunk(long chunk) throws IOException {
+        Files.createDirectories(directory);
+        OutputStream outputStream = Files.newOutputStream(partPath(chunk));
+        this.chunkWriter = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(outputStream, 64 * 1024), StandardCharsets.UTF_8), 64 * 1024);
+        this.currentChunk = chunk;
+    }
+
+    private void closeChunk() throws IOException {
+        if (currentChunk < 0) {
+            return;
+        }
+        chunkWriter.close();
+        Files.move(partPath(currentChunk), chunkPath(currentChunk), StandardCopyOption.ATOMIC_MOVE);
+        chunkWriter = null;
+        currentChunk = -1;
+    }
+
+    /**
+     * Closes last chunk and writes meta file of finished pipeline run.
+     * */
+    void complete(long lines, int exitCode) throws IOException {
+        closeChunk();
+        Files.createDirectories(directory);
+        Properties properties = new Properties();
+        properties.setProperty(LINES_PROPERTY, Long.toString(lines));
+        properties.setProperty(EXIT_CODE_PROPERTY, Integer.toString(exitCode));
+        Path metaPart = directory.resolve(META_FILE + PART_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(metaPart)) {
+            properties.store(writer, null);
+        }
+        Files.move(metaPart, directory.resolve(META_FILE), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads lines from complete chunks.
+     * @param fromLine is a number of first line to read
+     * @param maxLines is a maximal number of lines to read
+     * @return lines in order, empty list when chunk with line fromLine is not complete yet
+     * */
+    List<RunLogLine> read(long fromLine, int maxLines) throws IOException {
+        if (maxLines <= 0) {
+            return Collections.emptyList();
+        }
+        List<RunLogLine> lines = new ArrayList<>(Math.min(maxLines, linesPerChunk));
+        long chunk = fromLine / linesPerChunk;
+        while (lines.size() < maxLines) {
+            Path chunkPath = chunkPath(chunk);
+            if (!Files.exists(chunkPath)) {
+                break;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(chunkPath)), StandardCharsets.UTF_8))) {
+                String encoded;
+                while (lines.size() < maxLines && nonNull(encoded = reader.readLine())) {
+                    RunLogLine line = decode(encoded);
+                    if (line.getNumber() >= fromLine) {
+                        lines.add(line);
+                    }
+                }
+            }
+            chunk++;
+        }
+        return lines;
+    }
+
+    /**
+     * @return meta information of finished run: [lines, exitCode], or null if run is not finished
+     * */
+    long[] readMeta() throws IOException {
+        Path metaPath = directory.resolve(META_FILE);
+        if (!Files.exists(metaPath)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaPath)) {
+            properties.load(reader);
+        }
+        return new long[] {
+                Long.parseLong(properties.getProperty(LINES_PROPERTY, "0")),
+                Long.parseLong(properties.getProperty(EXIT_CODE_PROPERTY, "-1"))
+        };
+    }
+
+    private static RunLogLine decode(String encoded) {
+        int first = encoded.indexOf(SEPARATOR);
+        int second = encoded.indexOf(SEPARATOR, first + 1);
+        int third = encoded.indexOf(SEPARATOR, second + 1);
+        return RunLogLine.of(Long.parseLong(encoded.substring(0, first)),
+                             LogStream.valueOf(encoded.substring(first + 1, second)),
+                             Long.parseLong(encoded.substring(second + 1, third)),
+                             unescape(encoded.substring(third + 1)));
+    }
+
+    /**
+     * Line of log is stored in one line of file, so line breaks must be escaped.
+     * */
+    private static String escape(String text) {
+        if (text.indexOf('\\') < 0 && text.indexOf('\r') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '\\': builder.append("\\\\"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\n': builder.append("\\n"); break;
+                default: builder.append(character);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                builder.append(escaped == 'r' ? '\r' : escaped == 'n' ? '\n' : escaped);
+            } else {
+                builder.append(character);
+            }
+        }
+        return builder.toString();
+    }
+
+    private Path chunkPath(long chunk) {
+        return directory.resolve(String.format("%s%06d%s", CHUNK_PREFIX, chunk, CHUNK_SUFFIX));
+    }
+
+    private Path partPath(long chunk) {
+        return directory.resolve(String.format("%s%06d%s%s", CHUNK_PREFIX, chunk, CHUNK_SUFFIX, PART_SUFFIX));
+    }
+}
@@ -0,0 +1,24 @@
+package io.easeci.core.engine.runtime;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One line of pipeline run's log.
+ * Lines are numbered from 0 in order of capture, separately for each pipeline run,
+ * so number could be used as an offset by log readers.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(staticName = "of")
+public class RunLogLine {
+    private final long number;
+    private final LogStream stream;
+    private final long timestamp;
+    private final String text;
+}
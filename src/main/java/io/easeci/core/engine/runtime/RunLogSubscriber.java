@@ -0,0 +1,22 @@
+package io.easeci.core.engine.runtime;
+
+/**
+ * Live subscriber of pipeline run's log.
+ * Methods are invoked from thread that captures log of process,
+ * so implementation should not block for long time.
+ * @author Karol Meksuła
+ * 2020-10-20
+ * */
+public interface RunLogSubscriber {
+
+    /**
+     * Receives each line of log in order of capture.
+     * */
+    void onLine(RunLogLine line);
+
+    /**
+     * Informs that process has finished and no more lines will be delivered.
+     * @param exitCode is an exit code of process or -1 when process failed to start
+     * */
+    default void onComplete(int exitCode) {}
+}
@@ -0,0 +1,351 @@
+package io.easeci.core.engine.script;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.easeci.core.engine.pipeline.Stage;
+import io.easeci.core.engine.pipeline.Step;
+import io.easeci.core.engine.pipeline.interpolation.VariableScope;
+import io.easeci.core.extension.DirectiveRegistry;
+import io.easeci.extension.command.Command;
+import io.easeci.extension.command.CommandParameter;
+import io.easeci.extension.command.Directive;
+import io.easeci.extension.command.VariableType;
+import io.easeci.extension.directive.CodeChunk;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Assembles executable script from Stages of pipeline.
+ * CodeChunks are generated by plugins in parallel, in bounded thread pool,
+ * with no more than perDirectiveConcurrency calls of one plugin at once,
+ * counted for all assemble() calls together.
+ * Timeout of each step starts when step is submitted, so time spent in queue
+ * is counted too, and when it expires, thread calling plugin is interrupted.
+ * Generated CodeChunks are returned in order of stages and steps.
+ * CodeChunks are memoized by plugin's instance, version and hash of commands,
+ * so steps that are not changed are never generated again, and plugin
+ * reloaded in the same version does not get CodeChunks of previous instance.
+ * Variables are replaced in invocation bodies by rendering Templates
+ * compiled when Easefile was parsed.
+ * @author Karol Meksuła
+ * 2020-10-26
+ * */
+@Slf4j
+public class ScriptAssembler implements Closeable {
+    private final static String ARGUMENTS_PARAMETER = "arguments";
+    private final DirectiveRegistry directiveRegistry;
+    private final ScriptAssemblySettings settings;
+    private final ExecutorService executorService;
+    private final Cache<String, CodeChunk> codeChunkCache;
+    private final LoadingCache<Directive, Long> instanceIds;
+    private final ConcurrentMap<String, DirectiveLimiter> limiters;
+    private final AtomicLong generatedChunks;
+
+    public ScriptAssembler(DirectiveRegistry directiveRegistry, ScriptAssemblySettings settings) {
+        this.directiveRegistry = directiveRegistry;
+        this.settings = settings;
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, settings.getParallelism()), threadFactory());
+        this.codeChunkCache = CacheBuilder.newBuilder()
+                                          .maximumSize(settings.getCacheSize())
+                                          .build();
+        AtomicLong instanceSequence = new AtomicLong(0);
+        this.instanceIds = CacheBuilder.newBuilder()
+                                       .weakKeys()
+                                       .build(CacheLoader.from(directive -> instanceSequence.incrementAndGet()));
+        this.limiters = new ConcurrentHashMap<>();
+        this.generatedChunks = new AtomicLong(0);
+    }
+
+    /**
+     * @return CodeChunks in order of stages and steps
+     * @throws ScriptAssemblyException when any of steps could not be turned into CodeChunk
+     * */
+    public List<CodeChunk> assemble(List<Stage> stages) throws ScriptAssemblyException {
+        return assemble(stages, VariableScope.EMPTY);
+    }
+
+    /**
+     * Variables in invocation bodies of steps are replaced before steps are passed to plugins.
+     * Value is looked up in step's variables, then stage's, then in given scope.
+     * @param pipelineScope scope of Easefile's variables with global ones as its parent
+     * @return CodeChunks in order of stages and steps
+     * @throws ScriptAssemblyException when any of steps could not be turned into CodeChunk
+     * */
+    public List<CodeChunk> assemble(List<Stage> stages, VariableScope pipelineScope) throws ScriptAssemblyException {
+        List<Stage> sortedStages = stages.stream()
+                .sorted(Comparator.comparingInt(Stage::getOrder))
+                .collect(Collectors.toList());
+        List<Step> steps = new ArrayList<>();
+        List<String> invocationBodies = new ArrayList<>();
+        for (Stage stage : sortedStages) {
+            VariableScope stageScope = pipelineScope.child(stage.getVariables());
+            stage.getSteps().stream()
+                 .sorted(Comparator.comparingInt(Step::getOrder))
+                 .forEach(step -> {
+                     steps.add(step);
+                     invocationBodies.add(step.getTemplate().render(stageScope.child(step.getVariables())));
+                 });
+        }
+        List<CompletableFuture<CodeChunk>> results = new ArrayList<>(steps.size());
+        Map<String, CompletableFuture<CodeChunk>> resultsByKey = new HashMap<>();
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            Directive directive = directiveRegistry.find(step.getDirectiveName())
+                    .orElseThrow(() -> new ScriptAssemblyException(step, "Directive " + step.getDirectiveName() + " is not available", null));
+            List<Command> commands = toCommands(invocationBodies.get(i));
+            String key = cacheKey(step.getDirectiveName(), directiveRegistry.pluginVersion(step.getDirectiveName()),
+                                  instanceIds.getUnchecked(directive), commands);
+            CompletableFuture<CodeChunk> result = resultsByKey.get(key);
+            if (isNull(result)) {
+                result = new CompletableFuture<>();
+                resultsByKey.put(key, result);
+                CodeChunk cached = codeChunkCache.getIfPresent(key);
+                if (nonNull(cached)) {
+                    result.complete(cached);
+                } else {
+                    tasks.add(new Task(step, commands, key, result));
+                }
+            }
+            results.add(result);
+        }
+        tasks.forEach(this::submit);
+        return await(steps, results, tasks);
+    }
+
+    private void submit(Task task) {
+        task.result.orTimeout(settings.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                   .whenComplete((codeChunk, throwable) -> {
+                       if (nonNull(throwable)) {
+                           task.interrupt();
+                       }
+                   });
+        limiters.computeIfAbsent(task.step.getDirectiveName(), directiveName -> new DirectiveLimiter())
+                .submit(task);
+    }
+
+    private List<CodeChunk> await(List<Step> steps, List<CompletableFuture<CodeChunk>> results, List<Task> tasks) {
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        for (int i = 0; i < results.size(); i++) {
+            final Step step = steps.get(i);
+            results.get(i).whenComplete((codeChunk, throwable) -> {
+                if (nonNull(throwable)) {
+                    failure.completeExceptionally(toAssemblyException(step, throwable));
+                }
+            });
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                         .thenRun(() -> failure.complete(null));
+        try {
+            failure.join();
+        } catch (CompletionException exception) {
+            tasks.forEach(task -> task.result.cancel(true));
+            throw toAssemblyException(null, exception.getCause());
+        }
+        return results.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private void generate(Task task) {
+        if (!task.enter()) {
+            return;
+        }
+        try {
+            CodeChunk codeChunk = directiveRegistry.provideCode(task.step.getDirectiveName(), task.commands);
+            if (isNull(codeChunk)) {
+                throw new IllegalStateException("Directive returned no CodeChunk");
+            }
+            generatedChunks.incrementAndGet();
+            codeChunkCache.put(task.key, codeChunk);
+            task.result.complete(codeChunk);
+        } catch (Throwable throwable) {
+            if (!task.result.isDone()) {
+                log.error("Cannot generate code for step: {} {}", task.step.getDirectiveName(), task.step.getInvocationBody(), throwable);
+            }
+            task.result.completeExceptionally(new ScriptAssemblyException(task.step, "Directive " + task.step.getDirectiveName()
+                    + " failed to provide code", throwable));
+        } finally {
+            task.exit();
+        }
+    }
+
+    private ScriptAssemblyException toAssemblyException(Step step, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof ScriptAssemblyException) {
+            return (ScriptAssemblyException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new ScriptAssemblyException(step, "Directive " + (isNull(step) ? "" : step.getDirectiveName())
+                    + " did not provide code in " + settings.getTimeoutMillis() + " ms", cause);
+        }
+        return new ScriptAssemblyException(step, "Cannot assemble script", cause);
+    }
+
+    /**
+     * Concatenates CodeChunks to one script, each one in new line.
+     * */
+    public static String join(List<CodeChunk> codeChunks) {
+        return codeChunks.stream()
+                .map(CodeChunk::getCode)
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    /**
+     * Step's rendered invocation body is turned into one Command: first word is
+     * command's name, and the rest is passed as one 'arguments' parameter.
+     * */
+    static List<Command> toCommands(String invocationBody) {
+        String[] split = invocationBody.trim().split("\\s", 2);
+        String arguments = split.length < 2 ? "" : split[1].trim();
+        return List.of(Command.of(split[0], List.of(CommandParameter.of(ARGUMENTS_PARAMETER, arguments, VariableType.STRING))));
+    }
+
+    static String cacheKey(String directiveName, String pluginVersion, long instanceId, List<Command> commands) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(directiveName, StandardCharsets.UTF_8).putByte((byte) 0)
+                .putString(pluginVersion, StandardCharsets.UTF_8).putByte((byte) 0)
+                .putLong(instanceId);
+        for (Command command : commands) {
+            hasher.putString(command.getCommandName(), StandardCharsets.UTF_8).putByte((byte) 0);
+            for (CommandParameter parameter : command.getCommandParameterList()) {
+                hasher.putString(String.valueOf(parameter.getParameterName()), StandardCharsets.UTF_8).putByte((byte) 0)
+                      .putString(String.valueOf(parameter.getParameterValue()), StandardCharsets.UTF_8).putByte((byte) 0)
+                      .putString(String.valueOf(parameter.getParameterType()), StandardCharsets.UTF_8).putByte((byte) 0);
+            }
+            hasher.putByte((byte) 1);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return number of CodeChunks generated by plugins, without ones taken from cache
+     * */
+    public long generatedChunks() {
+        return generatedChunks.get();
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, "script-assembler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Limits calls of one directive's plugin, shared by all assemble() calls.
+     * Tasks over the limit wait in queue instead of occupying threads of pool.
+     * */
+    private class DirectiveLimiter {
+        private final Queue<Task> waiting = new ArrayDeque<>();
+        private int running;
+
+        void submit(Task task) {
+            synchronized (this) {
+                waiting.add(task);
+            }
+            dispatch();
+        }
+
+        private void dispatch() {
+            while (true) {
+                Task task;
+                synchronized (this) {
+                    if (running >= Math.max(1, settings.getPerDirectiveConcurrency())) {
+                        return;
+                    }
+                    task = waiting.poll();
+                    if (isNull(task)) {
+                        return;
+                    }
+                    if (task.result.isDone()) {
+                        continue;
+                    }
+                    running++;
+                }
+                try {
+                    executorService.execute(() -> run(task));
+                } catch (RejectedExecutionException exception) {
+                    release();
+                    task.result.completeExceptionally(new ScriptAssemblyException(task.step, "ScriptAssembler is closed", exception));
+                }
+            }
+        }
+
+        private void run(Task task) {
+            try {
+                generate(task);
+            } finally {
+                release();
+                dispatch();
+            }
+        }
+
+        private synchronized void release() {
+            running--;
+        }
+    }
+
+    private static class Task {
+        private final Step step;
+        private final List<Command> commands;
+        private final String key;
+        private final CompletableFuture<CodeChunk> result;
+        private Thread worker;
+
+        private Task(Step step, List<Command> commands, String key, CompletableFuture<CodeChunk> result) {
+            this.step = step;
+            this.commands = commands;
+            this.key = key;
+            this.result = result;
+        }
+
+        /**
+         * @return false when step has timed out or was cancelled before worker took it
+         * */
+        synchronized boolean enter() {
+            if (result.isDone()) {
+                return false;
+            }
+            this.worker = Thread.currentThread();
+            return true;
+        }
+
+        /**
+         * Clears interruption that could come after plugin's call ended,
+         * so thread returns to pool not interrupted.
+         * */
+        synchronized void exit() {
+            this.worker = null;
+            Thread.interrupted();
+        }
+
+        synchronized void interrupt() {
+            if (nonNull(worker)) {
+                worker.interrupt();
+            }
+        }
+    }
+}
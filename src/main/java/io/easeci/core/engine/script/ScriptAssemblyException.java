@@ -0,0 +1,21 @@
+package io.easeci.core.engine.script;
+
+import io.easeci.core.engine.pipeline.Step;
+import lombok.Getter;
+
+/**
+ * Thrown when CodeChunk for some Step could not be generated,
+ * because directive is not available, plugin failed or did not
+ * respond in configured time.
+ * @author Karol Meksuła
+ * 2020-10-26
+ * */
+@Getter
+public class ScriptAssemblyException extends RuntimeException {
+    private final Step step;
+
+    ScriptAssemblyException(Step step, String message, Throwable cause) {
+        super(message, cause);
+        this.step = step;
+    }
+}
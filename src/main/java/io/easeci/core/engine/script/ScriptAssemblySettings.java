@@ -0,0 +1,51 @@
+package io.easeci.core.engine.script;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import static io.easeci.core.workspace.LocationUtils.retrieveFromGeneralInt;
+
+/**
+ * Configuration of ScriptAssembler.
+ * @author Karol Meksuła
+ * 2020-10-26
+ * */
+@Slf4j
+@Getter
+@Builder
+@ToString
+public class ScriptAssemblySettings {
+    final static int DEFAULT_PARALLELISM = 4,
+                     DEFAULT_PER_DIRECTIVE_CONCURRENCY = 2,
+                     DEFAULT_TIMEOUT_MILLIS = 10_000,
+                     DEFAULT_CACHE_SIZE = 4096;
+
+    @Builder.Default private int parallelism = DEFAULT_PARALLELISM;
+    @Builder.Default private int perDirectiveConcurrency = DEFAULT_PER_DIRECTIVE_CONCURRENCY;
+    @Builder.Default private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    @Builder.Default private long cacheSize = DEFAULT_CACHE_SIZE;
+
+    /**
+     * Reads configuration from general.yml file placed in workspace.
+     * Values that are not declared in file are replaced with defaults.
+     * */
+    public static ScriptAssemblySettings fromGeneral() {
+        return ScriptAssemblySettings.builder()
+                .parallelism(retrieveOrDefault("script.assembly.parallelism", DEFAULT_PARALLELISM))
+                .perDirectiveConcurrency(retrieveOrDefault("script.assembly.per-directive-concurrency", DEFAULT_PER_DIRECTIVE_CONCURRENCY))
+                .timeoutMillis(retrieveOrDefault("script.assembly.timeout-millis", DEFAULT_TIMEOUT_MILLIS))
+                .cacheSize(retrieveOrDefault("script.assembly.cache-size", DEFAULT_CACHE_SIZE))
+                .build();
+    }
+
+    private static int retrieveOrDefault(String refs, int defaultValue) {
+        try {
+            return retrieveFromGeneralInt(refs);
+        } catch (Throwable throwable) {
+            log.info("Value of [{}] not found in general.yml, default {} is taken", refs, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -1,43 +1,66 @@
 package io.easeci.core.extension;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.easeci.commons.AtomicFileWriter;
 import io.easeci.commons.FileUtils;
-import io.easeci.core.log.ApplicationLevelLogFacade;
 import io.easeci.extension.ExtensionType;
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.FIVE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static java.util.Objects.isNull;
 import static org.codehaus.groovy.runtime.InvokerHelper.asList;
 
+/**
+ * Changes of plugins configuration are made in memory and are written
+ * to plugins-config.json in one batch by AtomicFileWriter, after short delay since first change.
+ * */
+@Slf4j
 class DefaultPluginConfig implements PluginConfig, PluginStrategy {
     private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+    final static long DEFAULT_SAVE_DELAY_MILLIS = 200;
     private final Path pluginConfigYmlPath;
+    private final AtomicFileWriter fileWriter;
+    private final AtomicLong configurationVersion = new AtomicLong(0);
     private PluginsConfigFile pluginsConfigFile;
 
     DefaultPluginConfig(Path pluginConfigYmlPath) throws PluginSystemCriticalException {
+        this(pluginConfigYmlPath, DEFAULT_SAVE_DELAY_MILLIS);
+    }
+
+    DefaultPluginConfig(Path pluginConfigYmlPath, long saveDelayMillis) throws PluginSystemCriticalException {
         this.pluginConfigYmlPath = pluginConfigYmlPath;
         if (isNull(this.pluginConfigYmlPath) || !FileUtils.isExist(this.pluginConfigYmlPath.toString())) {
             throw new IllegalStateException("PluginsConfigFile is null or file not exists!");
         }
+        this.fileWriter = AtomicFileWriter.builder()
+                .target(pluginConfigYmlPath)
+                .delayMillis(saveDelayMillis)
+                .content(this::serialize)
+                .onCommit(() -> logit(WORKSPACE_EVENT, "===> PluginsConfigFile saved in: " + pluginConfigYmlPath, THREE))
+                .onFailure(exception -> logit(PLUGIN_EVENT, "Plugins configuration was not saved, previous content of file is kept", THREE))
+                .build();
         this.pluginsConfigFile = this.load();
     }
 
     @Override
-    public PluginsConfigFile load() throws PluginSystemCriticalException {
+    public synchronized PluginsConfigFile load() throws PluginSystemCriticalException {
         try {
+            fileWriter.deleteTemporary();
             this.pluginsConfigFile = JSON_MAPPER.readValue(this.pluginConfigYmlPath.toFile(), PluginsConfigFile.class);
+            configurationVersion.incrementAndGet();
             return uniquePluginConfigCheck(this.pluginsConfigFile);
         } catch (IOException exception) {
             exception.printStackTrace();
@@ -69,44 +92,81 @@ class DefaultPluginConfig implements PluginConfig, PluginStrategy {
         return pluginsConfigFile;
     }
 
+    /**
+     * Writes changes to file immediately, without waiting for scheduled save.
+     * Content in memory is up to date, so file is not read again.
+     * @throws PluginSystemCriticalException when file could not be written,
+     *         changes stay in memory and saving is repeated later
+     * */
     @Override
-    public synchronized PluginsConfigFile save() throws PluginSystemCriticalException {
+    public PluginsConfigFile save() throws PluginSystemCriticalException {
+        synchronized (this) {
+            uniquePluginConfigCheck(this.pluginsConfigFile);
+        }
+        fileWriter.changed();
         try {
-            String content = JSON_MAPPER.writeValueAsString(this.pluginsConfigFile);
-            Path path = FileUtils.fileChange(this.pluginConfigYmlPath.toString(), content);
-            logit(ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT, "===> PluginsConfigFile saved in: {}" + path.toString(), THREE);
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-            return this.pluginsConfigFile;
+            fileWriter.flush();
+        } catch (IOException exception) {
+            throw new PluginSystemCriticalException("Cannot save plugins configuration to file " + pluginConfigYmlPath + ": " + exception.getMessage());
         }
-        return load();
+        return this.pluginsConfigFile;
+    }
+
+    private synchronized byte[] serialize() throws IOException {
+        return JSON_MAPPER.writeValueAsBytes(this.pluginsConfigFile);
+    }
+
+    /**
+     * Marks configuration as changed and schedules saving,
+     * all changes made until saving starts are written at once.
+     * */
+    private void scheduleSave() {
+        configurationVersion.incrementAndGet();
+        fileWriter.changed();
+    }
+
+    @Override
+    public long configurationVersion() {
+        return configurationVersion.get();
+    }
+
+    /**
+     * @return number of writes of file, one write covers many changes
+     * */
+    long commits() {
+        return fileWriter.commits();
     }
 
     @Override
     public boolean add(String interfaceName, ConfigDescription configDescription) {
-        return this.pluginsConfigFile.put(interfaceName, configDescription);
+        boolean isAdded;
+        synchronized (this) {
+            isAdded = this.pluginsConfigFile.put(interfaceName, configDescription);
+        }
+        if (isAdded) {
+            scheduleSave();
+        }
+        return isAdded;
     }
 
     @Override
     public boolean enable(UUID pluginUuid) {
-        return this.pluginsConfigFile.getConfigDescriptions()
-                .values()
-                .stream()
-                .flatMap(Collection::stream)
-                .filter(configDescription -> configDescription.getUuid().equals(pluginUuid))
-                .map(configDescription -> {
-                    configDescription.setEnabled(true);
-                    try {
-                        this.save();
-                        logit(PLUGIN_EVENT, "Plugin " + configDescription.toString() + " just enabled in EaseCI system.", THREE);
-                    } catch (PluginSystemCriticalException e) {
-                        e.printStackTrace();
-                        return false;
-                    }
-                    return true;
-                })
-                .findAny()
-                .orElse(false);
+        List<ConfigDescription> enabled;
+        synchronized (this) {
+            enabled = this.pluginsConfigFile.getConfigDescriptions()
+                    .values()
+                    .stream()
+                    .flatMap(Collection::stream)
+                    .filter(configDescription -> configDescription.getUuid().equals(pluginUuid))
+                    .peek(configDescription -> configDescription.setEnabled(true))
+                    .collect(Collectors.toList());
+        }
+        if (enabled.isEmpty()) {
+            return false;
+        }
+        scheduleSave();
+        enabled.forEach(configDescription -> logit(PLUGIN_EVENT, "Plugin " + configDescription.toString() + " just enabled in EaseCI system.", THREE));
+        return true;
     }
 
     @Override
@@ -123,23 +183,22 @@ class DefaultPluginConfig implements PluginConfig, PluginStrategy {
     }
 
     private boolean disable(Predicate<ConfigDescription> configDescriptionPredicate) {
-        return this.pluginsConfigFile.getConfigDescriptions()
-                .values()
-                .stream()
-                .flatMap(Collection::stream)
-                .filter(configDescriptionPredicate)
-                .filter(configDescription -> isPluginEnabled().test(configDescription))
-                .findAny()
-                .map(configDescription -> {
-                    logit(PLUGIN_EVENT, "Found plugin to disable: {}" + configDescription.toString(), FIVE);
-                    configDescription.setEnabled(false);
-                    try {
-                        this.save();
-                    } catch (PluginSystemCriticalException e) {
-                        e.printStackTrace();
-                    }
-                    return true;
-                }).orElse(false);
+        Optional<ConfigDescription> disabled;
+        synchronized (this) {
+            disabled = this.pluginsConfigFile.getConfigDescriptions()
+                    .values()
+                    .stream()
+                    .flatMap(Collection::stream)
+                    .filter(configDescriptionPredicate)
+                    .filter(configDescription -> isPluginEnabled().test(configDescription))
+                    .findAny();
+            disabled.ifPresent(configDescription -> configDescription.setEnabled(false));
+        }
+        disabled.ifPresent(configDescription -> {
+            logit(PLUGIN_EVENT, "Found plugin to disable: " + configDescription.toString(), FIVE);
+            scheduleSave();
+        });
+        return disabled.isPresent();
     }
 
     private Predicate<ConfigDescription> isPluginEnabled() {
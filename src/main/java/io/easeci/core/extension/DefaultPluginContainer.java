@@ -3,36 +3,48 @@ package io.easeci.core.extension;
 import io.easeci.extension.ExtensionType;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 
+/**
+ * Container keeps immutable snapshot of all instances together with
+ * indexes by plugin's name and version, by identity hash code and by UUID,
+ * so lookups are constant-time and never see half-applied modification.
+ * Modifications build new snapshot and publish it atomically, under lock,
+ * because they are rare in comparison to lookups (plugin start and stop only).
+ * UUIDs are taken from PluginStrategy when snapshot is built, so index by UUID
+ * never keeps plugin that was removed or replaced in the meantime.
+ * */
 class DefaultPluginContainer implements PluginContainer {
-    private Map<String, List<Instance>> container;
+    private final Object modificationLock = new Object();
+    private volatile Snapshot snapshot;
     private PluginStrategy pluginStrategy;
 
     DefaultPluginContainer(PluginStrategy pluginStrategy) {
-        this.container = new ConcurrentHashMap<>();
+        this.snapshot = Snapshot.EMPTY;
         this.pluginStrategy = pluginStrategy;
     }
 
     @Override
     public void add(Instance instance) {
         final String interfaceName = instance.getPlugin().getJarArchive().getExtensionManifest().getImplementsProperty();
-        List<Instance> objectList = this.container.get(interfaceName);
-        if (isNull(objectList)) {
-            this.container.put(interfaceName, new ArrayList<>(Collections.singletonList(instance)));
-        } else {
+        synchronized (modificationLock) {
+            List<Instance> objectList = this.snapshot.container.getOrDefault(interfaceName, Collections.emptyList());
             if (objectList.contains(instance)) {
                 logit(PLUGIN_EVENT, "Cannot add two the same plugin implementations for this one: " + instance.getPlugin().toString(), THREE);
                 return;
             }
-            objectList.add(instance);
+            Map<String, List<Instance>> container = new HashMap<>(this.snapshot.container);
+            List<Instance> instances = new ArrayList<>(objectList);
+            instances.add(instance);
+            container.put(interfaceName, Collections.unmodifiableList(instances));
+            this.snapshot = Snapshot.of(container, this.snapshot.version + 1, this.pluginStrategy);
         }
     }
 
@@ -44,28 +56,26 @@ class DefaultPluginContainer implements PluginContainer {
 
     @Override
     public Optional<Instance> findByUuid(ExtensionType extensionType, UUID pluginUuid) {
+        Snapshot current = this.snapshot;
+        Instance instance = current.byUuid.get(pluginUuid);
+        if (nonNull(instance)) {
+            return Optional.of(instance);
+        }
         ConfigDescription configDescription = this.pluginStrategy.find(extensionType, pluginUuid);
-
-        return this.container.values()
-                .stream()
-                .flatMap(Collection::stream)
-                .filter(instance -> instance.getPlugin().getName().equals(configDescription.getName()) &&
-                                    instance.getPlugin().getVersion().equals(configDescription.getVersion()))
-                .findAny();
+        if (isNull(configDescription)) {
+            return Optional.empty();
+        }
+        return ofNullable(current.byPlugin.get(Plugin.of(configDescription.getName(), configDescription.getVersion())));
     }
 
     @Override
     public Optional<Instance> findByIdentityHashCode(int identityHashCode) {
-        return this.container.values()
-                .stream()
-                .flatMap(Collection::stream)
-                .filter(instance -> instance.getIdentityHashCode() == identityHashCode)
-                .findAny();
+        return ofNullable(this.snapshot.byIdentityHashCode.get(identityHashCode));
     }
 
     @Override
     public <T> List<T> getGathered(String interfaceName, Class<T> type) {
-        List<Instance> instances = container.get(interfaceName);
+        List<Instance> instances = snapshot.container.get(interfaceName);
         if (isNull(instances) || instances.isEmpty()) {
             return Collections.emptyList();
         }
@@ -78,7 +88,7 @@ class DefaultPluginContainer implements PluginContainer {
     }
 
     private Instance get(String interfaceName) {
-        List<Instance> instanceList = ofNullable(container.get(interfaceName)).orElse(Collections.emptyList());
+        List<Instance> instanceList = snapshot.container.getOrDefault(interfaceName, Collections.emptyList());
         return pluginStrategy.choose(instanceList, interfaceName);
     }
 
@@ -96,12 +106,42 @@ class DefaultPluginContainer implements PluginContainer {
 
     @Override
     public boolean remove(String pluginName, String pluginVersion) {
-        return this.container.values().stream()
-                .anyMatch(instances ->
-                        instances.removeIf(instance ->
-                                                    !instance.isRunning()
-                                                    && instance.getPlugin().getName().equals(pluginName)
-                                                    && instance.getPlugin().getVersion().equals(pluginVersion)));
+        synchronized (modificationLock) {
+            boolean isRemoved = false;
+            Map<String, List<Instance>> container = new HashMap<>(this.snapshot.container);
+            for (Map.Entry<String, List<Instance>> entry : container.entrySet()) {
+                List<Instance> instances = new ArrayList<>(entry.getValue());
+                if (instances.removeIf(instance -> !instance.isRunning()
+                                                   && instance.getPlugin().getName().equals(pluginName)
+                                                   && instance.getPlugin().getVersion().equals(pluginVersion))) {
+                    entry.setValue(Collections.unmodifiableList(instances));
+                    isRemoved = true;
+                }
+            }
+            if (isRemoved) {
+                this.snapshot = Snapshot.of(container, this.snapshot.version + 1, this.pluginStrategy);
+            }
+            return isRemoved;
+        }
+    }
+
+    @Override
+    public boolean replace(Instance current, Instance fresh) {
+        synchronized (modificationLock) {
+            Map<String, List<Instance>> container = new HashMap<>(this.snapshot.container);
+            for (Map.Entry<String, List<Instance>> entry : container.entrySet()) {
+                List<Instance> instances = new ArrayList<>(entry.getValue());
+                for (int i = 0; i < instances.size(); i++) {
+                    if (instances.get(i) == current) {
+                        instances.set(i, fresh);
+                        entry.setValue(Collections.unmodifiableList(instances));
+                        this.snapshot = Snapshot.of(container, this.snapshot.version + 1, this.pluginStrategy);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
     }
 
     @Override
@@ -110,7 +150,7 @@ class DefaultPluginContainer implements PluginContainer {
     }
 
     private List<PluginState> mapContainer() {
-        return container.entrySet()
+        return snapshot.container.entrySet()
                 .stream()
                 .flatMap(entry -> entry.getValue()
                         .stream()
@@ -121,19 +161,88 @@ class DefaultPluginContainer implements PluginContainer {
 
     @Override
     public int keySize() {
-        return this.container.size();
+        return this.snapshot.container.size();
     }
 
     @Override
     public int instanceSize() {
-        return (int) this.container.values()
+        return this.snapshot.container.values()
                 .stream()
-                .mapToLong(Collection::size)
+                .mapToInt(List::size)
                 .sum();
     }
 
     @Override
     public int implementationSize(String interfaceName) {
-        return this.container.get(interfaceName).size();
+        return this.snapshot.container.getOrDefault(interfaceName, Collections.emptyList()).size();
+    }
+
+    @Override
+    public long version() {
+        return this.snapshot.version + this.pluginStrategy.configurationVersion();
+    }
+
+    /**
+     * Immutable state of container with all indexes built at once.
+     * */
+    private static class Snapshot {
+        private final static Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap(),
+                                                           Collections.emptyMap(), Collections.emptyMap(), 0);
+        private final Map<String, List<Instance>> container;
+        private final Map<Plugin, Instance> byPlugin;
+        private final Map<Integer, Instance> byIdentityHashCode;
+        private final Map<UUID, Instance> byUuid;
+        private final long version;
+
+        private Snapshot(Map<String, List<Instance>> container, Map<Plugin, Instance> byPlugin,
+                         Map<Integer, Instance> byIdentityHashCode, Map<UUID, Instance> byUuid, long version) {
+            this.container = container;
+            this.byPlugin = byPlugin;
+            this.byIdentityHashCode = byIdentityHashCode;
+            this.byUuid = byUuid;
+            this.version = version;
+        }
+
+        static Snapshot of(Map<String, List<Instance>> container, long version, PluginStrategy pluginStrategy) {
+            Map<Plugin, Instance> byPlugin = new HashMap<>();
+            Map<Integer, Instance> byIdentityHashCode = new HashMap<>();
+            container.values()
+                     .stream()
+                     .flatMap(Collection::stream)
+                     .forEach(instance -> {
+                         byPlugin.putIfAbsent(instance.getPlugin(), instance);
+                         if (instance.getIdentityHashCode() != 0) {
+                             byIdentityHashCode.put(instance.getIdentityHashCode(), instance);
+                         }
+                     });
+            return new Snapshot(Collections.unmodifiableMap(container),
+                                Collections.unmodifiableMap(byPlugin),
+                                Collections.unmodifiableMap(byIdentityHashCode),
+                                Collections.unmodifiableMap(byUuid(byPlugin, pluginStrategy)),
+                                version);
+        }
+
+        /**
+         * Each configuration entry is visited once, only UUIDs of plugins placed in container are indexed.
+         * */
+        private static Map<UUID, Instance> byUuid(Map<Plugin, Instance> byPlugin, PluginStrategy pluginStrategy) {
+            PluginsConfigFile pluginsConfigFile = pluginStrategy.pluginsConfigFile();
+            if (byPlugin.isEmpty() || isNull(pluginsConfigFile) || isNull(pluginsConfigFile.getConfigDescriptions())) {
+                return Collections.emptyMap();
+            }
+            Map<UUID, Instance> byUuid = new HashMap<>();
+            pluginsConfigFile.getConfigDescriptions()
+                             .values()
+                             .stream()
+                             .flatMap(Collection::stream)
+                             .filter(configDescription -> nonNull(configDescription.getUuid()))
+                             .forEach(configDescription -> {
+                                 Instance instance = byPlugin.get(Plugin.of(configDescription.getName(), configDescription.getVersion()));
+                                 if (nonNull(instance)) {
+                                     byUuid.putIfAbsent(configDescription.getUuid(), instance);
+                                 }
+                             });
+            return byUuid;
+        }
     }
 }
@@ -1,50 +1,87 @@
 package io.easeci.core.extension;
 
+import io.netty.handler.codec.http.HttpHeaders;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.asynchttpclient.*;
-import org.asynchttpclient.netty.request.NettyRequest;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.InetSocketAddress;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
-import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.extension.Utils.completePluginDownloadUrl;
 import static io.easeci.core.extension.Utils.pluginFileName;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.FOUR;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 
+/**
+ * Downloads plugins from registry, no more than maxParallelDownloads at once.
+ * Jar file is downloaded to .part file placed next to target file, so when
+ * download is broken, next attempt continues from the last received byte
+ * with HTTP Range request. SHA-256 of file is computed while downloading and
+ * compared with value from CHECKSUM_HEADER sent by registry (if registry sends it).
+ * Complete and verified file is atomically renamed to plugin's jar file.
+ * Failed downloads are repeated with exponential backoff up to maxAttempts.
+ * Idle threads of downloader are released, and close() stops downloader for good.
+ * @author Karol Meksuła
+ * 2020-10-27
+ * */
+@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 class DefaultPluginDownloader extends PluginDownloader {
+    final static String CHECKSUM_HEADER = "X-Checksum-Sha256",
+                        PART_FILE_SUFFIX = ".part";
+    private final static int DEFAULT_MAX_PARALLEL_DOWNLOADS = 2,
+                             DEFAULT_MAX_ATTEMPTS = 3;
+    private final static long DEFAULT_BACKOFF_MILLISECONDS = 500,
+                              IDLE_THREAD_SECONDS = 30;
+
     private URL registryUrl;
     private Path targetPath;
     private int timeoutMilliseconds;
+    private int maxAttempts;
+    private long backoffMilliseconds;
     private AsyncHttpClient asyncHttpClient;
-    private AsyncHandler<File> asyncFileHandler;
+    private boolean ownHttpClient;
+    private ThreadPoolExecutor downloadExecutor;
+    private ConcurrentMap<String, CompletableFuture<Plugin>> inProgress;
 
     @Builder
-    DefaultPluginDownloader(URL registryUrl, Path targetPath, int timeoutMilliseconds,
-                            AsyncHttpClient asyncHttpClient, AsyncHandler<File> asyncFileHandler) {
+    DefaultPluginDownloader(URL registryUrl, Path targetPath, int timeoutMilliseconds, AsyncHttpClient asyncHttpClient,
+                            Integer maxParallelDownloads, Integer maxAttempts, Long backoffMilliseconds) {
         if (isNull(registryUrl)) throw new IllegalArgumentException("'registryUrl' of DefaultPluginDownloader cannot be null");
         if (isNull(targetPath)) throw new IllegalArgumentException("'targetPath' of DefaultPluginDownloader cannot be null!");
         this.registryUrl = registryUrl;
         this.targetPath = targetPath;
         this.timeoutMilliseconds = timeoutMilliseconds;
+        this.maxAttempts = Math.max(1, ofNullable(maxAttempts).orElse(DEFAULT_MAX_ATTEMPTS));
+        this.backoffMilliseconds = ofNullable(backoffMilliseconds).orElse(DEFAULT_BACKOFF_MILLISECONDS);
+        this.ownHttpClient = isNull(asyncHttpClient);
         this.asyncHttpClient = ofNullable(asyncHttpClient).orElseGet(this::buildDefaultHttpClient);
-        this.asyncFileHandler = asyncFileHandler;
+        int threads = Math.max(1, ofNullable(maxParallelDownloads).orElse(DEFAULT_MAX_PARALLEL_DOWNLOADS));
+        this.downloadExecutor = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                                                       new LinkedBlockingQueue<>(), downloaderThreadFactory());
+        this.downloadExecutor.allowCoreThreadTimeOut(true);
+        this.inProgress = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -53,77 +90,252 @@ class DefaultPluginDownloader extends PluginDownloader {
                 .map(this::download);
     }
 
+    /**
+     * Plugin that is just downloading is not downloaded second time,
+     * the same CompletableFuture is returned instead.
+     * */
     @Override
     CompletableFuture<Plugin> download(Plugin plugin) {
-        return asyncHttpClient.prepareGet(completePluginDownloadUrl(registryUrl, plugin.getName(), plugin.getVersion()))
-                .execute(ofNullable(this.asyncFileHandler).orElseGet(() -> this.defaultCompletionHandler(plugin)))
-                .toCompletableFuture()
-                .thenApply(file -> plugin);
+        final String jarFileName = pluginFileName(plugin.getName(), plugin.getVersion());
+        CompletableFuture<Plugin> started = new CompletableFuture<>();
+        CompletableFuture<Plugin> present = inProgress.putIfAbsent(jarFileName, started);
+        if (nonNull(present)) {
+            return present;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> downloadWithRetries(plugin, jarFileName), downloadExecutor)
+                             .whenComplete((result, throwable) -> {
+                                 inProgress.remove(jarFileName, started);
+                                 if (isNull(throwable)) {
+                                     started.complete(result);
+                                 } else {
+                                     started.completeExceptionally(throwable);
+                                 }
+                             });
+        } catch (RejectedExecutionException exception) {
+            inProgress.remove(jarFileName, started);
+            started.completeExceptionally(new IllegalStateException("Downloader of plugins is closed", exception));
+        }
+        return started;
     }
 
-    private AsyncCompletionHandler<File> defaultCompletionHandler(Plugin plugin) {
-        try {
-            return new AsyncCompletionHandler<>() {
-                final File futureFile = createEmptyFile(plugin).toFile();
-                final FileOutputStream fileOutputStream = new FileOutputStream(futureFile);
+    @Override
+    void close() {
+        downloadExecutor.shutdownNow();
+        inProgress.values().forEach(future -> future.completeExceptionally(new IllegalStateException("Downloader of plugins is closed")));
+        inProgress.clear();
+        if (ownHttpClient) {
+            try {
+                asyncHttpClient.close();
+            } catch (IOException exception) {
+                log.error("Cannot close http client of plugin downloader", exception);
+            }
+        }
+    }
 
-                @Override
-                public void onRequestSend(NettyRequest request) {
-                    logit(PLUGIN_EVENT, "Request to registry: " + registryUrl.toString(), THREE);
+    private Plugin downloadWithRetries(Plugin plugin, String jarFileName) {
+        Path jarFile = targetPath.resolve(jarFileName);
+        Path partFile = jarFile.resolveSibling(jarFile.getFileName() + PART_FILE_SUFFIX);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                downloadOnce(plugin, partFile);
+                Files.move(partFile, jarFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logit(PLUGIN_EVENT, plugin.toShortString() + " plugin downloading is complete, file: " + jarFile, THREE);
+                return plugin;
+            } catch (DownloadException exception) {
+                if (!exception.retryable || attempt >= maxAttempts) {
+                    logit(PLUGIN_EVENT, "Downloading of " + plugin.toShortString() + " failed after " + attempt + " attempts: " + exception.getMessage(), THREE);
+                    throw new CompletionException(exception);
                 }
+                long backoff = backoffMilliseconds * (1L << (attempt - 1));
+                logit(PLUGIN_EVENT, "Downloading of " + plugin.toShortString() + " failed: " + exception.getMessage()
+                        + ", attempt " + (attempt + 1) + " of " + maxAttempts + " in " + backoff + " ms", FOUR);
+                sleep(backoff);
+            } catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }
+    }
 
-                @Override
-                public State onBodyPartReceived(HttpResponseBodyPart bodyPart) throws Exception {
-                    fileOutputStream.getChannel().write(bodyPart.getBodyByteBuffer());
-                    return State.CONTINUE;
-                }
+    private void downloadOnce(Plugin plugin, Path partFile) throws DownloadException {
+        String downloadUrl = completePluginDownloadUrl(registryUrl, plugin.getName(), plugin.getVersion());
+        try (PartFileHandler handler = new PartFileHandler(partFile)) {
+            BoundRequestBuilder request = asyncHttpClient.prepareGet(downloadUrl)
+                    .setRequestTimeout(timeoutMilliseconds);
+            if (handler.resumedFrom > 0) {
+                request.setHeader("Range", "bytes=" + handler.resumedFrom + "-");
+                logit(PLUGIN_EVENT, "Resuming download of " + plugin.toShortString() + " from byte " + handler.resumedFrom, FOUR);
+            }
+            request.execute(handler).get();
+            handler.verify();
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof DownloadException
+                    ? (DownloadException) cause
+                    : new DownloadException("Request to registry failed: " + cause, true);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new DownloadException("Downloading interrupted", false);
+        } catch (IOException exception) {
+            throw new DownloadException("Cannot write file " + partFile + ": " + exception.getMessage(), true);
+        }
+    }
 
-                @Override
-                public File onCompleted(Response response) throws Exception {
-                    logit(PLUGIN_EVENT, plugin.toShortString() + " plugin downloading is complete", THREE);
-                    return futureFile;
-                }
+    /**
+     * Streams body of response to .part file and SHA-256 digest.
+     * Bytes just stored in .part file are added to digest before request,
+     * so digest always covers whole file.
+     * */
+    private static class PartFileHandler implements AsyncHandler<Void>, AutoCloseable {
+        private final Path partFile;
+        private final FileChannel channel;
+        private final MessageDigest digest;
+        private final long resumedFrom;
+        private String expectedChecksum;
 
-                @Override
-                public void onThrowable(Throwable t) {
-                    super.onThrowable(t);
-                    try {
-                        Files.deleteIfExists(futureFile.toPath());
-                    } catch (IOException e) {
-                        e.printStackTrace();
+        PartFileHandler(Path partFile) throws IOException {
+            this.partFile = partFile;
+            this.channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.digest = sha256();
+            try {
+                this.resumedFrom = channel.size();
+                try (InputStream inputStream = Files.newInputStream(partFile)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
                     }
                 }
-
-                @Override
-                public void onTcpConnectFailure(InetSocketAddress remoteAddress, Throwable cause) {
-                    logit(PLUGIN_EVENT, "Cannot connect registry! URL: " + remoteAddress.toString(), THREE);
+                channel.position(resumedFrom);
+            } catch (IOException | RuntimeException exception) {
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    exception.addSuppressed(closeException);
                 }
+                throw exception;
+            }
+        }
 
-                @Override
-                public void onHostnameResolutionFailure(String name, Throwable cause) {
-                    logit(PLUGIN_EVENT, "Error occurred while hostname resolving of name: " + name, THREE);
-                }
-            };
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new AsyncCompletionHandler<>() {
-                @Override
-                public File onCompleted(Response response) throws Exception {
-                    throw new IllegalStateException("Method not implemented!");
-                }
-            };
+        @Override
+        public State onStatusReceived(HttpResponseStatus responseStatus) throws Exception {
+            int statusCode = responseStatus.getStatusCode();
+            if (statusCode == 206 && resumedFrom > 0) {
+                return State.CONTINUE;
+            }
+            if (statusCode == 200) {
+                restart();
+                return State.CONTINUE;
+            }
+            if (statusCode == 416) {
+                restart();
+                throw new DownloadException("Registry cannot resume download, it will be started from beginning", true);
+            }
+            throw new DownloadException("Registry responded with status " + statusCode, statusCode >= 500 || statusCode == 429);
+        }
+
+        @Override
+        public State onHeadersReceived(HttpHeaders headers) {
+            this.expectedChecksum = headers.get(CHECKSUM_HEADER);
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onBodyPartReceived(HttpResponseBodyPart bodyPart) throws Exception {
+            ByteBuffer buffer = bodyPart.getBodyByteBuffer();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return State.CONTINUE;
+        }
+
+        @Override
+        public void onThrowable(Throwable throwable) {
+            log.error("Error occurred while downloading to file: {}", partFile, throwable);
+        }
+
+        @Override
+        public Void onCompleted() throws IOException {
+            channel.force(false);
+            return null;
+        }
+
+        void verify() throws DownloadException, IOException {
+            if (isNull(expectedChecksum)) {
+                return;
+            }
+            String checksum = toHex(digest.digest());
+            if (!checksum.equalsIgnoreCase(expectedChecksum.trim())) {
+                channel.truncate(0);
+                throw new DownloadException("Checksum of file is not correct, expected: " + expectedChecksum + ", actual: " + checksum, true);
+            }
+        }
+
+        private void restart() throws IOException {
+            channel.truncate(0);
+            channel.position(0);
+            digest.reset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static class DownloadException extends Exception {
+        private final boolean retryable;
+
+        DownloadException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+               .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void sleep(long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(exception);
         }
     }
 
-    private Path createEmptyFile(Plugin plugin) throws IOException {
-        String jarFileName = pluginFileName(plugin.getName(), plugin.getVersion());
-        Path fullFilePath = Paths.get(targetPath.toString().concat("/").concat(jarFileName));
-        logit(PLUGIN_EVENT, "New plugin file created here: " + fullFilePath, FOUR);
-        return Files.createFile(fullFilePath);
+    private static ThreadFactory downloaderThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, "plugin-downloader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
+    /**
+     * Retries are made by downloader itself with Range header,
+     * so http client must not repeat broken request from beginning.
+     * */
     private AsyncHttpClient buildDefaultHttpClient() {
-        DefaultAsyncHttpClientConfig.Builder clientBuilder = Dsl.config().setConnectTimeout(timeoutMilliseconds);
+        DefaultAsyncHttpClientConfig.Builder clientBuilder = Dsl.config()
+                .setConnectTimeout(timeoutMilliseconds)
+                .setMaxRequestRetry(0);
         return Dsl.asyncHttpClient(clientBuilder);
     }
 }
@@ -1,21 +1,47 @@
 package io.easeci.core.extension;
 
 import com.google.common.collect.Sets;
+import io.easeci.extension.command.Directive;
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+/**
+ * When parallelism is greater than one, plugins are loaded in parallel mode:
+ * manifests are read, class loaders are built and plugins are instantiated
+ * concurrently in bounded thread pool, and next all plugins are inserted
+ * to PluginContainer by one thread in order of plugin's name and version,
+ * so content of container does not depend on threads scheduling.
+ * When some plugins fail, remaining ones are still inserted and next
+ * first failure is thrown, as in sequential mode, with others suppressed.
+ * */
+@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 class DefaultPluginLoader implements PluginLoader {
+    private final static Comparator<Plugin> LOADING_ORDER = Comparator.comparing(Plugin::getName)
+                                                                      .thenComparing(Plugin::getVersion);
+    private final static long DEFAULT_DRAIN_TIMEOUT_MILLIS = 10_000;
     private PluginContainer pluginContainer;
     private JarJoiner jarJoiner;
+    private int parallelism = 1;
+    private PluginClassLoaders classLoaders = new PluginClassLoaders(Thread.currentThread().getContextClassLoader());
 
     DefaultPluginLoader(PluginContainer pluginContainer, JarJoiner jarJoiner) {
         if (isNull(pluginContainer)) {
@@ -25,23 +51,169 @@ class DefaultPluginLoader implements PluginLoader {
         this.jarJoiner = jarJoiner;
     }
 
+    DefaultPluginLoader(PluginContainer pluginContainer, JarJoiner jarJoiner, int parallelism) {
+        this(pluginContainer, jarJoiner);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     @Override
     public Set<Plugin> loadPlugins(Set<Plugin> pluginSetInput, PluginStrategy pluginStrategy) {
+        if (parallelism > 1 && pluginSetInput.size() > 1) {
+            return loadPluginsInParallel(pluginSetInput, pluginStrategy);
+        }
         Set<Plugin> pluginSetOutput = pluginSetInput.stream()
                 .filter(Plugin::isLoadable)
-                .map(jarJoiner::addToClasspath)
+                .map(jarJoiner::resolveManifest)
                 .peek(plugin -> instantiatePlugin(plugin, pluginStrategy))
                 .collect(Collectors.toSet());
         return new HashSet<>(Sets.difference(pluginSetInput, pluginSetOutput));
     }
 
+    private Set<Plugin> loadPluginsInParallel(Set<Plugin> pluginSetInput, PluginStrategy pluginStrategy) {
+        List<Plugin> plugins = pluginSetInput.stream()
+                .filter(Plugin::isLoadable)
+                .sorted(LOADING_ORDER)
+                .collect(Collectors.toList());
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, plugins.size())), pluginLoaderThreadFactory());
+        try {
+            List<Future<LoadedPlugin>> futures = new ArrayList<>(plugins.size());
+            for (Plugin plugin : plugins) {
+                boolean isEnabled = pluginStrategy.find(plugin.getName(), plugin.getVersion()).getEnabled();
+                futures.add(executorService.submit(() -> loadPlugin(plugin, isEnabled)));
+            }
+            Set<Plugin> pluginSetOutput = new HashSet<>();
+            RuntimeException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    LoadedPlugin loadedPlugin = futures.get(i).get();
+                    this.insert(loadedPlugin.plugin, loadedPlugin.instance);
+                    pluginSetOutput.add(loadedPlugin.plugin);
+                } catch (ExecutionException exception) {
+                    log.error("Cannot load plugin: {}", plugins.get(i), exception.getCause());
+                    logit(PLUGIN_EVENT, "Plugin " + plugins.get(i).getName() + ", v" + plugins.get(i).getVersion() + " was not loaded because of error: " + exception.getCause(), THREE);
+                    RuntimeException cause = exception.getCause() instanceof RuntimeException
+                            ? (RuntimeException) exception.getCause()
+                            : new PluginSystemRuntimeException("Cannot load plugin " + plugins.get(i).toShortString() + ": " + exception.getCause());
+                    if (isNull(failure)) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (nonNull(failure)) {
+                throw failure;
+            }
+            return new HashSet<>(Sets.difference(pluginSetInput, pluginSetOutput));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new PluginSystemRuntimeException("Loading of plugins was interrupted");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads manifest and instantiates plugin, but does not touch PluginContainer,
+     * so it could be performed by many threads at once.
+     * */
+    private LoadedPlugin loadPlugin(Plugin plugin, boolean isEnabled) {
+        Plugin joined = jarJoiner.resolveManifest(plugin);
+        return new LoadedPlugin(joined, isEnabled ? this.instantiate(joined) : null);
+    }
+
+    private static ThreadFactory pluginLoaderThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "plugin-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        };
+    }
+
+    @AllArgsConstructor
+    private static class LoadedPlugin {
+        private final Plugin plugin;
+        private final Object instance;
+    }
+
+    /**
+     * New instance replaces previous one in container in one step,
+     * so there is no moment when plugin is missing in container.
+     * */
     @Override
     public Instance reinstantiatePlugin(Instance instance, PluginStrategy pluginStrategy) {
-        Plugin plugin = jarJoiner.addToClasspath(instance.getPlugin());
-        Object inst = this.instantiate(plugin);
-        boolean isRemoved = pluginContainer.remove(plugin.getName(), plugin.getVersion());
-        this.insert(plugin, inst);
-        return pluginContainer.findByIdentityHashCode(System.identityHashCode(inst)).orElseThrow();
+        Plugin plugin = jarJoiner.resolveManifest(instance.getPlugin());
+        PluginClassLoader classLoader = classLoaders.open(plugin);
+        Instance fresh;
+        try {
+            fresh = instantiateFresh(plugin, classLoader);
+        } catch (RuntimeException exception) {
+            classLoaders.close(classLoader);
+            throw exception;
+        }
+        if (!pluginContainer.replace(instance, fresh)) {
+            classLoaders.close(classLoader);
+            throw new PluginSystemRuntimeException("Cannot reinstantiate plugin " + plugin.toShortString() + ", it is not placed in container");
+        }
+        classLoaders.publish(plugin, classLoader, instance);
+        return fresh;
+    }
+
+    @Override
+    public Instance reload(Instance instance) {
+        return reload(instance, DEFAULT_DRAIN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * New instance is created in new class loader before old one is touched,
+     * so when it fails, old instance is still working. Next calls of old instance
+     * are drained, instances are swapped in container in one step
+     * and class loader of old instance is closed when its last call is finished.
+     * */
+    Instance reload(Instance instance, long drainTimeoutMillis) {
+        Plugin plugin = jarJoiner.resolveManifest(instance.getPlugin());
+        PluginClassLoader classLoader = classLoaders.open(plugin);
+        Instance fresh;
+        try {
+            fresh = instantiateFresh(plugin, classLoader);
+        } catch (RuntimeException exception) {
+            log.error("Cannot instantiate plugin {} in new class loader", plugin, exception);
+            classLoaders.close(classLoader);
+            throw new PluginSystemRuntimeException("Cannot reload plugin " + plugin.toShortString() + ", previous instance is still used");
+        }
+        try {
+            if (!instance.drain(drainTimeoutMillis)) {
+                logit(PLUGIN_EVENT, "Calls of plugin " + plugin.toShortString() + " were not finished in "
+                        + drainTimeoutMillis + " ms, plugin is reloaded anyway and its previous class loader is closed after them", THREE);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            instance.resume();
+            classLoaders.close(classLoader);
+            throw new PluginSystemRuntimeException("Reloading of plugin " + plugin.toShortString() + " was interrupted");
+        }
+        if (!pluginContainer.replace(instance, fresh)) {
+            instance.resume();
+            classLoaders.close(classLoader);
+            throw new PluginSystemRuntimeException("Cannot reload plugin " + plugin.toShortString() + ", it is not placed in container");
+        }
+        classLoaders.publish(plugin, classLoader, instance);
+        instance.clear();
+        logit(PLUGIN_EVENT, "Plugin " + plugin.toShortString() + " is reloaded", THREE);
+        return fresh;
+    }
+
+    private Instance instantiateFresh(Plugin plugin, ClassLoader classLoader) {
+        Object inst = this.instantiate(plugin, classLoader);
+        return Instance.builder()
+                .plugin(plugin)
+                .instance(inst)
+                .identityHashCode(System.identityHashCode(inst))
+                .instantiateDateTime(LocalDateTime.now())
+                .build();
     }
 
     /**
@@ -59,10 +231,18 @@ class DefaultPluginLoader implements PluginLoader {
     }
 
     Object instantiate(Plugin plugin) {
-        return new ReflectiveFactory.ReflectiveFactoryBuilder<>()
+        return instantiate(plugin, classLoaders.loaderFor(plugin));
+    }
+
+    private Object instantiate(Plugin plugin, ClassLoader classLoader) {
+        Object instance = new ReflectiveFactory.ReflectiveFactoryBuilder<>()
                 .classReference(plugin.getJarArchive().getExtensionManifest().getEntryClassProperty())
                 .build()
-                .instantiate(plugin.getJarArchive());
+                .instantiate(plugin.getJarArchive(), classLoader);
+        if (instance instanceof Directive) {
+            jarJoiner.rememberDirective(plugin, ((Directive) instance).getDirectiveName());
+        }
+        return instance;
     }
 
     void insert(Plugin plugin, Object object) {
@@ -14,6 +14,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,6 +31,19 @@ import static java.util.Objects.nonNull;
 class DefaultPluginResolver implements PluginResolver {
     private final static String NAME = "name",
                              VERSION = "version";
+    private final PluginIndex pluginIndex;
+
+    DefaultPluginResolver() {
+        this.pluginIndex = null;
+    }
+
+    /**
+     * @param pluginIndex is used to find jar file between likely locations
+     *                    without probing each of them on disk.
+     * */
+    DefaultPluginResolver(PluginIndex pluginIndex) {
+        this.pluginIndex = pluginIndex;
+    }
 
     @Override
     public Set<Plugin> resolve(Path pluginYml, PluginInfrastructureInfo infrastructureInfo) {
@@ -56,13 +70,14 @@ class DefaultPluginResolver implements PluginResolver {
 
     private Plugin.JarArchive prepareJar(List<Path> pluginDirectories, String name, String version) {
         String pluginFileName = pluginFileName(name, version);
-        Path jarFilePath = likelyLocations(pluginDirectories, name, version)
-                .stream()
+        Set<Path> likelyLocations = likelyLocations(pluginDirectories, name, version);
+        Optional<Path> indexedLocation = isNull(pluginIndex) ? Optional.empty() : pluginIndex.indexedLocation(likelyLocations);
+        Path jarFilePath = indexedLocation.orElseGet(() -> likelyLocations.stream()
                 .filter(path -> Files.exists(path))
                 .findFirst()
-                .orElse(null);
+                .orElse(null));
         URL jarFileUrl = toUrl(jarFilePath);
-        boolean isExists = isJarExists(jarFilePath);
+        boolean isExists = indexedLocation.isPresent() || isJarExists(jarFilePath);
 
         return Plugin.JarArchive.of(pluginFileName, isExists, jarFileUrl, jarFilePath, null);
     }
@@ -0,0 +1,215 @@
+package io.easeci.core.extension;
+
+import io.easeci.extension.command.Command;
+import io.easeci.extension.command.Directive;
+import io.easeci.extension.directive.CodeChunk;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.util.Objects.isNull;
+
+/**
+ * Registry of Directive plugins indexed by directive name (for instance $git),
+ * with list of available commands taken once per plugin's instance,
+ * so dispatching of Easefile's step to plugin is one hash map lookup.
+ * Registry follows DirectivesCollector it wraps: when collected list is changed
+ * (directive plugin was loaded or unloaded), index is rebuilt and entries
+ * of plugins that are still present are reused without calling them again.
+ * @author Karol Meksuła
+ * 2020-10-25
+ * */
+@Slf4j
+public class DirectiveRegistry implements DirectivesCollector {
+    public final static String UNKNOWN_VERSION = "unknown";
+    private final static long RELOAD_WAIT_MILLIS = 10_000,
+                              RELOAD_RETRY_MILLIS = 5;
+    private final DirectivesCollector directivesCollector;
+    private final Function<Directive, String> versionResolver;
+    private final PluginCallGuard callGuard;
+    private final Predicate<String> installedDirective;
+    private volatile Snapshot snapshot;
+
+    public DirectiveRegistry(DirectivesCollector directivesCollector) {
+        this(directivesCollector, directive -> UNKNOWN_VERSION);
+    }
+
+    /**
+     * @param versionResolver returns version of plugin that provides Directive instance,
+     *                        it is called once per instance.
+     * */
+    public DirectiveRegistry(DirectivesCollector directivesCollector, Function<Directive, String> versionResolver) {
+        this(directivesCollector, versionResolver, PluginCallGuard.UNGUARDED);
+    }
+
+    /**
+     * @param callGuard counts calls made by provideCode(), so plugin that
+     *                  exposes directive is not reloaded during the call.
+     * */
+    public DirectiveRegistry(DirectivesCollector directivesCollector, Function<Directive, String> versionResolver, PluginCallGuard callGuard) {
+        this(directivesCollector, versionResolver, callGuard, directiveName -> false);
+    }
+
+    /**
+     * @param installedDirective tells if directive is exposed by plugin that is installed
+     *                           but not instantiated now, for instance disabled one,
+     *                           so it is answered without loading any plugin's class.
+     * */
+    public DirectiveRegistry(DirectivesCollector directivesCollector, Function<Directive, String> versionResolver,
+                             PluginCallGuard callGuard, Predicate<String> installedDirective) {
+        this.directivesCollector = directivesCollector;
+        this.versionResolver = versionResolver;
+        this.callGuard = callGuard;
+        this.installedDirective = installedDirective;
+        this.snapshot = Snapshot.EMPTY;
+    }
+
+    public Optional<Directive> find(String directiveName) {
+        return Optional.ofNullable(current().byName.get(directiveName))
+                       .map(RegisteredDirective::getDirective);
+    }
+
+    public boolean contains(String directiveName) {
+        return current().byName.containsKey(directiveName);
+    }
+
+    /**
+     * @return true if directive is available now or is exposed by installed plugin
+     *         that is not enabled, so plugin is not instantiated to answer.
+     * */
+    public boolean isInstalled(String directiveName) {
+        return contains(directiveName) || installedDirective.test(directiveName);
+    }
+
+    public List<Command> availableCommands(String directiveName) {
+        RegisteredDirective registeredDirective = current().byName.get(directiveName);
+        return isNull(registeredDirective) ? Collections.emptyList() : registeredDirective.getAvailableCommands();
+    }
+
+    public Optional<Command> findCommand(String directiveName, String commandName) {
+        RegisteredDirective registeredDirective = current().byName.get(directiveName);
+        return isNull(registeredDirective)
+                ? Optional.empty()
+                : Optional.ofNullable(registeredDirective.commandsByName.get(commandName));
+    }
+
+    /**
+     * @return version of plugin that exposes directive or UNKNOWN_VERSION
+     * */
+    public String pluginVersion(String directiveName) {
+        RegisteredDirective registeredDirective = current().byName.get(directiveName);
+        return isNull(registeredDirective) ? UNKNOWN_VERSION : registeredDirective.getPluginVersion();
+    }
+
+    /**
+     * Calls plugin that exposes directive. When plugin is just reloading,
+     * waits until new instance is placed in registry and calls new one.
+     * */
+    public CodeChunk provideCode(String directiveName, List<Command> commands) throws IllegalAccessException {
+        long deadline = System.currentTimeMillis() + RELOAD_WAIT_MILLIS;
+        while (true) {
+            Directive directive = find(directiveName)
+                    .orElseThrow(() -> new IllegalStateException("Directive " + directiveName + " is not available"));
+            if (callGuard.enter(directive)) {
+                try {
+                    return directive.provideCode(commands);
+                } finally {
+                    callGuard.exit(directive);
+                }
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Plugin of directive " + directiveName + " was not reloaded in " + RELOAD_WAIT_MILLIS + " ms");
+            }
+            try {
+                Thread.sleep(RELOAD_RETRY_MILLIS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Waiting for reload of directive " + directiveName + " was interrupted");
+            }
+        }
+    }
+
+    @Override
+    public List<Directive> collectAll() {
+        return current().directives;
+    }
+
+    private Snapshot current() {
+        Snapshot current = this.snapshot;
+        List<Directive> collected = directivesCollector.collectAll();
+        if (collected == current.collected) {
+            return current;
+        }
+        Snapshot fresh = current.rebuild(collected, versionResolver);
+        this.snapshot = fresh;
+        return fresh;
+    }
+
+    private static class Snapshot {
+        private final static Snapshot EMPTY = new Snapshot(null, Collections.emptyMap(), Collections.emptyList());
+        private final List<Directive> collected;
+        private final Map<String, RegisteredDirective> byName;
+        private final List<Directive> directives;
+
+        private Snapshot(List<Directive> collected, Map<String, RegisteredDirective> byName, List<Directive> directives) {
+            this.collected = collected;
+            this.byName = byName;
+            this.directives = directives;
+        }
+
+        Snapshot rebuild(List<Directive> collected, Function<Directive, String> versionResolver) {
+            Map<Directive, RegisteredDirective> previous = new IdentityHashMap<>();
+            byName.values().forEach(registeredDirective -> previous.put(registeredDirective.getDirective(), registeredDirective));
+            Map<String, RegisteredDirective> byName = new HashMap<>();
+            List<Directive> directives = new ArrayList<>();
+            for (Directive directive : collected) {
+                RegisteredDirective registeredDirective = previous.get(directive);
+                if (isNull(registeredDirective)) {
+                    registeredDirective = RegisteredDirective.of(directive, versionResolver);
+                }
+                if (byName.putIfAbsent(registeredDirective.getDirectiveName(), registeredDirective) != null) {
+                    logit(PLUGIN_EVENT, "Directive " + registeredDirective.getDirectiveName() + " is exposed by more than one plugin, first one is used", THREE);
+                    continue;
+                }
+                directives.add(directive);
+            }
+            return new Snapshot(collected, Collections.unmodifiableMap(byName), Collections.unmodifiableList(directives));
+        }
+    }
+
+    @Getter
+    private static class RegisteredDirective {
+        private final Directive directive;
+        private final String directiveName;
+        private final String pluginVersion;
+        private final List<Command> availableCommands;
+        private final Map<String, Command> commandsByName;
+
+        private RegisteredDirective(Directive directive, String directiveName, String pluginVersion, List<Command> availableCommands) {
+            this.directive = directive;
+            this.directiveName = directiveName;
+            this.pluginVersion = pluginVersion;
+            this.availableCommands = availableCommands;
+            this.commandsByName = new HashMap<>();
+            availableCommands.forEach(command -> this.commandsByName.putIfAbsent(command.getCommandName(), command));
+        }
+
+        static RegisteredDirective of(Directive directive, Function<Directive, String> versionResolver) {
+            List<Command> availableCommands;
+            try {
+                availableCommands = Collections.unmodifiableList(new ArrayList<>(directive.getAvailableCommandList()));
+            } catch (IllegalAccessException | RuntimeException exception) {
+                log.error("Cannot take available commands of directive: {}", directive.getDirectiveName(), exception);
+                availableCommands = Collections.emptyList();
+            }
+            String pluginVersion = Optional.ofNullable(versionResolver.apply(directive)).orElse(UNKNOWN_VERSION);
+            return new RegisteredDirective(directive, directive.getDirectiveName(), pluginVersion, availableCommands);
+        }
+    }
+}
@@ -26,8 +26,10 @@ public class ExtensionSystem implements ExtensionControllable, DirectivesCollect
     private final static Class<Standalone> STANDALONE_CLASS = Standalone.class;
     private static ExtensionSystem extensionSystem;
     private ExtensionsManager extensionsManager;
+    private ResolvedExtensions resolvedExtensions;
+    @Getter private DirectiveRegistry directiveRegistry;
     @Getter private PluginThreadPool pluginThreadPool;
-    @Getter private boolean started = false;
+    @Getter private volatile boolean started = false;
 
     public static ExtensionSystem getInstance() throws PluginSystemCriticalException {
         if (isNull(extensionSystem)) {
@@ -35,6 +37,14 @@ public class ExtensionSystem implements ExtensionControllable, DirectivesCollect
             extensionSystem.extensionsManager = ExtensionsManager.getInstance(getPluginsYmlLocation(), getPluginConfigYmlLocation());
             if (nonNull(extensionSystem.extensionsManager)) {
                 extensionSystem.pluginThreadPool = PluginThreadPool.createInstance(extensionSystem.extensionsManager.getPluginContainer());
+                extensionSystem.resolvedExtensions = new ResolvedExtensions(extensionSystem.extensionsManager.getPluginContainer());
+                PluginContainer pluginContainer = extensionSystem.extensionsManager.getPluginContainer();
+                extensionSystem.directiveRegistry = new DirectiveRegistry(extensionSystem, directive ->
+                        pluginContainer.findByIdentityHashCode(System.identityHashCode(directive))
+                                       .map(instance -> instance.getPlugin().getVersion())
+                                       .orElse(DirectiveRegistry.UNKNOWN_VERSION),
+                        PluginCallGuard.of(pluginContainer),
+                        extensionSystem.extensionsManager::isInstalledDirective);
             } else {
                 throw new PluginSystemCriticalException("Cannot create ExtensionSystem correctly, because it is no instantiated to PluginContainer object");
             }
@@ -42,6 +52,18 @@ public class ExtensionSystem implements ExtensionControllable, DirectivesCollect
         return extensionSystem;
     }
 
+    /**
+     * @return DirectiveRegistry only if ExtensionSystem is just created and started,
+     *         does not create ExtensionSystem itself.
+     * */
+    public static Optional<DirectiveRegistry> startedDirectiveRegistry() {
+        ExtensionSystem instance = extensionSystem;
+        if (isNull(instance) || !instance.started) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(instance.directiveRegistry);
+    }
+
     public synchronized void start() {
         if (started) {
             logit(PLUGIN_EVENT, "Extension system is just started correctly", THREE);
@@ -51,19 +73,25 @@ public class ExtensionSystem implements ExtensionControllable, DirectivesCollect
         this.extensionsManager.enableExtensions();
     }
 
-    public synchronized <T> Optional<T> get(String interfaceName, Class<T> type) {
+    /**
+     * Not synchronized, references are taken from snapshot resolved before
+     * and rebuilt only when plugins were enabled, disabled or reloaded.
+     * */
+    public <T> Optional<T> get(String interfaceName, Class<T> type) {
         if (!started) {
             throw new RuntimeException("==> Cannot get some reference from container because ExtensionSystem is not started yet");
         }
-        T specific = extensionsManager.getPluginContainer().getSpecific(interfaceName, type);
-        return Optional.ofNullable(specific);
+        return resolvedExtensions.get(interfaceName, type);
     }
 
-    public synchronized <T> List<T> getAll(String interfaceName, Class<T> type) {
+    /**
+     * Not synchronized, returned list is immutable and shared between callers.
+     * */
+    public <T> List<T> getAll(String interfaceName, Class<T> type) {
         if (!started) {
             throw new RuntimeException("==> Cannot get some reference from container because ExtensionSystem is not started yet");
         }
-        return extensionsManager.getPluginContainer().getGathered(interfaceName, type);
+        return resolvedExtensions.getAll(interfaceName, type);
     }
 
     /**
@@ -85,17 +113,29 @@ public class ExtensionSystem implements ExtensionControllable, DirectivesCollect
 
     @Override
     public ActionResponse shutdownExtension(ActionRequest actionRequest) {
-        return ((ExtensionControllable) this.extensionsManager).shutdownExtension(actionRequest);
+        try {
+            return ((ExtensionControllable) this.extensionsManager).shutdownExtension(actionRequest);
+        } finally {
+            this.resolvedExtensions.invalidate();
+        }
     }
 
     @Override
     public ActionResponse startupExtension(ActionRequest actionRequest) {
-        return ((ExtensionControllable) this.extensionsManager).startupExtension(actionRequest);
+        try {
+            return ((ExtensionControllable) this.extensionsManager).startupExtension(actionRequest);
+        } finally {
+            this.resolvedExtensions.invalidate();
+        }
     }
 
     @Override
     public ActionResponse restart(ActionRequest actionRequest) {
-        return ((ExtensionControllable) this.extensionsManager).restart(actionRequest);
+        try {
+            return ((ExtensionControllable) this.extensionsManager).restart(actionRequest);
+        } finally {
+            this.resolvedExtensions.invalidate();
+        }
     }
 
     @Override
@@ -8,11 +8,13 @@ import io.easeci.extension.Standalone;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -20,10 +22,13 @@ import java.util.stream.Stream;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.*;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static io.easeci.core.workspace.LocationUtils.getCacheDirectoryLocation;
 import static io.easeci.core.workspace.LocationUtils.getPluginsYmlLocation;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.Optional.ofNullable;
 
+@Slf4j
 class ExtensionsManager implements ExtensionControllable {
     private static ExtensionsManager extensionsManager;
 
@@ -35,8 +40,7 @@ class ExtensionsManager implements ExtensionControllable {
     private PluginResolver pluginResolver;
     private PluginLoader pluginLoader;
     private PluginConfig pluginConfig;
-
-    private PluginDownloader pluginDownloader;
+    private PluginIndex pluginIndex;
 
     private ExtensionsManager(Path pluginYml, Path pluginConfigYml) throws PluginSystemCriticalException {
         logit(PLUGIN_EVENT, "ExtensionManager instance creation process invoked", TWO);
@@ -44,9 +48,9 @@ class ExtensionsManager implements ExtensionControllable {
         this.infrastructureInit = this.instantiateExtensionInfrastructure();
         this.pluginConfig = new DefaultPluginConfig(pluginConfigYml);
         this.pluginContainer = new DefaultPluginContainer((PluginStrategy) pluginConfig);
-        this.pluginResolver = new DefaultPluginResolver();
-        this.pluginLoader = new DefaultPluginLoader(this.pluginContainer, new JarJoiner());
-        this.pluginDownloader = this.instantiatePluginDownloader();
+        this.pluginIndex = PluginIndex.load(getCacheDirectoryLocation().resolve(PluginIndex.INDEX_FILENAME));
+        this.pluginResolver = new DefaultPluginResolver(this.pluginIndex);
+        this.pluginLoader = new DefaultPluginLoader(this.pluginContainer, new JarJoiner(this.pluginIndex), loadingParallelism());
     }
 
     private InfrastructureInit instantiateExtensionInfrastructure() {
@@ -55,11 +59,19 @@ class ExtensionsManager implements ExtensionControllable {
             infrastructureInit.prepareInfrastructure();
             infrastructureInit.loadInfrastructure();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Cannot prepare infrastructure of plugin system", e);
         }
         return infrastructureInit;
     }
 
+    private int loadingParallelism() {
+        try {
+            return (Integer) YamlUtils.ymlGet(getPluginsYmlLocation(), "plugins.local.loading.parallelism").getValue();
+        } catch (Throwable throwable) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+    }
+
     @SneakyThrows
     private PluginDownloader instantiatePluginDownloader() {
         Map<?, ?> yamlValues = YamlUtils.ymlLoad(getPluginsYmlLocation());
@@ -72,9 +84,24 @@ class ExtensionsManager implements ExtensionControllable {
                 .registryUrl(registryUrl)
                 .targetPath(pluginDestination)
                 .timeoutMilliseconds(timeoutMilliseconds)
+                .maxParallelDownloads(downloadSetting(yamlValues, "parallelism"))
+                .maxAttempts(downloadSetting(yamlValues, "attempts"))
+                .backoffMilliseconds(ofNullable(downloadSetting(yamlValues, "backoff")).map(Integer::longValue).orElse(null))
                 .build();
     }
 
+    /**
+     * @return value of plugins.registry.download.* property or null,
+     *         so DefaultPluginDownloader uses its default value.
+     * */
+    private Integer downloadSetting(Map<?, ?> yamlValues, String name) {
+        try {
+            return (Integer) YamlUtils.ymlGet(yamlValues, "plugins.registry.download." + name).getValue();
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+
     static ExtensionsManager getInstance(Path pluginYml, Path pluginConfigYml) throws PluginSystemCriticalException {
         if (isNull(extensionsManager)) {
             extensionsManager = new ExtensionsManager(pluginYml, pluginConfigYml);
@@ -86,6 +113,7 @@ class ExtensionsManager implements ExtensionControllable {
         logit(PLUGIN_EVENT, "Declared plugins enabling started", TWO);
         Set<Plugin> resolvedPlugins = pluginResolver.resolve(pluginYml, infrastructureInit);
         Set<Plugin> pluginsNotResolved = pluginLoader.loadPlugins(resolvedPlugins, (PluginStrategy) pluginConfig);
+        pluginIndex.persist();
         if (!pluginsNotResolved.isEmpty() && isDownloadProcessEnabled()) {
             downloadInFly(pluginsNotResolved);
         } else if (pluginsNotResolved.isEmpty()) {
@@ -93,6 +121,14 @@ class ExtensionsManager implements ExtensionControllable {
         }
     }
 
+    /**
+     * @return true if directive is exposed by any installed plugin,
+     *         also not enabled one, known from PluginIndex without instantiating plugin.
+     * */
+    boolean isInstalledDirective(String directiveName) {
+        return pluginIndex.isIndexedDirective(directiveName);
+    }
+
     @Override
     public PluginContainerState state() {
         return this.pluginContainer.state();
@@ -118,7 +154,7 @@ class ExtensionsManager implements ExtensionControllable {
     private Function<Instance, ActionResponse> interruptStandalonePlugin() {
         return instance -> {
             logit(PLUGIN_EVENT, "Stopping standalone plugin work " + instance.getPlugin().toShortString(), THREE);
-            instance.toStandalone().stop();
+            stopStandalone(instance.toStandalone());
             boolean instanceCleared = instance.clear();
             if (instanceCleared) {
                 return ActionResponse.of(true,
@@ -129,6 +165,17 @@ class ExtensionsManager implements ExtensionControllable {
         };
     }
 
+    private static void stopStandalone(Standalone standalone) {
+        try {
+            if (PluginThreadPool.getInstance().stop(standalone)) {
+                return;
+            }
+        } catch (PluginSystemCriticalException e) {
+            log.error("Cannot stop standalone plugin by PluginThreadPool, it will be stopped directly", e);
+        }
+        standalone.stop();
+    }
+
     private Function<Instance, ActionResponse> interruptNotStandalonePlugin() {
         return instance -> {
             logit(PLUGIN_EVENT, "Stopping other than standalone plugin work " + instance.getPlugin().toShortString(), THREE);
@@ -206,7 +253,7 @@ class ExtensionsManager implements ExtensionControllable {
                         try {
                             PluginThreadPool.getInstance().run(standaloneList);
                         } catch (PluginSystemCriticalException e) {
-                            e.printStackTrace();
+                            log.error("Cannot run reinstantiated standalone plugin", e);
                         }
                     } else {
                         int identityHashCode = System.identityHashCode(instanceReloaded.getInstance());
@@ -215,6 +262,7 @@ class ExtensionsManager implements ExtensionControllable {
                     }
                     pluginConfig.enable(actionRequest.getPluginUuid());
                 });
+        pluginIndex.persist();
 
         return ActionResponse.builder()
                 .isSuccessfullyDone(true)
@@ -225,12 +273,34 @@ class ExtensionsManager implements ExtensionControllable {
     @Override
     public ActionResponse restart(ActionRequest actionRequest) {
         logit(PLUGIN_EVENT, "[Extension plugin] Restarting of plugin: " + actionRequest.toString(), THREE);
-        this.shutdownExtension(actionRequest);
-        ActionResponse actionResponse = this.startupExtension(actionRequest);
-        if (actionResponse.getIsSuccessfullyDone()) {
-            actionResponse.setMessage("Plugin with UUID=[" + actionRequest.getPluginUuid() + "] is correctly restarted");
+        Optional<Instance> instanceOptional = this.pluginContainer.findByUuid(actionRequest.getExtensionType(), actionRequest.getPluginUuid());
+        if (instanceOptional.isEmpty() || isNull(instanceOptional.get().getInstance())) {
+            ActionResponse actionResponse = this.startupExtension(actionRequest);
+            if (actionResponse.getIsSuccessfullyDone()) {
+                actionResponse.setMessage("Plugin with UUID=[" + actionRequest.getPluginUuid() + "] is correctly restarted");
+            }
+            return actionResponse;
         }
-        return actionResponse;
+        Instance instance = instanceOptional.get();
+        boolean isStandalone = instance.isStandalone();
+        try {
+            if (isStandalone) {
+                stopStandalone(instance.toStandalone());
+            }
+            Instance instanceReloaded = pluginLoader.reload(instance);
+            if (isStandalone) {
+                PluginThreadPool.getInstance().run(Collections.singletonList(instanceReloaded.toStandalone()));
+            }
+        } catch (PluginSystemRuntimeException | PluginSystemCriticalException exception) {
+            return ActionResponse.builder()
+                    .isSuccessfullyDone(false)
+                    .message("Plugin with UUID=[" + actionRequest.getPluginUuid() + "] was not restarted: " + exception.getMessage())
+                    .build();
+        }
+        return ActionResponse.builder()
+                .isSuccessfullyDone(true)
+                .message("Plugin with UUID=[" + actionRequest.getPluginUuid() + "] is correctly restarted")
+                .build();
     }
 
     private String getReport(Set<Plugin> resolve) {
@@ -244,22 +314,31 @@ class ExtensionsManager implements ExtensionControllable {
         return (Boolean) YamlUtils.ymlGet(pluginsYmlLocation, "plugins.local.download").getValue();
     }
 
+    /**
+     * Downloader is created for plugins not resolved locally
+     * and closed when all of them are downloaded or failed.
+     * */
     private void downloadInFly(Set<Plugin> pluginSet) {
         logit(PLUGIN_EVENT, "Downloading of plugins just started for items:\n" + getReport(pluginSet), THREE);
-        pluginSet.stream()
+        PluginDownloader pluginDownloader = this.instantiatePluginDownloader();
+        CompletableFuture<?>[] downloads = pluginSet.stream()
                 .filter(Plugin::isDownloadable)
                 .filter(plugin -> !plugin.getJarArchive().isStoredLocally())
                 .collect(Collectors.toSet())
-                .forEach(plugin -> pluginDownloader.download(plugin)
+                .stream()
+                .map(plugin -> pluginDownloader.download(plugin)
                         .thenApply(this::callResolver)
-                        .whenComplete((this::loadOnFly)));
+                        .whenComplete((this::loadOnFly)))
+                .toArray(CompletableFuture<?>[]::new);
+        CompletableFuture.allOf(downloads)
+                         .whenComplete((result, throwable) -> pluginDownloader.close());
     }
 
     private Wrapper callResolver(Plugin pluginFuture) {
         Plugin pluginResolved = pluginResolver.resolve(infrastructureInit, pluginFuture.getName(), pluginFuture.getVersion());
         final Path JAR_PATH = pluginResolved.getJarArchive().getJarPath();
         try {
-            final String INTERFACE_NAME = Utils.extractManifest(JAR_PATH).getImplementsProperty();
+            final String INTERFACE_NAME = pluginIndex.manifest(JAR_PATH).getImplementsProperty();
             final UUID PLUGIN_LOCAL_UUID = UUID.randomUUID();
 
             if (pluginConfig.add(INTERFACE_NAME, ConfigDescription.builder()
@@ -271,7 +350,7 @@ class ExtensionsManager implements ExtensionControllable {
                 try {
                     pluginConfig.save();
                 } catch (PluginSystemCriticalException e) {
-                    e.printStackTrace();
+                    log.error("Cannot save configuration of downloaded plugin {}", pluginResolved.toShortString(), e);
                 }
             }
 
@@ -282,13 +361,18 @@ class ExtensionsManager implements ExtensionControllable {
                     .pluginVersion(pluginResolved.getVersion())
                     .build());
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Cannot read manifest of jar file {}", JAR_PATH, e);
             throw new PluginSystemRuntimeException("Error occurred while trying to read MANIFEST.MF file in jar file: " + JAR_PATH.toString());
         }
     }
 
     private void loadOnFly(Wrapper wrapper, Throwable throwable) {
+        if (nonNull(throwable)) {
+            log.error("Downloaded plugin cannot be loaded", throwable);
+            return;
+        }
         Set<Plugin> pluginsNotLoaded = pluginLoader.loadPlugins(Set.of(wrapper.plugin), (PluginStrategy) pluginConfig);
+        pluginIndex.persist();
         if (!pluginsNotLoaded.isEmpty())
             logit(PLUGIN_EVENT, "Downloaded but not loaded: " + pluginsNotLoaded, THREE);
 
@@ -296,9 +380,6 @@ class ExtensionsManager implements ExtensionControllable {
 
         if (actionResponse.getIsSuccessfullyDone())
             logit(PLUGIN_EVENT, "Plugin " + wrapper.plugin.toShortString() + " correctly installed in EaseCI system", THREE);
-
-        if (nonNull(throwable))
-            throwable.printStackTrace();
     }
 
     @AllArgsConstructor(staticName = "of")
@@ -5,6 +5,9 @@ import io.easeci.extension.Standalone;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.FOUR;
@@ -27,8 +30,19 @@ public class Instance {
     @Setter
     private boolean isStarted;
 
+    @Builder.Default
+    private final AtomicInteger inFlightCalls = new AtomicInteger(0);
+    @Builder.Default
+    private volatile boolean draining = false;
+    @Builder.Default
+    private final AtomicReference<Runnable> idleAction = new AtomicReference<>();
+
+    /**
+     * Thread can be changed only when previous one is not alive anymore,
+     * for instance when standalone plugin was restarted by PluginSupervisor.
+     * */
     public void assignThread(Thread thread) {
-        if (this.thread == null) {
+        if (this.thread == null || !this.thread.isAlive()) {
             this.thread = thread;
             logit(PLUGIN_EVENT, "Thread " + thread.getName() + " is assigned now to plugin: " + plugin.toShortString(), ONE);
         }
@@ -48,6 +62,77 @@ public class Instance {
         return false;
     }
 
+    /**
+     * Registers call of plugin's method.
+     * @return false when plugin is draining before reload and must not be called,
+     *         otherwise exit() must be called when call is finished.
+     * */
+    boolean enter() {
+        if (draining) {
+            return false;
+        }
+        inFlightCalls.incrementAndGet();
+        if (draining) {
+            exit();
+            return false;
+        }
+        return true;
+    }
+
+    void exit() {
+        if (inFlightCalls.decrementAndGet() == 0 && draining) {
+            synchronized (inFlightCalls) {
+                inFlightCalls.notifyAll();
+            }
+            runIdleAction();
+        }
+    }
+
+    /**
+     * Rejects new calls of plugin and waits for calls that are just in progress.
+     * @return true if all calls finished in given time
+     * */
+    boolean drain(long timeoutMillis) throws InterruptedException {
+        this.draining = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (inFlightCalls) {
+            while (inFlightCalls.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                inFlightCalls.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accepts calls again, used when reload of plugin failed.
+     * */
+    void resume() {
+        this.draining = false;
+    }
+
+    /**
+     * Rejects new calls of plugin replaced in container and runs action once,
+     * when last call that is still in progress is finished, or at once when there is none.
+     * */
+    void retire(Runnable action) {
+        this.draining = true;
+        idleAction.set(action);
+        if (inFlightCalls.get() == 0) {
+            runIdleAction();
+        }
+    }
+
+    private void runIdleAction() {
+        Runnable action = idleAction.getAndSet(null);
+        if (nonNull(action)) {
+            action.run();
+        }
+    }
+
     public boolean clear() {
         this.isStarted = false;
         this.instance = null;
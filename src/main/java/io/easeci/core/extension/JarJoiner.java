@@ -3,47 +3,50 @@ package io.easeci.core.extension;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.file.Path;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.util.Objects.isNull;
 
 /**
- * Joins external .jar files and connect it with current application process
+ * Reads extension manifest of external .jar files.
+ * When PluginIndex is provided, manifests are taken from index
+ * and jar files are opened only if they were changed.
  */
 @Slf4j
 class JarJoiner {
+    private final PluginIndex pluginIndex;
 
-    Plugin addToClasspath(Plugin plugin) {
+    JarJoiner() {
+        this.pluginIndex = null;
+    }
+
+    JarJoiner(PluginIndex pluginIndex) {
+        this.pluginIndex = pluginIndex;
+    }
+
+    /**
+     * Reads manifest of plugin's jar file and sets it in plugin's JarArchive.
+     * Classes of plugin are not added to any shared class loader, each plugin's
+     * version has its own PluginClassLoader that is closed when plugin is reloaded.
+     * @return the same plugin, with manifest set when its jar file exists
+     * */
+    Plugin resolveManifest(Plugin plugin) {
         if (!plugin.isLoadable()) {
             logit(PLUGIN_EVENT, "Plugin " + plugin.getName() + ", v" + plugin.getVersion() + " is missing on local storage", THREE);
             return plugin;
         }
-        try {
-            URLClassLoader urlClassLoader = new URLClassLoader(new URL[0]);
-            Method addUrlMethod = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
-            addUrlMethod.setAccessible(true);
-            addUrlMethod.invoke(urlClassLoader, plugin.getJarArchive().getJarUrl());
-            ExtensionManifest extensionManifest = read(plugin);
-            plugin.getJarArchive().setExtensionManifest(extensionManifest);
-            return plugin;
-        } catch (NoSuchMethodException e) {
-            log.error("NoSuchMethodException occurred: {}", e.getMessage());
-        } catch (IllegalAccessException e) {
-            log.error("IllegalAccessException occurred: {}", e.getMessage());
-        } catch (InvocationTargetException e) {
-            log.error("InvocationTargetException occurred: {}", e.getMessage());
-        }
+        ExtensionManifest extensionManifest = read(plugin);
+        plugin.getJarArchive().setExtensionManifest(extensionManifest);
         return plugin;
     }
 
     ExtensionManifest read(Plugin plugin) {
         try {
-            ExtensionManifest extensionManifest = Utils.extractManifest(plugin.getJarArchive().getJarPath());
+            Path jarPath = plugin.getJarArchive().getJarPath();
+            ExtensionManifest extensionManifest = isNull(pluginIndex) ? Utils.extractManifest(jarPath) : pluginIndex.manifest(jarPath);
             if (extensionManifest.isComplete()) {
                 return extensionManifest;
             }
@@ -52,4 +55,14 @@ class JarJoiner {
         }
         throw new ExtensionManifestException("ExtensionManifest is not correctly initialized for plugin:\n" + plugin.toString());
     }
+
+    /**
+     * Remembers directive name exposed by plugin in PluginIndex, if index is used.
+     * */
+    void rememberDirective(Plugin plugin, String directiveName) {
+        if (isNull(pluginIndex) || isNull(plugin.getJarArchive())) {
+            return;
+        }
+        pluginIndex.rememberDirective(plugin.getJarArchive().getJarPath(), directiveName);
+    }
 }
@@ -0,0 +1,76 @@
+package io.easeci.core.extension;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Counts calls of plugin's methods that are just in progress,
+ * so plugin could be reloaded when no one uses it.
+ * @author Karol Meksuła
+ * 2020-10-30
+ * */
+public interface PluginCallGuard {
+    PluginCallGuard UNGUARDED = new PluginCallGuard() {
+        @Override
+        public boolean enter(Object plugin) {
+            return true;
+        }
+
+        @Override
+        public void exit(Object plugin) {
+        }
+    };
+
+    /**
+     * @return false when plugin is just reloading and must not be called now,
+     *         when true, exit() must be called after call is finished.
+     * */
+    boolean enter(Object plugin);
+
+    void exit(Object plugin);
+
+    /**
+     * Guard of instances placed in PluginContainer. Objects that are
+     * not placed in container (for instance internal directives) are not guarded.
+     * Instance entered by call is remembered until call exits, so call that
+     * outlives reload of plugin is still counted by replaced instance.
+     * */
+    static PluginCallGuard of(PluginContainer pluginContainer) {
+        Map<Object, Instance> entered = new IdentityHashMap<>();
+        return new PluginCallGuard() {
+            @Override
+            public boolean enter(Object plugin) {
+                Optional<Instance> instance = pluginContainer.findByIdentityHashCode(System.identityHashCode(plugin))
+                                                             .filter(found -> found.getInstance() == plugin);
+                if (instance.isEmpty()) {
+                    return true;
+                }
+                synchronized (entered) {
+                    if (!instance.get().enter()) {
+                        return false;
+                    }
+                    entered.put(plugin, instance.get());
+                }
+                return true;
+            }
+
+            @Override
+            public void exit(Object plugin) {
+                Instance instance;
+                synchronized (entered) {
+                    instance = entered.get(plugin);
+                    if (isNull(instance)) {
+                        return;
+                    }
+                    if (instance.getInFlightCalls().get() <= 1) {
+                        entered.remove(plugin);
+                    }
+                }
+                instance.exit();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package io.easeci.core.extension;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Child-first class loader of one plugin's version.
+ * Classes from plugin's jar file are preferred over classes of EaseCI process,
+ * except API shared between core and plugins, that must be always taken
+ * from parent, otherwise plugin's instance could not be cast to API interface.
+ * Loader is closed when plugin is reloaded and nothing uses previous instance, so it could be garbage collected
+ * with all classes defined by it.
+ * @author Karol Meksuła
+ * 2020-10-30
+ * */
+class PluginClassLoader extends URLClassLoader {
+    private final static List<String> PARENT_FIRST_PACKAGES = List.of(
+            "java.", "javax.", "jdk.", "sun.", "com.sun.",
+            ExtensionManifest.EXTENSION_PACKAGE_PREFIX + ".",
+            "io.easeci.commons.",
+            "org.slf4j.", "lombok."
+    );
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final String pluginName;
+    private final String pluginVersion;
+
+    PluginClassLoader(Plugin plugin, ClassLoader parent) {
+        super(plugin.toShortString(), new URL[]{plugin.getJarArchive().getJarUrl()}, parent);
+        this.pluginName = plugin.getName();
+        this.pluginVersion = plugin.getVersion();
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isParentFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (isNull(loadedClass)) {
+                try {
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException exception) {
+                    loadedClass = getParent().loadClass(name);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL resource = findResource(name);
+        return nonNull(resource) ? resource : super.getResource(name);
+    }
+
+    private static boolean isParentFirst(String className) {
+        for (String packagePrefix : PARENT_FIRST_PACKAGES) {
+            if (className.startsWith(packagePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String getPluginName() {
+        return pluginName;
+    }
+
+    String getPluginVersion() {
+        return pluginVersion;
+    }
+}
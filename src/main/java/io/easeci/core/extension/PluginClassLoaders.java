@@ -0,0 +1,104 @@
+package io.easeci.core.extension;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.FOUR;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Keeps one PluginClassLoader per plugin's name and version.
+ * When plugin is reloaded, new loader is opened for the same version,
+ * it replaces previous one only after new instance is published,
+ * and previous loader is closed when nothing uses previous instance anymore.
+ * @author Karol Meksuła
+ * 2020-10-30
+ * */
+@Slf4j
+class PluginClassLoaders {
+    private final ClassLoader parent;
+    private final Map<String, PluginClassLoader> loaders;
+
+    PluginClassLoaders(ClassLoader parent) {
+        this.parent = parent;
+        this.loaders = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return loader just used by plugin's version or new one if plugin was not loaded before
+     * */
+    PluginClassLoader loaderFor(Plugin plugin) {
+        return loaders.computeIfAbsent(key(plugin), key -> new PluginClassLoader(plugin, parent));
+    }
+
+    Optional<PluginClassLoader> current(Plugin plugin) {
+        return Optional.ofNullable(loaders.get(key(plugin)));
+    }
+
+    /**
+     * Opens new loader that is not registered yet, call publish() when
+     * instance created by this loader is ready to use or close() when not.
+     * */
+    PluginClassLoader open(Plugin plugin) {
+        return new PluginClassLoader(plugin, parent);
+    }
+
+    /**
+     * Registers loader as current loader of plugin's version.
+     * Previous loader is closed when calls of replaced instance are finished
+     * and thread of replaced standalone plugin is not alive, closing
+     * is deferred until then, so classes are not taken away from running code.
+     * */
+    void publish(Plugin plugin, PluginClassLoader loader, Instance replaced) {
+        PluginClassLoader previous = loaders.put(key(plugin), loader);
+        if (isNull(previous) || previous == loader) {
+            return;
+        }
+        Thread thread = replaced.getThread();
+        replaced.retire(() -> {
+            if (nonNull(thread) && thread.isAlive() && thread != Thread.currentThread()) {
+                closeAfter(thread, previous);
+            } else {
+                close(previous);
+            }
+        });
+    }
+
+    private void closeAfter(Thread thread, PluginClassLoader loader) {
+        logit(PLUGIN_EVENT, "Class loader of plugin " + loader.getName() + " will be closed when thread " + thread.getName() + " ends", FOUR);
+        Thread closer = new Thread(() -> {
+            try {
+                thread.join();
+                close(loader);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }, "plugin-loader-closer");
+        closer.setDaemon(true);
+        closer.start();
+    }
+
+    void close(PluginClassLoader loader) {
+        try {
+            loader.close();
+            logit(PLUGIN_EVENT, "Class loader of plugin " + loader.getName() + " is closed", FOUR);
+        } catch (IOException exception) {
+            log.error("Cannot close class loader of plugin: {}", loader.getName(), exception);
+        }
+    }
+
+    int size() {
+        return loaders.size();
+    }
+
+    private static String key(Plugin plugin) {
+        return plugin.getName() + ":" + plugin.getVersion();
+    }
+}
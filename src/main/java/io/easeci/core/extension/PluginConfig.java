@@ -15,13 +15,15 @@ interface PluginConfig {
     PluginsConfigFile load() throws PluginSystemCriticalException;
 
     /**
-     * This method saves and reloading content to file.
-     * After save application process will load file's content itself.
-     * @return PluginConfigFile is an object with parsed information
-     *          from file plugins-config.json
-     *          It return new, fresh object with reloaded, updated information.
-     * @throws PluginSystemCriticalException is throwing when loading
-     *          of new content was not went with success.
+     * This method saves content to file immediately.
+     * Changes made by add(), enable() and disable() are saved anyway
+     * in one batch after short delay, so call this method only when
+     * file must be up to date right now.
+     * File is not read again after save, content in memory is the newest one.
+     * @return PluginConfigFile is an object with current information
+     *          saved in file plugins-config.json
+     * @throws PluginSystemCriticalException is throwing when content
+     *          in memory is not valid and cannot be saved.
      * */
     PluginsConfigFile save() throws PluginSystemCriticalException;
 
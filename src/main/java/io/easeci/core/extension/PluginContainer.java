@@ -77,6 +77,15 @@ interface PluginContainer {
      * */
     boolean remove(String pluginName, String pluginVersion);
 
+    /**
+     * Replaces instance with new one in one atomic step, so there is
+     * no moment when plugin is absent in container. Used by hot reload.
+     * @param current is instance just placed in container
+     * @param fresh is instance that takes place of current one
+     * @return true if current instance was found and replaced
+     * */
+    boolean replace(Instance current, Instance fresh);
+
     /**
      * Get information of current state of container
      * @return POJO representation of container's information.
@@ -98,4 +107,12 @@ interface PluginContainer {
      * @return size of instance of specific interface
      * */
     int implementationSize(String interfaceName);
+
+    /**
+     * @return number that is changed each time when instance
+     *         is added to, removed from or replaced in container and each time
+     *         when configuration of PluginStrategy is changed (plugin enabled or disabled),
+     *         so caller could detect that references taken before could be out of date.
+     * */
+    long version();
 }
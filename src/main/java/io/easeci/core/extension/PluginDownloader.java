@@ -31,4 +31,10 @@ abstract class PluginDownloader {
      *          just downloading asynchronously.
      * */
     abstract Stream<CompletableFuture<Plugin>> download(Set<Plugin> pluginSet);
+
+    /**
+     * Stops downloading and releases threads and connections of downloader.
+     * Downloads that are not finished yet are completed exceptionally.
+     * */
+    abstract void close();
 }
@@ -0,0 +1,204 @@
+package io.easeci.core.extension;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import io.easeci.commons.AtomicFileWriter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Persistent index of plugin's jar files stored in workspace's .cache directory.
+ * For each jar it remembers size, modification time and SHA-256 hash of file
+ * together with extracted ExtensionManifest and names of directives exposed by plugin,
+ * so on next startup jar files are not opened again as long as they were not changed.
+ * When size or modification time is different, hash decides if jar must be read again.
+ * Index is safe to use by many threads at once.
+ * @author Karol Meksuła
+ * 2020-10-25
+ * */
+@Slf4j
+class PluginIndex {
+    final static String INDEX_FILENAME = "plugin-index.json";
+    private final static ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path indexFile;
+    private final ConcurrentMap<String, Entry> entries;
+    private final AtomicBoolean changed;
+
+    private PluginIndex(Path indexFile, Map<String, Entry> entries) {
+        this.indexFile = indexFile;
+        this.entries = new ConcurrentHashMap<>(entries);
+        this.changed = new AtomicBoolean(false);
+    }
+
+    /**
+     * Loads index from file. Not existing or corrupted index file
+     * results in empty index, so all jars will be read again.
+     * */
+    static PluginIndex load(Path indexFile) {
+        if (isNull(indexFile) || !Files.isRegularFile(indexFile)) {
+            return new PluginIndex(indexFile, Collections.emptyMap());
+        }
+        try {
+            Map<String, Entry> entries = MAPPER.readValue(indexFile.toFile(), new TypeReference<Map<String, Entry>>() {});
+            return new PluginIndex(indexFile, entries);
+        } catch (IOException exception) {
+            log.error("Plugin index file {} is corrupted and will be rebuilt", indexFile, exception);
+            return new PluginIndex(indexFile, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * @return first of candidate locations that is indexed and was not changed
+     *         since last indexing, checked with one file attributes read.
+     * */
+    Optional<Path> indexedLocation(Collection<Path> candidates) {
+        for (Path candidate : candidates) {
+            Entry entry = entries.get(key(candidate));
+            if (nonNull(entry) && isUpToDate(entry, attributes(candidate))) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return ExtensionManifest from index or extracted from jar file
+     *         if jar is not indexed yet or was changed.
+     * */
+    ExtensionManifest manifest(Path jarPath) throws IOException {
+        String key = key(jarPath);
+        BasicFileAttributes attributes = Files.readAttributes(jarPath, BasicFileAttributes.class);
+        Entry entry = entries.get(key);
+        if (nonNull(entry) && isUpToDate(entry, attributes)) {
+            return entry.toManifest();
+        }
+        String sha256 = sha256(jarPath);
+        if (nonNull(entry) && sha256.equals(entry.getSha256())) {
+            entries.put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), sha256,
+                                       entry.getImplementsProperty(), entry.getEntryClassProperty(), entry.getDirectiveNames()));
+            changed.set(true);
+            return entry.toManifest();
+        }
+        ExtensionManifest extensionManifest = Utils.extractManifest(jarPath);
+        entries.put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), sha256,
+                                   extensionManifest.getImplementsProperty(), extensionManifest.getEntryClassProperty(), new ArrayList<>()));
+        changed.set(true);
+        return extensionManifest;
+    }
+
+    /**
+     * Remembers name of directive exposed by already indexed jar file.
+     * */
+    void rememberDirective(Path jarPath, String directiveName) {
+        if (isNull(jarPath) || isNull(directiveName)) {
+            return;
+        }
+        entries.computeIfPresent(key(jarPath), (key, entry) -> {
+            if (entry.getDirectiveNames().contains(directiveName)) {
+                return entry;
+            }
+            List<String> directiveNames = new ArrayList<>(entry.getDirectiveNames());
+            directiveNames.add(directiveName);
+            changed.set(true);
+            return new Entry(entry.getSize(), entry.getLastModified(), entry.getSha256(),
+                             entry.getImplementsProperty(), entry.getEntryClassProperty(), directiveNames);
+        });
+    }
+
+    List<String> directiveNames(Path jarPath) {
+        Entry entry = entries.get(key(jarPath));
+        return isNull(entry) ? Collections.emptyList() : Collections.unmodifiableList(entry.getDirectiveNames());
+    }
+
+    /**
+     * Answers without instantiating any plugin, so also for plugins that are installed but not enabled.
+     * Entries of jar files that were removed from disk are not taken into account.
+     * @return true if directive was exposed by any plugin's jar file that still exists.
+     * */
+    boolean isIndexedDirective(String directiveName) {
+        if (isNull(directiveName)) {
+            return false;
+        }
+        return entries.entrySet()
+                      .stream()
+                      .filter(entry -> entry.getValue().getDirectiveNames().contains(directiveName))
+                      .anyMatch(entry -> Files.isRegularFile(Path.of(entry.getKey())));
+    }
+
+    /**
+     * Writes index to file only if something was changed since loading.
+     * File is replaced atomically, so crash during writing never leaves broken index.
+     * */
+    void persist() {
+        if (isNull(indexFile) || !changed.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            Files.createDirectories(indexFile.getParent());
+            AtomicFileWriter.writeAtomically(indexFile, MAPPER.writeValueAsBytes(new TreeMap<>(entries)));
+        } catch (IOException exception) {
+            changed.set(true);
+            log.error("Cannot save plugin index to file {}", indexFile, exception);
+            logit(PLUGIN_EVENT, "Plugin index was not saved, jar files will be read again on next startup", THREE);
+        }
+    }
+
+    private static boolean isUpToDate(Entry entry, BasicFileAttributes attributes) {
+        return nonNull(attributes)
+                && attributes.size() == entry.getSize()
+                && attributes.lastModifiedTime().toMillis() == entry.getLastModified();
+    }
+
+    private static BasicFileAttributes attributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    private static String key(Path jarPath) {
+        return jarPath.toAbsolutePath().normalize().toString();
+    }
+
+    private static String sha256(Path jarPath) throws IOException {
+        return com.google.common.io.Files.asByteSource(jarPath.toFile()).hash(Hashing.sha256()).toString();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Entry {
+        private long size;
+        private long lastModified;
+        private String sha256;
+        private String implementsProperty;
+        private String entryClassProperty;
+        private List<String> directiveNames = new ArrayList<>();
+
+        ExtensionManifest toManifest() {
+            return ExtensionManifest.of(implementsProperty, entryClassProperty);
+        }
+    }
+}
@@ -39,4 +39,14 @@ interface PluginLoader {
      *                       that is persisted in plugins-config.json file.
      * */
     Instance reinstantiatePlugin(Instance instance, PluginStrategy pluginStrategy);
+
+    /**
+     * Hot reload of plugin. New instance is created in new class loader,
+     * calls of current instance that are in progress are finished,
+     * instances are swapped in PluginContainer atomically
+     * and class loader of current instance is closed.
+     * @param instance is a object obtained from PluginContainer, that should be reloaded.
+     * @return new instance just placed in PluginContainer
+     * */
+    Instance reload(Instance instance);
 }
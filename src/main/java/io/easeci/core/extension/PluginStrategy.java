@@ -60,4 +60,11 @@ interface PluginStrategy {
      * because it is searching in whole set of plugin's config.
      * */
     ConfigDescription find(String pluginName, String pluginVersion);
+
+    /**
+     * @return number that is changed each time when configuration of plugins
+     *         is loaded or modified (plugin added, enabled or disabled),
+     *         so choice made by this strategy before could be out of date.
+     * */
+    long configurationVersion();
 }
@@ -0,0 +1,304 @@
+package io.easeci.core.extension;
+
+import io.easeci.core.extension.PluginSupervisorSettings.RestartPolicy;
+import io.easeci.extension.Standalone;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.ONE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Runs each Standalone plugin on its own thread with Future handle.
+ * Threads are virtual when JVM supports it, otherwise platform daemon threads.
+ * No more than maxSize plugins can be supervised at once, plugin that
+ * exceeds this limit is rejected and not started at all.
+ * When start() method of plugin ends, supervisor decides by RestartPolicy
+ * whether plugin should be started again after exponential backoff.
+ * @author Karol Meksuła
+ * 2020-10-29
+ * */
+@Slf4j
+class PluginSupervisor implements Closeable {
+    private final PluginContainer pluginContainer;
+    private final PluginSupervisorSettings settings;
+    private final Semaphore admission;
+    private final ThreadFactory threadFactory;
+    private final ScheduledExecutorService restartScheduler;
+    private final Map<Standalone, Supervised> supervised;
+    private final Map<Standalone, SupervisedPlugin> retired;
+
+    enum Status { RUNNING, RESTARTING, COMPLETED, FAILED, STOPPED }
+
+    PluginSupervisor(PluginContainer pluginContainer, PluginSupervisorSettings settings) {
+        this.pluginContainer = pluginContainer;
+        this.settings = settings;
+        this.admission = new Semaphore(Math.max(1, settings.getMaxSize()));
+        this.threadFactory = settings.isVirtualThreads()
+                ? virtualThreadFactory().orElseGet(PluginSupervisor::platformThreadFactory)
+                : platformThreadFactory();
+        this.restartScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plugin-supervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.supervised = new ConcurrentHashMap<>();
+        this.retired = Collections.synchronizedMap(new WeakHashMap<>());
+    }
+
+    /**
+     * @return Future of first run of plugin or empty if plugin was rejected,
+     *         because limit of supervised plugins is reached or plugin is just running.
+     * */
+    Optional<Future<?>> supervise(Standalone standalone) {
+        if (supervised.containsKey(standalone)) {
+            logit(PLUGIN_EVENT, "Standalone plugin is just supervised, cannot run it second time", THREE);
+            return Optional.empty();
+        }
+        if (!admission.tryAcquire()) {
+            logit(PLUGIN_EVENT, "Cannot run standalone plugin, limit of " + settings.getMaxSize() + " running plugins is reached", ONE);
+            return Optional.empty();
+        }
+        Supervised entry = new Supervised(standalone);
+        if (nonNull(supervised.putIfAbsent(standalone, entry))) {
+            admission.release();
+            return Optional.empty();
+        }
+        return launch(entry, null);
+    }
+
+    /**
+     * Calls stop() of plugin, interrupts its thread and releases place for next plugin.
+     * */
+    boolean stop(Standalone standalone) {
+        Supervised entry = supervised.get(standalone);
+        if (isNull(entry)) {
+            return false;
+        }
+        synchronized (entry) {
+            entry.status = Status.STOPPED;
+            if (nonNull(entry.pendingRestart)) {
+                entry.pendingRestart.cancel(false);
+            }
+        }
+        try {
+            standalone.stop();
+        } catch (Throwable throwable) {
+            log.error("Standalone plugin threw exception while stopping", throwable);
+        }
+        if (nonNull(entry.future)) {
+            entry.future.cancel(true);
+        }
+        release(entry);
+        return true;
+    }
+
+    Optional<SupervisedPlugin> find(Standalone standalone) {
+        return Optional.ofNullable(supervised.get(standalone)).map(Supervised::snapshot);
+    }
+
+    List<SupervisedPlugin> supervised() {
+        return supervised.values().stream()
+                .map(Supervised::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    int availablePlaces() {
+        return admission.availablePermits();
+    }
+
+    /**
+     * Plugin is launched only when its status is still expectedStatus (null before first run),
+     * checked together with transition to RUNNING, so plugin stopped meanwhile is not launched again.
+     * */
+    private Optional<Future<?>> launch(Supervised entry, Status expectedStatus) {
+        FutureTask<Void> task = new FutureTask<>(() -> run(entry), null);
+        Thread thread = threadFactory.newThread(task);
+        synchronized (entry) {
+            if (entry.status != expectedStatus) {
+                return Optional.empty();
+            }
+            entry.future = task;
+            entry.thread = thread;
+            entry.status = Status.RUNNING;
+            entry.startedAt = LocalDateTime.now();
+        }
+        int identityHashCode = System.identityHashCode(entry.standalone);
+        pluginContainer.findByIdentityHashCode(identityHashCode)
+                .ifPresentOrElse(instance -> {
+                    instance.setStarted(true);
+                    instance.assignThread(thread);
+                    logit(PLUGIN_EVENT, "[Standalone plugin] Correctly found Instance by hashCode["
+                            + identityHashCode + "], plugin: " + instance.getPlugin().toShortString()
+                            + " assigned to running in Thread: " + thread, THREE);
+                }, () -> logit(PLUGIN_EVENT, "Cannot find Instance by hashCode[" + identityHashCode + "] of plugin object", THREE));
+        thread.start();
+        return Optional.of(task);
+    }
+
+    private void run(Supervised entry) {
+        Throwable failure = null;
+        try {
+            entry.standalone.start();
+        } catch (Throwable throwable) {
+            failure = throwable;
+            log.error("Standalone plugin failed in thread: {}", Thread.currentThread().getName(), throwable);
+        }
+        afterRun(entry, failure);
+    }
+
+    private void afterRun(Supervised entry, Throwable failure) {
+        synchronized (entry) {
+            if (entry.status == Status.STOPPED) {
+                return;
+            }
+            entry.lastFailure = failure;
+            boolean restart = shouldRestart(failure) && entry.restarts < settings.getMaxRestarts();
+            if (restart) {
+                entry.restarts++;
+                entry.status = Status.RESTARTING;
+                long backoff = Math.min(settings.getMaxBackoffMillis(), settings.getBackoffMillis() * (1L << Math.min(entry.restarts - 1, 30)));
+                logit(PLUGIN_EVENT, "Standalone plugin will be started again in " + backoff + " ms, restart "
+                        + entry.restarts + " of " + settings.getMaxRestarts(), THREE);
+                entry.pendingRestart = restartScheduler.schedule(() -> launch(entry, Status.RESTARTING), backoff, TimeUnit.MILLISECONDS);
+                return;
+            }
+            entry.status = isNull(failure) ? Status.COMPLETED : Status.FAILED;
+        }
+        markNotStarted(entry);
+        release(entry);
+    }
+
+    private boolean shouldRestart(Throwable failure) {
+        RestartPolicy restartPolicy = settings.getRestartPolicy();
+        return restartPolicy == RestartPolicy.ALWAYS
+                || (restartPolicy == RestartPolicy.ON_FAILURE && nonNull(failure));
+    }
+
+    private void markNotStarted(Supervised entry) {
+        pluginContainer.findByIdentityHashCode(System.identityHashCode(entry.standalone))
+                .ifPresent(instance -> instance.setStarted(false));
+    }
+
+    private void release(Supervised entry) {
+        if (supervised.remove(entry.standalone, entry)) {
+            admission.release();
+            retired.put(entry.standalone, entry.snapshot());
+        }
+    }
+
+    /**
+     * @return state of supervised plugin or last known state of plugin that is not supervised anymore
+     * */
+    Optional<SupervisedPlugin> lastState(Standalone standalone) {
+        return find(standalone).or(() -> Optional.ofNullable(retired.get(standalone)));
+    }
+
+    @Override
+    public void close() {
+        new ArrayList<>(supervised.keySet()).forEach(this::stop);
+        restartScheduler.shutdownNow();
+    }
+
+    /**
+     * Thread.ofVirtual() is called by reflection, so code still compiles
+     * and works on JVM versions without virtual threads.
+     * */
+    static Optional<ThreadFactory> virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "standalone-plugin-", 1L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, "standalone-plugin-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Supervised {
+        private final Standalone standalone;
+        private volatile Status status;
+        private volatile Future<?> future;
+        private volatile Thread thread;
+        private volatile ScheduledFuture<?> pendingRestart;
+        private volatile LocalDateTime startedAt;
+        private volatile Throwable lastFailure;
+        private volatile int restarts;
+
+        private Supervised(Standalone standalone) {
+            this.standalone = standalone;
+        }
+
+        /**
+         * Fields are read under lock of entry, but state() of plugin is called
+         * after releasing it, so slow plugin does not block supervisor.
+         * */
+        SupervisedPlugin snapshot() {
+            Status status;
+            Thread thread;
+            int restarts;
+            LocalDateTime startedAt;
+            Throwable lastFailure;
+            synchronized (this) {
+                status = this.status;
+                thread = this.thread;
+                restarts = this.restarts;
+                startedAt = this.startedAt;
+                lastFailure = this.lastFailure;
+            }
+            boolean alive = nonNull(thread) && thread.isAlive();
+            return new SupervisedPlugin(status, nonNull(thread) ? thread.getName() : null, alive,
+                    alive && status == Status.RUNNING && reportsRunning(), restarts, startedAt,
+                    isNull(lastFailure) ? null : lastFailure.toString());
+        }
+
+        private boolean reportsRunning() {
+            try {
+                return isNull(standalone.state()) || standalone.state().isRunning();
+            } catch (Throwable throwable) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * State and health of supervised plugin in one moment.
+     * Plugin is healthy when its thread is alive and plugin itself reports that it is running.
+     * */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    static class SupervisedPlugin {
+        private final Status status;
+        private final String threadName;
+        private final boolean threadAlive;
+        private final boolean healthy;
+        private final int restarts;
+        private final LocalDateTime startedAt;
+        private final String lastFailure;
+    }
+}
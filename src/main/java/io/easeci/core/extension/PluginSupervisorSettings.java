@@ -0,0 +1,71 @@
+package io.easeci.core.extension;
+
+import io.easeci.commons.YamlUtils;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+import static io.easeci.core.workspace.LocationUtils.getPluginsYmlLocation;
+
+/**
+ * Configuration of PluginSupervisor, declared in plugins.yml
+ * in section plugins.local.threadpool.
+ * @author Karol Meksuła
+ * 2020-10-29
+ * */
+@Slf4j
+@Getter
+@Builder
+@ToString
+class PluginSupervisorSettings {
+    final static int DEFAULT_MAX_SIZE = 100,
+                     DEFAULT_MAX_RESTARTS = 3;
+    final static long DEFAULT_BACKOFF_MILLIS = 1_000,
+                      DEFAULT_MAX_BACKOFF_MILLIS = 60_000;
+
+    enum RestartPolicy {
+        /** Plugin is never started again */
+        NEVER,
+        /** Plugin is started again only when start() threw exception */
+        ON_FAILURE,
+        /** Plugin is started again each time when start() returned or threw exception */
+        ALWAYS
+    }
+
+    @Builder.Default private int maxSize = DEFAULT_MAX_SIZE;
+    @Builder.Default private boolean virtualThreads = true;
+    @Builder.Default private RestartPolicy restartPolicy = RestartPolicy.ON_FAILURE;
+    @Builder.Default private int maxRestarts = DEFAULT_MAX_RESTARTS;
+    @Builder.Default private long backoffMillis = DEFAULT_BACKOFF_MILLIS;
+    @Builder.Default private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+
+    /**
+     * Reads configuration from plugins.yml file placed in workspace.
+     * Values that are not declared in file are replaced with defaults.
+     * */
+    static PluginSupervisorSettings fromPluginsYml() {
+        Map<?, ?> yamlValues = YamlUtils.ymlLoad(getPluginsYmlLocation());
+        return PluginSupervisorSettings.builder()
+                .maxSize(retrieveOrDefault(yamlValues, "max-size", (Number) DEFAULT_MAX_SIZE).intValue())
+                .virtualThreads(retrieveOrDefault(yamlValues, "virtual-threads", true))
+                .restartPolicy(RestartPolicy.valueOf(retrieveOrDefault(yamlValues, "restart.policy", RestartPolicy.ON_FAILURE.name()).toUpperCase()))
+                .maxRestarts(retrieveOrDefault(yamlValues, "restart.max-restarts", (Number) DEFAULT_MAX_RESTARTS).intValue())
+                .backoffMillis(retrieveOrDefault(yamlValues, "restart.backoff", (Number) DEFAULT_BACKOFF_MILLIS).longValue())
+                .maxBackoffMillis(retrieveOrDefault(yamlValues, "restart.max-backoff", (Number) DEFAULT_MAX_BACKOFF_MILLIS).longValue())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T retrieveOrDefault(Map<?, ?> yamlValues, String refs, T defaultValue) {
+        try {
+            Object value = YamlUtils.ymlGet(yamlValues, "plugins.local.threadpool." + refs).getValue();
+            return value == null ? defaultValue : (T) value;
+        } catch (Throwable throwable) {
+            log.info("Value of [plugins.local.threadpool.{}] not found in plugins.yml, default {} is taken", refs, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package io.easeci.core.extension;
 
 import java.lang.reflect.InvocationTargetException;
-import java.net.URL;
-import java.net.URLClassLoader;
 
 import static java.util.Objects.isNull;
 
@@ -27,12 +25,12 @@ class ReflectiveFactory<T> {
 
     /**
      * Creates an object using the reflection mechanism.
+     * @param classLoader is a loader of plugin's version, entry class is loaded by it.
      * @return object of type declared in class level.
      * */
     @SuppressWarnings("unchecked")
-    T instantiate(Plugin.JarArchive jarArchive) {
+    T instantiate(Plugin.JarArchive jarArchive, ClassLoader classLoader) {
         try {
-            URLClassLoader classLoader = new URLClassLoader(new URL[]{jarArchive.getJarUrl()}, Thread.currentThread().getContextClassLoader());
             Class<?> myClass = Class.forName(jarArchive.getExtensionManifest().getEntryClassProperty(), true, classLoader);
             return (T) myClass.getConstructor(new Class[]{}).newInstance(new Object[]{});
         } catch (ClassNotFoundException exception) {
@@ -0,0 +1,89 @@
+package io.easeci.core.extension;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps already resolved references (chosen by PluginStrategy or gathered)
+ * per interface and type, so hot path of ExtensionSystem does not touch
+ * PluginStrategy and does not cast instances again on each call.
+ * Snapshot is versioned by PluginContainer's version and by invalidations
+ * requested when plugins are enabled, disabled or reloaded,
+ * and it is replaced by new empty one when any of them is changed.
+ * Reading of not changed snapshot does not take any lock.
+ * @author Karol Meksuła
+ * 2020-10-25
+ * */
+class ResolvedExtensions {
+    private final PluginContainer pluginContainer;
+    private final AtomicLong invalidations;
+    private volatile Snapshot snapshot;
+
+    ResolvedExtensions(PluginContainer pluginContainer) {
+        this.pluginContainer = pluginContainer;
+        this.invalidations = new AtomicLong(0);
+        this.snapshot = new Snapshot(-1, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Optional<T> get(String interfaceName, Class<T> type) {
+        return (Optional<T>) current().specific.computeIfAbsent(Key.of(interfaceName, type),
+                key -> Optional.ofNullable(pluginContainer.getSpecific(interfaceName, type)));
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> List<T> getAll(String interfaceName, Class<T> type) {
+        return (List<T>) current().gathered.computeIfAbsent(Key.of(interfaceName, type),
+                key -> Collections.unmodifiableList(new ArrayList<>(pluginContainer.getGathered(interfaceName, type))));
+    }
+
+    /**
+     * Forces resolving all references again on next call,
+     * use it when something changed outside of PluginContainer,
+     * for instance plugin was enabled or disabled in configuration.
+     * */
+    void invalidate() {
+        invalidations.incrementAndGet();
+    }
+
+    private Snapshot current() {
+        Snapshot current = this.snapshot;
+        long containerVersion = pluginContainer.version();
+        long invalidation = invalidations.get();
+        if (current.containerVersion == containerVersion && current.invalidation == invalidation) {
+            return current;
+        }
+        Snapshot fresh = new Snapshot(containerVersion, invalidation);
+        this.snapshot = fresh;
+        return fresh;
+    }
+
+    private static class Snapshot {
+        private final long containerVersion;
+        private final long invalidation;
+        private final ConcurrentMap<Key, Optional<?>> specific;
+        private final ConcurrentMap<Key, List<?>> gathered;
+
+        private Snapshot(long containerVersion, long invalidation) {
+            this.containerVersion = containerVersion;
+            this.invalidation = invalidation;
+            this.specific = new ConcurrentHashMap<>();
+            this.gathered = new ConcurrentHashMap<>();
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor(staticName = "of")
+    private static class Key {
+        private final String interfaceName;
+        private final Class<?> type;
+    }
+}
@@ -72,9 +72,10 @@ class Utils {
      * @return ExtensionManifest is a representation of required information
      * */
     static ExtensionManifest extractManifest(Path jarPath) throws IOException {
-        JarFile jarFile = new JarFile(jarPath.toFile());
-        Manifest manifest = jarFile.getManifest();
-        Attributes mainAttributes = manifest.getMainAttributes();
-        return ExtensionManifest.of(mainAttributes);
+        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+            Manifest manifest = jarFile.getManifest();
+            Attributes mainAttributes = manifest.getMainAttributes();
+            return ExtensionManifest.of(mainAttributes);
+        }
     }
 }
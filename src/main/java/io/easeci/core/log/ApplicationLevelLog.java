@@ -5,7 +5,7 @@ import io.easeci.core.log.file.LogSaverFactory;
 import io.easeci.core.output.Event;
 import io.easeci.core.output.EventType;
 import io.easeci.core.workspace.LocationUtils;
-import io.easeci.commons.DirUtils;
+import io.easeci.core.workspace.WorkspaceManifest;
 import io.easeci.commons.FileUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -20,11 +20,13 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static io.easeci.core.log.Publishers.SYSTEM;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 @Slf4j
 public class ApplicationLevelLog implements LogManager {
     public static final String LOGFILE_PREFIX = "easeci-logs-",
                                 LOG_DIRECTORY = "/log/";
+    private static final int DEFAULT_SUMMARY_PERIOD_SECONDS = 60;
     private static ApplicationLevelLog applicationLevelLog;
     private Queue<Event> eventQueue;
     private LogSaver logSaver;
@@ -64,12 +66,79 @@ public class ApplicationLevelLog implements LogManager {
                 savingStrategy = LogSavingStrategy.getDefault();
             }
             ApplicationLevelLog.applicationLevelLog.logSaver = LogSaverFactory.factorize(savingStrategy, applicationLevelLog.eventQueue, applicationLevelLog.currentLogfile);
+            applicationLevelLog.scheduleSuppressedSummary();
         }
         return applicationLevelLog;
     }
 
+    /**
+     * Levels listed in general.yml, separated by comma, are not logged at all.
+     * Bootstrapper applies them once at start, before anything is logged,
+     * because logit(..) of disabled level never creates ApplicationLevelLog.
+     * general.yml is not watched, so changed list is applied on next start.
+     * */
+    public static void disableLevels() {
+        String disabledLevels;
+        try {
+            disabledLevels = LocationUtils.retrieveFromGeneral("log.disabledLevels");
+        } catch (Throwable throwable) {
+            return;
+        }
+        for (String levelName : disabledLevels.split(",")) {
+            if (levelName.isBlank()) {
+                continue;
+            }
+            try {
+                ApplicationLevelLogFacade.disable(ApplicationLevelLogFacade.LogLevelName.valueOf(levelName.trim().toUpperCase()));
+            } catch (IllegalArgumentException exception) {
+                log.error("Unknown log level in general.yml: {}", levelName);
+            }
+        }
+    }
+
+    /**
+     * Limits of LogRateLimiter are read from general.yml by Bootstrapper once at start,
+     * because limits of levels are checked by logit(..) before ApplicationLevelLog exists.
+     * */
+    public static void configureLimits() {
+        LogRateLimiter.configure();
+    }
+
+    /**
+     * Summary of Events suppressed by LogRateLimiter is saved periodically
+     * and is never limited itself.
+     * */
+    private void scheduleSuppressedSummary() {
+        int summaryPeriodSeconds;
+        try {
+            summaryPeriodSeconds = LocationUtils.retrieveFromGeneralInt("log.limits.summaryPeriodSeconds");
+        } catch (Throwable throwable) {
+            summaryPeriodSeconds = DEFAULT_SUMMARY_PERIOD_SECONDS;
+        }
+        long period = Math.max(1, summaryPeriodSeconds) * 1000L;
+        logDaemon.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                saveSuppressedSummary();
+            }
+        }, period, period);
+    }
+
+    void saveSuppressedSummary() {
+        Event summary = LogRateLimiter.summary();
+        if (nonNull(summary)) {
+            save(summary);
+        }
+    }
+
     @Override
     public void handle(Event event) {
+        if (LogRateLimiter.tryAcquire(event)) {
+            save(event);
+        }
+    }
+
+    private void save(Event event) {
         eventQueue.add(event);
         logSaver.save();
     }
@@ -78,9 +147,7 @@ public class ApplicationLevelLog implements LogManager {
     public Path initLogFile() {
         String workspaceLocation = LocationUtils.getWorkspaceLocation();
         String logDirLocation = workspaceLocation.concat(LOG_DIRECTORY);
-        if (!DirUtils.isDirectoryExists(logDirLocation)) {
-            DirUtils.directoryCreate(logDirLocation);
-        }
+        WorkspaceManifest.getInstance().ensureDirectory(Path.of(logDirLocation));
         this.logDaemon = logDaemonInvoke();
         return FileUtils.fileSave(logDirLocation.concat(LOGFILE_PREFIX.concat(LocalDate.now().toString())), "", true);
     }
@@ -1,56 +1,94 @@
 package io.easeci.core.log;
 
-import io.easeci.core.output.Event;
-import io.easeci.core.output.EventType;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.helpers.MessageFormatter;
 
-import java.time.LocalDateTime;
-
-import static io.easeci.core.log.Publishers.SYSTEM;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Entry point for logging of application level events.
+ * Each LogLevelName could be disabled, and then logit(..) returns
+ * before any allocation. Each LogLevelName could be also sampled
+ * and rate limited by LogRateLimiter. Content could be passed as ready String,
+ * as lazy Supplier or as template with '{}' placeholders, so content
+ * of disabled levels is never computed.
+ * @author Karol Meksuła
+ * 2020-03-03
+ * */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ApplicationLevelLogFacade {
-    private final static ApplicationLevelLog applicationLevelLog = ApplicationLevelLog.getInstance();
+    private final static AtomicInteger disabledLevels = new AtomicInteger(0);
 
     public static void note(String title, String content) {
-        applicationLevelLog.handle(Event.builder()
-                .eventMeta(Event.EventMeta.builder()
-                        .eventType(EventType.API)
-                        .publishedBy(SYSTEM.name())
-                        .publishTimestamp(LocalDateTime.now())
-                        .title(title)
-                        .build())
-                .content(content)
-                .build());
+        ApplicationLevelLog.getInstance().handle(LogEvents.note(title, content));
     }
 
     public static void logit(LogLevelName logLevelName, String content, LogLevelPrefix prefix) {
-        log.info(prefix.toPrefix() + " " + content);
-        applicationLevelLog.handle(Event.builder()
-                .eventMeta(Event.EventMeta.builder()
-                        .eventType(EventType.API)
-                        .publishedBy(SYSTEM.name())
-                        .publishTimestamp(LocalDateTime.now())
-                        .title(logLevelName.toLevelName())
-                        .build())
-                .content(content)
-                .build());
+        if (isEnabled(logLevelName) && LogRateLimiter.tryAcquire(logLevelName)) {
+            publish(logLevelName, content, prefix);
+        }
     }
 
     public static void logit(LogLevelName logLevelName, String content) {
-        log.info(LogLevelPrefix.FIVE.toPrefix() + " " + content);
-        applicationLevelLog.handle(Event.builder()
-                .eventMeta(Event.EventMeta.builder()
-                        .eventType(EventType.API)
-                        .publishedBy(SYSTEM.name())
-                        .publishTimestamp(LocalDateTime.now())
-                        .title(logLevelName.toLevelName())
-                        .build())
-                .content(content)
-                .build());
+        logit(logLevelName, content, LogLevelPrefix.FIVE);
+    }
+
+    /**
+     * @param content is computed only when logLevelName is enabled
+     * */
+    public static void logit(LogLevelName logLevelName, Supplier<String> content, LogLevelPrefix prefix) {
+        if (isEnabled(logLevelName) && LogRateLimiter.tryAcquire(logLevelName)) {
+            publish(logLevelName, content.get(), prefix);
+        }
+    }
+
+    public static void logit(LogLevelName logLevelName, Supplier<String> content) {
+        logit(logLevelName, content, LogLevelPrefix.FIVE);
+    }
+
+    /**
+     * @param template is a content with '{}' placeholders, formatted
+     *                 in the same way as in SLF4J, only when logLevelName is enabled
+     * */
+    public static void logit(LogLevelName logLevelName, LogLevelPrefix prefix, String template, Object argument) {
+        if (isEnabled(logLevelName) && LogRateLimiter.tryAcquire(logLevelName)) {
+            publish(logLevelName, MessageFormatter.format(template, argument).getMessage(), prefix);
+        }
+    }
+
+    public static void logit(LogLevelName logLevelName, LogLevelPrefix prefix, String template, Object firstArgument, Object secondArgument) {
+        if (isEnabled(logLevelName) && LogRateLimiter.tryAcquire(logLevelName)) {
+            publish(logLevelName, MessageFormatter.format(template, firstArgument, secondArgument).getMessage(), prefix);
+        }
+    }
+
+    public static void logit(LogLevelName logLevelName, LogLevelPrefix prefix, String template, Object... arguments) {
+        if (isEnabled(logLevelName) && LogRateLimiter.tryAcquire(logLevelName)) {
+            publish(logLevelName, MessageFormatter.arrayFormat(template, arguments).getMessage(), prefix);
+        }
+    }
+
+    private static void publish(LogLevelName logLevelName, String content, LogLevelPrefix prefix) {
+        if (log.isInfoEnabled()) {
+            log.info("{} {}", prefix.toPrefix(), content);
+        }
+        ApplicationLevelLog.getInstance().handle(LogEvents.event(logLevelName, content));
+    }
+
+    public static boolean isEnabled(LogLevelName logLevelName) {
+        return (disabledLevels.get() & logLevelName.mask()) == 0;
+    }
+
+    public static void enable(LogLevelName logLevelName) {
+        disabledLevels.getAndUpdate(disabled -> disabled & ~logLevelName.mask());
+    }
+
+    public static void disable(LogLevelName logLevelName) {
+        disabledLevels.getAndUpdate(disabled -> disabled | logLevelName.mask());
     }
 
     /**
@@ -89,6 +127,10 @@ public class ApplicationLevelLogFacade {
             }
         };
         public abstract String toLevelName();
+
+        int mask() {
+            return 1 << ordinal();
+        }
     }
 
     public enum LogLevelPrefix {
@@ -0,0 +1,66 @@
+package io.easeci.core.log;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import static io.easeci.core.log.Publishers.SYSTEM;
+
+/**
+ * Cheap construction of Events published by ApplicationLevelLogFacade.
+ * Events are created with plain constructors instead of builders and all
+ * constant parts (publisher, titles of levels) are shared between Events.
+ * Events are not pooled, because they are kept in queue of LogSaver
+ * and must stay immutable after publication.
+ * Publication time is taken as epoch nanoseconds without any allocation.
+ * Package scope should be kept.
+ * @author Karol Meksuła
+ * 2020-10-21
+ * */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class LogEvents {
+    private final static long NANOS_IN_MILLI = 1_000_000L;
+    private final static String PUBLISHER = SYSTEM.name();
+    private final static String[] TITLES = titles();
+    private static volatile long epochOffsetNanos = currentEpochOffsetNanos();
+
+    private static String[] titles() {
+        ApplicationLevelLogFacade.LogLevelName[] levels = ApplicationLevelLogFacade.LogLevelName.values();
+        String[] titles = new String[levels.length];
+        for (ApplicationLevelLogFacade.LogLevelName level : levels) {
+            titles[level.ordinal()] = level.toLevelName();
+        }
+        return titles;
+    }
+
+    static Event event(ApplicationLevelLogFacade.LogLevelName logLevelName, String content) {
+        return note(TITLES[logLevelName.ordinal()], content);
+    }
+
+    static Event note(String title, String content) {
+        return event(EventType.API, title, content);
+    }
+
+    static Event event(EventType eventType, String title, String content) {
+        return new Event(new Event.EventMeta(eventType, title, null, PUBLISHER, epochNanos()), content);
+    }
+
+    /**
+     * Wall clock time with nanosecond resolution, computed from System.nanoTime().
+     * When wall clock was moved (for example by NTP) and both clocks differ more
+     * than one millisecond, clocks are synchronized again.
+     * */
+    static long epochNanos() {
+        long epochNanos = epochOffsetNanos + System.nanoTime();
+        if (Math.abs(epochNanos / NANOS_IN_MILLI - System.currentTimeMillis()) > 1) {
+            epochOffsetNanos = currentEpochOffsetNanos();
+            epochNanos = epochOffsetNanos + System.nanoTime();
+        }
+        return epochNanos;
+    }
+
+    private static long currentEpochOffsetNanos() {
+        return System.currentTimeMillis() * NANOS_IN_MILLI - System.nanoTime();
+    }
+}
@@ -0,0 +1,174 @@
+package io.easeci.core.log;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import io.easeci.core.workspace.LocationUtils;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName;
+import static java.util.Objects.isNull;
+
+/**
+ * Sampling and rate limiting of logs, separately for each LogLevelName
+ * (checked by ApplicationLevelLogFacade before content is computed)
+ * and for each EventType (checked by ApplicationLevelLog before Event is saved).
+ * Level or type without limit is not limited at all.
+ * Suppressed Events are counted and reported periodically in summary Event,
+ * so amount of saved logs is bounded but the signal is not lost.
+ * Limits are read from general.yml, for example:
+ *   log.limits.PLUGIN_EVENT.sampling: 10  - only each 10th Event is logged
+ *   log.limits.PLUGIN_EVENT.rate: 100     - at most 100 Events per second
+ *   log.limits.PLUGIN_EVENT.burst: 500    - at most 500 Events at once
+ * Package scope should be kept.
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class LogRateLimiter {
+    final static String SUMMARY_TITLE = "Suppressed events";
+    private final static AtomicReferenceArray<Limit> levelLimits = new AtomicReferenceArray<>(LogLevelName.values().length);
+    private final static AtomicReferenceArray<Limit> typeLimits = new AtomicReferenceArray<>(EventType.values().length);
+
+    static boolean tryAcquire(LogLevelName logLevelName) {
+        Limit limit = levelLimits.get(logLevelName.ordinal());
+        return isNull(limit) || limit.tryAcquire();
+    }
+
+    static boolean tryAcquire(Event event) {
+        if (isNull(event) || isNull(event.getEventMeta()) || isNull(event.getEventMeta().getEventType())) {
+            return true;
+        }
+        Limit limit = typeLimits.get(event.getEventMeta().getEventType().ordinal());
+        return isNull(limit) || limit.tryAcquire();
+    }
+
+    /**
+     * @param limit is a new limit of level, or null when level should not be limited
+     * */
+    static void limit(LogLevelName logLevelName, Limit limit) {
+        levelLimits.set(logLevelName.ordinal(), limit);
+    }
+
+    static void limit(EventType eventType, Limit limit) {
+        typeLimits.set(eventType.ordinal(), limit);
+    }
+
+    static void configure() {
+        for (LogLevelName logLevelName : LogLevelName.values()) {
+            limit(logLevelName, Limit.fromGeneral(logLevelName.name()));
+        }
+        for (EventType eventType : EventType.values()) {
+            limit(eventType, Limit.fromGeneral(eventType.name()));
+        }
+    }
+
+    /**
+     * Takes counters of suppressed Events and resets them.
+     * @return summary Event or null when nothing was suppressed since last call
+     * */
+    static Event summary() {
+        StringBuilder content = new StringBuilder();
+        for (LogLevelName logLevelName : LogLevelName.values()) {
+            appendSuppressed(content, logLevelName.name(), levelLimits.get(logLevelName.ordinal()));
+        }
+        for (EventType eventType : EventType.values()) {
+            appendSuppressed(content, eventType.name(), typeLimits.get(eventType.ordinal()));
+        }
+        if (content.length() == 0) {
+            return null;
+        }
+        return LogEvents.event(EventType.SPECIAL, SUMMARY_TITLE, content.toString());
+    }
+
+    private static void appendSuppressed(StringBuilder content, String name, Limit limit) {
+        if (isNull(limit)) {
+            return;
+        }
+        long suppressed = limit.suppressed.getAndSet(0);
+        if (suppressed > 0) {
+            if (content.length() > 0) {
+                content.append(", ");
+            }
+            content.append(name).append(": ").append(suppressed);
+        }
+    }
+
+    /**
+     * Sampling and token bucket in one lock-free object.
+     * Token bucket is implemented as generic cell rate algorithm,
+     * so its whole state is one theoretical arrival time, updated with CAS.
+     * */
+    static class Limit {
+        private final long sampling;
+        private final long emissionIntervalNanos;
+        private final long burstNanos;
+        private final AtomicLong seen;
+        private final AtomicLong theoreticalArrival;
+        private final AtomicLong suppressed;
+
+        /**
+         * @param sampling is a number n, only each n-th Event passes; 1 means no sampling
+         * @param ratePerSecond is a number of Events that passes per second; 0 means no rate limit
+         * @param burst is a number of Events that could pass at once, when there was no Events for a while
+         * */
+        Limit(int sampling, int ratePerSecond, int burst) {
+            this.sampling = Math.max(1, sampling);
+            this.emissionIntervalNanos = ratePerSecond > 0 ? 1_000_000_000L / ratePerSecond : 0;
+            this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+            this.seen = new AtomicLong(0);
+            this.theoreticalArrival = new AtomicLong(System.nanoTime());
+            this.suppressed = new AtomicLong(0);
+        }
+
+        static Limit fromGeneral(String name) {
+            int sampling = retrieve("log.limits." + name + ".sampling", 1);
+            int rate = retrieve("log.limits." + name + ".rate", 0);
+            int burst = retrieve("log.limits." + name + ".burst", rate);
+            if (sampling <= 1 && rate <= 0) {
+                return null;
+            }
+            log.info("====> Logs of {} are limited, sampling: 1/{}, rate: {}/s, burst: {}", name, sampling, rate, burst);
+            return new Limit(sampling, rate, burst);
+        }
+
+        private static int retrieve(String refs, int defaultValue) {
+            try {
+                return LocationUtils.retrieveFromGeneralInt(refs);
+            } catch (Throwable throwable) {
+                return defaultValue;
+            }
+        }
+
+        boolean tryAcquire() {
+            if (sampling > 1 && seen.getAndIncrement() % sampling != 0) {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            if (emissionIntervalNanos == 0) {
+                return true;
+            }
+            while (true) {
+                long now = System.nanoTime();
+                long arrival = theoreticalArrival.get();
+                long nextArrival = Math.max(arrival, now) + emissionIntervalNanos;
+                if (nextArrival - now > burstNanos) {
+                    suppressed.incrementAndGet();
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, nextArrival)) {
+                    return true;
+                }
+            }
+        }
+
+        long suppressed() {
+            return suppressed.get();
+        }
+    }
+}
@@ -8,7 +8,12 @@ package io.easeci.core.log;
 public enum LogSavingStrategy {
     EACH,
     BATCH,
-    TIME;
+    TIME,
+    /**
+     * Each event is saved in compact binary format,
+     * see io.easeci.core.log.file.BinaryLogSaver
+     * */
+    BINARY;
 
     public static LogSavingStrategy getDefault() {
         return LogSavingStrategy.EACH;
@@ -0,0 +1,176 @@
+package io.easeci.core.log.file;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Constants and primitives of binary log format.
+ * File starts with magic bytes and version. Next there is a sequence of
+ * records, each record is prefixed by its length written as varint.
+ * Record types:
+ *   RESET      - clears dictionary and previous timestamp, starts each writing session
+ *   DICTIONARY - [varint id][varint length][utf-8 bytes], defines string used by next records
+ *   EVENT      - [zigzag varint timestamp delta in epoch nanos][varint eventType id]
+ *                [varint title id][varint publisher id][varint content length + 1][utf-8 bytes]
+ * Id 0 and content length 0 mean null. Event types, titles and publishers
+ * are repeated in almost each Event, so they are written once to dictionary.
+ * Length prefix allows reader to skip truncated record at the end of file
+ * and allows writer to truncate it before next session is appended.
+ * Package scope should be kept.
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class BinaryLogFormat {
+    final static byte[] MAGIC = {'E', 'C', 'I', 'L'};
+    final static byte VERSION = 1;
+    final static byte RESET = 0,
+                      DICTIONARY = 1,
+                      EVENT = 2;
+    final static int NULL_ID = 0,
+                     MAX_DICTIONARY_SIZE = 4096,
+                     MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Growable byte array that is reused for encoding of all records.
+     * */
+    static class RecordBuffer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void clear() {
+            this.size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] value) {
+            writeBytes(value, value.length);
+        }
+
+        void writeBytes(byte[] value, int length) {
+            ensureCapacity(length);
+            System.arraycopy(value, 0, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeZigZagLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+
+    /**
+     * Reader of primitives from one record that was loaded to memory.
+     * */
+    static class RecordInput {
+        private byte[] bytes = new byte[256];
+        private int size;
+        private int position;
+
+        /**
+         * Loads next length-prefixed record from stream.
+         * @return false on clean end of stream or when last record is truncated
+         * */
+        boolean load(InputStream input) throws IOException {
+            long length;
+            try {
+                length = BinaryLogFormat.readVarLong(input);
+            } catch (EOFException exception) {
+                return false;
+            }
+            if (length < 0 || length > MAX_RECORD_SIZE) {
+                throw new IOException("Malformed binary log, record length: " + length);
+            }
+            if (length > bytes.length) {
+                bytes = new byte[(int) length];
+            }
+            int read = input.readNBytes(bytes, 0, (int) length);
+            if (read < length) {
+                return false;
+            }
+            this.size = (int) length;
+            this.position = 0;
+            return true;
+        }
+
+        int readByte() throws IOException {
+            if (position >= size) {
+                throw new IOException("Malformed binary log, record is too short");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int current = readByte();
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed binary log, varint is too long");
+        }
+
+        long readZigZagLong() throws IOException {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString(int length) throws IOException {
+            if (length < 0 || position + length > size) {
+                throw new IOException("Malformed binary log, string exceeds record");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+    static long readVarLong(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int current = input.read();
+            if (current < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed binary log, varint is too long");
+    }
+}
@@ -0,0 +1,111 @@
+package io.easeci.core.log.file;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.easeci.core.log.file.BinaryLogFormat.*;
+import static java.util.Objects.isNull;
+
+/**
+ * Reads Events from file in binary log format described in BinaryLogFormat.
+ * Truncated record at the end of file (for example when application was killed
+ * during writing) is treated as end of file.
+ * Instance is not thread safe.
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+public class BinaryLogReader implements Closeable {
+    private final InputStream input;
+    private final RecordInput record;
+    private final List<String> dictionary;
+    private long previousEpochNanos;
+
+    public BinaryLogReader(InputStream inputStream) throws IOException {
+        this.input = new BufferedInputStream(inputStream, 64 * 1024);
+        this.record = new RecordInput();
+        this.dictionary = new ArrayList<>();
+        byte[] header = input.readNBytes(MAGIC.length + 1);
+        if (header.length < MAGIC.length + 1 || !Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length))) {
+            throw new IOException("Stream is not a binary log");
+        }
+        if (header[MAGIC.length] != VERSION) {
+            throw new IOException("Not supported version of binary log: " + header[MAGIC.length]);
+        }
+    }
+
+    public static BinaryLogReader open(Path logfile) throws IOException {
+        return new BinaryLogReader(Files.newInputStream(logfile));
+    }
+
+    public static List<Event> readAll(Path logfile) throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (BinaryLogReader reader = open(logfile)) {
+            Event event;
+            while ((event = reader.read()) != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return next Event from log or null when there is no more Events
+     * */
+    public Event read() throws IOException {
+        while (record.load(input)) {
+            int type = record.readByte();
+            if (type == RESET) {
+                dictionary.clear();
+                previousEpochNanos = 0;
+            } else if (type == DICTIONARY) {
+                int id = (int) record.readVarLong();
+                if (id != dictionary.size() + 1) {
+                    throw new IOException("Malformed binary log, unexpected dictionary id: " + id);
+                }
+                dictionary.add(record.readString((int) record.readVarLong()));
+            } else if (type == EVENT) {
+                return readEvent();
+            } else {
+                throw new IOException("Malformed binary log, unknown record type: " + type);
+            }
+        }
+        return null;
+    }
+
+    private Event readEvent() throws IOException {
+        long epochNanos = previousEpochNanos + record.readZigZagLong();
+        String eventType = lookup(record.readVarLong());
+        String title = lookup(record.readVarLong());
+        String publishedBy = lookup(record.readVarLong());
+        long contentLength = record.readVarLong();
+        String content = contentLength == 0 ? null : record.readString((int) (contentLength - 1));
+        this.previousEpochNanos = epochNanos;
+        return new Event(new Event.EventMeta(isNull(eventType) ? null : EventType.valueOf(eventType),
+                                             title, null, publishedBy, epochNanos), content);
+    }
+
+    private String lookup(long id) throws IOException {
+        if (id == NULL_ID) {
+            return null;
+        }
+        if (id > dictionary.size()) {
+            throw new IOException("Malformed binary log, unknown dictionary id: " + id);
+        }
+        return dictionary.get((int) id - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
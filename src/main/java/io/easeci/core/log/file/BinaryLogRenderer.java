@@ -0,0 +1,69 @@
+package io.easeci.core.log.file;
+
+import io.easeci.core.output.Event;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Renders binary log to legacy text format, exactly the same as
+ * text LogSavers write, so existing tools could read binary logs too.
+ * Records without type, timestamp, title or publisher cannot be written
+ * in text format, so they are skipped instead of breaking whole rendering.
+ * Could be run from command line:
+ *   java -cp easeci.jar io.easeci.core.log.file.BinaryLogRenderer <binary logfile>
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BinaryLogRenderer {
+
+    /**
+     * @return number of rendered Events, skipped ones are not counted
+     * */
+    public static long render(Path binaryLogfile, OutputStream outputStream) throws IOException {
+        long rendered = 0, skipped = 0;
+        try (BinaryLogReader reader = BinaryLogReader.open(binaryLogfile)) {
+            Event event;
+            while ((event = reader.read()) != null) {
+                if (!isRenderable(event)) {
+                    skipped++;
+                    continue;
+                }
+                outputStream.write(LogSaver.unmarshal(event));
+                rendered++;
+            }
+        }
+        outputStream.flush();
+        if (skipped > 0) {
+            log.warn("{} incomplete records of binary log {} were skipped", skipped, binaryLogfile);
+        }
+        return rendered;
+    }
+
+    private static boolean isRenderable(Event event) {
+        Event.EventMeta meta = event.getEventMeta();
+        return !isNull(meta)
+                && !isNull(meta.getEventType())
+                && !isNull(meta.getPublishTimestamp())
+                && !isNull(meta.getTitle())
+                && !isNull(meta.getPublishedBy());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: BinaryLogRenderer <binary logfile>");
+            System.exit(1);
+        }
+        render(Paths.get(args[0]), new BufferedOutputStream(System.out, 64 * 1024));
+    }
+}
@@ -0,0 +1,90 @@
+package io.easeci.core.log.file;
+
+import io.easeci.core.output.Event;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+import static java.util.Objects.isNull;
+
+/**
+ * LogSaver implementation that saves each event in binary log format,
+ * in separated file next to text logfile, with BINARY_LOGFILE_SUFFIX.
+ * File is kept open between writes and buffer is flushed after
+ * each save(), so Events are not delayed like in TimeLogSaver.
+ * Use BinaryLogRenderer to convert it to legacy text format.
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+@Slf4j
+public class BinaryLogSaver extends LogSaver {
+    public final static String BINARY_LOGFILE_SUFFIX = ".bin";
+    private final Path binaryLogfile;
+    private BinaryLogWriter writer;
+
+    public BinaryLogSaver(Queue<Event> eventQueue, Path logfile) {
+        super(eventQueue, logfile);
+        this.binaryLogfile = logfile.resolveSibling(logfile.getFileName() + BINARY_LOGFILE_SUFFIX);
+    }
+
+    @Override
+    public Predicate<Queue<Event>> queuePredicate() {
+        return eventQueue -> !eventQueue.isEmpty();
+    }
+
+    @Override
+    public synchronized Path save() {
+        try {
+            if (isNull(writer)) {
+                this.writer = new BinaryLogWriter(binaryLogfile);
+            }
+            Event event;
+            while ((event = eventQueue.poll()) != null) {
+                writer.write(event);
+            }
+            writer.flush();
+        } catch (IOException exception) {
+            log.error("Cannot save logs to binary logfile: {}", binaryLogfile, exception);
+            abortWriter();
+        }
+        return binaryLogfile;
+    }
+
+    @Override
+    public Runnable onShutdown() {
+        return () -> {
+            save();
+            closeWriter();
+        };
+    }
+
+    /**
+     * Partially written records are truncated, next save() starts new session of writer.
+     * */
+    private synchronized void abortWriter() {
+        if (isNull(writer)) {
+            return;
+        }
+        try {
+            writer.abort();
+        } catch (IOException exception) {
+            log.error("Cannot truncate binary logfile to last complete record: {}", binaryLogfile, exception);
+        }
+        this.writer = null;
+    }
+
+    private synchronized void closeWriter() {
+        if (isNull(writer)) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException exception) {
+            log.error("Cannot close binary logfile: {}", binaryLogfile, exception);
+        }
+        this.writer = null;
+    }
+}
@@ -0,0 +1,226 @@
+package io.easeci.core.log.file;
+
+import io.easeci.core.output.Event;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.easeci.core.log.file.BinaryLogFormat.*;
+import static java.util.Objects.isNull;
+
+/**
+ * Writes Events to file in binary log format described in BinaryLogFormat.
+ * Writer appends to existing file and starts its session with RESET record,
+ * so it does not have to know dictionary of previous sessions.
+ * Records are buffered in memory and written to file only as whole records,
+ * file size after last successful write is remembered, so when writing fails
+ * abort() truncates file to this size and no partial record is left in file.
+ * Partial record left by killed process is truncated when file is opened again.
+ * Instance is not thread safe.
+ * @author Karol Meksuła
+ * 2020-10-22
+ * */
+public class BinaryLogWriter implements Closeable {
+    private final static int FLUSH_THRESHOLD = 64 * 1024;
+    private final FileChannel channel;
+    private final RecordBuffer pending;
+    private final RecordBuffer record;
+    private final Map<String, Integer> dictionary;
+    private long previousEpochNanos;
+    private long writtenSize;
+
+    public BinaryLogWriter(Path logfile) throws IOException {
+        long validSize = validSize(logfile);
+        this.channel = FileChannel.open(logfile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > validSize) {
+                channel.truncate(validSize);
+            }
+            channel.position(validSize);
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        this.writtenSize = validSize;
+        this.pending = new RecordBuffer();
+        this.record = new RecordBuffer();
+        this.dictionary = new HashMap<>();
+        if (validSize == 0) {
+            pending.writeBytes(MAGIC);
+            pending.writeByte(VERSION);
+        }
+        reset();
+    }
+
+    /**
+     * @return size of header and all complete records of existing file,
+     *          or 0 when file does not exist or has no complete header
+     * @throws IOException when file exists but is not a binary log
+     * */
+    private static long validSize(Path logfile) throws IOException {
+        if (!Files.exists(logfile)) {
+            return 0;
+        }
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(logfile), 64 * 1024)) {
+            byte[] header = input.readNBytes(MAGIC.length + 1);
+            if (header.length < MAGIC.length + 1) {
+                return 0;
+            }
+            if (!Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length)) || header[MAGIC.length] != VERSION) {
+                throw new IOException("File is not a binary log: " + logfile);
+            }
+            long validSize = header.length;
+            while (true) {
+                long length;
+                try {
+                    length = BinaryLogFormat.readVarLong(input);
+                    if (length < 0 || length > MAX_RECORD_SIZE) {
+                        return validSize;
+                    }
+                    skipFully(input, length);
+                } catch (EOFException exception) {
+                    return validSize;
+                }
+                validSize += varLongSize(length) + length;
+            }
+        }
+    }
+
+    private static void skipFully(InputStream input, long length) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = input.skip(remaining);
+            if (skipped <= 0) {
+                if (input.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public void write(Event event) throws IOException {
+        if (isNull(event) || isNull(event.getEventMeta())) {
+            return;
+        }
+        Event.EventMeta meta = event.getEventMeta();
+        if (dictionary.size() + 3 > MAX_DICTIONARY_SIZE) {
+            reset();
+        }
+        int eventTypeId = intern(isNull(meta.getEventType()) ? null : meta.getEventType().name());
+        int titleId = intern(meta.getTitle());
+        int publisherId = intern(meta.getPublishedBy());
+        long epochNanos = meta.getPublishEpochNanos();
+
+        record.clear();
+        record.writeByte(EVENT);
+        record.writeZigZagLong(epochNanos - previousEpochNanos);
+        record.writeVarLong(eventTypeId);
+        record.writeVarLong(titleId);
+        record.writeVarLong(publisherId);
+        if (isNull(event.getContent())) {
+            record.writeVarLong(0);
+        } else {
+            byte[] content = event.getContent().getBytes(StandardCharsets.UTF_8);
+            record.writeVarLong(content.length + 1L);
+            record.writeBytes(content);
+        }
+        writeRecord();
+        this.previousEpochNanos = epochNanos;
+    }
+
+    private int intern(String value) throws IOException {
+        if (isNull(value)) {
+            return NULL_ID;
+        }
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = dictionary.size() + 1;
+        dictionary.put(value, newId);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        record.clear();
+        record.writeByte(DICTIONARY);
+        record.writeVarLong(newId);
+        record.writeVarLong(bytes.length);
+        record.writeBytes(bytes);
+        writeRecord();
+        return newId;
+    }
+
+    private void reset() throws IOException {
+        dictionary.clear();
+        previousEpochNanos = 0;
+        record.clear();
+        record.writeByte(RESET);
+        writeRecord();
+    }
+
+    private void writeRecord() throws IOException {
+        pending.writeVarLong(record.size());
+        pending.writeBytes(record.bytes(), record.size());
+        if (pending.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes buffered records to file. When it fails, file could contain
+     * part of these records, so writer should be aborted.
+     * */
+    public void flush() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(pending.bytes(), 0, pending.size());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        pending.clear();
+        this.writtenSize = channel.position();
+    }
+
+    /**
+     * Drops records that were not written and truncates file to its size
+     * after last successful flush(), so partial record does not corrupt next sessions.
+     * */
+    public void abort() throws IOException {
+        pending.clear();
+        try {
+            channel.truncate(writtenSize);
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (IOException exception) {
+            abort();
+            throw exception;
+        }
+        channel.close();
+    }
+}
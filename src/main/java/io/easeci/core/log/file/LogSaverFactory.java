@@ -36,6 +36,9 @@ public class LogSaverFactory {
         if (strategy.equals(LogSavingStrategy.EACH)) {
             return new EachLogSaver(eventQueue, logfile);
         }
+        if (strategy.equals(LogSavingStrategy.BINARY)) {
+            return new BinaryLogSaver(eventQueue, logfile);
+        }
         throw new RuntimeException("No matching enum class has found.");
     }
 
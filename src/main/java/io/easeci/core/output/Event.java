@@ -5,7 +5,12 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * Event is a representation of data published to specified instance of
@@ -24,6 +29,11 @@ public class Event {
     private EventMeta eventMeta;
     private String content;
 
+    /**
+     * Time of publication could be set as LocalDateTime or as epoch nanoseconds.
+     * Epoch nanoseconds are cheap to take on hot paths, LocalDateTime is
+     * computed from them only when somebody asks for it.
+     * */
     @Getter
     @Builder
     @NoArgsConstructor
@@ -33,5 +43,29 @@ public class Event {
         private String title;
         private LocalDateTime publishTimestamp;
         private String publishedBy;
+        private long publishEpochNanos;
+
+        public EventMeta(EventType eventType, String title, LocalDateTime publishTimestamp, String publishedBy) {
+            this(eventType, title, publishTimestamp, publishedBy, 0);
+        }
+
+        /**
+         * Computed value is cached. Computation is idempotent,
+         * so concurrent readers could only compute it twice.
+         * */
+        public LocalDateTime getPublishTimestamp() {
+            if (isNull(publishTimestamp) && publishEpochNanos != 0) {
+                this.publishTimestamp = LocalDateTime.ofInstant(Instant.ofEpochSecond(0, publishEpochNanos), ZoneId.systemDefault());
+            }
+            return publishTimestamp;
+        }
+
+        public long getPublishEpochNanos() {
+            if (publishEpochNanos == 0 && nonNull(publishTimestamp)) {
+                Instant instant = publishTimestamp.atZone(ZoneId.systemDefault()).toInstant();
+                this.publishEpochNanos = instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+            }
+            return publishEpochNanos;
+        }
     }
 }
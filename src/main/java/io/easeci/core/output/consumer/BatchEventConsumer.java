@@ -0,0 +1,25 @@
+package io.easeci.core.output.consumer;
+
+import io.easeci.core.output.Event;
+
+import java.util.List;
+
+/**
+ * EventConsumer extension that is able to consume many Events at once.
+ * Topic implementation delivers Events to such consumer in batches,
+ * so implementation can for example persist all of these in one I/O operation.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+public interface BatchEventConsumer extends EventConsumer {
+
+    /**
+     * Consumes batch of Events in order of publication.
+     * @param events is a non empty list of Events taken from one partition of Topic.
+     * @return number of Events from beginning of the list that were consumed with success.
+     *          Events that were not consumed will be delivered once again.
+     * @throws ConsumeException when some critical error occurred and
+     *          none of Events from batch could be treated as consumed.
+     * */
+    int consumeBatch(List<Event> events) throws ConsumeException;
+}
@@ -20,7 +20,7 @@ public interface EventConsumer extends Consumer {
      *          Returns 'true' if subscribe was ends with success.
      *          Returns 'false' if subscribe was failed.
      * */
-    boolean subscribe(Topic topic);
+    boolean subscribe(Topic<?> topic);
 
     /**
      * Removes subscription of current Topic.
@@ -0,0 +1,52 @@
+package io.easeci.core.output.consumer;
+
+import io.easeci.core.output.topic.PartitionedTopic;
+import io.easeci.core.output.topic.Topic;
+import lombok.Getter;
+
+import static java.util.Objects.isNull;
+
+/**
+ * EventConsumer that subscribes PartitionedTopic as member of consumer group.
+ * Consumers with the same groupId share partitions of Topic between each other,
+ * consumers with different groupId receive all Events independently.
+ * Concrete implementation has to implement only consume() method.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+public abstract class GroupEventConsumer implements EventConsumer {
+    @Getter
+    private final String groupId;
+    private PartitionedTopic subscribed;
+
+    public GroupEventConsumer(String groupId) {
+        if (isNull(groupId) || groupId.isBlank()) {
+            throw new IllegalArgumentException("'groupId' of GroupEventConsumer cannot be null or empty!");
+        }
+        this.groupId = groupId;
+    }
+
+    @Override
+    public synchronized boolean subscribe(Topic<?> topic) {
+        if (!(topic instanceof PartitionedTopic)) {
+            return false;
+        }
+        this.unsubscribe();
+        PartitionedTopic partitionedTopic = (PartitionedTopic) topic;
+        if (partitionedTopic.join(groupId, this)) {
+            this.subscribed = partitionedTopic;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean unsubscribe() {
+        if (isNull(subscribed)) {
+            return false;
+        }
+        boolean isLeft = subscribed.leave(groupId, this);
+        this.subscribed = null;
+        return isLeft;
+    }
+}
@@ -0,0 +1,25 @@
+package io.easeci.core.output.consumer;
+
+import io.easeci.core.log.LogManager;
+import io.easeci.core.output.Event;
+
+/**
+ * GroupEventConsumer that passes Events from Topic to LogManager,
+ * so Events published by many threads are logged by dispatcher thread of its group.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+public class LogEventConsumer extends GroupEventConsumer {
+    private final LogManager logManager;
+
+    public LogEventConsumer(String groupId, LogManager logManager) {
+        super(groupId);
+        this.logManager = logManager;
+    }
+
+    @Override
+    public boolean consume(Event event) {
+        logManager.handle(event);
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package io.easeci.core.output.publisher;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.topic.EventHandleException;
+import io.easeci.core.output.topic.OutputEventTopic;
+
+/**
+ * EventPublisher that passes Events to OutputEventTopic.
+ * Instance is stateless so could be shared between many threads.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+public class TopicEventPublisher extends EventPublisher {
+    private final OutputEventTopic outputEventTopic;
+
+    public TopicEventPublisher(OutputEventTopic outputEventTopic) {
+        super(outputEventTopic);
+        this.outputEventTopic = outputEventTopic;
+    }
+
+    @Override
+    public boolean publish(Event event) throws PublishException {
+        try {
+            return outputEventTopic.handleEvent(event);
+        } catch (EventHandleException e) {
+            throw new PublishException();
+        }
+    }
+}
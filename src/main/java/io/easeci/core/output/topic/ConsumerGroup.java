@@ -0,0 +1,186 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.consumer.BatchEventConsumer;
+import io.easeci.core.output.consumer.ConsumeException;
+import io.easeci.core.output.consumer.EventConsumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Group of consumers that reads partitions of Topic with own, independent offsets.
+ * Each partition is assigned to exactly one member of group, so Events
+ * of one partition are always consumed in order.
+ * Offset is committed only after Event was consumed with success,
+ * so delivery guarantee is at-least-once.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+@Slf4j
+class ConsumerGroup {
+    @Getter
+    private final String groupId;
+    private final PartitionLog[] partitions;
+    private final TopicSettings settings;
+    private final List<EventConsumer> members;
+    private final AtomicLongArray committed;
+    private final AtomicLongArray retryNotBefore;
+    private final AtomicIntegerArray inFlight;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    ConsumerGroup(String groupId, PartitionLog[] partitions, TopicSettings settings) {
+        this.groupId = groupId;
+        this.partitions = partitions;
+        this.settings = settings;
+        this.members = new CopyOnWriteArrayList<>();
+        this.committed = new AtomicLongArray(partitions.length);
+        this.retryNotBefore = new AtomicLongArray(partitions.length);
+        this.inFlight = new AtomicIntegerArray(partitions.length);
+        for (int partition = 0; partition < partitions.length; partition++) {
+            this.committed.set(partition, partitions[partition].earliest());
+        }
+    }
+
+    boolean join(EventConsumer consumer) {
+        if (members.contains(consumer)) {
+            return false;
+        }
+        return members.add(consumer);
+    }
+
+    boolean leave(EventConsumer consumer) {
+        return members.remove(consumer);
+    }
+
+    boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    synchronized void start(String topicName) {
+        if (running) {
+            return;
+        }
+        this.running = true;
+        this.dispatcher = new Thread(this::dispatchLoop, "topic-" + topicName + "-group-" + groupId);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    synchronized void stop() {
+        this.running = false;
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+            dispatcher = null;
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            if (dispatchRound() == null) {
+                LockSupport.parkNanos(settings.getIdleParkNanos());
+            }
+        }
+    }
+
+    /**
+     * Delivers one batch from each partition that has Events to consume.
+     * @return last Event delivered in this round or null if nothing was delivered
+     * */
+    Event dispatchRound() {
+        Event lastDelivered = null;
+        for (int partition = 0; partition < partitions.length; partition++) {
+            Event delivered = deliver(partition);
+            if (delivered != null) {
+                lastDelivered = delivered;
+            }
+        }
+        return lastDelivered;
+    }
+
+    private Event deliver(int partition) {
+        if (members.isEmpty() || System.nanoTime() < retryNotBefore.get(partition)) {
+            return null;
+        }
+        if (!inFlight.compareAndSet(partition, 0, 1)) {
+            return null;
+        }
+        try {
+            PartitionLog partitionLog = partitions[partition];
+            long offset = committed.get(partition);
+            long earliest = partitionLog.earliest();
+            if (offset < earliest) {
+                log.warn("Consumer group '{}' lost events [{}, {}) of partition {}", groupId, offset, earliest, partition);
+                offset = earliest;
+                committed.set(partition, offset);
+            }
+            List<Event> batch = partitionLog.read(offset, settings.getBatchSize());
+            if (batch.isEmpty()) {
+                return null;
+            }
+            EventConsumer consumer = assignee(partition);
+            if (isNull(consumer)) {
+                return null;
+            }
+            int consumed = consume(consumer, batch);
+            committed.set(partition, offset + consumed);
+            if (consumed < batch.size()) {
+                retryNotBefore.set(partition, System.nanoTime() + settings.getRetryBackoffMillis() * 1_000_000L);
+            }
+            return consumed == 0 ? null : batch.get(consumed - 1);
+        } finally {
+            inFlight.set(partition, 0);
+        }
+    }
+
+    private EventConsumer assignee(int partition) {
+        try {
+            return members.get(partition % members.size());
+        } catch (IndexOutOfBoundsException | ArithmeticException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * @return number of Events from beginning of batch that were consumed with success
+     * */
+    private int consume(EventConsumer consumer, List<Event> batch) {
+        try {
+            if (consumer instanceof BatchEventConsumer) {
+                return Math.max(0, Math.min(batch.size(), ((BatchEventConsumer) consumer).consumeBatch(batch)));
+            }
+            int consumed = 0;
+            for (Event event : batch) {
+                if (!consumer.consume(event)) {
+                    break;
+                }
+                consumed++;
+            }
+            return consumed;
+        } catch (ConsumeException | RuntimeException exception) {
+            log.error("Consumer {} of group '{}' failed to consume events, delivery will be retried",
+                      consumer.getClass().getName(), groupId, exception);
+            return 0;
+        }
+    }
+
+    long committed(int partition) {
+        return committed.get(partition);
+    }
+
+    long lag() {
+        long lag = 0;
+        for (int partition = 0; partition < partitions.length; partition++) {
+            lag += partitions[partition].tail() - committed.get(partition);
+        }
+        return lag;
+    }
+}
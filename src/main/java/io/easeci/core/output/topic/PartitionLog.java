@@ -0,0 +1,213 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Append-only log of one Topic's partition.
+ * Events are stored in fixed size segments. Append reserves a slot
+ * with one atomic increment and publishes Event to reserved slot,
+ * so publishers never block each other.
+ * Readers see Events only up to first not yet published slot,
+ * so order in partition is always kept.
+ * When segments are evicted from memory while some consumer group
+ * did not read them yet, these are spilled to disk (if spill is enabled).
+ * Package scope should be kept.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+@Slf4j
+class PartitionLog {
+    private final int partition;
+    private final int segmentSize;
+    private final int maxInMemoryEvents;
+    private final ConcurrentMap<Long, Segment> segments;
+    private final AtomicLong tail;
+    private final AtomicLong head;
+    private final SpillFile spillFile;
+
+    PartitionLog(int partition, int segmentSize, int maxInMemoryEvents, Path spillFilePath) {
+        this.partition = partition;
+        this.segmentSize = segmentSize;
+        this.maxInMemoryEvents = Math.max(maxInMemoryEvents, segmentSize);
+        this.segments = new ConcurrentHashMap<>();
+        this.tail = new AtomicLong(0);
+        this.head = new AtomicLong(0);
+        this.spillFile = isNull(spillFilePath) ? null : new SpillFile(spillFilePath);
+    }
+
+    /**
+     * Appends Event at the end of partition.
+     * @return offset assigned to Event
+     * */
+    long append(Event event) {
+        final long offset = tail.getAndIncrement();
+        final long segmentIndex = offset / segmentSize;
+        Segment segment = segments.get(segmentIndex);
+        if (isNull(segment)) {
+            segment = segments.computeIfAbsent(segmentIndex, index -> new Segment(segmentSize));
+        }
+        segment.publish((int) (offset % segmentSize), event);
+        return offset;
+    }
+
+    /**
+     * Reads continuous batch of Events starting from pointed offset.
+     * @param offset is a first offset to read
+     * @param maxEvents is a maximal size of returned batch
+     * @return list of Events, empty if there is nothing to read
+     * */
+    List<Event> read(long offset, int maxEvents) {
+        if (offset < head.get()) {
+            return readSpilled(offset, maxEvents);
+        }
+        final long limit = Math.min(tail.get(), offset + maxEvents);
+        List<Event> batch = new ArrayList<>((int) Math.max(0, limit - offset));
+        for (long current = offset; current < limit; current++) {
+            Segment segment = segments.get(current / segmentSize);
+            if (isNull(segment)) {
+                break;
+            }
+            Event event = segment.get((int) (current % segmentSize));
+            if (isNull(event)) {
+                break;
+            }
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private List<Event> readSpilled(long offset, int maxEvents) {
+        if (isNull(spillFile)) {
+            return Collections.emptyList();
+        }
+        try {
+            return spillFile.read(offset, (int) Math.min(maxEvents, head.get() - offset));
+        } catch (IOException e) {
+            log.error("Cannot read spilled events of partition {} from offset {}", partition, offset, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Frees memory of segments that were consumed by all consumer groups,
+     * and segments that exceed maxInMemoryEvents limit. Segment that is
+     * evicted, but was not consumed by each consumer group is spilled to disk.
+     * Should be invoked from single thread only.
+     * @param lowestCommittedOffset is a lowest offset committed by consumer groups,
+     *                              or current tail if there are no consumer groups.
+     * @return offset of first Event that is still kept in memory
+     * */
+    long maintain(long lowestCommittedOffset) {
+        long currentHead = head.get();
+        while (true) {
+            final long segmentIndex = currentHead / segmentSize;
+            final long segmentEnd = currentHead + segmentSize;
+            Segment segment = segments.get(segmentIndex);
+            if (isNull(segment) || !segment.isComplete()) {
+                break;
+            }
+            boolean consumed = lowestCommittedOffset >= segmentEnd;
+            boolean overflowed = tail.get() - currentHead > maxInMemoryEvents;
+            if (!consumed && !overflowed) {
+                break;
+            }
+            if (!consumed) {
+                if (!spill(currentHead, segment)) {
+                    log.warn("Partition {} dropped events [{}, {}) not consumed yet, because spill is disabled or failed",
+                             partition, currentHead, segmentEnd);
+                }
+            }
+            head.set(segmentEnd);
+            segments.remove(segmentIndex);
+            currentHead = segmentEnd;
+        }
+        if (nonNull(spillFile) && lowestCommittedOffset >= currentHead) {
+            spillFile.truncate();
+        }
+        return currentHead;
+    }
+
+    private boolean spill(long firstOffset, Segment segment) {
+        if (isNull(spillFile)) {
+            return false;
+        }
+        try {
+            spillFile.write(firstOffset, segment.toList());
+            return true;
+        } catch (IOException e) {
+            log.error("Cannot spill events of partition {} to file", partition, e);
+            return false;
+        }
+    }
+
+    long head() {
+        return head.get();
+    }
+
+    long tail() {
+        return tail.get();
+    }
+
+    /**
+     * @return offset of first Event that is still available for read,
+     *          in memory or on disk.
+     * */
+    long earliest() {
+        if (nonNull(spillFile) && !spillFile.isEmpty()) {
+            return Math.min(spillFile.firstOffset(), head.get());
+        }
+        return head.get();
+    }
+
+    void close() {
+        if (nonNull(spillFile)) {
+            spillFile.delete();
+        }
+    }
+
+    private static class Segment {
+        private final AtomicReferenceArray<Event> slots;
+        private final AtomicInteger published;
+
+        Segment(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.published = new AtomicInteger(0);
+        }
+
+        void publish(int slot, Event event) {
+            slots.set(slot, event);
+            published.incrementAndGet();
+        }
+
+        Event get(int slot) {
+            return slots.get(slot);
+        }
+
+        boolean isComplete() {
+            return published.get() == slots.length();
+        }
+
+        List<Event> toList() {
+            List<Event> events = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                events.add(slots.get(i));
+            }
+            return events;
+        }
+    }
+}
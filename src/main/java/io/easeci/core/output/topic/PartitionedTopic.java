@@ -0,0 +1,218 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.consumer.EventConsumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Concrete implementation of OutputEventTopic.
+ * Topic is split into partitions, Event is placed in partition
+ * chosen by its publisher, so Events of one publisher are always
+ * delivered in order of publication.
+ * Each consumer group has its own offsets and its own dispatcher thread
+ * that delivers Events in batches to members of group.
+ * Events not consumed by some group are kept in memory and,
+ * when consumers are lagging, spilled to disk.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+@Slf4j
+public class PartitionedTopic implements OutputEventTopic, AutoCloseable {
+    @Getter
+    private final String name;
+    private final TopicSettings settings;
+    private final PartitionLog[] partitions;
+    private final Map<String, ConsumerGroup> consumerGroups;
+    private final AtomicLong roundRobin;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private volatile boolean closed;
+
+    public PartitionedTopic(String name, TopicSettings settings) {
+        if (isNull(name) || name.isBlank()) {
+            throw new IllegalArgumentException("'name' of PartitionedTopic cannot be null or empty!");
+        }
+        if (isNull(settings) || settings.getPartitions() < 1 || settings.getSegmentSize() < 1 || settings.getBatchSize() < 1) {
+            throw new IllegalArgumentException("TopicSettings of PartitionedTopic are not correct: " + settings);
+        }
+        this.name = name;
+        this.settings = settings;
+        this.partitions = new PartitionLog[settings.getPartitions()];
+        for (int partition = 0; partition < partitions.length; partition++) {
+            this.partitions[partition] = new PartitionLog(partition, settings.getSegmentSize(),
+                                                          settings.getMaxInMemoryEvents(), spillFilePath(partition));
+        }
+        this.consumerGroups = new ConcurrentHashMap<>();
+        this.roundRobin = new AtomicLong(0);
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "topic-" + name + "-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenanceExecutor.scheduleWithFixedDelay(this::maintain, settings.getMaintenancePeriodMillis(),
+                                                        settings.getMaintenancePeriodMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Path spillFilePath(int partition) {
+        if (isNull(settings.getSpillDirectory())) {
+            return null;
+        }
+        return settings.getSpillDirectory().resolve(name + "-" + partition + ".spill");
+    }
+
+    @Override
+    public boolean handleEvent(Event event) throws EventHandleException {
+        if (closed) {
+            throw new EventHandleException();
+        }
+        if (isNull(event)) {
+            return false;
+        }
+        partitions[partitionOf(event)].append(event);
+        return true;
+    }
+
+    private int partitionOf(Event event) {
+        if (partitions.length == 1) {
+            return 0;
+        }
+        String publishedBy = nonNull(event.getEventMeta()) ? event.getEventMeta().getPublishedBy() : null;
+        if (isNull(publishedBy)) {
+            return (int) (roundRobin.getAndIncrement() % partitions.length);
+        }
+        return Math.floorMod(publishedBy.hashCode(), partitions.length);
+    }
+
+    /**
+     * Performs one delivery round for each consumer group in current thread.
+     * Dispatcher threads of consumer groups do the same in background,
+     * so use it only when you want to force delivery.
+     * @return last Event that was delivered in this round
+     * @throws DistributeException when there was nothing to distribute
+     * */
+    @Override
+    public Event distribute() throws DistributeException {
+        Event lastDelivered = null;
+        for (ConsumerGroup consumerGroup : consumerGroups.values()) {
+            Event delivered = consumerGroup.dispatchRound();
+            if (nonNull(delivered)) {
+                lastDelivered = delivered;
+            }
+        }
+        if (isNull(lastDelivered)) {
+            throw new DistributeException();
+        }
+        return lastDelivered;
+    }
+
+    /**
+     * Adds consumer to consumer group. Consumer group is created
+     * when it is not exists, and starts to read from the earliest
+     * Event that is still available in Topic.
+     * @return true when consumer was added to group
+     * */
+    public boolean join(String groupId, EventConsumer consumer) {
+        if (closed || isNull(groupId) || isNull(consumer)) {
+            return false;
+        }
+        ConsumerGroup consumerGroup = consumerGroups.computeIfAbsent(groupId, id -> new ConsumerGroup(id, partitions, settings));
+        boolean isJoined = consumerGroup.join(consumer);
+        consumerGroup.start(name);
+        log.info("Consumer {} joined to group '{}' of topic '{}'", consumer.getClass().getName(), groupId, name);
+        return isJoined;
+    }
+
+    /**
+     * Removes consumer from consumer group. Consumer group stays in
+     * Topic with its offsets, so when some consumer joins once again
+     * it continues from last committed offset.
+     * @return true when consumer was removed from group
+     * */
+    public boolean leave(String groupId, EventConsumer consumer) {
+        ConsumerGroup consumerGroup = consumerGroups.get(groupId);
+        if (isNull(consumerGroup)) {
+            return false;
+        }
+        return consumerGroup.leave(consumer);
+    }
+
+    /**
+     * Removes consumer group with its offsets, so Events are not retained for this one anymore.
+     * */
+    public boolean removeGroup(String groupId) {
+        ConsumerGroup consumerGroup = consumerGroups.remove(groupId);
+        if (isNull(consumerGroup)) {
+            return false;
+        }
+        consumerGroup.stop();
+        return true;
+    }
+
+    /**
+     * @return number of Events published but not committed by consumer group yet,
+     *          or -1 when there is no such consumer group.
+     * */
+    public long lag(String groupId) {
+        ConsumerGroup consumerGroup = consumerGroups.get(groupId);
+        return isNull(consumerGroup) ? -1 : consumerGroup.lag();
+    }
+
+    /**
+     * @return number of all Events published to this Topic since creation
+     * */
+    public long published() {
+        long published = 0;
+        for (PartitionLog partition : partitions) {
+            published += partition.tail();
+        }
+        return published;
+    }
+
+    void maintain() {
+        try {
+            for (int partition = 0; partition < partitions.length; partition++) {
+                partitions[partition].maintain(lowestCommitted(partition));
+            }
+        } catch (Throwable throwable) {
+            log.error("Maintenance of topic '{}' failed", name, throwable);
+        }
+    }
+
+    /**
+     * When there is no consumer group, last maxInMemoryEvents are retained
+     * for consumers that will join later, and older ones are treated as consumed.
+     * */
+    private long lowestCommitted(int partition) {
+        long tail = partitions[partition].tail();
+        if (consumerGroups.isEmpty()) {
+            return Math.max(0, tail - settings.getMaxInMemoryEvents());
+        }
+        long lowest = tail;
+        for (ConsumerGroup consumerGroup : consumerGroups.values()) {
+            lowest = Math.min(lowest, consumerGroup.committed(partition));
+        }
+        return lowest;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.maintenanceExecutor.shutdownNow();
+        this.consumerGroups.values().forEach(ConsumerGroup::stop);
+        this.consumerGroups.clear();
+        for (PartitionLog partition : partitions) {
+            partition.close();
+        }
+    }
+}
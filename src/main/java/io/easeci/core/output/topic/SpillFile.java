@@ -0,0 +1,166 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static java.util.Objects.isNull;
+
+/**
+ * File on local storage where Events of one partition are moved
+ * when consumers are not able to consume these on time.
+ * Each record has format: [offset: long][length: int][encoded Event: bytes]
+ * Thanks to that we can guarantee at-least-once delivery without
+ * holding whole backlog of Events in memory.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+@Slf4j
+class SpillFile {
+    private final static int RECORD_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private final Path path;
+    private final TreeMap<Long, Long> positions;
+    private long lastOffset;
+
+    SpillFile(Path path) {
+        this.path = path;
+        this.positions = new TreeMap<>();
+        this.lastOffset = -1;
+    }
+
+    synchronized void write(long firstOffset, List<Event> events) throws IOException {
+        if (isNull(path.getParent()) || !Files.exists(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            positions.put(firstOffset, channel.size());
+            long offset = firstOffset;
+            for (Event event : events) {
+                byte[] encoded = encode(event);
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + encoded.length);
+                buffer.putLong(offset)
+                      .putInt(encoded.length)
+                      .put(encoded)
+                      .flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                lastOffset = offset++;
+            }
+        }
+    }
+
+    synchronized List<Event> read(long offset, int maxEvents) throws IOException {
+        Map.Entry<Long, Long> start = positions.floorEntry(offset);
+        if (isNull(start) || maxEvents <= 0 || offset > lastOffset) {
+            return Collections.emptyList();
+        }
+        List<Event> events = new ArrayList<>(maxEvents);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(start.getValue()))))) {
+            while (events.size() < maxEvents) {
+                long recordOffset;
+                try {
+                    recordOffset = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] encoded = new byte[input.readInt()];
+                input.readFully(encoded);
+                if (recordOffset >= offset) {
+                    events.add(decode(encoded));
+                }
+            }
+        }
+        return events;
+    }
+
+    synchronized boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    synchronized long firstOffset() {
+        return positions.isEmpty() ? -1 : positions.firstKey();
+    }
+
+    /**
+     * Removes all spilled Events. Use it when all consumer groups
+     * committed offsets beyond the last spilled Event.
+     * */
+    synchronized void truncate() {
+        if (positions.isEmpty()) {
+            return;
+        }
+        delete();
+    }
+
+    synchronized void delete() {
+        positions.clear();
+        lastOffset = -1;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Cannot remove spill file: {}", path, e);
+        }
+    }
+
+    static byte[] encode(Event event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            Event.EventMeta meta = event.getEventMeta();
+            output.writeBoolean(meta != null);
+            if (meta != null) {
+                writeString(output, isNull(meta.getEventType()) ? null : meta.getEventType().name());
+                writeString(output, meta.getTitle());
+                writeString(output, meta.getPublishedBy());
+                output.writeLong(meta.getPublishEpochNanos());
+            }
+            writeString(output, event.getContent());
+        }
+        return bytes.toByteArray();
+    }
+
+    static Event decode(byte[] encoded) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            Event.EventMeta meta = null;
+            if (input.readBoolean()) {
+                String eventType = readString(input);
+                String title = readString(input);
+                String publishedBy = readString(input);
+                long publishEpochNanos = input.readLong();
+                meta = new Event.EventMeta(isNull(eventType) ? null : EventType.valueOf(eventType), title, null, publishedBy, publishEpochNanos);
+            }
+            return new Event(meta, readString(input));
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (isNull(value)) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,68 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.log.ApplicationLevelLog;
+import io.easeci.core.log.LogManager;
+import io.easeci.core.output.consumer.LogEventConsumer;
+import io.easeci.core.output.publisher.EventPublisher;
+import io.easeci.core.output.publisher.TopicEventPublisher;
+import lombok.extern.slf4j.Slf4j;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Holder of PartitionedTopic that carries system Events of EaseCI.
+ * Topic is configured from general.yml and started at bootstrap,
+ * with consumer group that passes all Events to application log.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Slf4j
+public class SystemTopic {
+    public final static String NAME = "system";
+    public final static String LOG_GROUP_ID = "application-log";
+    private static PartitionedTopic partitionedTopic;
+    private static EventPublisher eventPublisher;
+
+    private SystemTopic() {}
+
+    /**
+     * Creates system Topic and subscribes LogManager to it.
+     * Topic started before is closed and replaced with new one.
+     * */
+    public static synchronized PartitionedTopic start(LogManager logManager) {
+        destroyInstance();
+        PartitionedTopic topic = new PartitionedTopic(NAME, TopicSettings.fromGeneral());
+        new LogEventConsumer(LOG_GROUP_ID, logManager).subscribe(topic);
+        SystemTopic.partitionedTopic = topic;
+        SystemTopic.eventPublisher = new TopicEventPublisher(topic);
+        log.info("====> System topic '{}' started", NAME);
+        return topic;
+    }
+
+    /**
+     * @return system Topic started at bootstrap, or started now with application log as consumer
+     * */
+    public static synchronized PartitionedTopic getInstance() {
+        if (isNull(partitionedTopic)) {
+            start(ApplicationLevelLog.getInstance());
+        }
+        return partitionedTopic;
+    }
+
+    /**
+     * @return publisher of system Topic, instance is stateless so could be shared between threads
+     * */
+    public static synchronized EventPublisher publisher() {
+        getInstance();
+        return eventPublisher;
+    }
+
+    public static synchronized void destroyInstance() {
+        if (nonNull(partitionedTopic)) {
+            partitionedTopic.close();
+        }
+        SystemTopic.partitionedTopic = null;
+        SystemTopic.eventPublisher = null;
+    }
+}
@@ -0,0 +1,60 @@
+package io.easeci.core.output.topic;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+
+import static io.easeci.core.workspace.LocationUtils.getOutputDirectoryLocation;
+import static io.easeci.core.workspace.LocationUtils.retrieveFromGeneralInt;
+
+/**
+ * Configuration of PartitionedTopic.
+ * When spillDirectory is null, Events that exceeds in-memory
+ * capacity of partition and were not consumed yet are dropped.
+ * @author Karol Meksuła
+ * 2020-10-19
+ * */
+@Slf4j
+@Getter
+@Builder
+@ToString
+public class TopicSettings {
+    final static int DEFAULT_PARTITIONS = 4,
+                     DEFAULT_SEGMENT_SIZE = 1024,
+                     DEFAULT_MAX_IN_MEMORY_EVENTS = 64 * 1024,
+                     DEFAULT_BATCH_SIZE = 128;
+
+    @Builder.Default private int partitions = DEFAULT_PARTITIONS;
+    @Builder.Default private int segmentSize = DEFAULT_SEGMENT_SIZE;
+    @Builder.Default private int maxInMemoryEvents = DEFAULT_MAX_IN_MEMORY_EVENTS;
+    @Builder.Default private int batchSize = DEFAULT_BATCH_SIZE;
+    @Builder.Default private long idleParkNanos = 1_000_000L;
+    @Builder.Default private long retryBackoffMillis = 100;
+    @Builder.Default private long maintenancePeriodMillis = 50;
+    private Path spillDirectory;
+
+    /**
+     * Reads configuration from general.yml file placed in workspace.
+     * Values that are not declared in file are replaced with defaults.
+     * */
+    public static TopicSettings fromGeneral() {
+        return TopicSettings.builder()
+                .partitions(retrieveOrDefault("output.topic.partitions", DEFAULT_PARTITIONS))
+                .maxInMemoryEvents(retrieveOrDefault("output.topic.max-in-memory-events", DEFAULT_MAX_IN_MEMORY_EVENTS))
+                .batchSize(retrieveOrDefault("output.consumer.batch-size", DEFAULT_BATCH_SIZE))
+                .spillDirectory(getOutputDirectoryLocation().resolve("spill"))
+                .build();
+    }
+
+    private static int retrieveOrDefault(String refs, int defaultValue) {
+        try {
+            return retrieveFromGeneralInt(refs);
+        } catch (Throwable throwable) {
+            log.info("Value of [{}] not found in general.yml, default {} is taken", refs, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package io.easeci.core.registry;
 
+import io.easeci.core.registry.dto.PluginReference;
 import io.easeci.core.registry.dto.PluginUpdateCheckResponse;
 import ratpack.exec.Promise;
 
+import java.util.List;
+import java.util.Map;
+
 public interface PluginUpdate {
 
     Promise<PluginUpdateCheckResponse> checkForUpdate(String pluginName, String pluginVersion);
+
+    /**
+     * Checks updates of many plugins in one call.
+     * @return responses indexed by 'name:version' of each requested plugin
+     * */
+    Promise<Map<String, PluginUpdateCheckResponse>> checkForUpdates(List<PluginReference> plugins);
 }
@@ -0,0 +1,157 @@
+package io.easeci.core.registry;
+
+import io.easeci.core.registry.dto.RegistryCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Cache of registry responses with single-flight loading.
+ * Value younger than ttl is returned without calling registry.
+ * Value older than ttl but still in stale window is returned at once too,
+ * and one background request refreshes it (stale-while-revalidate).
+ * Concurrent requests for the same key that is not in cache share one
+ * request to registry. Failed responses are never cached.
+ * When cache is full, entry that was not used for the longest time is evicted.
+ * @author Karol Meksuła
+ * 2020-10-28
+ * */
+@Slf4j
+class RegistryCache<K, V> {
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight;
+    private final LongAdder hits, staleHits, misses, coalesced, loads, loadFailures;
+
+    RegistryCache(long ttlMillis, long staleMillis, int maxEntries) {
+        this(ttlMillis, staleMillis, maxEntries, System::nanoTime);
+    }
+
+    RegistryCache(long ttlMillis, long staleMillis, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(staleMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, RegistryCache.Entry<V>> eldest) {
+                return size() > RegistryCache.this.maxEntries;
+            }
+        };
+        this.inFlight = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.staleHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.loads = new LongAdder();
+        this.loadFailures = new LongAdder();
+    }
+
+    CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        Entry<V> entry = entry(key);
+        long now = nanoClock.getAsLong();
+        if (nonNull(entry)) {
+            long age = now - entry.loadedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                load(key, loader);
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+        misses.increment();
+        return load(key, loader);
+    }
+
+    /**
+     * @return value that is fresh or still in stale window, without calling registry
+     * */
+    V getIfPresent(K key) {
+        Entry<V> entry = entry(key);
+        if (isNull(entry) || nanoClock.getAsLong() - entry.loadedAt >= ttlNanos + staleNanos) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private Entry<V> entry(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private CompletableFuture<V> load(K key, Function<K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> started = new CompletableFuture<>();
+        CompletableFuture<V> present = inFlight.putIfAbsent(key, started);
+        if (nonNull(present)) {
+            coalesced.increment();
+            return present;
+        }
+        loads.increment();
+        CompletableFuture<V> request;
+        try {
+            request = loader.apply(key);
+        } catch (Throwable throwable) {
+            request = CompletableFuture.failedFuture(throwable);
+        }
+        request.whenComplete((value, throwable) -> {
+            if (isNull(throwable) && nonNull(value)) {
+                put(key, value);
+            } else {
+                loadFailures.increment();
+                log.error("Cannot load response from registry for key: {}", key, throwable);
+            }
+            inFlight.remove(key, started);
+            if (isNull(throwable)) {
+                started.complete(value);
+            } else {
+                started.completeExceptionally(throwable);
+            }
+        });
+        return started;
+    }
+
+    private void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, nanoClock.getAsLong());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    RegistryCacheMetrics metrics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return RegistryCacheMetrics.of(hits.sum(), staleHits.sum(), misses.sum(), coalesced.sum(), loads.sum(), loadFailures.sum(), size);
+    }
+
+    @AllArgsConstructor
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+    }
+}
@@ -3,28 +3,35 @@ package io.easeci.core.registry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.easeci.commons.YamlUtils;
 import io.easeci.core.extension.ExtensionSystem;
+import io.easeci.core.extension.PluginState;
 import io.easeci.core.extension.PluginSystemCriticalException;
-import io.easeci.core.registry.dto.PluginDetailsResponse;
-import io.easeci.core.registry.dto.PluginUpdateCheckResponse;
-import io.easeci.core.registry.dto.ZippedPluginDetailsResponse;
-import lombok.AllArgsConstructor;
+import io.easeci.core.registry.dto.*;
 import org.asynchttpclient.*;
 import ratpack.exec.Promise;
 
 import java.io.IOException;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 import static io.easeci.core.workspace.LocationUtils.getPluginsYmlLocation;
 import static java.util.Objects.isNull;
 
-@AllArgsConstructor
+/**
+ * Proxy to EaseCI registry. Responses are cached per plugin's name and version,
+ * and identical requests that are just in progress are sent to registry only once,
+ * so UI that lists many plugins does not multiply calls to registry.
+ * */
 public class RegistryProxy implements PluginUpdate, PluginDetails {
+    private final static long DEFAULT_CACHE_TTL = 60_000,
+                              DEFAULT_CACHE_STALE = 300_000;
+    private final static int DEFAULT_CACHE_MAX_ENTRIES = 512;
     private ExtensionSystem extensionSystem;
     private AsyncHttpClient asyncHttpClient;
     private ObjectMapper objectMapper;
     private String registryUrl;
     private Boolean fetchDocumentation;
+    private RegistryCache<PluginReference, PluginUpdateCheckResponse> updateCache;
+    private RegistryCache<PluginReference, PluginDetailsResponse> detailsCache;
 
     public RegistryProxy() {
         this.asyncHttpClient = this.buildDefaultHttpClient();
@@ -36,9 +43,35 @@ public class RegistryProxy implements PluginUpdate, PluginDetails {
         if (isNull(fetchDocumentation))
             this.fetchDocumentation = false;
 
+        long ttl = cacheSetting(yamlValues, "ttl", DEFAULT_CACHE_TTL);
+        long stale = cacheSetting(yamlValues, "stale", DEFAULT_CACHE_STALE);
+        int maxEntries = (int) cacheSetting(yamlValues, "max-entries", DEFAULT_CACHE_MAX_ENTRIES);
+        this.updateCache = new RegistryCache<>(ttl, stale, maxEntries);
+        this.detailsCache = new RegistryCache<>(ttl, stale, maxEntries);
+
         this.extensionSystem = getExtensionSystem();
     }
 
+    RegistryProxy(ExtensionSystem extensionSystem, AsyncHttpClient asyncHttpClient, ObjectMapper objectMapper, String registryUrl,
+                  Boolean fetchDocumentation, RegistryCache<PluginReference, PluginUpdateCheckResponse> updateCache,
+                  RegistryCache<PluginReference, PluginDetailsResponse> detailsCache) {
+        this.extensionSystem = extensionSystem;
+        this.asyncHttpClient = asyncHttpClient;
+        this.objectMapper = objectMapper;
+        this.registryUrl = registryUrl;
+        this.fetchDocumentation = fetchDocumentation;
+        this.updateCache = updateCache;
+        this.detailsCache = detailsCache;
+    }
+
+    private long cacheSetting(Map<?, ?> yamlValues, String name, long defaultValue) {
+        try {
+            return ((Number) YamlUtils.ymlGet(yamlValues, "plugins.registry.cache." + name).getValue()).longValue();
+        } catch (Throwable throwable) {
+            return defaultValue;
+        }
+    }
+
     private ExtensionSystem getExtensionSystem() {
         try {
             return ExtensionSystem.getInstance();
@@ -50,38 +83,85 @@ public class RegistryProxy implements PluginUpdate, PluginDetails {
 
     @Override
     public Promise<PluginUpdateCheckResponse> checkForUpdate(String pluginName, String pluginVersion) {
-        return Promise.toPromise(asyncHttpClient.executeRequest(
-                new RequestBuilder()
-                        .setMethod("GET")
-                        .setUrl(this.registryUrl + "/api/v1/update/" + pluginName + "/" + pluginVersion)
-                        .build())
-                .toCompletableFuture())
-                .map(Response::getResponseBodyAsBytes)
-                .map(bytes -> objectMapper.readValue(bytes, PluginUpdateCheckResponse.class));
+        return Promise.toPromise(updateCache.get(PluginReference.of(pluginName, pluginVersion), this::requestUpdateCheck));
+    }
+
+    /**
+     * Registry exposes update check for one plugin only, so duplicated plugins
+     * are removed, plugins checked recently are served from cache and the rest
+     * is requested from registry concurrently.
+     * */
+    @Override
+    public Promise<Map<String, PluginUpdateCheckResponse>> checkForUpdates(List<PluginReference> plugins) {
+        Map<String, CompletableFuture<PluginUpdateCheckResponse>> responses = new LinkedHashMap<>();
+        plugins.stream()
+               .distinct()
+               .forEach(reference -> responses.put(reference.toString(), updateCache.get(reference, this::requestUpdateCheck)));
+        return Promise.toPromise(CompletableFuture.allOf(responses.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(nothing -> {
+                    Map<String, PluginUpdateCheckResponse> result = new LinkedHashMap<>();
+                    responses.forEach((reference, response) -> result.put(reference, response.join()));
+                    return result;
+                }));
     }
 
     @Override
     public Promise<ZippedPluginDetailsResponse> fetchDetails(String pluginName, String pluginVersion) {
-        return Promise.toPromise(asyncHttpClient.executeRequest(
+        return Promise.toPromise(detailsCache.get(PluginReference.of(pluginName, pluginVersion), this::requestDetails)
+                .thenApply(details -> ZippedPluginDetailsResponse.of(details, findPluginState(pluginName, pluginVersion))));
+    }
+
+    /**
+     * @return metrics of update check and details caches
+     * */
+    public Map<String, RegistryCacheMetrics> cacheMetrics() {
+        Map<String, RegistryCacheMetrics> metrics = new LinkedHashMap<>();
+        metrics.put("update", updateCache.metrics());
+        metrics.put("details", detailsCache.metrics());
+        return metrics;
+    }
+
+    private CompletableFuture<PluginUpdateCheckResponse> requestUpdateCheck(PluginReference reference) {
+        return request(this.registryUrl + "/api/v1/update/" + reference.getPluginName() + "/" + reference.getPluginVersion())
+                .thenApply(bytes -> read(bytes, PluginUpdateCheckResponse.class));
+    }
+
+    private CompletableFuture<PluginDetailsResponse> requestDetails(PluginReference reference) {
+        return request(this.registryUrl + "/api/v1/details/" + reference.getPluginName() + "/" + reference.getPluginVersion()
+                + "?documentation=" + fetchDocumentation)
+                .thenApply(bytes -> read(bytes, PluginDetailsResponse.class));
+    }
+
+    private CompletableFuture<byte[]> request(String url) {
+        return asyncHttpClient.executeRequest(
                 new RequestBuilder()
                         .setMethod("GET")
-                        .setUrl(this.registryUrl + "/api/v1/details/" + pluginName + "/" + pluginVersion + "?documentation=" + fetchDocumentation)
+                        .setUrl(url)
                         .build())
                 .toCompletableFuture()
-                .thenApply(Response::getResponseBodyAsBytes)
-                .thenApply(this::read)
-                .thenCombine(CompletableFuture.supplyAsync(() -> extensionSystem)
-                        .thenApply(es -> es.state().getPluginStates()
-                                .stream()
-                                .filter(pluginState -> pluginState.getPluginName().equals(pluginName)
-                                        && pluginState.getPluginVersion().equals(pluginVersion))
-                                .findAny()
-                                .orElse(null)), ZippedPluginDetailsResponse::of));
+                .thenApply(response -> {
+                    if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+                        throw new IllegalStateException("Registry responded with status " + response.getStatusCode() + " for request: " + url);
+                    }
+                    return response.getResponseBodyAsBytes();
+                });
+    }
+
+    private PluginState findPluginState(String pluginName, String pluginVersion) {
+        if (isNull(extensionSystem)) {
+            return null;
+        }
+        return extensionSystem.state().getPluginStates()
+                .stream()
+                .filter(pluginState -> pluginState.getPluginName().equals(pluginName)
+                        && pluginState.getPluginVersion().equals(pluginVersion))
+                .findAny()
+                .orElse(null);
     }
 
-    private PluginDetailsResponse read(byte[] bytes) {
+    private <T> T read(byte[] bytes, Class<T> type) {
         try {
-            return objectMapper.readValue(bytes, PluginDetailsResponse.class);
+            return objectMapper.readValue(bytes, type);
         } catch (IOException e) {
             throw new RuntimeException("Some error occurred while receiving bytes from registry's response body");
         }
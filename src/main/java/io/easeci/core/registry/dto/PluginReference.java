@@ -0,0 +1,18 @@
+package io.easeci.core.registry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor(staticName = "of")
+public class PluginReference {
+    private String pluginName;
+    private String pluginVersion;
+
+    @Override
+    public String toString() {
+        return pluginName + ":" + pluginVersion;
+    }
+}
@@ -0,0 +1,24 @@
+package io.easeci.core.registry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor(staticName = "of")
+public class RegistryCacheMetrics {
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long coalesced;
+    private long loads;
+    private long loadFailures;
+    private int size;
+
+    /**
+     * @return part of requests that were served without waiting for registry
+     * */
+    public double getHitRate() {
+        long requests = hits + staleHits + misses;
+        return requests == 0 ? 0 : (double) (hits + staleHits) / requests;
+    }
+}
@@ -164,10 +164,11 @@ public class LinuxWorkspaceInitializer extends AbstractWorkspaceInitializer {
         final Path RUN_FILE_PATH = locateBootstrapFile();
         String workspaceLocation = getWorkspaceLocation();
 
+        WorkspaceManifest manifest = WorkspaceManifest.verify(Paths.get(workspaceLocation), FILE_NAMES, WorkspaceManifest.DIRECTORIES);
         Set<String> filesNotFound = FILE_NAMES.stream()
                 .map(filename -> workspaceLocation.concat("/").concat(filename))
                 .peek(filenamePath -> log.info("====> Looking for a file: {}", filenamePath))
-                .filter(filenamePath -> !Files.exists(Paths.get(filenamePath)))
+                .filter(filenamePath -> !manifest.exists(Paths.get(filenamePath)))
                 .peek(filenamePath -> log.error("====> Could't find file with path {}", filenamePath))
                 .collect(Collectors.toSet());
 
@@ -202,6 +203,8 @@ public class LinuxWorkspaceInitializer extends AbstractWorkspaceInitializer {
                     .collect(Collectors.toSet()));
         }
         Pair<Path, Set<String>> copyResult = copyFiles(workspacePathFromYml);
+        WorkspaceManifest manifest = WorkspaceManifest.getInstance();
+        copyResult.getValue1().forEach(filename -> manifest.refresh(Paths.get(filename)));
         return Pair.with(nonNull(copyResult.getValue0()),
                 copyResult.getValue1().stream()
                         .map(File::new)
@@ -87,6 +87,16 @@ public class LocationUtils {
                     .concat("/vars.json"));
     }
 
+    public static Path getOutputDirectoryLocation() {
+        return Paths.get(getWorkspaceLocation()
+                    .concat("/output"));
+    }
+
+    public static Path getRunLogsLocation() {
+        return Paths.get(getWorkspaceLocation()
+                    .concat("/runs"));
+    }
+
     public static Path getPipelineFilesLocation() {
         return Paths.get(getWorkspaceLocation()
                     .concat(PIPELINES_DIRECTORY));
@@ -0,0 +1,325 @@
+package io.easeci.core.workspace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.easeci.commons.AtomicFileWriter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static io.easeci.core.log.ApplicationLevelLog.LOG_DIRECTORY;
+import static io.easeci.core.workspace.LocationUtils.getWorkspaceLocation;
+import static io.easeci.core.workspace.cache.CacheManager.CACHE_DIRECTORY;
+import static io.easeci.core.workspace.cache.CacheManager.CACHE_TMP_DIRECTORY;
+import static io.easeci.core.workspace.easefiles.EasefileManager.EASEFILES_DIRECTORY;
+import static io.easeci.core.workspace.projects.ProjectManager.PIPELINES_DIRECTORY;
+import static io.easeci.core.workspace.projects.ProjectManager.PROJECTS_DIRECTORY;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Expected directories and files of workspace, with checksums of files.
+ * Whole manifest is verified once, at start of EaseCI, and each entry is
+ * checked by separate task, so startup does not wait for entries one by one.
+ * Result of verification is kept in memory for lifetime of process, so managers
+ * ask manifest whether their directory exists instead of asking file system again.
+ * Checksums are persisted in workspace, so files changed between two starts are reported.
+ * Every path removed by EaseCI itself must be invalidated in manifest after it was deleted.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Slf4j
+public class WorkspaceManifest {
+    public final static String MANIFEST_FILENAME = ".manifest.json";
+    public final static List<String> DIRECTORIES = List.of(EASEFILES_DIRECTORY, PROJECTS_DIRECTORY, PIPELINES_DIRECTORY,
+                                                           CACHE_DIRECTORY, CACHE_TMP_DIRECTORY, LOG_DIRECTORY);
+    private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private final static int BUFFER_SIZE = 16 * 1024;
+    private static volatile WorkspaceManifest workspaceManifest;
+
+    @Getter
+    private final Path root;
+    private final Map<Path, Entry> entries;
+    private final Set<Path> expectedFiles;
+
+    private WorkspaceManifest(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.entries = new ConcurrentHashMap<>();
+        this.expectedFiles = ConcurrentHashMap.newKeySet();
+    }
+
+    public enum State {
+        PRESENT,
+        CHANGED,
+        MISSING
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final boolean directory;
+        private final State state;
+        private final String checksum;
+
+        public boolean exists() {
+            return state != State.MISSING;
+        }
+    }
+
+    /**
+     * Checks all entries of workspace in parallel and makes result available
+     * by getInstance() until workspace is verified again.
+     * @param files names of files relative to workspace, like 'general.yml'
+     * @param directories names of directories relative to workspace, like '/easefiles/'
+     * */
+    public static WorkspaceManifest verify(Path root, Collection<String> files, Collection<String> directories) {
+        WorkspaceManifest manifest = new WorkspaceManifest(root);
+        Map<String, String> checksums = manifest.readChecksums();
+        List<Callable<Void>> tasks = new ArrayList<>(files.size() + directories.size());
+        for (String directory : directories) {
+            Path path = manifest.resolve(directory);
+            tasks.add(() -> {
+                manifest.entries.put(path, manifest.check(path, null));
+                return null;
+            });
+        }
+        for (String file : files) {
+            Path path = manifest.resolve(file);
+            manifest.expectedFiles.add(path);
+            tasks.add(() -> {
+                manifest.entries.put(path, manifest.check(path, checksums.get(manifest.relativize(path))));
+                return null;
+            });
+        }
+        run(tasks);
+        manifest.entries.forEach((path, entry) -> {
+            if (entry.getState() == State.CHANGED) {
+                log.info("====> File {} was changed since last start of EaseCI", path);
+            }
+        });
+        manifest.persist();
+        WorkspaceManifest.workspaceManifest = manifest;
+        return manifest;
+    }
+
+    /**
+     * @return manifest verified at start of EaseCI, or manifest of workspace's
+     *         directories verified now, when workspace was not verified before
+     * */
+    public static WorkspaceManifest getInstance() {
+        WorkspaceManifest manifest = workspaceManifest;
+        if (isNull(manifest)) {
+            synchronized (WorkspaceManifest.class) {
+                manifest = workspaceManifest;
+                if (isNull(manifest)) {
+                    manifest = verify(Paths.get(getWorkspaceLocation()), List.of(), DIRECTORIES);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @return true when path exists, file system is asked only once for each path placed in workspace
+     * */
+    public boolean exists(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            return Files.exists(normalized);
+        }
+        return entries.computeIfAbsent(normalized, absent -> check(absent, null)).exists();
+    }
+
+    /**
+     * Creates directory when manifest knows that it does not exist.
+     * @return true when directory was created now, false when it has existed before
+     * @throws IllegalStateException when directory could not be created
+     * */
+    public boolean ensureDirectory(Path directory) {
+        Path normalized = directory.toAbsolutePath().normalize();
+        if (exists(normalized)) {
+            return false;
+        }
+        try {
+            Files.createDirectories(normalized);
+        } catch (IOException exception) {
+            throw new IllegalStateException("Cannot create directory, probably runtime has no privileges to create directory: " + normalized, exception);
+        }
+        if (normalized.startsWith(root)) {
+            for (Path path = normalized; nonNull(path) && path.startsWith(root); path = path.getParent()) {
+                entries.put(path, new Entry(true, State.PRESENT, null));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads path from disk again, for instance after file was restored or changed by EaseCI.
+     * Checksums of expected files are persisted once more.
+     * */
+    public void refresh(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            return;
+        }
+        entries.put(normalized, check(normalized, null));
+        if (expectedFiles.contains(normalized)) {
+            persist();
+        }
+    }
+
+    /**
+     * Forgets path and everything placed under it, next question about them reaches file system.
+     * Must be called after path was deleted, otherwise question asked in the meantime
+     * would keep it as existing again.
+     * */
+    public void invalidate(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        entries.keySet().removeIf(entryPath -> entryPath.startsWith(normalized));
+    }
+
+    /**
+     * @return expected entries of workspace that do not exist, as absolute paths
+     * */
+    public Set<Path> missing() {
+        return entries.entrySet().stream()
+                .filter(entry -> !entry.getValue().exists())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return expected files whose checksum is different than at previous start of EaseCI
+     * */
+    public Set<Path> changed() {
+        return entries.entrySet().stream()
+                .filter(entry -> entry.getValue().getState() == State.CHANGED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    public Optional<Entry> entry(Path path) {
+        return Optional.ofNullable(entries.get(path.toAbsolutePath().normalize()));
+    }
+
+    private Entry check(Path path, String previousChecksum) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException exception) {
+            return new Entry(false, State.MISSING, null);
+        }
+        if (attributes.isDirectory()) {
+            return new Entry(true, State.PRESENT, null);
+        }
+        if (!expectedFiles.contains(path)) {
+            return new Entry(false, State.PRESENT, null);
+        }
+        String checksum = checksum(path);
+        boolean changed = nonNull(previousChecksum) && nonNull(checksum) && !previousChecksum.equals(checksum);
+        return new Entry(false, changed ? State.CHANGED : State.PRESENT, checksum);
+    }
+
+    private static String checksum(Path file) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                hasher.putBytes(buffer, 0, read);
+            }
+            return hasher.hash().toString();
+        } catch (IOException exception) {
+            log.error("Cannot compute checksum of file {}", file, exception);
+            return null;
+        }
+    }
+
+    private Map<String, String> readChecksums() {
+        Path manifestFile = root.resolve(MANIFEST_FILENAME);
+        try {
+            Map<String, String> checksums = JSON_MAPPER.readValue(manifestFile.toFile(), ManifestFile.class).getChecksums();
+            return isNull(checksums) ? Collections.emptyMap() : checksums;
+        } catch (FileNotFoundException exception) {
+            return Collections.emptyMap();
+        } catch (IOException exception) {
+            log.error("Cannot read manifest of workspace {}, it will be created again", manifestFile, exception);
+            return Collections.emptyMap();
+        }
+    }
+
+    private synchronized void persist() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Map<String, String> checksums = new TreeMap<>();
+        for (Path file : expectedFiles) {
+            Entry entry = entries.get(file);
+            if (nonNull(entry) && nonNull(entry.getChecksum())) {
+                checksums.put(relativize(file), entry.getChecksum());
+            }
+        }
+        Path manifestFile = root.resolve(MANIFEST_FILENAME);
+        try {
+            AtomicFileWriter.writeAtomically(manifestFile, JSON_MAPPER.writeValueAsBytes(new ManifestFile(checksums)));
+        } catch (IOException exception) {
+            log.error("Cannot save manifest of workspace {}", manifestFile, exception);
+        }
+    }
+
+    private Path resolve(String name) {
+        String relative = name.startsWith("/") ? name.substring(1) : name;
+        return root.resolve(relative).normalize();
+    }
+
+    private String relativize(Path path) {
+        return root.relativize(path).toString();
+    }
+
+    private static void run(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(tasks.size(), Math.max(2, Runtime.getRuntime().availableProcessors())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "workspace-manifest-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verification of workspace was interrupted", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Cannot verify workspace", exception.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ManifestFile {
+        private Map<String, String> checksums;
+    }
+}
@@ -0,0 +1,36 @@
+package io.easeci.core.workspace.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata of one entry of cache kept in index of CacheManager.
+ * Content of entry is a file or directory placed in 'location'.
+ * expiresAt equal to 0 means that entry never expires.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEntry {
+    private String namespace;
+    private String key;
+    private String location;
+    private long size;
+    private long createdAt;
+    private long lastAccessedAt;
+    private long accessCount;
+    private long expiresAt;
+
+    @JsonIgnore
+    boolean isExpired(long now) {
+        return expiresAt > 0 && expiresAt <= now;
+    }
+
+    static String id(String namespace, String key) {
+        return namespace + "/" + key;
+    }
+}
@@ -1,27 +1,91 @@
 package io.easeci.core.workspace.cache;
 
-import io.easeci.commons.DirUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import io.easeci.commons.AtomicFileWriter;
+import io.easeci.core.workspace.WorkspaceManifest;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Date;
-import java.util.Objects;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static io.easeci.core.workspace.LocationUtils.*;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
-public class CacheManager implements CacheGarbageCollector, CacheTemp {
+/**
+ * Manages .cache/ directory in workspace.
+ * Entries put by NamespacedCache are described in index kept in memory
+ * and persisted in .cache/cache-index.json, so they survive restart of EaseCI.
+ * Background thread removes expired entries and, when size of all entries
+ * exceeds quota, evicts entries in order given by EvictionPolicy,
+ * except entries of namespaces exempt from eviction.
+ * Index is persisted by AtomicFileWriter shortly after it was changed, and on shutdown.
+ * */
+@Slf4j
+public class CacheManager implements CacheGarbageCollector, CacheTemp, NamespacedCache {
     public final static String CACHE_DIRECTORY = "/.cache/";
     public final static String CACHE_TMP_DIRECTORY = "/.cache/temp/";
+    final static String INDEX_FILENAME = "cache-index.json";
+    private final static Pattern NAMESPACE_PATTERN = Pattern.compile("[a-z0-9][a-z0-9-]*");
+    private final static ObjectMapper MAPPER = new ObjectMapper();
     private static CacheManager cacheManager;
 
+    private final CacheSettings cacheSettings;
+    private final Map<String, CacheEntry> entries;
+    private final Set<String> exemptNamespaces;
+    private final AtomicLong usedBytes;
+    private final AtomicLong accessClock;
+    private final AtomicFileWriter indexWriter;
+    private final LongAdder hits, misses, evictions, expirations;
+    private final ScheduledExecutorService evictor;
+
     private CacheManager() {
+        this(CacheSettings.fromGeneral());
+    }
+
+    CacheManager(CacheSettings cacheSettings) {
         this.initializeDirectory();
+        this.cacheSettings = cacheSettings;
+        this.entries = new ConcurrentHashMap<>();
+        this.exemptNamespaces = ConcurrentHashMap.newKeySet();
+        this.usedBytes = new AtomicLong(0);
+        this.accessClock = new AtomicLong(0);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+        this.loadIndex();
+        long interval = Math.max(1, cacheSettings.getEvictionIntervalMillis());
+        this.indexWriter = AtomicFileWriter.builder()
+                .target(getCacheDirectoryLocation().resolve(INDEX_FILENAME))
+                .delayMillis(interval)
+                .content(this::serializeIndex)
+                .build();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictionCycle, interval, interval, TimeUnit.MILLISECONDS);
     }
 
     public static CacheManager getInstance() {
@@ -35,43 +99,58 @@ public class CacheManager implements CacheGarbageCollector, CacheTemp {
         final String workspaceLocation = getWorkspaceLocation();
         final String cacheDirLocation = workspaceLocation.concat(CACHE_DIRECTORY);
         final String cacheTmpDirLocation = workspaceLocation.concat(CACHE_TMP_DIRECTORY);
-        if (!DirUtils.isDirectoryExists(cacheDirLocation)) {
-            Path path = DirUtils.directoryCreate(cacheDirLocation);
-            DirUtils.directoryCreate(cacheTmpDirLocation);
+        WorkspaceManifest manifest = WorkspaceManifest.getInstance();
+        Path path = Path.of(cacheDirLocation);
+        if (manifest.ensureDirectory(path)) {
             logit(WORKSPACE_EVENT, "Directory for cache file just created at here: " + path, THREE);
-            return path;
         }
-        return Path.of(cacheDirLocation);
+        manifest.ensureDirectory(Path.of(cacheTmpDirLocation));
+        return path;
     }
 
     @Override
     public long cleanup(Path concretePath) {
         logit(WORKSPACE_EVENT, "Cleaning up Easeci cache in path: " + concretePath, THREE);
+        synchronized (entries) {
+            String location = concretePath.toAbsolutePath().normalize().toString();
+            entries.values().removeIf(entry -> {
+                boolean removed = Paths.get(entry.getLocation()).startsWith(location);
+                if (removed) {
+                    usedBytes.addAndGet(-entry.getSize());
+                    indexWriter.changed();
+                }
+                return removed;
+            });
+        }
         return clean(concretePath);
     }
 
     @Override
     public long cleanup() {
         logit(WORKSPACE_EVENT, "Cleaning up entire Easeci cache", THREE);
+        synchronized (entries) {
+            entries.clear();
+            usedBytes.set(0);
+            indexWriter.changed();
+        }
         Path cacheDirectoryLocation = getCacheDirectoryLocation();
         return clean(cacheDirectoryLocation);
     }
 
+    /**
+     * Temporary file is created in .cache/temp/ with unique name
+     * and content is written to it atomically. Temporary files are not entries
+     * of cache, so they are not evicted, but they are removed by cleanup().
+     * */
     @Override
     public Path save(byte[] value) {
-        final String fileName = "tmp-".concat(String.valueOf(Objects.hashCode(new Date())));
-        Path filePath = Path.of(fileName);
+        Path filePath;
         try {
-            Files.createFile(filePath);
-            Files.write(filePath, value);
+            filePath = writeAtomically(Files.createTempFile(temporaryDirectory(), "tmp-", ""), value);
         } catch (IOException e) {
-            e.printStackTrace();
-            if (Files.exists(filePath)) {
-                return filePath;
-            } else {
-                logit(WORKSPACE_EVENT, "Could not created file and save content to this: " + filePath, THREE);
-                throw new IllegalStateException("Could not created file and save content to this: " + filePath);
-            }
+            log.error("Could not create temporary file in cache", e);
+            logit(WORKSPACE_EVENT, "Could not created file and save content to this: " + temporaryDirectory(), THREE);
+            throw new IllegalStateException("Could not created file and save content to this: " + temporaryDirectory(), e);
         }
         logit(WORKSPACE_EVENT, "Saved temporary file here: " + filePath, THREE);
         return filePath;
@@ -82,16 +161,253 @@ public class CacheManager implements CacheGarbageCollector, CacheTemp {
         return save(value.getBytes());
     }
 
+    @Override
+    public Path put(String namespace, String key, byte[] value, long ttlMillis) {
+        Path location = locate(namespace, key);
+        try {
+            Files.createDirectories(location.getParent());
+            writeAtomically(location, value);
+        } catch (IOException e) {
+            log.error("Could not write entry {} of cache namespace {}", key, namespace, e);
+            throw new IllegalStateException("Could not write entry of cache to: " + location, e);
+        }
+        index(namespace, key, location, value.length, ttlMillis);
+        return location;
+    }
+
+    @Override
+    public Path put(String namespace, String key, byte[] value) {
+        return put(namespace, key, value, cacheSettings.getDefaultTtlMillis());
+    }
+
+    @Override
+    public Optional<Path> get(String namespace, String key) {
+        String id = CacheEntry.id(namespace, key);
+        CacheEntry entry = entries.get(id);
+        long now = System.currentTimeMillis();
+        if (isNull(entry)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Path location = Paths.get(entry.getLocation());
+        if (entry.isExpired(now) || Files.notExists(location)) {
+            if (entry.isExpired(now)) {
+                expirations.increment();
+            }
+            remove(id, entry);
+            misses.increment();
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            entry.setLastAccessedAt(accessTime());
+            entry.setAccessCount(entry.getAccessCount() + 1);
+        }
+        indexWriter.changed();
+        hits.increment();
+        return Optional.of(location);
+    }
+
+    @Override
+    public Path locate(String namespace, String key) {
+        if (isNull(namespace) || !NAMESPACE_PATTERN.matcher(namespace).matches()) {
+            throw new IllegalArgumentException("Name of cache namespace is not correct: " + namespace);
+        }
+        String fileName = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        return getCacheDirectoryLocation().resolve(namespace).resolve(fileName);
+    }
+
+    @Override
+    public void track(String namespace, String key, long ttlMillis) {
+        Path location = locate(namespace, key);
+        if (Files.notExists(location)) {
+            throw new IllegalStateException("Content of cache entry does not exist: " + location);
+        }
+        index(namespace, key, location, byteSizeOf(location), ttlMillis);
+    }
+
+    @Override
+    public boolean invalidate(String namespace, String key) {
+        String id = CacheEntry.id(namespace, key);
+        CacheEntry entry = entries.get(id);
+        return nonNull(entry) && remove(id, entry);
+    }
+
+    @Override
+    public void exemptFromEviction(String namespace) {
+        exemptNamespaces.add(namespace);
+    }
+
+    @Override
+    public CacheMetrics metrics() {
+        Map<String, CacheMetrics.NamespaceUsage> namespaces = entries.values().stream()
+                .collect(Collectors.groupingBy(CacheEntry::getNamespace, TreeMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), namespaceEntries -> CacheMetrics.NamespaceUsage.of(
+                                namespaceEntries.size(),
+                                namespaceEntries.stream().mapToLong(CacheEntry::getSize).sum()))));
+        return CacheMetrics.of(cacheSettings.getQuotaBytes(), usedBytes.get(), entries.size(),
+                hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), namespaces);
+    }
+
+    /**
+     * Removes expired entries and, if quota is still exceeded, evicts entries
+     * in order of EvictionPolicy until size of cache fits in quota.
+     * @param protectedId entry that must not be evicted, because it was just added
+     * @return number of bytes freed
+     * */
+    long evict(String protectedId) {
+        long now = System.currentTimeMillis();
+        List<CacheEntry> victims = new ArrayList<>();
+        synchronized (entries) {
+            for (Map.Entry<String, CacheEntry> mapEntry : new ArrayList<>(entries.entrySet())) {
+                CacheEntry entry = mapEntry.getValue();
+                if (entry.isExpired(now) && detach(mapEntry.getKey(), entry)) {
+                    expirations.increment();
+                    victims.add(entry);
+                }
+            }
+            if (usedBytes.get() > cacheSettings.getQuotaBytes()) {
+                List<Map.Entry<String, CacheEntry>> candidates = entries.entrySet().stream()
+                        .filter(mapEntry -> !mapEntry.getKey().equals(protectedId))
+                        .filter(mapEntry -> !exemptNamespaces.contains(mapEntry.getValue().getNamespace()))
+                        .sorted(Map.Entry.comparingByValue(cacheSettings.getEvictionPolicy().evictionOrder()))
+                        .collect(Collectors.toList());
+                for (Map.Entry<String, CacheEntry> candidate : candidates) {
+                    if (usedBytes.get() <= cacheSettings.getQuotaBytes()) {
+                        break;
+                    }
+                    if (detach(candidate.getKey(), candidate.getValue())) {
+                        evictions.increment();
+                        victims.add(candidate.getValue());
+                    }
+                }
+            }
+        }
+        long freed = 0;
+        for (CacheEntry victim : victims) {
+            deleteContent(victim);
+            freed += victim.getSize();
+        }
+        return freed;
+    }
+
+    private void evictionCycle() {
+        try {
+            long freed = evict(null);
+            if (freed > 0) {
+                CacheMetrics metrics = metrics();
+                logit(WORKSPACE_EVENT, freed + " bytes of cache resource evicted, used " + metrics.getUsedBytes()
+                        + " of " + metrics.getQuotaBytes() + " bytes in " + metrics.getEntries() + " entries", THREE);
+            }
+        } catch (Throwable throwable) {
+            log.error("Eviction of cache entries failed", throwable);
+        }
+    }
+
+    private void index(String namespace, String key, Path location, long size, long ttlMillis) {
+        long now = accessTime();
+        String id = CacheEntry.id(namespace, key);
+        CacheEntry entry = new CacheEntry(namespace, key, location.toString(), size, now, now, 0,
+                                          ttlMillis > 0 ? now + ttlMillis : 0);
+        synchronized (entries) {
+            CacheEntry previous = entries.put(id, entry);
+            usedBytes.addAndGet(size - (nonNull(previous) ? previous.getSize() : 0));
+            indexWriter.changed();
+        }
+        if (usedBytes.get() > cacheSettings.getQuotaBytes()) {
+            evict(id);
+        }
+    }
+
+    /**
+     * @return current time in millis, but always greater than previously returned,
+     *         so order of accesses made in the same millisecond is kept for LRU
+     * */
+    private long accessTime() {
+        return accessClock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    private boolean remove(String id, CacheEntry entry) {
+        if (!detach(id, entry)) {
+            return false;
+        }
+        deleteContent(entry);
+        return true;
+    }
+
+    /**
+     * Removes entry from index only, content of entry must be deleted
+     * by caller after lock of index is released.
+     * */
+    private boolean detach(String id, CacheEntry entry) {
+        synchronized (entries) {
+            if (!entries.remove(id, entry)) {
+                return false;
+            }
+            usedBytes.addAndGet(-entry.getSize());
+            indexWriter.changed();
+            return true;
+        }
+    }
+
+    private void deleteContent(CacheEntry entry) {
+        Path location = Paths.get(entry.getLocation());
+        if (Files.exists(location)) {
+            removeResource(location);
+        }
+    }
+
+    private void loadIndex() {
+        Path indexFile = getCacheDirectoryLocation().resolve(INDEX_FILENAME);
+        if (!Files.isRegularFile(indexFile)) {
+            return;
+        }
+        try {
+            Map<String, CacheEntry> loaded = MAPPER.readValue(indexFile.toFile(), new TypeReference<Map<String, CacheEntry>>() {});
+            loaded.forEach((id, entry) -> {
+                if (Files.exists(Paths.get(entry.getLocation()))) {
+                    entries.put(id, entry);
+                    usedBytes.addAndGet(entry.getSize());
+                    accessClock.accumulateAndGet(entry.getLastAccessedAt(), Math::max);
+                }
+            });
+        } catch (IOException e) {
+            log.error("Cache index file {} is corrupted, entries of cache will be added again", indexFile, e);
+        }
+    }
+
+    private byte[] serializeIndex() throws IOException {
+        synchronized (entries) {
+            return MAPPER.writeValueAsBytes(entries);
+        }
+    }
+
+    /**
+     * Temporary file has unique name in .cache/temp/, so concurrent writes
+     * of the same entry do not share it.
+     * */
+    private Path writeAtomically(Path target, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(temporaryDirectory(), "write-", ".tmp");
+        try {
+            AtomicFileWriter.writeAtomically(target, content, temporary);
+            return target;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path temporaryDirectory() {
+        Path temporaryDirectory = Paths.get(getWorkspaceLocation().concat(CACHE_TMP_DIRECTORY));
+        WorkspaceManifest.getInstance().ensureDirectory(temporaryDirectory);
+        return temporaryDirectory;
+    }
+
     private long clean(Path cacheDirectoryLocation) {
         if (!hasAccessRight(cacheDirectoryLocation)) {
             logit(WORKSPACE_EVENT, "Access denied for trying to removing cache from path: " + cacheDirectoryLocation, THREE);
             return 0;
         }
-        try {
-            long totalByteSize = Files.list(cacheDirectoryLocation)
-                    .map(this::removeResource)
-                    .reduce(Long::sum)
-                    .orElse(0L);
+        try (Stream<Path> resources = Files.list(cacheDirectoryLocation)) {
+            long totalByteSize = resources.mapToLong(this::removeResource).sum();
             logit(WORKSPACE_EVENT, totalByteSize + " bytes of cache resource freed", THREE);
             return totalByteSize;
         } catch (IOException e) {
@@ -101,7 +417,7 @@ public class CacheManager implements CacheGarbageCollector, CacheTemp {
         } finally {
             if (!cacheDirectoryLocation.toString().endsWith(".cache")) {
                 try {
-                    if (Files.exists(cacheDirectoryLocation) && Files.list(cacheDirectoryLocation).count() == 0) {
+                    if (Files.exists(cacheDirectoryLocation) && isEmpty(cacheDirectoryLocation)) {
                         Files.deleteIfExists(cacheDirectoryLocation);
                     }
                 } catch (IOException e) {
@@ -109,27 +425,34 @@ public class CacheManager implements CacheGarbageCollector, CacheTemp {
                     logit(WORKSPACE_EVENT, "Empty cache directory removed: " + cacheDirectoryLocation, THREE);
                 }
             }
+            WorkspaceManifest.getInstance().invalidate(cacheDirectoryLocation);
+        }
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> resources = Files.list(directory)) {
+            return resources.findAny().isEmpty();
         }
     }
 
+    /**
+     * Resource is invalidated in WorkspaceManifest after it was deleted,
+     * so manifest never keeps it as existing one.
+     * */
     private long removeResource(Path resource) {
         long byteSize = byteSize(resource);
-        if (Files.isDirectory(resource)) {
-            try {
+        try {
+            if (Files.isDirectory(resource)) {
                 FileUtils.deleteDirectory(resource.toFile());
-                return byteSize;
-            } catch (IOException e) {
-                e.printStackTrace();
-                return 0;
-            }
-        } else {
-            try {
+            } else {
                 FileUtils.forceDelete(resource.toFile());
-                return byteSize;
-            } catch (IOException e) {
-                e.printStackTrace();
-                return 0;
             }
+            return byteSize;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        } finally {
+            WorkspaceManifest.getInstance().invalidate(resource);
         }
     }
 
@@ -147,7 +470,36 @@ public class CacheManager implements CacheGarbageCollector, CacheTemp {
         }
     }
 
+    private long byteSizeOf(Path path) {
+        if (!Files.isDirectory(path)) {
+            return byteSize(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile)
+                        .mapToLong(this::byteSize)
+                        .sum();
+        } catch (IOException e) {
+            log.error("Could not compute size of cache entry {}", path, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Stops background eviction and persists index of cache.
+     * */
+    void shutdown() {
+        evictor.shutdownNow();
+        try {
+            indexWriter.close();
+        } catch (IOException e) {
+            log.error("Could not persist cache index at shutdown of cache", e);
+        }
+    }
+
     public static void destroyInstance() {
+        if (nonNull(cacheManager)) {
+            cacheManager.shutdown();
+        }
         cacheManager = null;
     }
 }
@@ -0,0 +1,36 @@
+package io.easeci.core.workspace.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Usage of workspace's cache, whole and per namespace.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Data
+@AllArgsConstructor(staticName = "of")
+public class CacheMetrics {
+    private long quotaBytes;
+    private long usedBytes;
+    private int entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private Map<String, NamespaceUsage> namespaces;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Data
+    @AllArgsConstructor(staticName = "of")
+    public static class NamespaceUsage {
+        private int entries;
+        private long usedBytes;
+    }
+}
@@ -0,0 +1,66 @@
+package io.easeci.core.workspace.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.easeci.core.workspace.LocationUtils.retrieveFromGeneral;
+import static io.easeci.core.workspace.LocationUtils.retrieveFromGeneralInt;
+
+/**
+ * Configuration of workspace's cache managed by CacheManager.
+ * quotaBytes - size of all entries in cache, above it entries are evicted,
+ * evictionPolicy - order of evicting entries when quota is exceeded,
+ * defaultTtlMillis - time to live of entry put without own ttl, 0 means that entry never expires,
+ * evictionIntervalMillis - how often background thread removes expired entries and checks quota.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+@Slf4j
+@Getter
+@Builder
+@ToString
+public class CacheSettings {
+    final static int DEFAULT_QUOTA_MB = 1024,
+                     DEFAULT_TTL_SECONDS = 0,
+                     DEFAULT_EVICTION_INTERVAL_SECONDS = 60;
+
+    @Builder.Default private long quotaBytes = DEFAULT_QUOTA_MB * 1024L * 1024L;
+    @Builder.Default private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    @Builder.Default private long defaultTtlMillis = TimeUnit.SECONDS.toMillis(DEFAULT_TTL_SECONDS);
+    @Builder.Default private long evictionIntervalMillis = TimeUnit.SECONDS.toMillis(DEFAULT_EVICTION_INTERVAL_SECONDS);
+
+    /**
+     * Reads configuration from general.yml file placed in workspace.
+     * Values that are not declared in file are replaced with defaults.
+     * */
+    public static CacheSettings fromGeneral() {
+        return CacheSettings.builder()
+                .quotaBytes(retrieveOrDefault("cache.quota-mb", DEFAULT_QUOTA_MB) * 1024L * 1024L)
+                .evictionPolicy(evictionPolicyOrDefault())
+                .defaultTtlMillis(TimeUnit.SECONDS.toMillis(retrieveOrDefault("cache.default-ttl-seconds", DEFAULT_TTL_SECONDS)))
+                .evictionIntervalMillis(TimeUnit.SECONDS.toMillis(retrieveOrDefault("cache.eviction-interval-seconds", DEFAULT_EVICTION_INTERVAL_SECONDS)))
+                .build();
+    }
+
+    private static int retrieveOrDefault(String refs, int defaultValue) {
+        try {
+            return retrieveFromGeneralInt(refs);
+        } catch (Throwable throwable) {
+            log.info("Value of [{}] not found in general.yml, default {} is taken", refs, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static EvictionPolicy evictionPolicyOrDefault() {
+        try {
+            return EvictionPolicy.valueOf(retrieveFromGeneral("cache.eviction-policy").trim().toUpperCase());
+        } catch (Throwable throwable) {
+            log.info("Value of [cache.eviction-policy] not found in general.yml or not correct, default {} is taken", EvictionPolicy.LRU);
+            return EvictionPolicy.LRU;
+        }
+    }
+}
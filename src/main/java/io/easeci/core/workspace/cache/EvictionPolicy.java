@@ -0,0 +1,27 @@
+package io.easeci.core.workspace.cache;
+
+import java.util.Comparator;
+
+/**
+ * Order in which entries of cache are removed when size quota is exceeded.
+ * LRU - least recently used entries are removed first,
+ * LFU - least frequently used entries are removed first,
+ *       entries used the same number of times are removed from least recently used.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+public enum EvictionPolicy {
+    LRU(Comparator.comparingLong(CacheEntry::getLastAccessedAt)),
+    LFU(Comparator.comparingLong(CacheEntry::getAccessCount)
+                  .thenComparingLong(CacheEntry::getLastAccessedAt));
+
+    private final Comparator<CacheEntry> evictionOrder;
+
+    EvictionPolicy(Comparator<CacheEntry> evictionOrder) {
+        this.evictionOrder = evictionOrder;
+    }
+
+    Comparator<CacheEntry> evictionOrder() {
+        return evictionOrder;
+    }
+}
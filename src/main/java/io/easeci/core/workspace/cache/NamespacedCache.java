@@ -0,0 +1,66 @@
+package io.easeci.core.workspace.cache;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Interface exposing entries of cache grouped in namespaces,
+ * for instance cloned git repositories or Easefiles received in request.
+ * Each namespace is a directory in .cache/ in workspace, and each entry
+ * is a file or directory in it, identified by key. Entries are removed
+ * when their time to live passes or when size quota of cache is exceeded.
+ * @author Karol Meksuła
+ * 2020-11-07
+ * */
+public interface NamespacedCache {
+
+    /**
+     * Writes value as entry of cache. Value is written to temporary file first
+     * and moved in place of entry atomically, so readers never see part of it.
+     * @param namespace name of namespace, lowercase letters, digits and '-' only
+     * @param key identifies entry in namespace, any String
+     * @param value content of entry
+     * @param ttlMillis time to live of entry, 0 means that entry never expires
+     * @return path of file with content of entry
+     * */
+    Path put(String namespace, String key, byte[] value, long ttlMillis);
+
+    /**
+     * Writes value as entry of cache with time to live taken from configuration.
+     * */
+    Path put(String namespace, String key, byte[] value);
+
+    /**
+     * @return path of entry that exists and did not expire yet.
+     *         Each call counts as use of entry for eviction policy.
+     * */
+    Optional<Path> get(String namespace, String key);
+
+    /**
+     * @return path where content of entry should be placed, when entry is
+     *         not a single value but for instance whole directory.
+     *         After content is placed here, it must be added to cache by track().
+     * */
+    Path locate(String namespace, String key);
+
+    /**
+     * Adds to cache content already placed in path returned by locate(),
+     * or updates size of entry when its content was changed.
+     * */
+    void track(String namespace, String key, long ttlMillis);
+
+    /**
+     * Removes entry and its content.
+     * @return true if entry existed
+     * */
+    boolean invalidate(String namespace, String key);
+
+    /**
+     * Entries of namespace are not evicted when size quota of cache is exceeded,
+     * but they still count to used size. Owner of namespace removes them
+     * by invalidate(), for instance when it holds its own lock of entry.
+     * */
+    void exemptFromEviction(String namespace);
+
+    CacheMetrics metrics();
+}
@@ -2,17 +2,22 @@ package io.easeci.core.workspace.easefiles;
 
 import io.easeci.commons.FileUtils;
 import io.easeci.core.workspace.easefiles.filetree.FileTree;
+import io.easeci.core.workspace.easefiles.filetree.FileTreeIndex;
 import io.easeci.core.workspace.easefiles.filetree.FileTreeWalker;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
 import io.vavr.Tuple3;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static io.easeci.core.workspace.LocationUtils.getEasefilesStorageLocation;
 import static io.easeci.core.workspace.LocationUtils.getEasefilesStorageLocationNoSlashAtEnd;
@@ -20,8 +25,10 @@ import static io.easeci.core.workspace.easefiles.EasefileStatus.*;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+@Slf4j
 public class DefaultEasefileManager extends EasefileManager {
     private static DefaultEasefileManager easefileManager;
+    private volatile FileTreeIndex fileTreeIndex;
 
     private DefaultEasefileManager() {}
 
@@ -32,9 +39,18 @@ public class DefaultEasefileManager extends EasefileManager {
         return DefaultEasefileManager.easefileManager;
     }
 
+    /**
+     * Tree is served from FileTreeIndex kept in memory, disk is walked
+     * only when index cannot be started, for instance when file system
+     * does not support watching of directories.
+     * */
     @Override
     public FileTree scan() {
         Path easefilesStorageLocation = Paths.get(getEasefilesStorageLocation());
+        Optional<FileTreeIndex> index = fileTreeIndex(easefilesStorageLocation);
+        if (index.isPresent()) {
+            return index.get().tree();
+        }
         FileTreeWalker fileTreeWalker = new FileTreeWalker(easefilesStorageLocation);
         try {
             return fileTreeWalker.dumpAll();
@@ -53,15 +69,48 @@ public class DefaultEasefileManager extends EasefileManager {
                                  + path.toString() + ". Enable scan paths starts with: "
                                  + easefilesStorageLocation);
             return FileTree.empty(path);
-        } else {
-            FileTreeWalker fileTreeWalker = new FileTreeWalker(Paths.get(easefilesStorageLocation));
-            try {
-                return fileTreeWalker.dumpOne();
-            } catch (IOException e) {
-                e.printStackTrace();
-                logit(WORKSPACE_EVENT, "Exception occurred while trying to scan and walkthrough directory: " + easefilesStorageLocation);
-                return FileTree.empty(path);
-            }
+        }
+        Optional<FileTreeIndex> index = fileTreeIndex(Paths.get(getEasefilesStorageLocation()));
+        if (index.isPresent()) {
+            return index.get().tree(path);
+        }
+        FileTreeWalker fileTreeWalker = new FileTreeWalker(path);
+        try {
+            return fileTreeWalker.dumpOne();
+        } catch (IOException e) {
+            e.printStackTrace();
+            logit(WORKSPACE_EVENT, "Exception occurred while trying to scan and walkthrough directory: " + path);
+            return FileTree.empty(path);
+        }
+    }
+
+    private synchronized Optional<FileTreeIndex> fileTreeIndex(Path easefilesStorageLocation) {
+        Path root = easefilesStorageLocation.toAbsolutePath().normalize();
+        if (nonNull(fileTreeIndex) && fileTreeIndex.getRoot().equals(root)) {
+            return Optional.of(fileTreeIndex);
+        }
+        if (nonNull(fileTreeIndex)) {
+            fileTreeIndex.close();
+            fileTreeIndex = null;
+        }
+        try {
+            fileTreeIndex = FileTreeIndex.start(root);
+            logit(WORKSPACE_EVENT, "File tree of Easefiles storage is indexed and watched: " + root, THREE);
+            return Optional.of(fileTreeIndex);
+        } catch (IOException | UnsupportedOperationException exception) {
+            log.error("Cannot start file tree index of directory {}, file tree will be read from disk on each scan", root, exception);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Changes made by EaseCI itself are visible in index at once,
+     * without waiting for event from WatchService.
+     * */
+    void refreshIndex(Path path) {
+        FileTreeIndex index = this.fileTreeIndex;
+        if (nonNull(index)) {
+            index.refresh(path);
         }
     }
 
@@ -92,6 +141,7 @@ public class DefaultEasefileManager extends EasefileManager {
             try {
                 isExistCheck(path);
                 Path savedPath = FileUtils.fileSave(path.toString(), easefileAsString, false);
+                refreshIndex(path);
                 if (nonNull(savedPath)) {
                     EasefileStatus status = Files.exists(savedPath) ? SAVED_CORRECTLY : SAVE_FAILED;
                     return EasefileOut.of(status, null, null, savedPath);
@@ -127,7 +177,9 @@ public class DefaultEasefileManager extends EasefileManager {
         if (!hasAccessRight(path)) {
             return false;
         }
-        return FileUtils.fileDelete(path.toString());
+        boolean isDeleted = FileUtils.fileDelete(path.toString());
+        refreshIndex(path);
+        return isDeleted;
     }
 
     private void isExistCheck(Path path) {
@@ -147,7 +199,9 @@ public class DefaultEasefileManager extends EasefileManager {
             Path pathBackward = pathBackward(path);
             if (Files.exists(pathBackward(path))) {
                 try {
-                    return Tuple.of(Files.createDirectory(path), true, null);
+                    Path createdPath = Files.createDirectory(path);
+                    refreshIndex(createdPath);
+                    return Tuple.of(createdPath, true, null);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -166,16 +220,18 @@ public class DefaultEasefileManager extends EasefileManager {
             if (force) {
                 try {
                     org.apache.commons.io.FileUtils.deleteDirectory(path.toFile());
+                    refreshIndex(path);
                     return Tuple.of(true, null);
                 } catch (IOException e) {
                     e.printStackTrace();
                     return Tuple.of(false, "Exception occurred while trying to force remove directory: " + path.toString());
                 }
             } else {
-                try {
-                    long contentAmounts = Files.list(path).count();
-                    if (contentAmounts == 0) {
-                        return Tuple.of(Files.deleteIfExists(path), null);
+                try (Stream<Path> content = Files.list(path)) {
+                    if (content.findAny().isEmpty()) {
+                        boolean isDeleted = Files.deleteIfExists(path);
+                        refreshIndex(path);
+                        return Tuple.of(isDeleted, null);
                     } else {
                         return Tuple.of(false, "Cannot remove directory that is not empty. You can use 'force' flag to remove directory with content");
                     }
@@ -1,6 +1,6 @@
 package io.easeci.core.workspace.easefiles;
 
-import io.easeci.commons.DirUtils;
+import io.easeci.core.workspace.WorkspaceManifest;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -31,12 +31,11 @@ public abstract class EasefileManager implements FileScanner, EasefileIO, Direct
     private Path initializeDirectory() {
         final String workspaceLocation = getWorkspaceLocation();
         final String easefilesDirLocation = workspaceLocation.concat(EASEFILES_DIRECTORY);
-        if (!DirUtils.isDirectoryExists(easefilesDirLocation)) {
-            Path path = DirUtils.directoryCreate(easefilesDirLocation);
+        Path path = Path.of(easefilesDirLocation);
+        if (WorkspaceManifest.getInstance().ensureDirectory(path)) {
             logit(WORKSPACE_EVENT, "Directory for Easefiles just created at here: " + path, THREE);
-            return path;
         }
-        return Path.of(easefilesDirLocation);
+        return path;
     }
 
     public Path getRootEasefilePath() {
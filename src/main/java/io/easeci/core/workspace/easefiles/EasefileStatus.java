@@ -11,5 +11,6 @@ public enum  EasefileStatus {
     EDIT_FAILED,
     EDITED_CORRECTLY,
     REMOVED_CORRECTLY,
-    REMOVE_FAILED
+    REMOVE_FAILED,
+    CHANGED_CONCURRENTLY
 }
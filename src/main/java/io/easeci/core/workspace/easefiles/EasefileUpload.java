@@ -0,0 +1,130 @@
+package io.easeci.core.workspace.easefiles;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static io.easeci.core.workspace.easefiles.EasefileStatus.*;
+import static java.util.Objects.nonNull;
+
+/**
+ * Content of Easefile written to disk part by part while it is received.
+ * Parts go through FileChannel to temporary file placed next to target file,
+ * so content is never held in memory as a whole. Target file is replaced
+ * by atomic rename only in commit(), so readers see old or new content,
+ * never a part of it. Closing upload that was not committed removes
+ * temporary file and leaves target file untouched.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Slf4j
+public class EasefileUpload implements Closeable {
+    private final static String TEMPORARY_SUFFIX = ".upload";
+    @Getter
+    private final Path target;
+    private final boolean overwrite;
+    private final String ifMatch;
+    private final Path temporary;
+    private final FileChannel channel;
+    @Getter
+    private long written;
+    private boolean committed;
+
+    private EasefileUpload(Path target, boolean overwrite, String ifMatch, Path temporary, FileChannel channel) {
+        this.target = target;
+        this.overwrite = overwrite;
+        this.ifMatch = ifMatch;
+        this.temporary = temporary;
+        this.channel = channel;
+    }
+
+    /**
+     * @param target path of Easefile, it must be placed in Easefiles storage
+     * @param overwrite when false, upload fails if target file exists
+     * @param ifMatch ETag that target file must have at the moment of commit, null when not checked
+     * */
+    public static EasefileUpload open(Path target, boolean overwrite, String ifMatch) throws IOException {
+        Path normalized = target.toAbsolutePath().normalize();
+        if (!EasefileManager.hasAccessRight(normalized)) {
+            throw new EasefileUploadException("Access denied", SAVE_FAILED);
+        }
+        Path directory = normalized.getParent();
+        if (!Files.isDirectory(directory)) {
+            throw new EasefileUploadException("Indicated directory for save file not exists", SAVE_FAILED);
+        }
+        if (Files.isDirectory(normalized)) {
+            throw new EasefileUploadException("Indicated path is a directory: " + normalized, SAVE_FAILED);
+        }
+        if (!overwrite && Files.exists(normalized)) {
+            throw new EasefileUploadException("File just exists: " + normalized, JUST_EXISTS);
+        }
+        checkVersion(normalized, ifMatch);
+        Path temporary = Files.createTempFile(directory, "." + normalized.getFileName(), TEMPORARY_SUFFIX);
+        FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new EasefileUpload(normalized, overwrite, ifMatch, temporary, channel);
+    }
+
+    public void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+    }
+
+    /**
+     * Flushes content to disk and moves it in place of target file.
+     * @return status that tells whether new file was saved or existing was edited
+     * */
+    public synchronized EasefileStatus commit() throws IOException {
+        channel.force(true);
+        channel.close();
+        checkVersion(target, ifMatch);
+        boolean existed = Files.exists(target);
+        if (!overwrite) {
+            try {
+                Files.move(temporary, target);
+            } catch (FileAlreadyExistsException exception) {
+                throw new EasefileUploadException("File just exists: " + target, JUST_EXISTS);
+            }
+        } else {
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        committed = true;
+        DefaultEasefileManager.getInstance().refreshIndex(target);
+        logit(WORKSPACE_EVENT, "Easefile uploaded to " + target + ", size: " + written + " bytes", THREE);
+        return existed ? EDITED_CORRECTLY : SAVED_CORRECTLY;
+    }
+
+    private static void checkVersion(Path target, String ifMatch) throws IOException {
+        if (nonNull(ifMatch) && (!Files.exists(target) || !EasefileVersion.of(target).matches(ifMatch))) {
+            throw new EasefileUploadException("File was changed since it was loaded: " + target, CHANGED_CONCURRENTLY);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            log.error("Cannot close channel of uploaded file {}", temporary, exception);
+        }
+        if (!committed) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException exception) {
+                log.error("Cannot remove temporary file of not finished upload {}", temporary, exception);
+            }
+        }
+    }
+}
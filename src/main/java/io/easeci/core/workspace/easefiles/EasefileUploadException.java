@@ -0,0 +1,21 @@
+package io.easeci.core.workspace.easefiles;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Upload of Easefile cannot be started or finished,
+ * status tells what should be reported to client.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Getter
+public class EasefileUploadException extends IOException {
+    private final EasefileStatus easefileStatus;
+
+    public EasefileUploadException(String message, EasefileStatus easefileStatus) {
+        super(message);
+        this.easefileStatus = easefileStatus;
+    }
+}
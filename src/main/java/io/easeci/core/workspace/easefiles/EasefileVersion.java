@@ -0,0 +1,54 @@
+package io.easeci.core.workspace.easefiles;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Size and modification time of Easefile read from one attributes call.
+ * ETag is built from both values, so it changes with each write of file.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EasefileVersion {
+    private final long size;
+    private final long lastModifiedMillis;
+
+    public static EasefileVersion of(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new EasefileVersion(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    public String etag() {
+        return "\"" + Long.toHexString(lastModifiedMillis) + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * @param header value of If-Match or If-None-Match header, list of ETags or '*'
+     * */
+    public boolean matches(String header) {
+        if (header == null) {
+            return false;
+        }
+        String etag = etag();
+        for (String candidate : header.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package io.easeci.core.workspace.easefiles.filetree;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Getter;
@@ -16,6 +17,12 @@ public class FileTree implements NestedLocations {
     private Path entryPoint;
     @Getter
     private Node rootNode;
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean truncated;
 
     FileTree(Path entryPoint) {
         this.objectMapper = new ObjectMapper();
@@ -23,6 +30,27 @@ public class FileTree implements NestedLocations {
         this.entryPoint = entryPoint;
     }
 
+    /**
+     * Tree taken from FileTreeIndex, version indicates state of index
+     * that tree comes from.
+     * */
+    FileTree(Path entryPoint, Node rootNode, long version) {
+        this.objectMapper = new ObjectMapper();
+        this.entryPoint = entryPoint;
+        this.rootNode = rootNode;
+        this.version = version;
+    }
+
+    /**
+     * Tree taken from FileTreeWalker, truncated when walker reached limit of entries.
+     * */
+    FileTree(Path entryPoint, Node rootNode, boolean truncated) {
+        this.objectMapper = new ObjectMapper();
+        this.entryPoint = entryPoint;
+        this.rootNode = rootNode;
+        this.truncated = truncated;
+    }
+
     private FileTree(Path entryPoint, boolean isDirExist) {
         if (!isDirExist) {
             this.objectMapper = new ObjectMapper();
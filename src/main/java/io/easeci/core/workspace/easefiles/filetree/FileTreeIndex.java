@@ -0,0 +1,298 @@
+package io.easeci.core.workspace.easefiles.filetree;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
+import static java.nio.file.StandardWatchEventKinds.*;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Tree of files and directories placed in root directory, kept in memory.
+ * Disk is walked only once, when index is started. After that WatchService
+ * registered in each directory reports changes, and only changed entries
+ * are read from disk again. Each applied change increments version of index,
+ * and FileTree of whole root is built once per version, so scans
+ * of unchanged tree return just built object.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Slf4j
+public class FileTreeIndex implements Closeable {
+    @Getter
+    private final Path root;
+    private final Map<Path, Entry> entries;
+    private final Map<WatchKey, Path> watchedDirectories;
+    private final AtomicLong version;
+    private final Object lock = new Object();
+    private WatchService watchService;
+    private Thread watcher;
+    private volatile FileTree cachedTree;
+
+    private FileTreeIndex(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.entries = new ConcurrentHashMap<>();
+        this.watchedDirectories = new ConcurrentHashMap<>();
+        this.version = new AtomicLong(0);
+    }
+
+    /**
+     * Builds index of root directory and starts watching for changes in it.
+     * @throws IOException when root directory cannot be read or watched
+     * */
+    public static FileTreeIndex start(Path root) throws IOException {
+        FileTreeIndex index = new FileTreeIndex(root);
+        index.watchService = index.root.getFileSystem().newWatchService();
+        index.rebuild();
+        index.watcher = new Thread(index::watch, "easefile-tree-watcher");
+        index.watcher.setDaemon(true);
+        index.watcher.start();
+        return index;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return whole tree of root directory with version of index that it comes from
+     * */
+    public FileTree tree() {
+        FileTree fileTree = this.cachedTree;
+        long currentVersion = version.get();
+        if (nonNull(fileTree) && fileTree.getVersion() == currentVersion) {
+            return fileTree;
+        }
+        synchronized (lock) {
+            currentVersion = version.get();
+            fileTree = new FileTree(root, node(root, true), currentVersion);
+            this.cachedTree = fileTree;
+            return fileTree;
+        }
+    }
+
+    /**
+     * @return content of one directory, nested directories are not expanded
+     *         like in FileTreeWalker.dumpOne()
+     * */
+    public FileTree tree(Path directory) {
+        Path normalized = directory.toAbsolutePath().normalize();
+        synchronized (lock) {
+            Entry entry = entries.get(normalized);
+            if (isNull(entry)) {
+                return FileTree.notExisting(normalized);
+            }
+            if (!entry.isDirectory()) {
+                return FileTree.empty(normalized);
+            }
+            return new FileTree(normalized, node(normalized, false), version.get());
+        }
+    }
+
+    /**
+     * Reads given path from disk again, without waiting for event from WatchService.
+     * Useful when change was made by EaseCI itself and should be visible at once.
+     * */
+    public void refresh(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            return;
+        }
+        synchronized (lock) {
+            remove(normalized);
+            if (Files.exists(normalized, LinkOption.NOFOLLOW_LINKS)) {
+                Path start = normalized;
+                while (!start.equals(root) && !entries.containsKey(start.getParent())) {
+                    start = start.getParent();
+                }
+                index(start);
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void rebuild() {
+        synchronized (lock) {
+            watchedDirectories.keySet().forEach(WatchKey::cancel);
+            watchedDirectories.clear();
+            entries.clear();
+            index(root);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds path and everything placed under it, and registers watching of each directory.
+     * */
+    private void index(Path start) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                    put(directory, true);
+                    register(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    put(file, attributes.isDirectory());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exception) {
+                    log.error("Cannot read file {} while indexing directory {}", file, root, exception);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException exception) {
+            log.error("Cannot index directory {}", start, exception);
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        Entry entry = entries.get(directory);
+        if (nonNull(entry) && entry.watched) {
+            return;
+        }
+        WatchKey watchKey = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+        watchedDirectories.put(watchKey, directory);
+        entries.get(directory).watched = true;
+    }
+
+    private void put(Path path, boolean isDirectory) {
+        Entry previous = entries.get(path);
+        if (nonNull(previous) && previous.isDirectory() == isDirectory) {
+            return;
+        }
+        if (nonNull(previous)) {
+            remove(path);
+        }
+        entries.put(path, new Entry(isDirectory));
+        Path parent = path.getParent();
+        if (!path.equals(root) && nonNull(parent)) {
+            Entry parentEntry = entries.get(parent);
+            if (nonNull(parentEntry) && parentEntry.isDirectory()) {
+                parentEntry.children.add(path);
+            }
+        }
+    }
+
+    private void remove(Path path) {
+        Entry entry = entries.remove(path);
+        if (isNull(entry)) {
+            return;
+        }
+        if (entry.isDirectory()) {
+            entry.children.forEach(this::remove);
+        }
+        Entry parentEntry = entries.get(path.getParent());
+        if (nonNull(parentEntry) && parentEntry.isDirectory()) {
+            parentEntry.children.remove(path);
+        }
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+            Path directory = watchedDirectories.get(watchKey);
+            try {
+                if (nonNull(directory)) {
+                    apply(watchKey, directory);
+                }
+            } catch (Throwable throwable) {
+                log.error("Cannot apply changes of directory {} to file tree index", directory, throwable);
+            }
+            if (!watchKey.reset()) {
+                watchedDirectories.remove(watchKey);
+            }
+        }
+    }
+
+    private void apply(WatchKey watchKey, Path directory) {
+        List<WatchEvent<?>> events = watchKey.pollEvents();
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == OVERFLOW) {
+                logit(WORKSPACE_EVENT, "Too many changes in " + root + " were made at once, file tree is indexed again", THREE);
+                rebuild();
+                return;
+            }
+        }
+        synchronized (lock) {
+            for (WatchEvent<?> event : events) {
+                Path path = directory.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    index(path);
+                } else if (event.kind() == ENTRY_DELETE && Files.notExists(path, LinkOption.NOFOLLOW_LINKS)) {
+                    remove(path);
+                }
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    private Node node(Path path, boolean recursively) {
+        Entry entry = entries.get(path);
+        if (!entry.isDirectory()) {
+            return new Node(NodeType.FILE, path, null, false);
+        }
+        List<Node> childNodes = new LinkedList<>();
+        for (Path child : entry.children) {
+            Entry childEntry = entries.get(child);
+            if (isNull(childEntry)) {
+                continue;
+            }
+            childNodes.add(recursively || !childEntry.isDirectory()
+                    ? node(child, true)
+                    : new Node(NodeType.DIRECTORY, child, new LinkedList<>(), !childEntry.children.isEmpty()));
+        }
+        return new Node(NodeType.DIRECTORY, path, childNodes, !entry.children.isEmpty());
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            log.error("Cannot close WatchService of file tree index", exception);
+        }
+        if (nonNull(watcher)) {
+            watcher.interrupt();
+        }
+    }
+
+    private static class Entry {
+        private final Set<Path> children;
+        private volatile boolean watched;
+
+        private Entry(boolean isDirectory) {
+            this.children = isDirectory ? new ConcurrentSkipListSet<>() : null;
+        }
+
+        private boolean isDirectory() {
+            return nonNull(children);
+        }
+    }
+}
@@ -1,52 +1,283 @@
 package io.easeci.core.workspace.easefiles.filetree;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Walks directory tree on disk. Type of each entry comes from attributes
+ * read once by Files.walkFileTree, so there is no second stat call per entry.
+ * dumpAll() and dumpOne() build FileTree in memory, each directory is listed
+ * by separate task of ForkJoinPool, so large subtrees are walked in parallel.
+ * writeTo() writes FileTree as JSON to stream while directories are visited,
+ * without building the tree in memory, only entries of directories just written are kept.
+ * In both cases entries are sorted by path and directory has next entries
+ * only when at least one of its entries is accepted by WalkOptions.
+ * */
 public class FileTreeWalker {
-    private Path parentDirectory;
-    private FileTree fileTree;
+    private final static ForkJoinPool WALKER_POOL = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                WalkerThread thread = new WalkerThread(pool);
+                thread.setName("file-tree-walker-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+    private final static ObjectMapper MAPPER = new ObjectMapper();
+    private final Path parentDirectory;
+    private final WalkOptions walkOptions;
 
     public FileTreeWalker(Path parentDirectory) {
+        this(parentDirectory, WalkOptions.UNLIMITED);
+    }
+
+    public FileTreeWalker(Path parentDirectory, WalkOptions walkOptions) {
         this.parentDirectory = parentDirectory;
-        this.fileTree = new FileTree(parentDirectory);
+        this.walkOptions = walkOptions;
     }
 
     public FileTree dumpAll() throws IOException {
-        return walk(this.parentDirectory, fileTree.getRootNode(), true);
+        return walk(walkOptions);
     }
 
     public FileTree dumpOne() throws IOException {
-        return walk(this.parentDirectory, fileTree.getRootNode(), false);
+        return walk(walkOptions.withMaxDepth(1));
     }
 
-    private FileTree walk(Path pathDirectory, Node node, boolean recursively) throws IOException {
-        if (!Files.exists(pathDirectory)) {
-            return FileTree.notExisting(pathDirectory);
+    private FileTree walk(WalkOptions options) throws IOException {
+        if (!Files.exists(parentDirectory)) {
+            return FileTree.notExisting(parentDirectory);
         }
-        if (!Files.isDirectory(pathDirectory)) {
-            return FileTree.empty(pathDirectory);
+        if (!Files.isDirectory(parentDirectory)) {
+            return FileTree.empty(parentDirectory);
+        }
+        Walk walk = new Walk(options);
+        try {
+            Node rootNode = WALKER_POOL.invoke(new DirectoryTask(walk, parentDirectory, 0));
+            return new FileTree(parentDirectory, rootNode, walk.truncated.get());
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Writes FileTree as JSON, in the same format and order as FileTree is serialized,
+     * while walking directories one by one.
+     * @return number of entries written
+     * */
+    public long writeTo(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeObjectField("entryPoint", parentDirectory);
+            if (!Files.isDirectory(parentDirectory)) {
+                generator.writeNullField("rootNode");
+                generator.writeEndObject();
+                return 0;
+            }
+            generator.writeFieldName("rootNode");
+            Walk walk = new Walk(walkOptions);
+            writeDirectory(generator, walk, parentDirectory, 0);
+            if (walk.truncated.get()) {
+                generator.writeBooleanField("truncated", true);
+            }
+            generator.writeEndObject();
+            return walk.entries.get();
         }
-        List<Path> paths = Files.list(pathDirectory).collect(Collectors.toList());
-        for (Path path : paths) {
-            boolean regularFile = Files.isRegularFile(path);
-            if (regularFile) {
-                Node nodeNew = new Node(NodeType.FILE, path);
-                node.add(nodeNew);
+    }
+
+    /**
+     * @return false when limit of entries is reached and walk must be stopped
+     * */
+    private static boolean writeDirectory(JsonGenerator generator, Walk walk, Path directory, int depth) throws IOException {
+        List<Entry> children = walk.list(directory);
+        generator.writeStartObject();
+        generator.writeStringField("nodeType", NodeType.DIRECTORY.name());
+        generator.writeObjectField("nodePath", directory);
+        generator.writeArrayFieldStart("childNodes");
+        boolean completed = true;
+        for (Entry child : children) {
+            if (!walk.reserve()) {
+                completed = false;
+                break;
+            }
+            if (child.directory && depth + 1 < walk.options.getMaxDepth()) {
+                if (!writeDirectory(generator, walk, child.path, depth + 1)) {
+                    completed = false;
+                    break;
+                }
                 continue;
             }
-            boolean directory = Files.isDirectory(path);
-            if (directory) {
-                Node nodeNew = new Node(NodeType.DIRECTORY, path);
-                node.add(nodeNew);
-                if (recursively) {
-                    walk(path, nodeNew, true);
+            generator.writeStartObject();
+            generator.writeStringField("nodeType", child.directory ? NodeType.DIRECTORY.name() : NodeType.FILE.name());
+            generator.writeObjectField("nodePath", child.path);
+            if (child.directory) {
+                generator.writeArrayFieldStart("childNodes");
+                generator.writeEndArray();
+            } else {
+                generator.writeNullField("childNodes");
+            }
+            generator.writeBooleanField("hasNext", child.directory && walk.hasAcceptedEntry(child.path));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeBooleanField("hasNext", !children.isEmpty());
+        generator.writeEndObject();
+        return completed;
+    }
+
+    /**
+     * State of one walk shared by all tasks.
+     * */
+    private static class Walk {
+        private final WalkOptions options;
+        private final PathMatcher fileNameMatcher;
+        private final AtomicInteger entries = new AtomicInteger(0);
+        private final AtomicBoolean truncated = new AtomicBoolean(false);
+
+        private Walk(WalkOptions options) {
+            this.options = options;
+            this.fileNameMatcher = options.fileNameMatcher();
+        }
+
+        private boolean accepts(Path path, BasicFileAttributes attributes) {
+            return attributes.isDirectory() || (attributes.isRegularFile() && fileNameMatcher.matches(path));
+        }
+
+        /**
+         * @return entries of directory accepted by options, sorted by path,
+         *         with attributes read once while directory is listed
+         * */
+        private List<Entry> list(Path directory) throws IOException {
+            List<Entry> accepted = new ArrayList<>();
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                    if (accepts(path, attributes)) {
+                        accepted.add(new Entry(path, attributes.isDirectory()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException exception) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            accepted.sort(Comparator.comparing(entry -> entry.path));
+            return accepted;
+        }
+
+        /**
+         * @return true when directory, that is not listed in tree, has at least one entry accepted by options
+         * */
+        private boolean hasAcceptedEntry(Path directory) {
+            try (DirectoryStream<Path> content = Files.newDirectoryStream(directory)) {
+                for (Path path : content) {
+                    try {
+                        if (accepts(path, Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS))) {
+                            return true;
+                        }
+                    } catch (IOException exception) {
+                        // entry removed while listing is not placed in tree
+                    }
                 }
+                return false;
+            } catch (IOException exception) {
+                return false;
+            }
+        }
+
+        /**
+         * @return false when limit of entries is reached and entry must not be placed in tree
+         * */
+        private boolean reserve() {
+            if (entries.incrementAndGet() > options.getMaxEntries()) {
+                entries.decrementAndGet();
+                truncated.set(true);
+                return false;
             }
+            return true;
+        }
+    }
+
+    private static class DirectoryTask extends RecursiveTask<Node> {
+        private final Walk walk;
+        private final Path directory;
+        private final int depth;
+
+        private DirectoryTask(Walk walk, Path directory, int depth) {
+            this.walk = walk;
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Node compute() {
+            List<Node> childNodes = new ArrayList<>();
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            AtomicBoolean hasNext = new AtomicBoolean(false);
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                        if (!walk.accepts(path, attributes)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        hasNext.set(true);
+                        if (!walk.reserve()) {
+                            return FileVisitResult.TERMINATE;
+                        }
+                        if (!attributes.isDirectory()) {
+                            childNodes.add(new Node(NodeType.FILE, path, null, false));
+                        } else if (depth + 1 < walk.options.getMaxDepth()) {
+                            subtasks.add(new DirectoryTask(walk, path, depth + 1));
+                        } else {
+                            childNodes.add(new Node(NodeType.DIRECTORY, path, new LinkedList<>(), walk.hasAcceptedEntry(path)));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path path, IOException exception) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            for (DirectoryTask subtask : ForkJoinTask.invokeAll(subtasks)) {
+                childNodes.add(subtask.join());
+            }
+            childNodes.sort(Comparator.comparing(Node::getNodePath));
+            return new Node(NodeType.DIRECTORY, directory, new LinkedList<>(childNodes), hasNext.get());
+        }
+    }
+
+    private static class Entry {
+        private final Path path;
+        private final boolean directory;
+
+        private Entry(Path path, boolean directory) {
+            this.path = path;
+            this.directory = directory;
+        }
+    }
+
+    private static class WalkerThread extends ForkJoinWorkerThread {
+        private WalkerThread(ForkJoinPool pool) {
+            super(pool);
         }
-        return fileTree;
     }
 }
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Getter
 class Node implements NestedLocations {
@@ -28,13 +29,26 @@ class Node implements NestedLocations {
         }
     }
 
+    /**
+     * Node built from FileTreeIndex, it does not read disk at all.
+     * */
+    Node(NodeType nodeType, Path nodePath, List<Node> childNodes, boolean hasNext) {
+        this.nodeType = nodeType;
+        this.nodePath = nodePath;
+        this.childNodes = childNodes;
+        this.hasNext = hasNext;
+    }
+
     public void add(Node node) {
         this.childNodes.add(node);
     }
 
     public boolean hasNext() {
-        try {
-            return childNodes != null && Files.list(nodePath).count() > 0;
+        if (childNodes == null) {
+            return false;
+        }
+        try (Stream<Path> paths = Files.list(nodePath)) {
+            return paths.findAny().isPresent();
         } catch (IOException e) {
             e.printStackTrace();
             return false;
@@ -43,7 +57,7 @@ class Node implements NestedLocations {
 
     @Override
     public List<Path> nextLocations() {
-        if (!hasNext()) {
+        if (childNodes == null || childNodes.isEmpty()) {
             return Collections.emptyList();
         }
         return childNodes.stream()
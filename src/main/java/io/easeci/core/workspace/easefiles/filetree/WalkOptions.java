@@ -0,0 +1,46 @@
+package io.easeci.core.workspace.easefiles.filetree;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Limits of FileTreeWalker.
+ * maxDepth - number of directory levels listed below entry point, 1 lists entry point's content only,
+ * maxEntries - number of files and directories in tree, tree is truncated when limit is reached,
+ * glob - pattern of names of files placed in tree, for instance 'Easefile*',
+ *        directories are placed in tree regardless of pattern.
+ * @author Karol Meksuła
+ * 2020-10-31
+ * */
+@Getter
+@Builder
+@ToString
+public class WalkOptions {
+    public final static WalkOptions UNLIMITED = WalkOptions.builder().build();
+
+    @Builder.Default private int maxDepth = Integer.MAX_VALUE;
+    @Builder.Default private int maxEntries = Integer.MAX_VALUE;
+    private String glob;
+
+    WalkOptions withMaxDepth(int maxDepth) {
+        return new WalkOptions(maxDepth, this.maxEntries, this.glob);
+    }
+
+    PathMatcher fileNameMatcher() {
+        if (isNull(glob) || glob.isBlank()) {
+            return path -> true;
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return path -> {
+            Path fileName = path.getFileName();
+            return fileName != null && matcher.matches(fileName);
+        };
+    }
+}
@@ -2,7 +2,7 @@ package io.easeci.core.workspace.projects;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.easeci.commons.DirUtils;
+import io.easeci.core.workspace.WorkspaceManifest;
 import io.easeci.api.projects.dto.AddProjectGroupRequest;
 import io.easeci.api.projects.dto.AddProjectRequest;
 import io.easeci.core.engine.pipeline.EasefileObjectModel;
@@ -64,16 +64,15 @@ public class ProjectManager implements PipelinePointerIO, ProjectIO, ProjectGrou
         final String workspaceLocation = getWorkspaceLocation();
         final String projectsDirLocation = workspaceLocation.concat(PROJECTS_DIRECTORY);
         final String pipelinesDirLocation = workspaceLocation.concat(PIPELINES_DIRECTORY);
-        if (!DirUtils.isDirectoryExists(projectsDirLocation)) {
-            Path path = DirUtils.directoryCreate(projectsDirLocation);
+        WorkspaceManifest manifest = WorkspaceManifest.getInstance();
+        Path path = Path.of(projectsDirLocation);
+        if (manifest.ensureDirectory(path)) {
             logit(WORKSPACE_EVENT, "Directory for projects store just created at here: " + projectsDirLocation, THREE);
-            if (!DirUtils.isDirectoryExists(pipelinesDirLocation)) {
-                DirUtils.directoryCreate(pipelinesDirLocation);
-                logit(WORKSPACE_EVENT, "Directory for deserialized pipelines store just created at here: " + projectsDirLocation, THREE);
-            }
-            return path;
         }
-        return Path.of(projectsDirLocation);
+        if (manifest.ensureDirectory(Path.of(pipelinesDirLocation))) {
+            logit(WORKSPACE_EVENT, "Directory for deserialized pipelines store just created at here: " + pipelinesDirLocation, THREE);
+        }
+        return path;
     }
 
     private Path initializeProjectsFile() {
@@ -1,5 +1,7 @@
 package io.easeci.core.workspace.vars;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -13,6 +15,20 @@ public interface GlobalVariables {
 
     <T> Variable<T> edit(Variable<T> var);
 
+    /**
+     * Adds many variables at once, with one write to file.
+     * @param overwrite when false, import fails if any of variables exists
+     * @return number of imported variables
+     * @throws IllegalStateException when any of variables is not initialized correctly or exists,
+     *         IllegalArgumentException when name of any variable is not correct, nothing is imported then
+     * */
+    int importVariables(Collection<Variable<?>> variables, boolean overwrite) throws IllegalStateException;
+
+    /**
+     * @return all variables sorted by name, in form accepted by importVariables()
+     * */
+    List<Variable<?>> exportVariables();
+
     int variableSize();
 
     Map<String, Variable<?>> getAllVariables();
@@ -1,100 +1,188 @@
 package io.easeci.core.workspace.vars;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
-import io.easeci.core.workspace.SerializeUtils;
+import io.easeci.commons.AtomicFileWriter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
 import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
 import static io.easeci.core.log.ApplicationLevelLogFacade.logit;
 import static io.easeci.core.workspace.LocationUtils.getVarsFileLocation;
 import static java.util.Objects.isNull;
-
+import static java.util.Objects.nonNull;
+
+/**
+ * Variables are kept in concurrent map, and readers of all variables
+ * get immutable snapshot published after each change, so they never
+ * see change made in half and never block writers.
+ * Changes are written to vars.json in one batch by AtomicFileWriter,
+ * after short delay since first change.
+ * */
+@Slf4j
 public class GlobalVariablesManager implements GlobalVariables {
+    private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private final static Pattern VARIABLE_NAME_PATTERN = Pattern.compile("^((?=[A-Za-z0-9])(?![_\\-]).)*${1,20}");
+    final static long DEFAULT_SAVE_DELAY_MILLIS = 200;
     private static GlobalVariablesManager instance;
-    private static Map<String, Variable<?>> varsMap;
-    private static Path varsFile;
 
-    private GlobalVariablesManager() {}
+    private final Path varsFile;
+    private final AtomicFileWriter fileWriter;
+    private final ConcurrentMap<String, Variable<?>> varsMap;
+    private volatile Map<String, Variable<?>> snapshot;
+
+    GlobalVariablesManager(Path varsFile, long saveDelayMillis) {
+        this.varsFile = varsFile;
+        this.varsMap = new ConcurrentHashMap<>();
+        this.snapshot = ImmutableMap.of();
+        this.fileWriter = AtomicFileWriter.builder()
+                .target(varsFile)
+                .delayMillis(saveDelayMillis)
+                .content(() -> JSON_MAPPER.writeValueAsBytes(this.snapshot))
+                .onFailure(exception -> logit(WORKSPACE_EVENT, "Exception occurred and could not save to file store variables. File should be in here: " + varsFile.toString(), THREE))
+                .build();
+        this.initializeVarsFile();
+    }
 
-    public static GlobalVariablesManager getInstance() {
+    public static synchronized GlobalVariablesManager getInstance() {
         if (instance == null) {
-            instance = new GlobalVariablesManager();
-            varsMap = new HashMap<>();
-            varsFile = getVarsFileLocation();
-            initializeVarsFile();
+            instance = new GlobalVariablesManager(getVarsFileLocation(), DEFAULT_SAVE_DELAY_MILLIS);
         }
         return instance;
     }
 
-    private static void initializeVarsFile() {
-        boolean isFileExists = Files.exists(varsFile);
-        if (isFileExists) {
-            logit(WORKSPACE_EVENT, "File for store variables found in here: " + varsFile.toString(), THREE);
-        }
+    private void initializeVarsFile() {
         try {
+            fileWriter.deleteTemporary();
+            if (Files.exists(varsFile)) {
+                logit(WORKSPACE_EVENT, "File for store variables found in here: " + varsFile.toString(), THREE);
+                load();
+                return;
+            }
             Files.createFile(varsFile);
-            logit(WORKSPACE_EVENT, "Created file with success for store variables in here: " + varsFile.toString(), THREE);
-            instance.save();
+            fileWriter.changed();
+            fileWriter.flush();
             logit(WORKSPACE_EVENT, "Created file with success for store variables in here: " + varsFile.toString(), THREE);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Could not initialize file for store variables {}", varsFile, e);
             logit(WORKSPACE_EVENT, "Exception occurred and could not create file for store variables in here: " + varsFile.toString(), THREE);
         }
     }
 
+    private void load() {
+        try {
+            if (Files.size(varsFile) == 0) {
+                return;
+            }
+            Map<String, Variable<Object>> stored = JSON_MAPPER.readValue(varsFile.toFile(), new TypeReference<Map<String, Variable<Object>>>() {});
+            synchronized (this) {
+                varsMap.putAll(stored);
+                publish();
+            }
+        } catch (IOException e) {
+            log.error("File with variables {} is corrupted, variables are not loaded", varsFile, e);
+            logit(WORKSPACE_EVENT, "Could not read variables from file: " + varsFile.toString(), THREE);
+        }
+    }
+
     @Override
     public <T> Optional<Variable<T>> get(String varName) {
+        if (isNull(varName)) {
+            return Optional.empty();
+        }
         Variable<T> variable = (Variable<T>) varsMap.get(varName);
         return Optional.ofNullable(variable);
     }
 
     @Override
     public <T> Variable<T> put(Variable<T> var) throws IllegalStateException {
-        if (isNull(var) || isNull(var.getName()) || isNull(var.getType()) || isNull(var.getValue())) {
-            logit(WORKSPACE_EVENT, "Variable object not initialized correctly.");
-            throw new IllegalStateException("Variable object not initialized correctly.");
+        validateVariable(var);
+        synchronized (this) {
+            if (nonNull(varsMap.putIfAbsent(var.getName(), var))) {
+                logit(WORKSPACE_EVENT, "Variable exists. Cannot add twice the same name of variable.");
+                throw new IllegalStateException("Variable exists. Cannot add twice the same name of variable.");
+            }
+            publish();
         }
-        if (varsMap.containsKey(var.getName())) {
-            logit(WORKSPACE_EVENT, "Variable exists. Cannot add twice the same name of variable.");
-            throw new IllegalStateException("Variable exists. Cannot add twice the same name of variable.");
-        }
-        validateVarName(var.getName());
-        varsMap.put(var.getName(), var);
-        save();
+        scheduleSave();
         return var;
     }
 
     @Override
     public <T> Optional<Variable<T>> remove(String varName) {
-        Optional<? extends Variable<?>> found = varsMap.keySet().stream()
-                .filter(key -> key.equals(varName))
-                .map(key -> varsMap.get(key))
-                .findFirst();
-        if (found.isPresent()) {
-            Variable<?> variable = found.get();
-            varsMap.remove(variable.getName(), variable);
-            save();
+        if (isNull(varName)) {
+            return Optional.empty();
         }
-        return (Optional<Variable<T>>) found;
+        Variable<T> removed;
+        synchronized (this) {
+            removed = (Variable<T>) varsMap.remove(varName);
+            if (isNull(removed)) {
+                return Optional.empty();
+            }
+            publish();
+        }
+        scheduleSave();
+        return Optional.of(removed);
     }
 
     @Override
     public <T> Variable<T> edit(Variable<T> var) {
         validateVarName(var.getName());
-        if (varsMap.containsKey(var.getName())) {
-            varsMap.put(var.getName(), var);
-            return var;
+        synchronized (this) {
+            if (isNull(varsMap.replace(var.getName(), var))) {
+                throw new IllegalStateException("Variable with name: " + var.getName() + " not exists.");
+            }
+            publish();
         }
-        throw new IllegalStateException("Variable with name: " + var.getName() + " not exists.");
+        scheduleSave();
+        return var;
+    }
+
+    /**
+     * All variables are validated before any of them is added,
+     * so import of incorrect variables does not change anything.
+     * */
+    @Override
+    public int importVariables(Collection<Variable<?>> variables, boolean overwrite) {
+        Map<String, Variable<?>> imported = new LinkedHashMap<>();
+        for (Variable<?> variable : variables) {
+            validateVariable(variable);
+            if (nonNull(imported.put(variable.getName(), variable))) {
+                throw new IllegalStateException("Variable with name: " + variable.getName() + " is imported twice.");
+            }
+        }
+        synchronized (this) {
+            if (!overwrite) {
+                List<String> existing = imported.keySet().stream()
+                        .filter(varsMap::containsKey)
+                        .collect(Collectors.toList());
+                if (!existing.isEmpty()) {
+                    throw new IllegalStateException("Variables exist and cannot be overwritten: " + existing);
+                }
+            }
+            varsMap.putAll(imported);
+            publish();
+        }
+        scheduleSave();
+        logit(WORKSPACE_EVENT, imported.size() + " variables imported", THREE);
+        return imported.size();
+    }
+
+    @Override
+    public List<Variable<?>> exportVariables() {
+        return snapshot.values().stream()
+                .sorted(Comparator.comparing(Variable::getName))
+                .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
@@ -104,31 +192,61 @@ public class GlobalVariablesManager implements GlobalVariables {
 
     @Override
     public Map<String, Variable<?>> getAllVariables() {
-        return ImmutableMap.<String, Variable<?>>builder()
-                .putAll(varsMap)
-                .build();
+        return snapshot;
+    }
+
+    /**
+     * Publishes new snapshot of variables, must be called in synchronized block after each change.
+     * */
+    private void publish() {
+        this.snapshot = ImmutableMap.copyOf(varsMap);
+    }
+
+    /**
+     * Marks variables as changed and schedules saving,
+     * all changes made until saving starts are written at once.
+     * */
+    private void scheduleSave() {
+        fileWriter.changed();
     }
 
-    private void save() {
-        Path varsFile = getVarsFileLocation();
-        byte[] write = SerializeUtils.write(varsMap);
+    /**
+     * Writes pending changes to file immediately, without waiting for scheduled save.
+     * */
+    void flush() {
         try {
-            Files.write(varsFile, write);
+            fileWriter.flush();
         } catch (IOException e) {
-            e.printStackTrace();
-            logit(WORKSPACE_EVENT, "Exception occurred and could not save to file store variables. File should be in here: " + varsFile.toString(), THREE);
+            log.error("Could not save variables to file {}", varsFile, e);
         }
     }
 
+    /**
+     * @return number of writes of file, one write covers many changes
+     * */
+    long commits() {
+        return fileWriter.commits();
+    }
+
+    private void validateVariable(Variable<?> var) {
+        if (isNull(var) || isNull(var.getName()) || isNull(var.getType()) || isNull(var.getValue())) {
+            logit(WORKSPACE_EVENT, "Variable object not initialized correctly.");
+            throw new IllegalStateException("Variable object not initialized correctly.");
+        }
+        validateVarName(var.getName());
+    }
+
     private void validateVarName(String variableName) {
-        Pattern pattern = Pattern.compile("^((?=[A-Za-z0-9])(?![_\\-]).)*${1,20}");
-        Matcher matcher = pattern.matcher(variableName);
-        if (!matcher.matches()) {
+        if (!VARIABLE_NAME_PATTERN.matcher(variableName).matches()) {
             throw new IllegalArgumentException("Variable name: '" + variableName + "' is not correct!");
         }
     }
 
     void clear() {
-        varsMap.clear();
+        synchronized (this) {
+            varsMap.clear();
+            publish();
+        }
+        scheduleSave();
     }
 }
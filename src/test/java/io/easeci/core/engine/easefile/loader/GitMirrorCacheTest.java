@@ -0,0 +1,119 @@
+package io.easeci.core.engine.easefile.loader;
+
+import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.core.workspace.cache.CacheManager;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GitMirrorCacheTest extends BaseWorkspaceContextTest {
+    private Path remotes;
+
+    @BeforeEach
+    void createRemotes() throws IOException {
+        remotes = Files.createTempDirectory("git-remotes");
+    }
+
+    @AfterEach
+    void removeRemotes() throws IOException {
+        FileUtils.deleteDirectory(remotes.toFile());
+    }
+
+    @Test
+    @DisplayName("Should clone mirror once and read new Easefile content after incremental fetch without working tree")
+    void incrementalFetchTest() throws Exception {
+        GitMirrorCache gitMirrorCache = new GitMirrorCache(CacheManager.getInstance(), 4);
+        Path remote = remotes.resolve("first/app");
+        commitEasefile(remote, "pipeline:\n  version: 1\n");
+        String remoteUrl = remote.toUri().toString();
+
+        String firstContent = gitMirrorCache.loadEasefile(remoteUrl, null);
+        commitEasefile(remote, "pipeline:\n  version: 2\n");
+        String secondContent = gitMirrorCache.loadEasefile(remoteUrl, null);
+        Path mirror = CacheManager.getInstance().locate(GitMirrorCache.NAMESPACE, GitMirrorCache.normalize(remoteUrl));
+
+        assertAll(() -> assertEquals("pipeline:\n  version: 1\n", firstContent),
+                  () -> assertEquals("pipeline:\n  version: 2\n", secondContent),
+                  () -> assertEquals("pipeline:\n  version: 1\n", gitMirrorCache.loadEasefile(remoteUrl, "HEAD~1")),
+                  () -> assertTrue(Files.isRegularFile(mirror.resolve("config"))),
+                  () -> assertFalse(Files.exists(mirror.resolve("Easefile"))),
+                  () -> assertThrows(IllegalStateException.class, () -> gitMirrorCache.loadEasefile(remoteUrl, "not-existing-branch")));
+    }
+
+    @Test
+    @DisplayName("Should keep separate mirrors of repositories with the same name and remove least recently used above limit")
+    void separateMirrorsTest() throws Exception {
+        GitMirrorCache gitMirrorCache = new GitMirrorCache(CacheManager.getInstance(), 1);
+        Path first = remotes.resolve("first/app");
+        Path second = remotes.resolve("second/app");
+        commitEasefile(first, "pipeline: first");
+        commitEasefile(second, "pipeline: second");
+
+        String firstContent = gitMirrorCache.loadEasefile(first.toUri().toString(), null);
+        String secondContent = gitMirrorCache.loadEasefile(second.toUri().toString(), null);
+
+        assertAll(() -> assertEquals("pipeline: first", firstContent),
+                  () -> assertEquals("pipeline: second", secondContent),
+                  () -> assertFalse(Files.exists(CacheManager.getInstance().locate(GitMirrorCache.NAMESPACE, GitMirrorCache.normalize(first.toUri().toString())))),
+                  () -> assertTrue(Files.exists(CacheManager.getInstance().locate(GitMirrorCache.NAMESPACE, GitMirrorCache.normalize(second.toUri().toString())))));
+    }
+
+    @Test
+    @DisplayName("Should read Easefile from given path and reference, fetching only this reference")
+    void pathAndRefTest() throws Exception {
+        GitMirrorCache gitMirrorCache = new GitMirrorCache(CacheManager.getInstance(), 4);
+        Path remote = remotes.resolve("third/app");
+        commitEasefile(remote, "pipeline: root");
+        try (Git git = Git.open(remote.toFile())) {
+            git.tag().setName("v1").call();
+            git.checkout().setCreateBranch(true).setName("feature").call();
+            Files.createDirectories(remote.resolve("ci"));
+            Files.writeString(remote.resolve("ci/Easefile_build"), "pipeline: feature");
+            git.add().addFilepattern("ci/Easefile_build").call();
+            git.commit().setMessage("Easefile in directory").setAuthor("EaseCI", "easeci@easeci.io").call();
+            git.checkout().setName("master").call();
+        }
+        String remoteUrl = remote.toUri().toString();
+
+        String fromBranch = gitMirrorCache.loadEasefile(remoteUrl, "feature", "/ci/Easefile_build");
+        String fromTag = gitMirrorCache.loadEasefile(remoteUrl, "v1", null);
+        EasefileLoader gitLoader = GitLoader.of(remoteUrl, "feature", "ci/Easefile_build", gitMirrorCache);
+        Path mirror = CacheManager.getInstance().locate(GitMirrorCache.NAMESPACE, GitMirrorCache.normalize(remoteUrl));
+
+        assertAll(() -> assertEquals("pipeline: feature", fromBranch),
+                  () -> assertEquals("pipeline: root", fromTag),
+                  () -> assertEquals("pipeline: feature", gitLoader.provide()),
+                  () -> assertThrows(IllegalStateException.class, () -> gitMirrorCache.loadEasefile(remoteUrl, "master", "ci/Easefile_build")),
+                  () -> assertThrows(IllegalStateException.class, () -> gitMirrorCache.loadEasefile(remoteUrl, "feature", "ci")),
+                  () -> assertThrows(IllegalStateException.class, () -> gitMirrorCache.loadEasefile(remoteUrl, "feature:ci", null)),
+                  () -> assertNull(Git.open(mirror.toFile()).getRepository().exactRef("refs/heads/master")));
+    }
+
+    @Test
+    @DisplayName("Should normalize URL of repository so the same remote has one mirror")
+    void normalizeTest() {
+        assertAll(() -> assertEquals("https://github.com/easeci/easeci-core", GitMirrorCache.normalize("https://user@GitHub.com/easeci/easeci-core.git/")),
+                  () -> assertEquals(GitMirrorCache.normalize("https://github.com/easeci/easeci-core"), GitMirrorCache.normalize("https://github.com/easeci/easeci-core.git")),
+                  () -> assertNotEquals(GitMirrorCache.normalize("https://github.com/first/app"), GitMirrorCache.normalize("https://github.com/second/app")),
+                  () -> assertThrows(IllegalArgumentException.class, () -> GitMirrorCache.normalize(" ")));
+    }
+
+    private static void commitEasefile(Path repository, String content) throws IOException, GitAPIException {
+        Files.createDirectories(repository);
+        try (Git git = Files.exists(repository.resolve(".git")) ? Git.open(repository.toFile()) : Git.init().setDirectory(repository.toFile()).call()) {
+            Files.writeString(repository.resolve("Easefile"), content);
+            git.add().addFilepattern("Easefile").call();
+            git.commit().setMessage("Easefile changed").setAuthor("EaseCI", "easeci@easeci.io").call();
+        }
+    }
+}
@@ -2,15 +2,30 @@ package io.easeci.core.engine.easefile.parser;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.easeci.BaseWorkspaceContextTest;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.easeci.core.engine.easefile.parser.parts.*;
 import io.easeci.core.engine.pipeline.EasefileObjectModel;
+import io.easeci.core.engine.pipeline.interpolation.VariableScope;
+import io.easeci.core.engine.script.ScriptAssembler;
+import io.easeci.core.engine.script.ScriptAssemblySettings;
+import io.easeci.core.extension.DirectiveRegistry;
 import io.easeci.core.workspace.projects.ProjectManager;
+import io.easeci.core.workspace.vars.Variable;
+import io.easeci.extension.command.Command;
+import io.easeci.extension.command.Directive;
+import io.easeci.extension.command.VariableType;
+import io.easeci.extension.directive.CodeChunk;
+import io.easeci.extension.directive.CodeLanguage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
 
 import static io.easeci.core.engine.easefile.parser.Utils.provideEmptyPipelineForTest;
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,4 +75,74 @@ class MainEasefileParserTest extends BaseWorkspaceContextTest {
                 () -> assertNotNull(parser),
                 () -> assertTrue(isFileExists));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should assemble script with Easefile's variables hiding global variables of the same name")
+    void assembleWithVariablesTest() throws Exception {
+        ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(new EchoDirective("$ssh")));
+        VariableScope globalScope = VariableScope.EMPTY.child(List.of(Variable.of(VariableType.STRING, "_target", "/global"),
+                                                                      Variable.of(VariableType.STRING, "_dir", "easeci")));
+        String easefile = "pipeline:\n" +
+                "    executor:\n" +
+                "        strategy: auto\n" +
+                "        names:\n" +
+                "            - \"easefile-node-01-aws\"\n" +
+                "    meta:\n" +
+                "        projectId: 0\n" +
+                "        tag: 'java maven'\n" +
+                "        description: 'Java project based on Maven'\n" +
+                "    variables:\n" +
+                "        _artifactory_url: https://easeci-artifactory.io\n" +
+                "        _target: /var/sources\n" +
+                "    flow:\n" +
+                "        -\n" +
+                "            stage_name: 'Prepare building environment'\n" +
+                "            steps:\n" +
+                "                - $ssh mkdir -p {_target}/{_dir}";
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, ScriptAssemblySettings.builder().build())) {
+            MainEasefileParser parser = MainEasefileParser.builder()
+                    .easefileExtractor(new MainEasefileExtractor())
+                    .metadataProcessor(new MetadataProcessor(yamlMapper))
+                    .keyProcessor(new KeyProcessor())
+                    .executorsProcessor(new ExecutorProcessor(yamlMapper))
+                    .varsProcessor(new VariableProcessor(yamlMapper))
+                    .stagesProcessor(new StageProcessor(yamlMapper))
+                    .scriptFileProcessor(new ScriptFileProcessor())
+                    .scriptAssemblerSupplier(() -> Optional.of(scriptAssembler))
+                    .globalScopeSupplier(() -> globalScope)
+                    .build();
+
+            EasefileObjectModel pipeline = parser.process(easefile);
+            String script = new String(Base64.getDecoder().decode(pipeline.getScriptEncoded()), StandardCharsets.UTF_8);
+
+            assertEquals("$ssh mkdir -p /var/sources/easeci", script.trim());
+        }
+    }
+
+    private static class EchoDirective implements Directive {
+        private final String directiveName;
+
+        EchoDirective(String directiveName) {
+            this.directiveName = directiveName;
+        }
+
+        @Override
+        public String getDirectiveName() {
+            return directiveName;
+        }
+
+        @Override
+        public List<Command> getAvailableCommandList() {
+            return List.of();
+        }
+
+        @Override
+        public CodeChunk provideCode(List<Command> commands) {
+            Command command = commands.get(0);
+            return CodeChunk.of(CodeLanguage.BASH, directiveName + " " + command.getCommandName() + " "
+                    + command.getCommandParameterList().get(0).getParameterValue(), "UTF-8");
+        }
+    }
+}
@@ -278,5 +278,22 @@ public class Feeder {
                         "                   echo 'End of script'\n"
                 );
     }
-}
 
+    public static Supplier<List<Line>> provideFlowWithStepVariables() {
+        return () ->
+                wrapLines("flow:\n" +
+                        "   -\n" +
+                        "       stage_name: 'Clean up'\n" +
+                        "       stage_variables:\n" +
+                        "           _dir: stage\n" +
+                        "       steps:\n" +
+                        "           - $ssh mkdir -p {_dir}\n" +
+                        "           -\n" +
+                        "               step: $ssh rm -rf {_dir}\n" +
+                        "               step_variables:\n" +
+                        "                   _dir: step\n" +
+                        "                   _depth: 2\n" +
+                        "           - $ssh\n"
+                );
+    }
+}
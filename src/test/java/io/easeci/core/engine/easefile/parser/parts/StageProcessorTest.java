@@ -4,17 +4,27 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.easeci.core.engine.easefile.parser.analyse.SyntaxError;
 import io.easeci.core.engine.pipeline.Stage;
+import io.easeci.core.engine.pipeline.Step;
+import io.easeci.core.extension.DirectiveRegistry;
+import io.easeci.core.workspace.SerializeUtils;
+import io.easeci.core.workspace.vars.Variable;
+import io.easeci.extension.command.Directive;
 import io.easeci.extension.command.VariableType;
 import io.vavr.Tuple2;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.Optional;
 import java.util.function.Supplier;
 
 import static io.easeci.core.engine.easefile.parser.parts.Feeder.provideCorrectFlow;
+import static io.easeci.core.engine.easefile.parser.parts.Feeder.provideFlowWithStepVariables;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class StageProcessorTest {
 
@@ -115,4 +125,55 @@ class StageProcessorTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should report syntax error for step with directive that is not exposed by any plugin")
+    void directiveNotFoundTest() {
+        List<Directive> directives = Stream.of("$ssh", "$git", "$mvn", "$bash", "$artifactory")
+                .map(directiveName -> {
+                    Directive directive = mock(Directive.class);
+                    when(directive.getDirectiveName()).thenReturn(directiveName);
+                    return directive;
+                }).collect(Collectors.toList());
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> directives);
+        StageProcessor stageProcessor = new StageProcessor(objectMapper, () -> Optional.of(directiveRegistry));
+
+        Supplier<List<Line>> lines = provideCorrectFlow();
+        List<Line> finalLinesUnwrap = lines.get();
+        Supplier<List<Line>> linesTruncated = () -> lines.get().subList(1, finalLinesUnwrap.size());
+
+        Tuple2<Optional<List<Stage>>, List<SyntaxError>> result = stageProcessor.process(linesTruncated);
+
+        assertAll(() -> assertEquals(7, result._1.orElseThrow().size()),
+                  () -> assertEquals(1, result._2.size()),
+                  () -> assertEquals(StageProcessor.DIRECTIVE_NOT_FOUND_ERROR_TITLE, result._2.get(0).getTitle()),
+                  () -> assertTrue(result._2.get(0).getInfo().contains("$deploy")));
+    }
+
+    @Test
+    @DisplayName("Should parse step declared with its own variables and not serialize compiled template of step")
+    void stepVariablesTest() {
+        StageProcessor stageProcessor = new StageProcessor(objectMapper);
+
+        Supplier<List<Line>> lines = provideFlowWithStepVariables();
+        List<Line> finalLinesUnwrap = lines.get();
+        Supplier<List<Line>> linesTruncated = () -> lines.get().subList(1, finalLinesUnwrap.size());
+
+        Tuple2<Optional<List<Stage>>, List<SyntaxError>> result = stageProcessor.process(linesTruncated);
+
+        List<Step> steps = result._1.orElseThrow().get(0).getSteps();
+        String serialized = new String(SerializeUtils.write(steps));
+
+        assertAll(() -> assertEquals(2, steps.size()),
+                  () -> assertEquals(0, steps.get(0).getOrder()),
+                  () -> assertTrue(steps.get(0).getVariables().isEmpty()),
+                  () -> assertEquals(1, steps.get(1).getOrder()),
+                  () -> assertEquals("$ssh", steps.get(1).getDirectiveName()),
+                  () -> assertEquals("rm -rf {_dir}", steps.get(1).getInvocationBody()),
+                  () -> assertEquals(List.of(Variable.of(VariableType.STRING, "_dir", "step"),
+                                             Variable.of(VariableType.NUMBER, "_depth", 2)), steps.get(1).getVariables()),
+                  () -> assertEquals(1, result._2.size()),
+                  () -> assertEquals(StageProcessor.PARSING_COMMAND_ERROR_TITLE, result._2.get(0).getTitle()),
+                  () -> assertFalse(serialized.contains("template")),
+                  () -> assertTrue(serialized.contains("step")));
+    }
+}
@@ -0,0 +1,46 @@
+package io.easeci.core.engine.pipeline.interpolation;
+
+import io.easeci.core.workspace.vars.Variable;
+import io.easeci.extension.command.VariableType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateTest {
+
+    @Test
+    @DisplayName("Should compile variables in braces once and leave other braces as literal")
+    void compileTest() {
+        Template template = Template.compile("cp -r {_repo_clone_target}/{a,b} {log_dir}{log_dir} ${HOME} {} {1x} {unclosed");
+        Template constant = Template.compile("mvn install");
+
+        assertAll(() -> assertTrue(template.hasVariables()),
+                  () -> assertEquals(List.of("_repo_clone_target", "log_dir", "log_dir", "HOME"), template.variableNames()),
+                  () -> assertFalse(constant.hasVariables()),
+                  () -> assertSame(constant.getSource(), constant.render(VariableScope.EMPTY)),
+                  () -> assertEquals("", Template.compile(null).render(VariableScope.EMPTY)));
+    }
+
+    @Test
+    @DisplayName("Should resolve variables by step, stage, Easefile and global scope in this order and keep unknown ones")
+    void renderTest() {
+        VariableScope global = VariableScope.EMPTY.child(List.of(
+                Variable.of(VariableType.STRING, "name", "global"),
+                Variable.of(VariableType.STRING, "owner", "easeci")));
+        VariableScope easefile = global.child(List.of(
+                Variable.of(VariableType.STRING, "name", "easefile"),
+                Variable.of(VariableType.LIST, "hosts", List.of("127.0.0.1", "127.0.0.2"))));
+        VariableScope stage = easefile.child(List.of(Variable.of(VariableType.NUMBER, "port", 8080)));
+        VariableScope step = stage.child(List.of(Variable.of(VariableType.STRING, "name", "step")));
+        Template template = Template.compile("deploy {name} {owner} {hosts}:{port} {missing}");
+
+        assertAll(() -> assertEquals("deploy step easeci 127.0.0.1 127.0.0.2:8080 {missing}", template.render(step)),
+                  () -> assertEquals("deploy easefile easeci 127.0.0.1 127.0.0.2:8080 {missing}", template.render(stage)),
+                  () -> assertEquals("deploy global easeci {hosts}:{port} {missing}", template.render(global)),
+                  () -> assertSame(stage, stage.child(List.of())),
+                  () -> assertEquals("> deploy step", template.render(step, new StringBuilder("> ")).substring(0, 13)));
+    }
+}
@@ -0,0 +1,127 @@
+package io.easeci.core.engine.runtime;
+
+import io.easeci.BaseWorkspaceContextTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalProcessLogHandlerTest extends BaseWorkspaceContextTest {
+    private final static int STDOUT_LINES = 200_000,
+                             STDERR_LINES = 1_000,
+                             LINES_PER_CHUNK = 5_000;
+
+    @Test
+    @DisplayName("Should capture high rate of lines from process and deliver all of these to live subscriber")
+    void captureHighLineRateTest(@TempDir Path runLogsDirectory) throws Exception {
+        LocalProcessLogHandler handler = new LocalProcessLogHandler(runLogsDirectory, LINES_PER_CHUNK, LINES_PER_CHUNK);
+        UUID pipelineRunId = UUID.randomUUID();
+
+        RunLog runLog = handler.handle(pipelineRunId, fakeProcess());
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        runLog.subscribe(0, subscriber);
+
+        assertTrue(subscriber.completion.await(60, TimeUnit.SECONDS));
+        List<RunLogLine> stdout = subscriber.lines.stream()
+                .filter(line -> line.getStream().equals(LogStream.STDOUT))
+                .collect(Collectors.toList());
+
+        assertAll(() -> assertEquals(0, subscriber.exitCode),
+                  () -> assertEquals(STDOUT_LINES + STDERR_LINES, subscriber.lines.size()),
+                  () -> assertEquals(STDOUT_LINES, stdout.size()),
+                  () -> assertEquals("1", stdout.get(0).getText()),
+                  () -> assertEquals(String.valueOf(STDOUT_LINES), stdout.get(STDOUT_LINES - 1).getText()),
+                  () -> assertConsecutive(subscriber.lines, 0));
+    }
+
+    @Test
+    @DisplayName("Should persist compressed chunks and serve historical lines after run is finished")
+    void historicalReadTest(@TempDir Path runLogsDirectory) throws Exception {
+        LocalProcessLogHandler handler = new LocalProcessLogHandler(runLogsDirectory, LINES_PER_CHUNK, LINES_PER_CHUNK);
+        UUID pipelineRunId = UUID.randomUUID();
+        CollectingSubscriber live = new CollectingSubscriber();
+        handler.handle(pipelineRunId, fakeProcess()).subscribe(0, live);
+        assertTrue(live.completion.await(60, TimeUnit.SECONDS));
+
+        LocalProcessLogHandler restartedHandler = new LocalProcessLogHandler(runLogsDirectory, LINES_PER_CHUNK, LINES_PER_CHUNK);
+        List<RunLogLine> lines = restartedHandler.read(pipelineRunId, 150_000, 20_000);
+        CollectingSubscriber late = new CollectingSubscriber();
+        restartedHandler.find(pipelineRunId).orElseThrow().subscribe(190_000, late);
+
+        long chunks = Files.list(runLogsDirectory.resolve(pipelineRunId.toString()))
+                .filter(path -> path.toString().endsWith(".log.gz"))
+                .count();
+        assertAll(() -> assertEquals(20_000, lines.size()),
+                  () -> assertConsecutive(lines, 150_000),
+                  () -> assertEquals(live.lines.subList(150_000, 170_000), lines),
+                  () -> assertEquals(0, late.completion.getCount()),
+                  () -> assertEquals(STDOUT_LINES + STDERR_LINES - 190_000, late.lines.size()),
+                  () -> assertEquals((STDOUT_LINES + STDERR_LINES + LINES_PER_CHUNK - 1) / LINES_PER_CHUNK, chunks),
+                  () -> assertTrue(restartedHandler.read(UUID.randomUUID(), 0, 10).isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should notify subscribers outside of RunLog's lock so slow subscriber does not block readers")
+    void slowSubscriberTest(@TempDir Path runLogsDirectory) throws Exception {
+        RunLog runLog = new RunLog(UUID.randomUUID(), runLogsDirectory, 10, 10);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        runLog.subscribe(0, line -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Void> appending = CompletableFuture.runAsync(() -> runLog.append(LogStream.STDOUT, "slow"));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        long size = CompletableFuture.supplyAsync(runLog::size).get(10, TimeUnit.SECONDS);
+        List<RunLogLine> lines = runLog.read(0, 10);
+        release.countDown();
+        appending.get(10, TimeUnit.SECONDS);
+
+        assertAll(() -> assertEquals(1, size),
+                  () -> assertEquals(1, lines.size()),
+                  () -> assertEquals("slow", lines.get(0).getText()));
+    }
+
+    private static LogSource fakeProcess() {
+        return LogSource.process(List.of("sh", "-c", "seq 1 " + STDOUT_LINES + "; seq 1 " + STDERR_LINES + " 1>&2"));
+    }
+
+    private static void assertConsecutive(List<RunLogLine> lines, long firstNumber) {
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(firstNumber + i, lines.get(i).getNumber());
+        }
+    }
+
+    private static class CollectingSubscriber implements RunLogSubscriber {
+        final List<RunLogLine> lines = new ArrayList<>();
+        final CountDownLatch completion = new CountDownLatch(1);
+        volatile int exitCode = Integer.MIN_VALUE;
+
+        @Override
+        public void onLine(RunLogLine line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void onComplete(int exitCode) {
+            this.exitCode = exitCode;
+            completion.countDown();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.easeci.core.engine.script;
+
+import io.easeci.core.engine.pipeline.Stage;
+import io.easeci.core.engine.pipeline.Step;
+import io.easeci.core.engine.pipeline.interpolation.VariableScope;
+import io.easeci.core.extension.DirectiveRegistry;
+import io.easeci.core.workspace.vars.Variable;
+import io.easeci.extension.command.Command;
+import io.easeci.extension.command.Directive;
+import io.easeci.extension.command.VariableType;
+import io.easeci.extension.directive.CodeChunk;
+import io.easeci.extension.directive.CodeLanguage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptAssemblerTest {
+
+    @Test
+    @DisplayName("Should assemble CodeChunks in order of stages and steps and never generate unchanged steps again")
+    void assembleInOrderAndMemoizeTest() {
+        SleepingDirective git = new SleepingDirective("$git", 20);
+        SleepingDirective mvn = new SleepingDirective("$mvn", 20);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(git, mvn));
+        List<Stage> stages = List.of(
+                stage(1, new Step(0, "$mvn", "install"), new Step(1, "$git", "push origin master")),
+                stage(0, new Step(1, "$mvn", "test -DskipITs"), new Step(0, "$git", "clone https://github.com/easeci/easeci-core"),
+                         new Step(2, "$mvn", "install")));
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, ScriptAssemblySettings.builder().build())) {
+            List<CodeChunk> first = scriptAssembler.assemble(stages);
+            long generatedFirst = scriptAssembler.generatedChunks();
+            List<CodeChunk> second = scriptAssembler.assemble(stages);
+
+            assertAll(() -> assertEquals(List.of("$git clone https://github.com/easeci/easeci-core",
+                                                 "$mvn test -DskipITs",
+                                                 "$mvn install",
+                                                 "$mvn install",
+                                                 "$git push origin master"),
+                                         first.stream().map(CodeChunk::getCode).collect(Collectors.toList())),
+                      () -> assertEquals(4, generatedFirst),
+                      () -> assertEquals(4, scriptAssembler.generatedChunks()),
+                      () -> assertEquals(first, second),
+                      () -> assertTrue(ScriptAssembler.join(second).startsWith("$git clone")));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not call one plugin more times at once than per directive concurrency allows")
+    void perDirectiveConcurrencyTest() {
+        SleepingDirective bash = new SleepingDirective("$bash", 30);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(bash));
+        Stage stage = stage(0, IntStream.range(0, 12)
+                .mapToObj(i -> new Step(i, "$bash", "echo " + i))
+                .toArray(Step[]::new));
+        ScriptAssemblySettings settings = ScriptAssemblySettings.builder()
+                .parallelism(8)
+                .perDirectiveConcurrency(3)
+                .build();
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, settings)) {
+            List<CodeChunk> codeChunks = scriptAssembler.assemble(List.of(stage));
+
+            assertAll(() -> assertEquals(12, codeChunks.size()),
+                      () -> assertEquals("$bash echo 11", codeChunks.get(11).getCode()),
+                      () -> assertTrue(bash.maxConcurrentCalls.get() <= 3),
+                      () -> assertTrue(bash.maxConcurrentCalls.get() > 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw ScriptAssemblyException with step when plugin does not provide code in time or directive is missing")
+    void timeoutAndMissingDirectiveTest() {
+        SleepingDirective slow = new SleepingDirective("$slow", 2_000);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(slow));
+        Step slowStep = new Step(0, "$slow", "run");
+        ScriptAssemblySettings settings = ScriptAssemblySettings.builder()
+                .timeoutMillis(100)
+                .build();
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, settings)) {
+            long start = System.currentTimeMillis();
+            ScriptAssemblyException timeout = assertThrows(ScriptAssemblyException.class,
+                    () -> scriptAssembler.assemble(List.of(stage(0, slowStep))));
+            long elapsed = System.currentTimeMillis() - start;
+            ScriptAssemblyException missing = assertThrows(ScriptAssemblyException.class,
+                    () -> scriptAssembler.assemble(List.of(stage(0, new Step(0, "$missing", "run")))));
+
+            assertAll(() -> assertSame(slowStep, timeout.getStep()),
+                      () -> assertTrue(elapsed < 1_500),
+                      () -> assertEquals("$missing", missing.getStep().getDirectiveName()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count timeout from submission, interrupt plugin's call and share per directive limit between assemblies")
+    void deadlineAndSharedLimitTest() throws Exception {
+        SleepingDirective slow = new SleepingDirective("$slow", 300);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(slow));
+        ScriptAssemblySettings settings = ScriptAssemblySettings.builder()
+                .parallelism(4)
+                .perDirectiveConcurrency(1)
+                .timeoutMillis(450)
+                .build();
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, settings)) {
+            assertThrows(ScriptAssemblyException.class,
+                    () -> scriptAssembler.assemble(List.of(stage(0, new Step(0, "$slow", "first"), new Step(1, "$slow", "second")))));
+            List<CompletableFuture<List<CodeChunk>>> assemblies = IntStream.range(0, 3)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> scriptAssembler.assemble(List.of(stage(0, new Step(0, "$slow", "run " + i))))))
+                    .collect(Collectors.toList());
+            List<Boolean> completed = new ArrayList<>();
+            for (CompletableFuture<List<CodeChunk>> assembly : assemblies) {
+                completed.add(assembly.handle((codeChunks, throwable) -> throwable == null).get(10, TimeUnit.SECONDS));
+            }
+
+            assertAll(() -> assertEquals(1, slow.maxConcurrentCalls.get()),
+                      () -> assertTrue(slow.interruptedCalls.get() > 0),
+                      () -> assertTrue(completed.contains(false)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not serve CodeChunks memoized for previous instance of plugin reloaded in the same version")
+    void reloadedPluginTest() {
+        AtomicReference<Directive> current = new AtomicReference<>(new SleepingDirective("$git", 0));
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(current.get()), directive -> "0.0.1");
+        List<Stage> stages = List.of(stage(0, new Step(0, "$git", "clone https://github.com/easeci/easeci-core")));
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, ScriptAssemblySettings.builder().build())) {
+            scriptAssembler.assemble(stages);
+            scriptAssembler.assemble(stages);
+            long generatedBeforeReload = scriptAssembler.generatedChunks();
+            current.set(new SleepingDirective("$git", 0));
+            scriptAssembler.assemble(stages);
+
+            assertAll(() -> assertEquals(1, generatedBeforeReload),
+                      () -> assertEquals(2, scriptAssembler.generatedChunks()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass invocation bodies with variables of step, stage and pipeline replaced to plugins")
+    void interpolationTest() {
+        SleepingDirective ssh = new SleepingDirective("$ssh", 0);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(ssh));
+        VariableScope pipelineScope = VariableScope.EMPTY
+                .child(List.of(Variable.of(VariableType.STRING, "_target", "/var/sources")))
+                .child(List.of(Variable.of(VariableType.STRING, "_dir", "easeci")));
+        Stage stage = Stage.builder()
+                .name("Stage 0")
+                .steps(List.of(new Step(0, "$ssh", "mkdir -p {_target}/{_dir}"),
+                               new Step(1, "$ssh", "rm -rf {_target}/{_dir}",
+                                        List.of(Variable.of(VariableType.STRING, "_dir", "tmp")))))
+                .variables(List.of(Variable.of(VariableType.STRING, "_target", "/opt")))
+                .build();
+
+        try (ScriptAssembler scriptAssembler = new ScriptAssembler(directiveRegistry, ScriptAssemblySettings.builder().build())) {
+            List<CodeChunk> codeChunks = scriptAssembler.assemble(List.of(stage), pipelineScope);
+
+            assertAll(() -> assertEquals("$ssh mkdir -p /opt/easeci", codeChunks.get(0).getCode()),
+                      () -> assertEquals("$ssh rm -rf /opt/tmp", codeChunks.get(1).getCode()),
+                      () -> assertEquals("$ssh mkdir -p {_target}/{_dir}",
+                                         scriptAssembler.assemble(List.of(stage(0, new Step(0, "$ssh", "mkdir -p {_target}/{_dir}")))).get(0).getCode()));
+        }
+    }
+
+    private static Stage stage(int order, Step... steps) {
+        return Stage.builder()
+                .name("Stage " + order)
+                .order(order)
+                .steps(List.of(steps))
+                .build();
+    }
+
+    static class SleepingDirective implements Directive {
+        private final String directiveName;
+        private final long sleepMillis;
+        private final AtomicInteger concurrentCalls = new AtomicInteger(0);
+        private final AtomicInteger maxConcurrentCalls = new AtomicInteger(0);
+        private final AtomicInteger interruptedCalls = new AtomicInteger(0);
+
+        SleepingDirective(String directiveName, long sleepMillis) {
+            this.directiveName = directiveName;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public String getDirectiveName() {
+            return directiveName;
+        }
+
+        @Override
+        public List<Command> getAvailableCommandList() {
+            return List.of();
+        }
+
+        @Override
+        public CodeChunk provideCode(List<Command> commands) {
+            int concurrent = concurrentCalls.incrementAndGet();
+            maxConcurrentCalls.accumulateAndGet(concurrent, Math::max);
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException exception) {
+                interruptedCalls.incrementAndGet();
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentCalls.decrementAndGet();
+            }
+            Command command = commands.get(0);
+            String arguments = command.getCommandParameterList().get(0).getParameterValue();
+            return CodeChunk.of(CodeLanguage.BASH, directiveName + " " + command.getCommandName()
+                    + (arguments.isEmpty() ? "" : " " + arguments), "UTF-8");
+        }
+    }
+}
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -159,17 +161,19 @@ class DefaultPluginConfigTest extends BaseWorkspaceContextTest {
 
         String pluginNameToDisable = "welcome-logo";
         String pluginVersionToDisable = "0.0.1";
+        PluginStrategy pluginStrategy = (PluginStrategy) pluginConfig;
+        long versionBefore = pluginStrategy.configurationVersion();
 
         boolean isDisabled = pluginConfig.disable(pluginNameToDisable, pluginVersionToDisable);
 
 //        check is configuration is reloaded to newest version after plugin disabling
-        PluginStrategy pluginStrategy = (PluginStrategy) pluginConfig;
         ConfigDescription configDescription = pluginStrategy.find(ExtensionType.EXTENSION_PLUGIN, pluginNameToDisable, pluginVersionToDisable);
 
         assertAll(() -> assertTrue(isDisabled),
                 () -> assertEquals(pluginNameToDisable, configDescription.getName()),
                 () -> assertEquals(pluginVersionToDisable, configDescription.getVersion()),
-                () -> assertFalse(configDescription.getEnabled()));
+                () -> assertFalse(configDescription.getEnabled()),
+                () -> assertTrue(pluginStrategy.configurationVersion() > versionBefore));
     }
 
     @Test
@@ -180,10 +184,12 @@ class DefaultPluginConfigTest extends BaseWorkspaceContextTest {
 
         String pluginNameToDisable = "welcome-logo2";  // not exists in plugins-config.json
         String pluginVersionToDisable = "0.0.1";
+        long versionBefore = ((PluginStrategy) pluginConfig).configurationVersion();
 
         boolean isDisabled = pluginConfig.disable(pluginNameToDisable, pluginVersionToDisable);
 
-        assertFalse(isDisabled);
+        assertAll(() -> assertFalse(isDisabled),
+                  () -> assertEquals(versionBefore, ((PluginStrategy) pluginConfig).configurationVersion()));
     }
 
     @Test
@@ -205,6 +211,88 @@ class DefaultPluginConfigTest extends BaseWorkspaceContextTest {
         assertNotNull(defaultPluginConfig);
     }
 
+    @Test
+    @DisplayName("Should save many changes of configuration to file in one write, without temporary file left")
+    void batchedSaveTest() throws Exception {
+        Path path = copyToTemporaryDirectory(buildPathFromResources(PLUGIN_CONFIG_FILE));
+        DefaultPluginConfig pluginConfig = new DefaultPluginConfig(path, 100);
+
+        boolean isDisabled = pluginConfig.disable("test-plugin", "0.0.1");
+        boolean isEnabled = pluginConfig.enable(UUID.fromString("7bbce84d-c083-4859-8cca-5d95deb1fa90"));
+        boolean isAdded = pluginConfig.add(INSTANCE_A_INTERFACE, ConfigDescription.builder()
+                .uuid(UUID.randomUUID())
+                .name("batched-plugin")
+                .version("0.0.1")
+                .enabled(true)
+                .build());
+        long commitsBeforeDelay = pluginConfig.commits();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pluginConfig.commits() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        PluginStrategy reloaded = new DefaultPluginConfig(path);
+
+        assertAll(() -> assertTrue(isDisabled),
+                  () -> assertTrue(isEnabled),
+                  () -> assertTrue(isAdded),
+                  () -> assertEquals(0, commitsBeforeDelay),
+                  () -> assertEquals(1, pluginConfig.commits()),
+                  () -> assertFalse(reloaded.find("test-plugin", "0.0.1").getEnabled()),
+                  () -> assertTrue(reloaded.find("another-test-plugin", "0.0.1").getEnabled()),
+                  () -> assertTrue(reloaded.find("batched-plugin", "0.0.1").getEnabled()),
+                  () -> assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp"))));
+    }
+
+    @Test
+    @DisplayName("Should ignore temporary file left by interrupted save and replace file by save() immediately")
+    void interruptedSaveTest() throws Exception {
+        Path path = copyToTemporaryDirectory(buildPathFromResources(PLUGIN_CONFIG_FILE));
+        Path temporaryFile = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temporaryFile, "{\"configDescriptions\": {\"io.easeci");
+
+        DefaultPluginConfig pluginConfig = new DefaultPluginConfig(path, 60_000);
+        pluginConfig.disable("test-plugin", "0.0.1");
+        PluginsConfigFile saved = pluginConfig.save();
+        PluginStrategy reloaded = new DefaultPluginConfig(path);
+
+        assertAll(() -> assertSame(pluginConfig.pluginsConfigFile(), saved),
+                  () -> assertEquals(1, pluginConfig.commits()),
+                  () -> assertFalse(Files.exists(temporaryFile)),
+                  () -> assertFalse(reloaded.find("test-plugin", "0.0.1").getEnabled()));
+    }
+
+    @Test
+    @DisplayName("Should report failed save() and write changes later when file can be written again")
+    void failedSaveTest() throws Exception {
+        Path path = copyToTemporaryDirectory(buildPathFromResources(PLUGIN_CONFIG_FILE));
+        byte[] content = Files.readAllBytes(path);
+        DefaultPluginConfig pluginConfig = new DefaultPluginConfig(path, 300);
+        pluginConfig.disable("test-plugin", "0.0.1");
+        Files.delete(path);
+        Files.delete(path.getParent());
+
+        assertThrows(PluginSystemCriticalException.class, pluginConfig::save);
+        long commitsAfterFailure = pluginConfig.commits();
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pluginConfig.commits() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        PluginStrategy reloaded = new DefaultPluginConfig(path);
+
+        assertAll(() -> assertEquals(0, commitsAfterFailure),
+                  () -> assertEquals(1, pluginConfig.commits()),
+                  () -> assertFalse(reloaded.find("test-plugin", "0.0.1").getEnabled()));
+    }
+
+    private static Path copyToTemporaryDirectory(Path path) throws IOException {
+        Path directory = Files.createTempDirectory("plugin-config");
+        return Files.copy(path, directory.resolve(path.getFileName()));
+    }
+
     /**
      * This test was created because after downloading plugin with the same name and version,
      * it was multiplied in Set. Problem was caused by inappropriate implementation of hashCode
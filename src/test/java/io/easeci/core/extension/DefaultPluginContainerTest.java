@@ -7,9 +7,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static commons.WorkspaceTestUtils.buildPathFromResources;
 import static io.easeci.core.extension.utils.PluginContainerUtils.fromBasic;
@@ -276,6 +281,37 @@ class DefaultPluginContainerTest extends BaseWorkspaceContextTest {
                 }));
     }
 
+    @Test
+    @DisplayName("Should find Instance by UUID from snapshot and follow replacing and removing of plugin")
+    void defaultPluginContainerFindByUuidIndexTest() {
+        final String INTERFACE_NAME = "java.lang.String";
+        final UUID PLUGIN_UUID = UUID.randomUUID();
+        PluginsConfigFile pluginsConfigFile = new PluginsConfigFile();
+        pluginsConfigFile.put(INTERFACE_NAME, ConfigDescription.builder()
+                                                               .uuid(PLUGIN_UUID)
+                                                               .name("welcome-logo")
+                                                               .version("0.0.1")
+                                                               .enabled(true)
+                                                               .build());
+        PluginStrategy pluginStrategy = Mockito.mock(PluginStrategy.class);
+        Mockito.when(pluginStrategy.pluginsConfigFile()).thenReturn(pluginsConfigFile);
+        Mockito.when(pluginStrategy.find(Mockito.any(ExtensionType.class), Mockito.any(UUID.class))).thenThrow(new PluginSystemIntegrityViolated());
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+
+        Instance current = fromBasicWithPluginName(INTERFACE_NAME, "This is implementation A", "welcome-logo", "0.0.1");
+        Instance fresh = fromBasicWithPluginName(INTERFACE_NAME, "This is implementation B", "welcome-logo", "0.0.1");
+        pluginContainer.add(current);
+        Optional<Instance> beforeReplace = pluginContainer.findByUuid(ExtensionType.EXTENSION_PLUGIN, PLUGIN_UUID);
+        pluginContainer.replace(current, fresh);
+        Optional<Instance> afterReplace = pluginContainer.findByUuid(ExtensionType.EXTENSION_PLUGIN, PLUGIN_UUID);
+        boolean isRemoved = pluginContainer.remove("welcome-logo", "0.0.1");
+
+        assertAll(() -> assertSame(current, beforeReplace.orElseThrow()),
+                  () -> assertSame(fresh, afterReplace.orElseThrow()),
+                  () -> assertTrue(isRemoved),
+                  () -> assertThrows(PluginSystemIntegrityViolated.class, () -> pluginContainer.findByUuid(ExtensionType.EXTENSION_PLUGIN, PLUGIN_UUID)));
+    }
+
     @Test
     @DisplayName("Should throw exception when cannot find configuration of plugin")
     void defaultPluginContainerFindByUuidInvalidTest() throws PluginSystemCriticalException {
@@ -347,4 +383,45 @@ class DefaultPluginContainerTest extends BaseWorkspaceContextTest {
                 () -> assertEquals(1, pluginContainer.instanceSize()),
                 () -> assertEquals(1, pluginContainer.keySize()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should keep all indexes consistent when instances are added and removed concurrently")
+    void defaultPluginContainerConcurrentModificationTest() throws InterruptedException {
+        final String INTERFACE_NAME = "java.lang.String";
+        final int THREADS = 8, INSTANCES_PER_THREAD = 50;
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        List<Instance> instances = new ArrayList<>();
+        for (int i = 0; i < THREADS * INSTANCES_PER_THREAD; i++) {
+            Instance basic = fromBasicWithPluginName(INTERFACE_NAME, "Implementation " + i, "plugin-" + i, "0.0.1");
+            instances.add(Instance.builder()
+                    .plugin(basic.getPlugin())
+                    .instance(basic.getInstance())
+                    .identityHashCode(i + 1)
+                    .instantiateDateTime(LocalDateTime.now())
+                    .build());
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int FROM = thread * INSTANCES_PER_THREAD;
+            executorService.execute(() -> {
+                for (int i = FROM; i < FROM + INSTANCES_PER_THREAD; i++) {
+                    pluginContainer.add(instances.get(i));
+                    pluginContainer.findByIdentityHashCode(i + 1);
+                    if (i % 2 == 0) {
+                        instances.get(i).clear();
+                        pluginContainer.remove("plugin-" + i, "0.0.1");
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertAll(() -> assertEquals(THREADS * INSTANCES_PER_THREAD / 2, pluginContainer.instanceSize()),
+                  () -> assertEquals(THREADS * INSTANCES_PER_THREAD / 2, pluginContainer.getGathered(INTERFACE_NAME, String.class).size()),
+                  () -> assertTrue(pluginContainer.findByIdentityHashCode(2).isPresent()),
+                  () -> assertTrue(pluginContainer.findByIdentityHashCode(1).isEmpty()),
+                  () -> assertEquals("Implementation 399", pluginContainer.findByIdentityHashCode(400).orElseThrow().getInstance()));
+    }
+}
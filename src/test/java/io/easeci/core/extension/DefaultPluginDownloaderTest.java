@@ -0,0 +1,225 @@
+package io.easeci.core.extension;
+
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.easeci.BaseWorkspaceContextTest;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultPluginDownloaderTest extends BaseWorkspaceContextTest {
+    private final static String DOWNLOAD_ENDPOINT = "/api/v1/download/";
+    private StubRegistry registry;
+    private Path targetPath;
+    private List<DefaultPluginDownloader> downloaders;
+
+    @BeforeEach
+    void startRegistry() throws IOException {
+        registry = new StubRegistry();
+        targetPath = Files.createTempDirectory("plugin-downloader-test");
+        downloaders = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void stopRegistry() throws IOException {
+        downloaders.forEach(DefaultPluginDownloader::close);
+        registry.server.stop(0);
+        FileUtils.deleteDirectory(targetPath.toFile());
+    }
+
+    @Test
+    @DisplayName("Should resume broken download from .part file and verify checksum of whole file")
+    void resumeBrokenDownloadTest() {
+        registry.breakFirstResponses = 1;
+        Plugin plugin = Plugin.of("welcome-logo", "0.0.1");
+
+        Plugin downloaded = downloader(2, 3).download(plugin).join();
+
+        Path jarFile = targetPath.resolve("welcome-logo-0.0.1.jar");
+        assertAll(() -> assertSame(plugin, downloaded),
+                  () -> assertArrayEquals(registry.content, Files.readAllBytes(jarFile)),
+                  () -> assertFalse(Files.exists(targetPath.resolve("welcome-logo-0.0.1.jar.part"))),
+                  () -> assertEquals(2, registry.requests.get()),
+                  () -> assertEquals("bytes=" + registry.content.length / 2 + "-", registry.rangeHeaders.get(0)));
+    }
+
+    @Test
+    @DisplayName("Should download file again from beginning when checksum is not correct and fail when it never matches")
+    void checksumMismatchTest() {
+        registry.corruptResponses = 1;
+        Plugin plugin = Plugin.of("time-printer", "0.0.1");
+
+        downloader(2, 3).download(plugin).join();
+        assertArrayEquals(registry.content, readJar("time-printer-0.0.1.jar"));
+
+        registry.corruptResponses = Integer.MAX_VALUE;
+        Plugin corrupted = Plugin.of("time-printer", "0.0.2");
+        CompletionException exception = assertThrows(CompletionException.class, () -> downloader(2, 2).download(corrupted).join());
+
+        assertAll(() -> assertTrue(exception.getMessage().contains("Checksum")),
+                  () -> assertFalse(Files.exists(targetPath.resolve("time-printer-0.0.2.jar"))));
+    }
+
+    @Test
+    @DisplayName("Should not download more plugins at once than maxParallelDownloads and not retry when plugin does not exist")
+    void boundedParallelismTest() {
+        registry.delayMillis = 50;
+        Set<Plugin> plugins = IntStream.range(0, 6)
+                .mapToObj(i -> Plugin.of("plugin-" + i, "1.0.0"))
+                .collect(Collectors.toSet());
+        DefaultPluginDownloader downloader = downloader(2, 3);
+
+        List<CompletableFuture<Plugin>> futures = downloader.download(plugins).collect(Collectors.toList());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        int requestsBefore = registry.requests.get();
+        CompletableFuture<Plugin> missing = downloader.download(Plugin.of("missing", "1.0.0"));
+
+        assertAll(() -> assertTrue(registry.maxConcurrentRequests.get() <= 2),
+                  () -> assertEquals(6, Files.list(targetPath).filter(path -> path.toString().endsWith(".jar")).count()),
+                  () -> assertThrows(CompletionException.class, missing::join),
+                  () -> assertEquals(requestsBefore + 1, registry.requests.get()));
+    }
+
+    @Test
+    @DisplayName("Should fail downloads that are not finished and reject new ones when downloader is closed")
+    void closeTest() {
+        registry.delayMillis = 500;
+        DefaultPluginDownloader downloader = downloader(1, 3);
+
+        CompletableFuture<Plugin> running = downloader.download(Plugin.of("time-printer", "0.0.1"));
+        CompletableFuture<Plugin> waiting = downloader.download(Plugin.of("time-printer", "0.0.2"));
+        downloader.close();
+        CompletableFuture<Plugin> afterClose = downloader.download(Plugin.of("time-printer", "0.0.3"));
+
+        assertAll(() -> assertThrows(CompletionException.class, running::join),
+                  () -> assertThrows(CompletionException.class, waiting::join),
+                  () -> assertThrows(CompletionException.class, afterClose::join),
+                  () -> assertFalse(Files.exists(targetPath.resolve("time-printer-0.0.3.jar"))));
+    }
+
+    private DefaultPluginDownloader downloader(int maxParallelDownloads, int maxAttempts) {
+        DefaultPluginDownloader downloader = DefaultPluginDownloader.builder()
+                .registryUrl(registry.url())
+                .targetPath(targetPath)
+                .timeoutMilliseconds(5_000)
+                .maxParallelDownloads(maxParallelDownloads)
+                .maxAttempts(maxAttempts)
+                .backoffMilliseconds(10L)
+                .build();
+        downloaders.add(downloader);
+        return downloader;
+    }
+
+    private byte[] readJar(String fileName) {
+        try {
+            return Files.readAllBytes(targetPath.resolve(fileName));
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Registry serves the same content for each plugin except 'missing' one,
+     * sends checksum header and handles Range requests. First responses can be
+     * broken in half of body or corrupted to simulate network failures.
+     * */
+    private static class StubRegistry {
+        private final HttpServer server;
+        private final byte[] content;
+        private final String checksum;
+        private final AtomicInteger requests = new AtomicInteger(0);
+        private final AtomicInteger concurrentRequests = new AtomicInteger(0);
+        private final AtomicInteger maxConcurrentRequests = new AtomicInteger(0);
+        private final List<String> rangeHeaders = new CopyOnWriteArrayList<>();
+        private volatile int breakFirstResponses;
+        private volatile int corruptResponses;
+        private volatile long delayMillis;
+
+        StubRegistry() throws IOException {
+            this.content = new byte[256 * 1024];
+            new Random(37).nextBytes(content);
+            this.checksum = Hashing.sha256().hashBytes(content).toString();
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            this.server.createContext(DOWNLOAD_ENDPOINT, this::handle);
+            this.server.setExecutor(Executors.newCachedThreadPool());
+            this.server.start();
+        }
+
+        URL url() {
+            try {
+                return new URL("http://localhost:" + server.getAddress().getPort());
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+            try {
+                sleep(delayMillis);
+                if (exchange.getRequestURI().getPath().startsWith(DOWNLOAD_ENDPOINT + "missing/")) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                int from = 0;
+                if (range != null) {
+                    rangeHeaders.add(range);
+                    from = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+                    exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + (content.length - 1) + "/" + content.length);
+                }
+                byte[] body = Arrays.copyOfRange(content, from, content.length);
+                if (corruptResponses > 0) {
+                    corruptResponses--;
+                    body[body.length - 1] ^= 1;
+                }
+                exchange.getResponseHeaders().add(DefaultPluginDownloader.CHECKSUM_HEADER, checksum);
+                exchange.sendResponseHeaders(range != null ? 206 : 200, body.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                if (breakFirstResponses > 0) {
+                    breakFirstResponses--;
+                    outputStream.write(body, 0, body.length / 2);
+                    outputStream.flush();
+                    sleep(100);
+                    throw new IOException("Connection broken by stub registry");
+                }
+                outputStream.write(body);
+            } finally {
+                exchange.close();
+                concurrentRequests.decrementAndGet();
+            }
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
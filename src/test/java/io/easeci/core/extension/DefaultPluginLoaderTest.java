@@ -8,6 +8,7 @@ import org.mockito.Mockito;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -37,7 +38,7 @@ class DefaultPluginLoaderTest extends BaseWorkspaceContextTest {
         Set<Plugin> pluginSet = Set.of(fakePlugin);
 
 //        mock JarJoiner method's behavior
-        Mockito.when(jarJoinerMock.addToClasspath(any())).thenReturn(fakePlugin);
+        Mockito.when(jarJoinerMock.resolveManifest(any())).thenReturn(fakePlugin);
         Mockito.when(jarJoinerMock.read(any())).thenReturn(ExtensionManifest.of("", ""));
 
 //        create SUT
@@ -75,7 +76,7 @@ class DefaultPluginLoaderTest extends BaseWorkspaceContextTest {
         Set<Plugin> resolvedPlugins = createCorrectFakePlugin();
 
 //        mock JarJoiner method's behavior
-        Mockito.when(jarJoinerMock.addToClasspath(any())).thenReturn(new ArrayList<>(resolvedPlugins).get(0));
+        Mockito.when(jarJoinerMock.resolveManifest(any())).thenReturn(new ArrayList<>(resolvedPlugins).get(0));
         Mockito.when(jarJoinerMock.read(any())).thenReturn(ExtensionManifest.of("", ""));
 
 //        create SUT
@@ -89,4 +90,51 @@ class DefaultPluginLoaderTest extends BaseWorkspaceContextTest {
                 () -> assertEquals(1, pluginContainer.keySize()),        // total container key size
                 () -> assertEquals(1, pluginContainer.instanceSize()));  // total instances created in container
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should load plugins in parallel and insert them to container always in the same order")
+    void loadPluginsInParallelDeterministicOrderTest() throws PluginSystemCriticalException {
+        PluginStrategy pluginStrategy = new DefaultPluginConfig(pluginConfigJsonValidPath);
+        JarJoiner jarJoinerMock = Mockito.mock(JarJoiner.class);
+        Mockito.when(jarJoinerMock.resolveManifest(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int attempt = 0; attempt < 20; attempt++) {
+            PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+            PluginLoader pluginLoader = new DefaultPluginLoader(pluginContainer, jarJoinerMock, 4);
+
+            Set<Plugin> rejectedPlugins = pluginLoader.loadPlugins(createCorrectFakePlugin(), pluginStrategy);
+            List<Object> instances = pluginContainer.getGathered("", Object.class);
+
+            assertAll(() -> assertTrue(rejectedPlugins.isEmpty()),
+                      () -> assertEquals(2, pluginContainer.instanceSize()),
+                      () -> assertEquals(2, instances.size()),
+                      () -> assertTrue(instances.get(0) instanceof Thread),
+                      () -> assertTrue(instances.get(1) instanceof String));
+        }
+    }
+
+    @Test
+    @DisplayName("Should insert remaining plugins and throw failure in parallel mode as it is thrown in sequential mode")
+    void loadPluginsInParallelFailureTest() throws PluginSystemCriticalException {
+        PluginStrategy pluginStrategy = new DefaultPluginConfig(pluginConfigJsonValidPath);
+        Set<Plugin> plugins = createCorrectFakePlugin();
+        Plugin brokenPlugin = plugins.iterator().next();
+        JarJoiner jarJoinerMock = Mockito.mock(JarJoiner.class);
+        Mockito.when(jarJoinerMock.resolveManifest(any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals(brokenPlugin)) {
+                throw new PluginSystemRuntimeException("Broken jar of plugin");
+            }
+            return invocation.getArgument(0);
+        });
+        PluginContainer sequentialContainer = new DefaultPluginContainer(pluginStrategy);
+        PluginContainer parallelContainer = new DefaultPluginContainer(pluginStrategy);
+
+        PluginSystemRuntimeException sequential = assertThrows(PluginSystemRuntimeException.class,
+                () -> new DefaultPluginLoader(sequentialContainer, jarJoinerMock).loadPlugins(plugins, pluginStrategy));
+        PluginSystemRuntimeException parallel = assertThrows(PluginSystemRuntimeException.class,
+                () -> new DefaultPluginLoader(parallelContainer, jarJoinerMock, 4).loadPlugins(plugins, pluginStrategy));
+
+        assertAll(() -> assertEquals(sequential.getMessage(), parallel.getMessage()),
+                  () -> assertEquals(1, parallelContainer.instanceSize()));
+    }
+}
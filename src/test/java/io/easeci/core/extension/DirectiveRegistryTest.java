@@ -0,0 +1,109 @@
+package io.easeci.core.extension;
+
+import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.extension.command.Command;
+import io.easeci.extension.command.Directive;
+import io.easeci.extension.directive.CodeChunk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectiveRegistryTest extends BaseWorkspaceContextTest {
+
+    @Test
+    @DisplayName("Should find directive and its commands by name and take commands from plugin only once")
+    void findDirectiveTest() {
+        CountingDirective git = new CountingDirective("$git", "clone", "checkout");
+        CountingDirective mvn = new CountingDirective("$mvn", "install");
+        List<Directive> directives = List.of(git, mvn);
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> directives);
+
+        for (int i = 0; i < 100; i++) {
+            directiveRegistry.find("$git");
+            directiveRegistry.findCommand("$mvn", "install");
+        }
+
+        assertAll(() -> assertSame(git, directiveRegistry.find("$git").orElseThrow()),
+                  () -> assertTrue(directiveRegistry.find("$bash").isEmpty()),
+                  () -> assertEquals("checkout", directiveRegistry.findCommand("$git", "checkout").orElseThrow().getCommandName()),
+                  () -> assertTrue(directiveRegistry.findCommand("$git", "install").isEmpty()),
+                  () -> assertEquals(2, directiveRegistry.availableCommands("$git").size()),
+                  () -> assertEquals(1, git.calls.get()),
+                  () -> assertEquals(1, mvn.calls.get()));
+    }
+
+    @Test
+    @DisplayName("Should recognize directive of installed but not enabled plugin without collecting it")
+    void installedDirectiveTest() {
+        CountingDirective git = new CountingDirective("$git", "clone");
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> List.of(git), directive -> DirectiveRegistry.UNKNOWN_VERSION,
+                                                                    PluginCallGuard.UNGUARDED, "$mvn"::equals);
+
+        assertAll(() -> assertTrue(directiveRegistry.isInstalled("$git")),
+                  () -> assertTrue(directiveRegistry.isInstalled("$mvn")),
+                  () -> assertFalse(directiveRegistry.contains("$mvn")),
+                  () -> assertFalse(directiveRegistry.isInstalled("$bash")));
+    }
+
+    @Test
+    @DisplayName("Should rebuild index when directive plugins are loaded or unloaded and reuse entries of plugins still present")
+    void rebuildTest() {
+        CountingDirective git = new CountingDirective("$git", "clone");
+        CountingDirective mvn = new CountingDirective("$mvn", "install");
+        CountingDirective otherGit = new CountingDirective("$git", "fetch");
+        List<List<Directive>> collected = new ArrayList<>(List.of(List.of(git)));
+        DirectiveRegistry directiveRegistry = new DirectiveRegistry(() -> collected.get(collected.size() - 1));
+
+        boolean gitBefore = directiveRegistry.contains("$git");
+        boolean mvnBefore = directiveRegistry.contains("$mvn");
+        collected.add(List.of(git, mvn, otherGit));
+        boolean mvnAfterLoad = directiveRegistry.contains("$mvn");
+        List<Directive> allAfterLoad = directiveRegistry.collectAll();
+        collected.add(List.of(mvn));
+        boolean gitAfterUnload = directiveRegistry.contains("$git");
+
+        assertAll(() -> assertTrue(gitBefore),
+                  () -> assertFalse(mvnBefore),
+                  () -> assertTrue(mvnAfterLoad),
+                  () -> assertEquals(List.of(git, mvn), allAfterLoad),
+                  () -> assertFalse(gitAfterUnload),
+                  () -> assertTrue(directiveRegistry.findCommand("$mvn", "install").isPresent()),
+                  () -> assertEquals(1, git.calls.get()),
+                  () -> assertEquals(1, mvn.calls.get()));
+    }
+
+    static class CountingDirective implements Directive {
+        private final String directiveName;
+        private final List<Command> commands;
+        private final AtomicInteger calls = new AtomicInteger(0);
+
+        CountingDirective(String directiveName, String... commandNames) {
+            this.directiveName = directiveName;
+            this.commands = new ArrayList<>();
+            for (String commandName : commandNames) {
+                this.commands.add(Command.of(commandName, List.of()));
+            }
+        }
+
+        @Override
+        public String getDirectiveName() {
+            return directiveName;
+        }
+
+        @Override
+        public List<Command> getAvailableCommandList() {
+            calls.incrementAndGet();
+            return commands;
+        }
+
+        @Override
+        public CodeChunk provideCode(List<Command> commands) {
+            return null;
+        }
+    }
+}
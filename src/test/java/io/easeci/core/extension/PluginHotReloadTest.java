@@ -0,0 +1,247 @@
+package io.easeci.core.extension;
+
+import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.extension.ExtensionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PluginHotReloadTest extends BaseWorkspaceContextTest {
+    private final static String PACKAGE_NAME = "reload.plugin",
+                                IMPLEMENTS = "io.easeci.extension.bootstrap.OnStartup";
+    private final static int HELPER_CLASSES = 10,
+                             RELOAD_CYCLES = 50;
+
+    private Path directory;
+    private PluginContainer pluginContainer;
+    private DefaultPluginLoader pluginLoader;
+
+    @BeforeEach
+    void loadPlugin() throws IOException {
+        directory = Files.createTempDirectory("plugin-hot-reload");
+        Path jar = createPluginJar();
+        Plugin.JarArchive jarArchive = Plugin.JarArchive.of(jar.getFileName().toString(), true, jar.toUri().toURL(), jar, null);
+        Plugin plugin = Plugin.of(Plugin.of("reloadable-plugin", "0.0.1"), jarArchive);
+        PluginStrategy pluginStrategy = new EnabledPluginStrategy();
+        pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        pluginLoader = new DefaultPluginLoader(pluginContainer, new JarJoiner());
+        Set<Plugin> notLoaded = pluginLoader.loadPlugins(Set.of(plugin), pluginStrategy);
+        assertTrue(notLoaded.isEmpty());
+    }
+
+    @AfterEach
+    void removeJar() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should load plugin in new class loader on each reload and unload classes of previous versions")
+    void reloadCyclesTest() throws InterruptedException {
+        Instance instance = currentInstance();
+        Class<?> firstEntryClass = instance.getInstance().getClass();
+        List<WeakReference<ClassLoader>> oldLoaders = new ArrayList<>();
+        oldLoaders.add(new WeakReference<>(firstEntryClass.getClassLoader()));
+        firstEntryClass = null;
+
+        // first cycles warm up JVM, so classes of test itself do not disturb counting
+        for (int cycle = 0; cycle < 5; cycle++) {
+            instance = pluginLoader.reload(instance);
+        }
+        collectGarbage(oldLoaders);
+        long loadedClassesBefore = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+        Set<Class<?>> entryClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int cycle = 0; cycle < RELOAD_CYCLES; cycle++) {
+            Instance previous = instance;
+            instance = pluginLoader.reload(previous);
+            Class<?> entryClass = instance.getInstance().getClass();
+            assertAll(() -> assertNull(previous.getInstance()),
+                      () -> assertNotSame(previous, currentInstance()),
+                      () -> assertTrue(entryClass.getClassLoader() instanceof PluginClassLoader));
+            if (entryClasses.size() < 3) {
+                entryClasses.add(entryClass);
+            }
+            oldLoaders.add(new WeakReference<>(entryClass.getClassLoader()));
+        }
+        int distinctEntryClasses = entryClasses.size();
+        entryClasses.clear();
+        oldLoaders.remove(oldLoaders.size() - 1);
+        collectGarbage(oldLoaders);
+        long loadedClassesAfter = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+
+        long notCollected = oldLoaders.stream().filter(reference -> reference.get() != null).count();
+        assertAll(() -> assertEquals(3, distinctEntryClasses),
+                  () -> assertEquals(0, notCollected),
+                  () -> assertTrue(loadedClassesAfter - loadedClassesBefore < HELPER_CLASSES * 3,
+                          "Loaded classes grew from " + loadedClassesBefore + " to " + loadedClassesAfter));
+    }
+
+    @Test
+    @DisplayName("Should wait with swapping of instances until call of plugin that is in progress is finished")
+    void drainInFlightCallsTest() throws Exception {
+        Instance instance = currentInstance();
+        Object plugin = instance.getInstance();
+        PluginCallGuard callGuard = PluginCallGuard.of(pluginContainer);
+        assertTrue(callGuard.enter(plugin));
+
+        CompletableFuture<Instance> reloaded = CompletableFuture.supplyAsync(() -> pluginLoader.reload(instance, 5_000));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (callGuard.enter(plugin) && System.currentTimeMillis() < deadline) {
+            callGuard.exit(plugin);
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        boolean swappedDuringCall = reloaded.isDone();
+        Object pluginDuringCall = currentInstance().getInstance();
+        callGuard.exit(plugin);
+        Instance fresh = reloaded.get(5, TimeUnit.SECONDS);
+
+        assertAll(() -> assertFalse(swappedDuringCall),
+                  () -> assertSame(plugin, pluginDuringCall),
+                  () -> assertSame(fresh, currentInstance()),
+                  () -> assertNotSame(plugin.getClass(), fresh.getInstance().getClass()),
+                  () -> assertTrue(callGuard.enter(fresh.getInstance())));
+    }
+
+    @Test
+    @DisplayName("Should not close class loader of previous instance until call that outlived drain timeout is finished")
+    void deferredLoaderCloseTest() throws Exception {
+        Instance instance = currentInstance();
+        Object plugin = instance.getInstance();
+        ClassLoader previousLoader = plugin.getClass().getClassLoader();
+        PluginCallGuard callGuard = PluginCallGuard.of(pluginContainer);
+        assertTrue(callGuard.enter(plugin));
+
+        Instance fresh = pluginLoader.reload(instance, 50);
+        boolean openDuringCall = previousLoader.getResource("reload/plugin/Entry.class") != null;
+        callGuard.exit(plugin);
+        boolean openAfterCall = previousLoader.getResource("reload/plugin/Entry.class") != null;
+
+        assertAll(() -> assertSame(fresh, currentInstance()),
+                  () -> assertTrue(openDuringCall),
+                  () -> assertFalse(openAfterCall));
+    }
+
+    private Instance currentInstance() {
+        Object plugin = pluginContainer.getGathered(IMPLEMENTS, Object.class).get(0);
+        return pluginContainer.findByIdentityHashCode(System.identityHashCode(plugin)).orElseThrow();
+    }
+
+    private static void collectGarbage(List<WeakReference<ClassLoader>> references) throws InterruptedException {
+        for (int attempt = 0; attempt < 20 && references.stream().anyMatch(reference -> reference.get() != null); attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+    }
+
+    private Path createPluginJar() throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        List<String> sourceFiles = new ArrayList<>();
+        StringBuilder entryConstructor = new StringBuilder();
+        for (int helper = 0; helper < HELPER_CLASSES; helper++) {
+            sourceFiles.add(write(sources.resolve("Helper" + helper + ".java"),
+                    "package " + PACKAGE_NAME + ";\n"
+                    + "public class Helper" + helper + " {\n"
+                    + "    public int value() { return " + helper + "; }\n"
+                    + "}\n"));
+            entryConstructor.append("        sum += new Helper").append(helper).append("().value();\n");
+        }
+        sourceFiles.add(write(sources.resolve("Entry.java"),
+                "package " + PACKAGE_NAME + ";\n"
+                + "public class Entry {\n"
+                + "    public int sum;\n"
+                + "    public Entry() {\n" + entryConstructor + "    }\n"
+                + "}\n"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+        arguments.addAll(sourceFiles);
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])));
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(ExtensionManifest.IMPLEMENTS, IMPLEMENTS);
+        manifest.getMainAttributes().putValue(ExtensionManifest.ENTRY_CLASS, PACKAGE_NAME + ".Entry");
+        Path jar = directory.resolve("reloadable-plugin-0.0.1.jar");
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar), manifest);
+             Stream<Path> classFiles = Files.walk(classes)) {
+            for (Path classFile : classFiles.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                output.putNextEntry(new JarEntry(classes.relativize(classFile).toString()));
+                output.write(Files.readAllBytes(classFile));
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String write(Path path, String content) throws IOException {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return path.toString();
+    }
+
+    private static class EnabledPluginStrategy implements PluginStrategy {
+
+        @Override
+        public Instance choose(List<Instance> instanceList, String interfaceName) {
+            return instanceList.get(0);
+        }
+
+        @Override
+        public PluginsConfigFile pluginsConfigFile() {
+            return null;
+        }
+
+        @Override
+        public ConfigDescription find(ExtensionType extensionType, String pluginName, String pluginVersion) {
+            return find(pluginName, pluginVersion);
+        }
+
+        @Override
+        public ConfigDescription find(ExtensionType extensionType, UUID uuid) {
+            return null;
+        }
+
+        @Override
+        public ConfigDescription find(String pluginName, String pluginVersion) {
+            return ConfigDescription.builder()
+                    .uuid(UUID.randomUUID())
+                    .name(pluginName)
+                    .version(pluginVersion)
+                    .enabled(true)
+                    .build();
+        }
+
+        @Override
+        public long configurationVersion() {
+            return 0;
+        }
+    }
+}
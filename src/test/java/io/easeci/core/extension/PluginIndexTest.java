@@ -0,0 +1,120 @@
+package io.easeci.core.extension;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PluginIndexTest {
+    private final static String IMPLEMENTS = "io.easeci.extension.bootstrap.OnStartup";
+    private Path directory;
+    private Path indexFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("plugin-index-test");
+        indexFile = directory.resolve(".cache").resolve(PluginIndex.INDEX_FILENAME);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    @DisplayName("Should take manifest from persisted index and not open jar file that was not changed")
+    void manifestFromIndexTest() throws IOException {
+        Path jar = createJar("plugin-0.0.1.jar", "io.easeci.Entry0");
+        PluginIndex pluginIndex = PluginIndex.load(indexFile);
+        ExtensionManifest extracted = pluginIndex.manifest(jar);
+        pluginIndex.persist();
+
+        FileTime lastModified = Files.getLastModifiedTime(jar);
+        createJar("plugin-0.0.1.jar", "io.easeci.Entry1");
+        Files.setLastModifiedTime(jar, lastModified);
+        PluginIndex reloaded = PluginIndex.load(indexFile);
+        ExtensionManifest indexed = reloaded.manifest(jar);
+
+        assertAll(() -> assertTrue(Files.exists(indexFile)),
+                  () -> assertEquals("io.easeci.Entry0", extracted.getEntryClassProperty()),
+                  () -> assertEquals("io.easeci.Entry0", indexed.getEntryClassProperty()),
+                  () -> assertEquals(IMPLEMENTS, indexed.getImplementsProperty()),
+                  () -> assertEquals(jar, reloaded.indexedLocation(Set.of(directory.resolve("other.jar"), jar)).orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Should remember directive names of indexed jar and answer lookup only for jars still present on disk")
+    void directiveNamesTest() throws IOException {
+        Path jar = createJar("plugin-0.0.1.jar", "io.easeci.Entry");
+        Path removedJar = createJar("removed-0.0.1.jar", "io.easeci.Removed");
+        PluginIndex pluginIndex = PluginIndex.load(indexFile);
+        pluginIndex.manifest(jar);
+        pluginIndex.manifest(removedJar);
+        pluginIndex.rememberDirective(jar, "$plugin");
+        pluginIndex.rememberDirective(jar, "$plugin");
+        pluginIndex.rememberDirective(removedJar, "$removed");
+        pluginIndex.rememberDirective(directory.resolve("not-indexed.jar"), "$other");
+        pluginIndex.persist();
+        Files.delete(removedJar);
+
+        PluginIndex reloaded = PluginIndex.load(indexFile);
+
+        assertAll(() -> assertEquals(List.of("$plugin"), reloaded.directiveNames(jar)),
+                  () -> assertTrue(reloaded.isIndexedDirective("$plugin")),
+                  () -> assertFalse(reloaded.isIndexedDirective("$removed")),
+                  () -> assertFalse(reloaded.isIndexedDirective("$other")),
+                  () -> assertTrue(reloaded.directiveNames(directory.resolve("not-indexed.jar")).isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should read jar file again when it was changed since indexing")
+    void changedJarTest() throws IOException {
+        Path jar = createJar("plugin-0.0.1.jar", "io.easeci.Entry");
+        PluginIndex pluginIndex = PluginIndex.load(indexFile);
+        pluginIndex.manifest(jar);
+        pluginIndex.persist();
+
+        createJar("plugin-0.0.1.jar", "io.easeci.ChangedEntryClass");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+        PluginIndex reloaded = PluginIndex.load(indexFile);
+
+        assertAll(() -> assertTrue(reloaded.indexedLocation(Set.of(jar)).isEmpty()),
+                  () -> assertEquals("io.easeci.ChangedEntryClass", reloaded.manifest(jar).getEntryClassProperty()));
+    }
+
+    @Test
+    @DisplayName("Should start with empty index when index file is corrupted")
+    void corruptedIndexTest() throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        Files.writeString(indexFile, "{ not a json");
+        Path jar = createJar("plugin-0.0.1.jar", "io.easeci.Entry");
+
+        PluginIndex pluginIndex = PluginIndex.load(indexFile);
+
+        assertAll(() -> assertTrue(pluginIndex.indexedLocation(Set.of(jar)).isEmpty()),
+                  () -> assertEquals("io.easeci.Entry", pluginIndex.manifest(jar).getEntryClassProperty()));
+    }
+
+    private Path createJar(String fileName, String entryClass) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(ExtensionManifest.IMPLEMENTS, IMPLEMENTS);
+        manifest.getMainAttributes().putValue(ExtensionManifest.ENTRY_CLASS, entryClass);
+        Path jar = directory.resolve(fileName);
+        new JarOutputStream(Files.newOutputStream(jar), manifest).close();
+        return jar;
+    }
+}
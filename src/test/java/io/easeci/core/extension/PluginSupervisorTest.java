@@ -0,0 +1,208 @@
+package io.easeci.core.extension;
+
+import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.core.extension.PluginSupervisor.Status;
+import io.easeci.core.extension.PluginSupervisor.SupervisedPlugin;
+import io.easeci.core.extension.PluginSupervisorSettings.RestartPolicy;
+import io.easeci.extension.ExtensionType;
+import io.easeci.extension.Standalone;
+import io.easeci.extension.State;
+import io.easeci.extension.command.PluginDirective;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class PluginSupervisorTest extends BaseWorkspaceContextTest {
+
+    @Test
+    @DisplayName("Should run plugin on its own started thread and assign this thread to Instance")
+    void ownThreadTest() throws Exception {
+        TestStandalone standalone = new TestStandalone(0);
+        Instance instance = Instance.builder()
+                .plugin(Plugin.of("time-printer", "0.0.1"))
+                .instance(standalone)
+                .build();
+        PluginContainer pluginContainer = Mockito.mock(PluginContainer.class);
+        Mockito.when(pluginContainer.findByIdentityHashCode(anyInt())).thenReturn(Optional.of(instance));
+
+        try (PluginSupervisor supervisor = new PluginSupervisor(pluginContainer, PluginSupervisorSettings.builder().build())) {
+            Future<?> future = supervisor.supervise(standalone).orElseThrow();
+            assertTrue(standalone.started.await(5, TimeUnit.SECONDS));
+            SupervisedPlugin running = supervisor.find(standalone).orElseThrow();
+
+            assertAll(() -> assertSame(standalone.thread, instance.getThread()),
+                      () -> assertNotSame(Thread.currentThread(), standalone.thread),
+                      () -> assertTrue(instance.isStarted()),
+                      () -> assertEquals(Status.RUNNING, running.getStatus()),
+                      () -> assertTrue(running.isHealthy()),
+                      () -> assertFalse(future.isDone()));
+
+            assertTrue(supervisor.stop(standalone));
+            assertAll(() -> assertTrue(future.isDone()),
+                      () -> assertEquals(Status.STOPPED, supervisor.lastState(standalone).orElseThrow().getStatus()),
+                      () -> assertEquals(PluginSupervisorSettings.DEFAULT_MAX_SIZE, supervisor.availablePlaces()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject plugin when limit of running plugins is reached and admit it when place is released")
+    void admissionControlTest() {
+        PluginSupervisorSettings settings = PluginSupervisorSettings.builder()
+                .maxSize(2)
+                .build();
+        TestStandalone first = new TestStandalone(0),
+                       second = new TestStandalone(0),
+                       third = new TestStandalone(0);
+
+        try (PluginSupervisor supervisor = new PluginSupervisor(emptyContainer(), settings)) {
+            boolean firstAdmitted = supervisor.supervise(first).isPresent();
+            boolean secondAdmitted = supervisor.supervise(second).isPresent();
+            boolean thirdRejected = supervisor.supervise(third).isEmpty();
+            boolean duplicateRejected = supervisor.supervise(first).isEmpty();
+            supervisor.stop(first);
+            boolean thirdAdmittedLater = supervisor.supervise(third).isPresent();
+
+            assertAll(() -> assertTrue(firstAdmitted),
+                      () -> assertTrue(secondAdmitted),
+                      () -> assertTrue(thirdRejected),
+                      () -> assertTrue(duplicateRejected),
+                      () -> assertTrue(thirdAdmittedLater),
+                      () -> assertEquals(0, supervisor.availablePlaces()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should restart failed plugin with backoff and give up after max restarts releasing its place")
+    void restartWithBackoffTest() throws Exception {
+        PluginSupervisorSettings settings = PluginSupervisorSettings.builder()
+                .maxSize(2)
+                .restartPolicy(RestartPolicy.ON_FAILURE)
+                .maxRestarts(2)
+                .backoffMillis(20)
+                .build();
+        TestStandalone recovering = new TestStandalone(2),
+                       broken = new TestStandalone(Integer.MAX_VALUE);
+
+        try (PluginSupervisor supervisor = new PluginSupervisor(emptyContainer(), settings)) {
+            long start = System.currentTimeMillis();
+            supervisor.supervise(recovering);
+            supervisor.supervise(broken);
+            assertTrue(recovering.started.await(5, TimeUnit.SECONDS));
+            long elapsed = System.currentTimeMillis() - start;
+            waitUntil(() -> supervisor.lastState(broken).map(state -> state.getStatus() == Status.FAILED).orElse(false));
+
+            SupervisedPlugin recovered = supervisor.find(recovering).orElseThrow();
+            SupervisedPlugin failed = supervisor.lastState(broken).orElseThrow();
+            assertAll(() -> assertEquals(3, recovering.calls.get()),
+                      () -> assertEquals(2, recovered.getRestarts()),
+                      () -> assertTrue(elapsed >= 20 + 40),
+                      () -> assertEquals(3, broken.calls.get()),
+                      () -> assertTrue(failed.getLastFailure().contains("Plugin failure no. 3")),
+                      () -> assertEquals(1, supervisor.availablePlaces()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not launch plugin again when it was stopped while waiting for restart")
+    void stopDuringBackoffTest() throws Exception {
+        PluginSupervisorSettings settings = PluginSupervisorSettings.builder()
+                .maxSize(1)
+                .restartPolicy(RestartPolicy.ON_FAILURE)
+                .maxRestarts(5)
+                .backoffMillis(100)
+                .build();
+        TestStandalone broken = new TestStandalone(Integer.MAX_VALUE);
+
+        try (PluginSupervisor supervisor = new PluginSupervisor(emptyContainer(), settings)) {
+            supervisor.supervise(broken);
+            waitUntil(() -> supervisor.find(broken).map(state -> state.getStatus() == Status.RESTARTING).orElse(false));
+            boolean stopped = supervisor.stop(broken);
+            Thread.sleep(300);
+
+            assertAll(() -> assertTrue(stopped),
+                      () -> assertEquals(1, broken.calls.get()),
+                      () -> assertEquals(Status.STOPPED, supervisor.lastState(broken).orElseThrow().getStatus()),
+                      () -> assertEquals(1, supervisor.availablePlaces()));
+        }
+    }
+
+    private static PluginContainer emptyContainer() {
+        PluginContainer pluginContainer = Mockito.mock(PluginContainer.class);
+        Mockito.when(pluginContainer.findByIdentityHashCode(anyInt())).thenReturn(Optional.empty());
+        return pluginContainer;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * Fails in first 'failures' calls of start(), then blocks until it is stopped.
+     * */
+    static class TestStandalone implements Standalone {
+        private final int failures;
+        private final AtomicInteger calls = new AtomicInteger(0);
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        TestStandalone(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void start() {
+            int call = calls.incrementAndGet();
+            if (call <= failures) {
+                throw new IllegalStateException("Plugin failure no. " + call);
+            }
+            thread = Thread.currentThread();
+            started.countDown();
+            try {
+                stopped.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void stop() {
+            stopped.countDown();
+        }
+
+        @Override
+        public State state() {
+            return State.builder().isRunning(started.getCount() == 0 && stopped.getCount() > 0).build();
+        }
+
+        @Override
+        public String about() {
+            return "Standalone plugin for supervisor tests";
+        }
+
+        @Override
+        public ExtensionType type() {
+            return ExtensionType.STANDALONE_PLUGIN;
+        }
+
+        @Override
+        public List<PluginDirective> directivesExposed() {
+            return List.of();
+        }
+    }
+}
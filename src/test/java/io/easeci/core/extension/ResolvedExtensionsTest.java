@@ -0,0 +1,81 @@
+package io.easeci.core.extension;
+
+import io.easeci.BaseWorkspaceContextTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.easeci.core.extension.utils.PluginContainerUtils.fromBasicWithPluginName;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ResolvedExtensionsTest extends BaseWorkspaceContextTest {
+    private final static String INTERFACE_NAME = "java.lang.String";
+
+    @Test
+    @DisplayName("Should resolve references once and reuse them until container is changed")
+    void resolveOnceTest() {
+        PluginStrategy pluginStrategy = Mockito.mock(PluginStrategy.class);
+        Mockito.when(pluginStrategy.choose(any(), anyString())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).get(0));
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        pluginContainer.add(fromBasicWithPluginName(INTERFACE_NAME, "Implementation A", "plugin-a", "0.0.1"));
+        ResolvedExtensions resolvedExtensions = new ResolvedExtensions(pluginContainer);
+
+        Optional<String> first = resolvedExtensions.get(INTERFACE_NAME, String.class);
+        Optional<String> second = resolvedExtensions.get(INTERFACE_NAME, String.class);
+        List<String> gathered = resolvedExtensions.getAll(INTERFACE_NAME, String.class);
+        List<String> gatheredAgain = resolvedExtensions.getAll(INTERFACE_NAME, String.class);
+
+        pluginContainer.add(fromBasicWithPluginName(INTERFACE_NAME, "Implementation B", "plugin-b", "0.0.1"));
+        List<String> gatheredAfterAdd = resolvedExtensions.getAll(INTERFACE_NAME, String.class);
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+
+        assertAll(() -> assertEquals("Implementation A", first.orElseThrow()),
+                  () -> assertSame(first, second),
+                  () -> assertSame(gathered, gatheredAgain),
+                  () -> assertEquals(List.of("Implementation A"), gathered),
+                  () -> assertEquals(List.of("Implementation A", "Implementation B"), gatheredAfterAdd),
+                  () -> assertThrows(UnsupportedOperationException.class, () -> gatheredAfterAdd.add("Implementation C")),
+                  () -> verify(pluginStrategy, times(2)).choose(any(), anyString()));
+    }
+
+    @Test
+    @DisplayName("Should resolve references again after invalidation")
+    void invalidateTest() {
+        PluginStrategy pluginStrategy = Mockito.mock(PluginStrategy.class);
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        ResolvedExtensions resolvedExtensions = new ResolvedExtensions(pluginContainer);
+
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+        resolvedExtensions.invalidate();
+        Optional<String> afterInvalidation = resolvedExtensions.get(INTERFACE_NAME, String.class);
+
+        assertAll(() -> assertTrue(afterInvalidation.isEmpty()),
+                  () -> verify(pluginStrategy, times(2)).choose(any(), anyString()));
+    }
+
+    @Test
+    @DisplayName("Should resolve references again when configuration of PluginStrategy is changed")
+    void configurationChangedTest() {
+        PluginStrategy pluginStrategy = Mockito.mock(PluginStrategy.class);
+        Mockito.when(pluginStrategy.choose(any(), anyString())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).get(0));
+        PluginContainer pluginContainer = new DefaultPluginContainer(pluginStrategy);
+        pluginContainer.add(fromBasicWithPluginName(INTERFACE_NAME, "Implementation A", "plugin-a", "0.0.1"));
+        ResolvedExtensions resolvedExtensions = new ResolvedExtensions(pluginContainer);
+
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+        Mockito.when(pluginStrategy.configurationVersion()).thenReturn(1L);
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+        resolvedExtensions.get(INTERFACE_NAME, String.class);
+
+        verify(pluginStrategy, times(2)).choose(any(), anyString());
+    }
+}
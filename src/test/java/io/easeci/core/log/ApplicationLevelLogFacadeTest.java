@@ -0,0 +1,65 @@
+package io.easeci.core.log;
+
+import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.core.output.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.TECHNICAL_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelPrefix.THREE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApplicationLevelLogFacadeTest extends BaseWorkspaceContextTest {
+
+    @AfterEach
+    void enableAll() {
+        for (ApplicationLevelLogFacade.LogLevelName logLevelName : ApplicationLevelLogFacade.LogLevelName.values()) {
+            ApplicationLevelLogFacade.enable(logLevelName);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not compute content of disabled level and compute it for enabled one")
+    void lazyContentTest() {
+        AtomicInteger computations = new AtomicInteger(0);
+
+        ApplicationLevelLogFacade.disable(TECHNICAL_EVENT);
+        ApplicationLevelLogFacade.logit(TECHNICAL_EVENT, () -> "content " + computations.incrementAndGet(), THREE);
+        ApplicationLevelLogFacade.logit(PLUGIN_EVENT, () -> "content " + computations.incrementAndGet(), THREE);
+
+        assertAll(() -> assertFalse(ApplicationLevelLogFacade.isEnabled(TECHNICAL_EVENT)),
+                  () -> assertTrue(ApplicationLevelLogFacade.isEnabled(PLUGIN_EVENT)),
+                  () -> assertEquals(1, computations.get()));
+    }
+
+    @Test
+    @DisplayName("Should enable level once again after it was disabled")
+    void enableTest() {
+        ApplicationLevelLogFacade.disable(TECHNICAL_EVENT);
+        ApplicationLevelLogFacade.disable(PLUGIN_EVENT);
+        ApplicationLevelLogFacade.enable(TECHNICAL_EVENT);
+
+        assertAll(() -> assertTrue(ApplicationLevelLogFacade.isEnabled(TECHNICAL_EVENT)),
+                  () -> assertFalse(ApplicationLevelLogFacade.isEnabled(PLUGIN_EVENT)));
+    }
+
+    @Test
+    @DisplayName("Should create event with shared title and timestamp taken as epoch nanos")
+    void eventTest() {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+
+        Event event = LogEvents.event(PLUGIN_EVENT, "content");
+
+        LocalDateTime publishTimestamp = event.getEventMeta().getPublishTimestamp();
+        assertAll(() -> assertEquals(PLUGIN_EVENT.toLevelName(), event.getEventMeta().getTitle()),
+                  () -> assertEquals("content", event.getContent()),
+                  () -> assertTrue(publishTimestamp.isAfter(before)),
+                  () -> assertTrue(Duration.between(publishTimestamp, LocalDateTime.now()).getSeconds() < 1));
+    }
+}
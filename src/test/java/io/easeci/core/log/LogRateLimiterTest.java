@@ -0,0 +1,67 @@
+package io.easeci.core.log;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.PLUGIN_EVENT;
+import static io.easeci.core.log.ApplicationLevelLogFacade.LogLevelName.WORKSPACE_EVENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRateLimiterTest {
+
+    @AfterEach
+    void cleanup() {
+        LogRateLimiter.limit(PLUGIN_EVENT, null);
+        LogRateLimiter.limit(EventType.RUNTIME, null);
+        LogRateLimiter.summary();
+    }
+
+    @Test
+    @DisplayName("Should pass only each n-th event when level is sampled")
+    void samplingTest() {
+        LogRateLimiter.limit(PLUGIN_EVENT, new LogRateLimiter.Limit(10, 0, 0));
+
+        long passed = IntStream.range(0, 1000)
+                .filter(i -> LogRateLimiter.tryAcquire(PLUGIN_EVENT))
+                .count();
+
+        assertAll(() -> assertEquals(100, passed),
+                  () -> assertTrue(IntStream.range(0, 1000).allMatch(i -> LogRateLimiter.tryAcquire(WORKSPACE_EVENT))));
+    }
+
+    @Test
+    @DisplayName("Should pass only burst of events when rate limit is exceeded at once")
+    void rateLimitTest() {
+        LogRateLimiter.limit(EventType.RUNTIME, new LogRateLimiter.Limit(1, 1, 50));
+        Event event = LogEvents.event(EventType.RUNTIME, "title", "content");
+
+        long passed = IntStream.range(0, 1000)
+                .filter(i -> LogRateLimiter.tryAcquire(event))
+                .count();
+
+        assertEquals(50, passed);
+    }
+
+    @Test
+    @DisplayName("Should report suppressed events in summary and reset counters")
+    void summaryTest() {
+        LogRateLimiter.limit(PLUGIN_EVENT, new LogRateLimiter.Limit(4, 0, 0));
+        LogRateLimiter.limit(EventType.RUNTIME, new LogRateLimiter.Limit(1, 1, 1));
+        Event event = LogEvents.event(EventType.RUNTIME, "title", "content");
+
+        IntStream.range(0, 8).forEach(i -> LogRateLimiter.tryAcquire(PLUGIN_EVENT));
+        IntStream.range(0, 3).forEach(i -> LogRateLimiter.tryAcquire(event));
+        Event summary = LogRateLimiter.summary();
+
+        assertAll(() -> assertNotNull(summary),
+                  () -> assertEquals(EventType.SPECIAL, summary.getEventMeta().getEventType()),
+                  () -> assertEquals(LogRateLimiter.SUMMARY_TITLE, summary.getEventMeta().getTitle()),
+                  () -> assertEquals("PLUGIN_EVENT: 6, RUNTIME: 2", summary.getContent()),
+                  () -> assertNull(LogRateLimiter.summary()));
+    }
+}
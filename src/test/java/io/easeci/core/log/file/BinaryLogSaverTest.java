@@ -0,0 +1,161 @@
+package io.easeci.core.log.file;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryLogSaverTest {
+    private Path directory;
+    private Path logfile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        directory = Files.createTempDirectory("binary-log-test");
+        logfile = directory.resolve("easeci-logs-test");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    @DisplayName("Should render binary log exactly the same as text LogSaver writes it")
+    void renderTest() throws IOException {
+        List<Event> events = events(1000);
+        Queue<Event> eventQueue = new LinkedList<>(events);
+        BinaryLogSaver logSaver = new BinaryLogSaver(eventQueue, logfile);
+
+        Path binaryLogfile = logSaver.save();
+        logSaver.onShutdown().run();
+
+        ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+        long renderedEvents = BinaryLogRenderer.render(binaryLogfile, rendered);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (Event event : events) {
+            expected.write(LogSaver.unmarshal(event));
+        }
+
+        assertAll(() -> assertEquals(1000, renderedEvents),
+                  () -> assertEquals(expected.toString(), rendered.toString()),
+                  () -> assertTrue(Files.size(binaryLogfile) * 2 < expected.size()));
+    }
+
+    @Test
+    @DisplayName("Should skip records without type or timestamp and render the rest")
+    void renderIncompleteRecordsTest() throws IOException {
+        Path binaryLogfile = logfile.resolveSibling(logfile.getFileName() + BinaryLogSaver.BINARY_LOGFILE_SUFFIX);
+        List<Event> events = events(2);
+        try (BinaryLogWriter writer = new BinaryLogWriter(binaryLogfile)) {
+            writer.write(events.get(0));
+            writer.write(new Event(new Event.EventMeta(null, "Pipeline Event", LocalDateTime.now(), "EaseCI process"), "no type"));
+            writer.write(new Event(new Event.EventMeta(EventType.RUNTIME, "Pipeline Event", null, "EaseCI process"), "no timestamp"));
+            writer.write(events.get(1));
+        }
+
+        ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+        long renderedEvents = BinaryLogRenderer.render(binaryLogfile, rendered);
+
+        assertAll(() -> assertEquals(2, renderedEvents),
+                  () -> assertEquals(new String(LogSaver.unmarshal(events.get(0))) + new String(LogSaver.unmarshal(events.get(1))),
+                                     rendered.toString()));
+    }
+
+    @Test
+    @DisplayName("Should read events saved in many sessions and skip truncated last record")
+    void manySessionsAndTruncatedRecordTest() throws IOException {
+        Path binaryLogfile = logfile.resolveSibling(logfile.getFileName() + BinaryLogSaver.BINARY_LOGFILE_SUFFIX);
+        for (int session = 0; session < 3; session++) {
+            try (BinaryLogWriter writer = new BinaryLogWriter(binaryLogfile)) {
+                for (Event event : events(10)) {
+                    writer.write(event);
+                }
+            }
+        }
+        Files.write(binaryLogfile, new byte[] {100, BinaryLogFormat.EVENT, 4}, StandardOpenOption.APPEND);
+
+        List<Event> events = BinaryLogReader.readAll(binaryLogfile);
+
+        assertAll(() -> assertEquals(30, events.size()),
+                  () -> assertEquals("content 9", events.get(29).getContent()),
+                  () -> assertEquals(EventType.PIPELINE, events.get(29).getEventMeta().getEventType()));
+    }
+
+    @Test
+    @DisplayName("Should truncate partial record before next session and on aborted write")
+    void partialRecordRecoveryTest() throws IOException {
+        Path binaryLogfile = directory.resolve("partial.bin");
+        try (BinaryLogWriter writer = new BinaryLogWriter(binaryLogfile)) {
+            for (Event event : events(10)) {
+                writer.write(event);
+            }
+        }
+        Files.write(binaryLogfile, new byte[] {100, BinaryLogFormat.EVENT, 4}, StandardOpenOption.APPEND);
+        try (BinaryLogWriter writer = new BinaryLogWriter(binaryLogfile)) {
+            for (Event event : events(10)) {
+                writer.write(event);
+            }
+        }
+        long completeSize = Files.size(binaryLogfile);
+        BinaryLogWriter abortedWriter = new BinaryLogWriter(binaryLogfile);
+        for (Event event : events(5)) {
+            abortedWriter.write(event);
+        }
+        abortedWriter.abort();
+
+        List<Event> events = BinaryLogReader.readAll(binaryLogfile);
+
+        assertAll(() -> assertEquals(20, events.size()),
+                  () -> assertEquals("content 9", events.get(19).getContent()),
+                  () -> assertEquals(completeSize, Files.size(binaryLogfile)));
+    }
+
+    @Test
+    @DisplayName("Should keep events correct when dictionary is reset because of its size")
+    void dictionaryResetTest() throws IOException {
+        Path binaryLogfile = directory.resolve("dictionary.bin");
+        List<Event> events = IntStream.range(0, BinaryLogFormat.MAX_DICTIONARY_SIZE * 2)
+                .mapToObj(i -> new Event(new Event.EventMeta(EventType.RUNTIME, "title " + i, LocalDateTime.now(), null), null))
+                .collect(Collectors.toList());
+        try (BinaryLogWriter writer = new BinaryLogWriter(binaryLogfile)) {
+            for (Event event : events) {
+                writer.write(event);
+            }
+        }
+
+        List<Event> read = BinaryLogReader.readAll(binaryLogfile);
+
+        assertAll(() -> assertEquals(events.size(), read.size()),
+                  () -> assertEquals(events.get(events.size() - 1).getEventMeta().getTitle(), read.get(read.size() - 1).getEventMeta().getTitle()),
+                  () -> assertEquals(events.get(events.size() - 1).getEventMeta().getPublishTimestamp(), read.get(read.size() - 1).getEventMeta().getPublishTimestamp()),
+                  () -> assertNull(read.get(0).getEventMeta().getPublishedBy()),
+                  () -> assertNull(read.get(0).getContent()));
+    }
+
+    private List<Event> events(int count) {
+        LocalDateTime start = LocalDateTime.now();
+        EventType[] eventTypes = {EventType.RUNTIME, EventType.PIPELINE};
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Event(new Event.EventMeta(eventTypes[i % 2], "Pipeline Event", start.plusNanos(i * 1_500_000L),
+                                                             "EaseCI process"), "content " + i))
+                .collect(Collectors.toList());
+    }
+}
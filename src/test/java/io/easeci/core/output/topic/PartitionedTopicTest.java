@@ -0,0 +1,239 @@
+package io.easeci.core.output.topic;
+
+import io.easeci.core.output.Event;
+import io.easeci.core.output.EventType;
+import io.easeci.core.output.consumer.BatchEventConsumer;
+import io.easeci.core.output.consumer.GroupEventConsumer;
+import io.easeci.core.output.publisher.Publisher;
+import io.easeci.core.output.publisher.TopicEventPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedTopicTest {
+    private final static long TIMEOUT_MILLIS = 10_000;
+    private PartitionedTopic topic;
+
+    @Test
+    @DisplayName("Should deliver all events published concurrently to each consumer group")
+    void deliverToEachConsumerGroupTest() throws Exception {
+        final int PUBLISHERS = 8, EVENTS_PER_PUBLISHER = 5_000;
+        topic = new PartitionedTopic("test", TopicSettings.builder().partitions(4).build());
+        CollectingConsumer first = new CollectingConsumer("first-group");
+        CollectingConsumer second = new CollectingConsumer("second-group");
+        assertTrue(first.subscribe(topic));
+        assertTrue(second.subscribe(topic));
+
+        publishConcurrently(PUBLISHERS, EVENTS_PER_PUBLISHER);
+
+        final int EXPECTED = PUBLISHERS * EVENTS_PER_PUBLISHER;
+        await(() -> first.size() == EXPECTED && second.size() == EXPECTED);
+        assertAll(() -> assertEquals(EXPECTED, topic.published()),
+                  () -> assertEquals(0, topic.lag("first-group")),
+                  () -> assertEquals(0, topic.lag("second-group")),
+                  () -> assertOrderedPerPublisher(first.events()),
+                  () -> assertOrderedPerPublisher(second.events()));
+    }
+
+    @Test
+    @DisplayName("Should share partitions between members of one consumer group")
+    void sharePartitionsInGroupTest() throws Exception {
+        topic = new PartitionedTopic("test", TopicSettings.builder().partitions(4).build());
+        CollectingConsumer first = new CollectingConsumer("group");
+        CollectingConsumer second = new CollectingConsumer("group");
+        first.subscribe(topic);
+        second.subscribe(topic);
+
+        publishConcurrently(4, 1_000);
+
+        await(() -> first.size() + second.size() == 4_000);
+        assertAll(() -> assertTrue(first.size() > 0),
+                  () -> assertTrue(second.size() > 0));
+    }
+
+    @Test
+    @DisplayName("Should redeliver events that consumer could not consume")
+    void redeliverNotConsumedEventsTest() throws Exception {
+        topic = new PartitionedTopic("test", TopicSettings.builder().partitions(1).retryBackoffMillis(1).build());
+        FailingBatchConsumer consumer = new FailingBatchConsumer("group", 3);
+        consumer.subscribe(topic);
+
+        Publisher publisher = new TopicEventPublisher(topic);
+        for (int i = 0; i < 100; i++) {
+            publisher.publish(event("publisher", i));
+        }
+
+        await(() -> consumer.size() == 100);
+        assertAll(() -> assertEquals(3, consumer.failures),
+                  () -> assertOrderedPerPublisher(consumer.events()));
+    }
+
+    @Test
+    @DisplayName("Should spill events to disk when consumer is lagging and deliver these later")
+    void spillLaggingEventsTest(@TempDir Path spillDirectory) throws Exception {
+        topic = new PartitionedTopic("test", TopicSettings.builder()
+                .partitions(1)
+                .segmentSize(16)
+                .maxInMemoryEvents(32)
+                .maintenancePeriodMillis(TimeUnit.HOURS.toMillis(1))
+                .spillDirectory(spillDirectory)
+                .build());
+        CollectingConsumer consumer = new CollectingConsumer("group");
+        consumer.paused.set(true);
+        consumer.subscribe(topic);
+
+        Publisher publisher = new TopicEventPublisher(topic);
+        for (int i = 0; i < 320; i++) {
+            publisher.publish(event("publisher", i));
+        }
+        topic.maintain();
+
+        assertTrue(Files.list(spillDirectory).findAny().isPresent());
+        consumer.paused.set(false);
+        await(() -> consumer.size() == 320);
+        topic.maintain();
+
+        assertAll(() -> assertOrderedPerPublisher(consumer.events()),
+                  () -> assertEquals(0, topic.lag("group")),
+                  () -> assertFalse(Files.list(spillDirectory).findAny().isPresent()));
+    }
+
+    @Test
+    @DisplayName("Should not accept events when topic is closed")
+    void closedTopicTest() {
+        topic = new PartitionedTopic("test", TopicSettings.builder().build());
+        topic.close();
+
+        assertThrows(EventHandleException.class, () -> topic.handleEvent(event("publisher", 0)));
+    }
+
+    @AfterEach
+    void cleanupEach() {
+        if (topic != null) {
+            topic.close();
+        }
+    }
+
+    private void publishConcurrently(int publishers, int eventsPerPublisher) throws InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(publishers);
+        CountDownLatch latch = new CountDownLatch(publishers);
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        for (int p = 0; p < publishers; p++) {
+            final String publisherName = "publisher-" + p;
+            executorService.submit(() -> {
+                Publisher publisher = new TopicEventPublisher(topic);
+                try {
+                    for (int i = 0; i < eventsPerPublisher; i++) {
+                        if (!publisher.publish(event(publisherName, i))) {
+                            failures.add(publisherName + " could not publish event " + i);
+                        }
+                    }
+                } catch (Exception e) {
+                    failures.add(publisherName + " failed: " + e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        executorService.shutdown();
+        assertTrue(failures.isEmpty(), () -> "Publishing failed: " + failures);
+    }
+
+    private static Event event(String publisher, int sequence) {
+        return Event.builder()
+                .eventMeta(Event.EventMeta.builder()
+                        .eventType(EventType.RUNTIME)
+                        .title("Sample event")
+                        .publishTimestamp(LocalDateTime.now())
+                        .publishedBy(publisher)
+                        .build())
+                .content(String.valueOf(sequence))
+                .build();
+    }
+
+    private static void assertOrderedPerPublisher(List<Event> events) {
+        java.util.Map<String, Integer> lastSequences = new java.util.HashMap<>();
+        for (Event event : events) {
+            int sequence = Integer.parseInt(event.getContent());
+            Integer last = lastSequences.put(event.getEventMeta().getPublishedBy(), sequence);
+            assertTrue(last == null || last < sequence, "Events of one publisher must be delivered in order");
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition was not fulfilled in " + TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static class CollectingConsumer extends GroupEventConsumer {
+        final AtomicBoolean paused = new AtomicBoolean(false);
+        private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+
+        CollectingConsumer(String groupId) {
+            super(groupId);
+        }
+
+        @Override
+        public boolean consume(Event event) {
+            if (paused.get()) {
+                return false;
+            }
+            return events.add(event);
+        }
+
+        int size() {
+            return events.size();
+        }
+
+        List<Event> events() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+    }
+
+    private static class FailingBatchConsumer extends CollectingConsumer implements BatchEventConsumer {
+        private int remainingFailures;
+        int failures;
+
+        FailingBatchConsumer(String groupId, int failures) {
+            super(groupId);
+            this.remainingFailures = failures;
+        }
+
+        @Override
+        public int consumeBatch(List<Event> events) {
+            if (remainingFailures > 0) {
+                remainingFailures--;
+                failures++;
+                return 0;
+            }
+            events.forEach(this::consume);
+            return events.size();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.easeci.core.registry;
+
+import io.easeci.core.registry.dto.RegistryCacheMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistryCacheTest {
+
+    @Test
+    @DisplayName("Should send only one request to registry for identical requests in flight")
+    void singleFlightTest() {
+        RegistryCache<String, String> cache = new RegistryCache<>(1_000, 1_000, 10);
+        CompletableFuture<String> registryResponse = new CompletableFuture<>();
+        AtomicInteger requests = new AtomicInteger(0);
+        Function<String, CompletableFuture<String>> loader = key -> {
+            requests.incrementAndGet();
+            return registryResponse;
+        };
+
+        List<CompletableFuture<String>> responses = IntStream.range(0, 20)
+                .mapToObj(i -> cache.get("welcome-logo:0.0.1", loader))
+                .collect(Collectors.toList());
+        registryResponse.complete("details");
+
+        RegistryCacheMetrics metrics = cache.metrics();
+        assertAll(() -> assertEquals(1, requests.get()),
+                  () -> assertTrue(responses.stream().allMatch(response -> "details".equals(response.join()))),
+                  () -> assertEquals(19, metrics.getCoalesced()),
+                  () -> assertEquals(1, metrics.getLoads()));
+    }
+
+    @Test
+    @DisplayName("Should serve fresh value from cache, serve stale value while refreshing it, and load expired value again")
+    void ttlAndStaleWhileRevalidateTest() {
+        AtomicLong clock = new AtomicLong(0);
+        RegistryCache<String, String> cache = new RegistryCache<>(100, 200, 10, clock::get);
+        AtomicInteger requests = new AtomicInteger(0);
+        Function<String, CompletableFuture<String>> loader = key -> CompletableFuture.completedFuture("v" + requests.incrementAndGet());
+
+        String first = cache.get("key", loader).join();
+        clock.set(TimeUnit.MILLISECONDS.toNanos(50));
+        String fresh = cache.get("key", loader).join();
+        clock.set(TimeUnit.MILLISECONDS.toNanos(150));
+        String stale = cache.get("key", loader).join();
+        String refreshed = cache.get("key", loader).join();
+        clock.set(TimeUnit.MILLISECONDS.toNanos(1_000));
+        String expired = cache.get("key", loader).join();
+
+        RegistryCacheMetrics metrics = cache.metrics();
+        assertAll(() -> assertEquals("v1", first),
+                  () -> assertEquals("v1", fresh),
+                  () -> assertEquals("v1", stale),
+                  () -> assertEquals("v2", refreshed),
+                  () -> assertEquals("v3", expired),
+                  () -> assertEquals(2, metrics.getHits()),
+                  () -> assertEquals(1, metrics.getStaleHits()),
+                  () -> assertEquals(2, metrics.getMisses()),
+                  () -> assertEquals(0.6, metrics.getHitRate(), 0.0001));
+    }
+
+    @Test
+    @DisplayName("Should not cache failed response and should keep no more entries than maximum")
+    void failureAndMaxEntriesTest() {
+        AtomicLong clock = new AtomicLong(0);
+        RegistryCache<String, String> cache = new RegistryCache<>(1_000, 0, 2, clock::get);
+        AtomicInteger requests = new AtomicInteger(0);
+
+        CompletableFuture<String> failed = cache.get("broken", key -> {
+            requests.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Registry responded with status 500"));
+        });
+        String recovered = cache.get("broken", key -> CompletableFuture.completedFuture("ok")).join();
+        IntStream.range(0, 3).forEach(i -> {
+            clock.incrementAndGet();
+            cache.get("plugin-" + i, key -> CompletableFuture.completedFuture(key)).join();
+        });
+
+        assertAll(() -> assertTrue(failed.isCompletedExceptionally()),
+                  () -> assertEquals("ok", recovered),
+                  () -> assertEquals(1, cache.metrics().getLoadFailures()),
+                  () -> assertEquals(2, cache.metrics().getSize()),
+                  () -> assertNull(cache.getIfPresent("broken")),
+                  () -> assertEquals("plugin-2", cache.getIfPresent("plugin-2")));
+    }
+
+    @Test
+    @DisplayName("Should evict entry that was not used for the longest time when cache is full")
+    void leastRecentlyUsedEvictionTest() {
+        RegistryCache<String, String> cache = new RegistryCache<>(1_000, 0, 2, () -> 0);
+
+        cache.get("plugin-0", key -> CompletableFuture.completedFuture(key)).join();
+        cache.get("plugin-1", key -> CompletableFuture.completedFuture(key)).join();
+        cache.get("plugin-0", key -> CompletableFuture.completedFuture("reloaded")).join();
+        cache.get("plugin-2", key -> CompletableFuture.completedFuture(key)).join();
+
+        assertAll(() -> assertEquals(2, cache.metrics().getSize()),
+                  () -> assertEquals("plugin-0", cache.getIfPresent("plugin-0")),
+                  () -> assertNull(cache.getIfPresent("plugin-1")),
+                  () -> assertEquals("plugin-2", cache.getIfPresent("plugin-2")));
+    }
+}
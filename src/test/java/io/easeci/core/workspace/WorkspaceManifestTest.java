@@ -0,0 +1,75 @@
+package io.easeci.core.workspace;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkspaceManifestTest {
+    private Path root;
+
+    @BeforeEach
+    void createWorkspace() throws IOException {
+        root = Files.createTempDirectory("workspace-manifest").toRealPath();
+        Files.createDirectories(root.resolve("easefiles"));
+        Files.writeString(root.resolve("general.yml"), "main:\n  server:\n    port: 9000\n");
+    }
+
+    @AfterEach
+    void removeWorkspace() throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    @Test
+    @DisplayName("Should verify expected entries and report files changed since previous verification")
+    void verifyTest() throws IOException {
+        List<String> files = List.of("general.yml", "plugins.yml");
+        List<String> directories = List.of("/easefiles/", "/projects/");
+        WorkspaceManifest first = WorkspaceManifest.verify(root, files, directories);
+        WorkspaceManifest unchanged = WorkspaceManifest.verify(root, files, directories);
+        Files.writeString(root.resolve("general.yml"), "main:\n  server:\n    port: 9001\n");
+        WorkspaceManifest changed = WorkspaceManifest.verify(root, files, directories);
+
+        assertAll(() -> assertEquals(Set.of(root.resolve("plugins.yml"), root.resolve("projects")), first.missing()),
+                  () -> assertTrue(first.entry(root.resolve("easefiles")).get().isDirectory()),
+                  () -> assertNotNull(first.entry(root.resolve("general.yml")).get().getChecksum()),
+                  () -> assertTrue(Files.exists(root.resolve(WorkspaceManifest.MANIFEST_FILENAME))),
+                  () -> assertTrue(unchanged.changed().isEmpty()),
+                  () -> assertEquals(Set.of(root.resolve("general.yml")), changed.changed()),
+                  () -> assertSame(changed, WorkspaceManifest.getInstance()));
+    }
+
+    @Test
+    @DisplayName("Should answer from memory until path is invalidated and create missing directories once")
+    void ensureDirectoryTest() throws IOException {
+        WorkspaceManifest manifest = WorkspaceManifest.verify(root, List.of(), List.of("/easefiles/", "/projects/"));
+        Path projects = root.resolve("projects");
+        Path pipelines = root.resolve("projects/pipelines");
+
+        boolean createdFirst = manifest.ensureDirectory(pipelines);
+        boolean createdSecond = manifest.ensureDirectory(pipelines);
+        FileUtils.deleteDirectory(projects.toFile());
+        boolean existsFromMemory = manifest.exists(pipelines);
+        manifest.invalidate(projects);
+        boolean existsAfterInvalidation = manifest.exists(pipelines);
+        boolean createdAgain = manifest.ensureDirectory(pipelines);
+
+        assertAll(() -> assertTrue(createdFirst),
+                  () -> assertFalse(createdSecond),
+                  () -> assertTrue(manifest.entry(projects).get().exists()),
+                  () -> assertTrue(existsFromMemory),
+                  () -> assertFalse(existsAfterInvalidation),
+                  () -> assertTrue(createdAgain),
+                  () -> assertTrue(Files.isDirectory(pipelines)),
+                  () -> assertTrue(manifest.missing().isEmpty()));
+    }
+}
@@ -1,6 +1,7 @@
 package io.easeci.core.workspace.cache;
 
 import io.easeci.BaseWorkspaceContextTest;
+import io.easeci.core.workspace.WorkspaceManifest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +11,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
 
 import static io.easeci.core.workspace.LocationUtils.getCacheDirectoryLocation;
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,6 +61,148 @@ class CacheManagerTest extends BaseWorkspaceContextTest {
         assertEquals(text.getBytes().length, bytesRemoved);
     }
 
+    @Test
+    @DisplayName("Should save temporary file in temporary directory of cache with unique name")
+    void saveTemporaryFileTest() throws IOException {
+        CacheManager cacheManager = CacheManager.getInstance();
+
+        Path first = cacheManager.save("first");
+        Path second = cacheManager.save("second");
+
+        assertAll(() -> assertNotEquals(first, second),
+                  () -> assertTrue(first.startsWith(getCacheDirectoryLocation().resolve("temp"))),
+                  () -> assertEquals("first", Files.readString(first)),
+                  () -> assertEquals("second", Files.readString(second)));
+    }
+
+    @Test
+    @DisplayName("Should put entry in namespace, count hits and misses, and forget entry after ttl passed")
+    void namespacedEntryTest() throws Exception {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().build());
+        try {
+            Path location = cacheManager.put("parse-results", "pipeline-1", "content".getBytes());
+            cacheManager.put("parse-results", "short-lived", "content".getBytes(), 50);
+            Thread.sleep(100);
+
+            assertAll(() -> assertEquals(Optional.of(location), cacheManager.get("parse-results", "pipeline-1")),
+                      () -> assertEquals("content", Files.readString(location)),
+                      () -> assertTrue(location.startsWith(getCacheDirectoryLocation().resolve("parse-results"))),
+                      () -> assertTrue(cacheManager.get("parse-results", "short-lived").isEmpty()),
+                      () -> assertTrue(cacheManager.get("parse-results", "not-existing").isEmpty()),
+                      () -> assertThrows(IllegalArgumentException.class, () -> cacheManager.put("../outside", "key", new byte[0])));
+            CacheMetrics metrics = cacheManager.metrics();
+            assertAll(() -> assertEquals(1, metrics.getHits()),
+                      () -> assertEquals(2, metrics.getMisses()),
+                      () -> assertEquals(1, metrics.getExpirations()),
+                      () -> assertEquals(1, metrics.getEntries()),
+                      () -> assertEquals(7, metrics.getUsedBytes()),
+                      () -> assertEquals(7, metrics.getNamespaces().get("parse-results").getUsedBytes()));
+        } finally {
+            cacheManager.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entries when quota is exceeded, but never entry that was just added")
+    void lruEvictionTest() {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().quotaBytes(25).build());
+        try {
+            cacheManager.put("lru", "first", new byte[10]);
+            cacheManager.put("lru", "second", new byte[10]);
+            cacheManager.get("lru", "first");
+            cacheManager.put("lru", "third", new byte[10]);
+
+            assertAll(() -> assertTrue(cacheManager.get("lru", "first").isPresent()),
+                      () -> assertTrue(cacheManager.get("lru", "second").isEmpty()),
+                      () -> assertTrue(cacheManager.get("lru", "third").isPresent()),
+                      () -> assertFalse(Files.exists(cacheManager.locate("lru", "second"))),
+                      () -> assertEquals(1, cacheManager.metrics().getEvictions()),
+                      () -> assertEquals(20, cacheManager.metrics().getUsedBytes()));
+        } finally {
+            cacheManager.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict least frequently used entries first when LFU policy is configured")
+    void lfuEvictionTest() {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().quotaBytes(25).evictionPolicy(EvictionPolicy.LFU).build());
+        try {
+            cacheManager.put("lfu", "first", new byte[10]);
+            cacheManager.put("lfu", "second", new byte[10]);
+            cacheManager.get("lfu", "first");
+            cacheManager.get("lfu", "first");
+            cacheManager.get("lfu", "second");
+            cacheManager.put("lfu", "third", new byte[10]);
+
+            assertAll(() -> assertTrue(cacheManager.get("lfu", "first").isPresent()),
+                      () -> assertTrue(cacheManager.get("lfu", "second").isEmpty()),
+                      () -> assertTrue(cacheManager.get("lfu", "third").isPresent()));
+        } finally {
+            cacheManager.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not evict entries of namespace exempt from eviction when quota is exceeded")
+    void exemptFromEvictionTest() {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().quotaBytes(25).build());
+        try {
+            cacheManager.exemptFromEviction("mirrors");
+            cacheManager.put("mirrors", "first", new byte[10]);
+            cacheManager.put("lru", "second", new byte[10]);
+            cacheManager.put("lru", "third", new byte[10]);
+
+            assertAll(() -> assertTrue(cacheManager.get("mirrors", "first").isPresent()),
+                      () -> assertTrue(cacheManager.get("lru", "second").isEmpty()),
+                      () -> assertTrue(cacheManager.get("lru", "third").isPresent()),
+                      () -> assertEquals(20, cacheManager.metrics().getUsedBytes()));
+        } finally {
+            cacheManager.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should invalidate removed entries in WorkspaceManifest and create temporary directory again after cleanup")
+    void manifestInvalidationTest() {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().build());
+        try {
+            Path location = cacheManager.put("manifest", "first", new byte[10]);
+            boolean existsBefore = WorkspaceManifest.getInstance().exists(location);
+            cacheManager.invalidate("manifest", "first");
+            boolean existsAfter = WorkspaceManifest.getInstance().exists(location);
+            cacheManager.cleanup();
+            Path temporaryFile = cacheManager.save("content");
+
+            assertAll(() -> assertTrue(existsBefore),
+                      () -> assertFalse(existsAfter),
+                      () -> assertTrue(Files.exists(temporaryFile)));
+        } finally {
+            cacheManager.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should track directory placed in cache and restore entries from index after restart")
+    void trackAndRestoreTest() throws IOException {
+        CacheManager cacheManager = new CacheManager(CacheSettings.builder().build());
+        Path directory = cacheManager.locate("git-clones", "https://github.com/easeci/easeci-core.git");
+        Files.createDirectories(directory.resolve("src"));
+        Files.writeString(directory.resolve("src/Easefile"), "pipeline");
+        cacheManager.track("git-clones", "https://github.com/easeci/easeci-core.git", 0);
+        cacheManager.shutdown();
+
+        CacheManager restarted = new CacheManager(CacheSettings.builder().build());
+        try {
+            assertAll(() -> assertEquals(8, restarted.metrics().getUsedBytes()),
+                      () -> assertEquals(Optional.of(directory), restarted.get("git-clones", "https://github.com/easeci/easeci-core.git")),
+                      () -> assertTrue(restarted.invalidate("git-clones", "https://github.com/easeci/easeci-core.git")),
+                      () -> assertFalse(Files.exists(directory)));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
     @AfterEach
     void cleanupEach() {
         CacheManager.getInstance().cleanup();
@@ -0,0 +1,89 @@
+package io.easeci.core.workspace.easefiles;
+
+import io.easeci.BaseWorkspaceContextTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static io.easeci.core.workspace.LocationUtils.getEasefilesStorageLocation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EasefileUploadTest extends BaseWorkspaceContextTest {
+
+    @Test
+    @DisplayName("Should write uploaded parts to temporary file and move it in place of target file only on commit")
+    void commitTest() throws IOException {
+        Path target = easefilePath();
+        EasefileStatus status;
+        try (EasefileUpload upload = EasefileUpload.open(target, false, null)) {
+            upload.write(bytes("pipeline:\n"));
+            upload.write(bytes("  stage: build\n"));
+            assertFalse(Files.exists(target));
+            status = upload.commit();
+        }
+
+        assertAll(() -> assertEquals(EasefileStatus.SAVED_CORRECTLY, status),
+                  () -> assertEquals("pipeline:\n  stage: build\n", Files.readString(target)),
+                  () -> assertEquals(0, temporaryFiles(target)));
+    }
+
+    @Test
+    @DisplayName("Should remove temporary file and leave target file untouched when upload was not committed")
+    void brokenUploadTest() throws IOException {
+        Path target = easefilePath();
+        Files.writeString(target, "old content");
+
+        try (EasefileUpload upload = EasefileUpload.open(target, true, null)) {
+            upload.write(bytes("new content that was not finished"));
+        }
+
+        assertAll(() -> assertEquals("old content", Files.readString(target)),
+                  () -> assertEquals(0, temporaryFiles(target)));
+    }
+
+    @Test
+    @DisplayName("Should replace file only when overwrite is allowed and file still has ETag known by client")
+    void conditionalUploadTest() throws IOException {
+        Path target = easefilePath();
+        Files.writeString(target, "old content");
+        String etag = EasefileVersion.of(target).etag();
+
+        EasefileUploadException justExists = assertThrows(EasefileUploadException.class, () -> EasefileUpload.open(target, false, null));
+        EasefileUploadException changed = assertThrows(EasefileUploadException.class, () -> EasefileUpload.open(target, true, "\"other\""));
+        EasefileStatus status;
+        try (EasefileUpload upload = EasefileUpload.open(target, true, etag)) {
+            upload.write(bytes("new content"));
+            status = upload.commit();
+        }
+
+        assertAll(() -> assertEquals(EasefileStatus.JUST_EXISTS, justExists.getEasefileStatus()),
+                  () -> assertEquals(EasefileStatus.CHANGED_CONCURRENTLY, changed.getEasefileStatus()),
+                  () -> assertEquals(EasefileStatus.EDITED_CORRECTLY, status),
+                  () -> assertEquals("new content", Files.readString(target)),
+                  () -> assertFalse(EasefileVersion.of(target).matches(etag)),
+                  () -> assertEquals(0, temporaryFiles(target)));
+    }
+
+    private static Path easefilePath() throws IOException {
+        return Files.createDirectories(Paths.get(getEasefilesStorageLocation())).resolve("Easefile_upload_" + UUID.randomUUID());
+    }
+
+    private static ByteBuffer bytes(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long temporaryFiles(Path target) throws IOException {
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            return files.filter(path -> path.getFileName().toString().startsWith("." + target.getFileName()))
+                        .count();
+        }
+    }
+}
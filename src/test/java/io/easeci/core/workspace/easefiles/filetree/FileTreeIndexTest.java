@@ -0,0 +1,116 @@
+package io.easeci.core.workspace.easefiles.filetree;
+
+import io.easeci.BaseWorkspaceContextTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTreeIndexTest extends BaseWorkspaceContextTest {
+    private Path root;
+    private FileTreeIndex index;
+
+    @BeforeEach
+    void createTree() throws IOException {
+        root = Files.createTempDirectory("easefiles-index").toRealPath();
+        Files.createDirectories(root.resolve("project-a/nested"));
+        Files.createDirectories(root.resolve("project-b"));
+        Files.writeString(root.resolve("Easefile_root"), "content");
+        Files.writeString(root.resolve("project-a/Easefile_a"), "content");
+        Files.writeString(root.resolve("project-a/nested/Easefile_nested"), "content");
+        index = FileTreeIndex.start(root);
+    }
+
+    @AfterEach
+    void removeTree() throws IOException {
+        index.close();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should build whole tree from memory and return the same tree until something changed")
+    void treeTest() {
+        FileTree first = index.tree();
+        FileTree second = index.tree();
+        Node rootNode = first.getRootNode();
+        Node projectA = rootNode.getChildNodes().get(1);
+
+        assertAll(() -> assertSame(first, second),
+                  () -> assertEquals(index.version(), first.getVersion()),
+                  () -> assertEquals(root, first.getEntryPoint()),
+                  () -> assertEquals(7, index.size()),
+                  () -> assertEquals(List.of(root.resolve("Easefile_root"), root.resolve("project-a"), root.resolve("project-b")),
+                                     rootNode.nextLocations()),
+                  () -> assertEquals(List.of(root.resolve("project-a/Easefile_a"), root.resolve("project-a/nested")),
+                                     projectA.nextLocations()),
+                  () -> assertEquals(1, projectA.getChildNodes().get(1).getChildNodes().size()),
+                  () -> assertFalse(rootNode.getChildNodes().get(2).isHasNext()));
+    }
+
+    @Test
+    @DisplayName("Should return content of one directory without nested directories")
+    void directoryTreeTest() {
+        FileTree projectA = index.tree(root.resolve("project-a"));
+        Node nested = projectA.getRootNode().getChildNodes().get(1);
+
+        assertAll(() -> assertEquals(2, projectA.getRootNode().getChildNodes().size()),
+                  () -> assertEquals(NodeType.DIRECTORY, nested.getNodeType()),
+                  () -> assertTrue(nested.isHasNext()),
+                  () -> assertTrue(nested.getChildNodes().isEmpty()),
+                  () -> assertNull(index.tree(root.resolve("not-existing")).getRootNode()));
+    }
+
+    @Test
+    @DisplayName("Should apply changes made on disk to index reported by WatchService")
+    void watchTest() throws Exception {
+        long versionBefore = index.version();
+        FileTree treeBefore = index.tree();
+
+        Files.createDirectories(root.resolve("project-c/deep"));
+        Files.writeString(root.resolve("project-c/deep/Easefile_deep"), "content");
+        Files.delete(root.resolve("project-a/nested/Easefile_nested"));
+        Files.delete(root.resolve("project-a/nested"));
+
+        waitUntil(() -> index.tree(root.resolve("project-c/deep")).getRootNode() != null
+                && index.tree(root.resolve("project-c/deep")).getRootNode().getChildNodes().size() == 1
+                && index.tree(root.resolve("project-a/nested")).getRootNode() == null);
+        FileTree treeAfter = index.tree();
+
+        assertAll(() -> assertTrue(index.version() > versionBefore),
+                  () -> assertNotSame(treeBefore, treeAfter),
+                  () -> assertEquals(4, treeAfter.getRootNode().getChildNodes().size()),
+                  () -> assertEquals(List.of(root.resolve("project-a/Easefile_a")),
+                                     treeAfter.getRootNode().getChildNodes().get(1).nextLocations()));
+    }
+
+    @Test
+    @DisplayName("Should show change at once when path is refreshed by hand")
+    void refreshTest() throws IOException {
+        Files.writeString(root.resolve("project-b/Easefile_b"), "content");
+        index.refresh(root.resolve("project-b/Easefile_b"));
+
+        assertEquals(List.of(root.resolve("project-b/Easefile_b")),
+                     index.tree(root.resolve("project-b")).getRootNode().nextLocations());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
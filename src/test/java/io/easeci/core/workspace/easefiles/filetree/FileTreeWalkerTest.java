@@ -1,13 +1,18 @@
 package io.easeci.core.workspace.easefiles.filetree;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -162,6 +167,104 @@ class FileTreeWalkerTest {
         // and then user can recursively walk through whole structure...
     }
 
+    @Test
+    @DisplayName("Should walk tree no deeper than max depth, place only files matching glob and stop at max entries")
+    void walkOptionsTest() throws IOException {
+        Path directory = createTestTree();
+
+        FileTree limitedDepth = new FileTreeWalker(directory, WalkOptions.builder().maxDepth(2).glob("Easefile*").build()).dumpAll();
+        FileTree limitedEntries = new FileTreeWalker(directory, WalkOptions.builder().maxEntries(3).build()).dumpAll();
+        Node projectA = limitedDepth.getRootNode().getChildNodes().get(1);
+        Node nested = projectA.getChildNodes().get(1);
+
+        assertAll(() -> assertEquals(List.of(directory.resolve("Easefile_root"), directory.resolve("project-a"), directory.resolve("project-b")),
+                                     limitedDepth.nextLocations()),
+                  () -> assertEquals(List.of(directory.resolve("project-a/Easefile_a"), directory.resolve("project-a/nested")),
+                                     projectA.nextLocations()),
+                  () -> assertTrue(nested.getChildNodes().isEmpty()),
+                  () -> assertTrue(nested.isHasNext()),
+                  () -> assertFalse(limitedDepth.isTruncated()),
+                  () -> assertTrue(limitedEntries.isTruncated()),
+                  () -> assertEquals(3, countNodes(limitedEntries.getRootNode()) - 1));
+        deleteTestTree(directory);
+    }
+
+    @Test
+    @DisplayName("Should write the same JSON while walking as serialized FileTree built in memory")
+    void writeToTest() throws IOException {
+        Path directory = createTestTree();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        long entries = new FileTreeWalker(directory).writeTo(streamed);
+        JsonNode expected = objectMapper.readTree(new FileTreeWalker(directory).dumpAll().jsonify());
+        JsonNode actual = objectMapper.readTree(streamed.toByteArray());
+
+        ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+        new FileTreeWalker(directory, WalkOptions.builder().maxEntries(2).build()).writeTo(truncated);
+        JsonNode truncatedTree = objectMapper.readTree(truncated.toByteArray());
+
+        assertAll(() -> assertEquals(7, entries),
+                  () -> assertEquals(expected, actual),
+                  () -> assertTrue(truncatedTree.get("truncated").asBoolean()),
+                  () -> assertEquals(directory.toUri().toString(), truncatedTree.get("rootNode").get("nodePath").asText()));
+        deleteTestTree(directory);
+    }
+
+    @Test
+    @DisplayName("Should report no next entries for directories whose files are all filtered out by glob")
+    void globHasNextTest() throws IOException {
+        Path directory = createTestTree();
+        Files.createDirectories(directory.resolve("docs"));
+        Files.writeString(directory.resolve("docs/readme.md"), "content");
+        WalkOptions walkOptions = WalkOptions.builder().maxDepth(1).glob("Easefile*").build();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        FileTree fileTree = new FileTreeWalker(directory, walkOptions).dumpAll();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        new FileTreeWalker(directory, walkOptions).writeTo(streamed);
+        Node docs = fileTree.getRootNode().getChildNodes().get(1);
+        Node projectA = fileTree.getRootNode().getChildNodes().get(2);
+
+        assertAll(() -> assertEquals(directory.resolve("docs"), docs.getNodePath()),
+                  () -> assertFalse(docs.isHasNext()),
+                  () -> assertTrue(projectA.isHasNext()),
+                  () -> assertEquals(objectMapper.readTree(fileTree.jsonify()), objectMapper.readTree(streamed.toByteArray())));
+        deleteTestTree(directory);
+    }
+
+    private static Path createTestTree() throws IOException {
+        Path directory = Files.createTempDirectory("file-tree-walker");
+        Files.createDirectories(directory.resolve("project-a/nested"));
+        Files.createDirectories(directory.resolve("project-b"));
+        Files.writeString(directory.resolve("Easefile_root"), "content");
+        Files.writeString(directory.resolve("notes.txt"), "content");
+        Files.writeString(directory.resolve("project-a/Easefile_a"), "content");
+        Files.writeString(directory.resolve("project-a/nested/Easefile_nested"), "content");
+        return directory;
+    }
+
+    private static void deleteTestTree(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static int countNodes(Node node) {
+        int nodes = 1;
+        if (node.getChildNodes() != null) {
+            for (Node childNode : node.getChildNodes()) {
+                nodes += countNodes(childNode);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Order of entries written while walking depends on file system, so it is sorted before comparing.
+     * */
+
     private Path getTestDirPath() {
         String pwd = System.getProperty("user.dir");
         return Path.of(pwd.concat(TEST_DIR));
@@ -8,8 +8,14 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static io.easeci.extension.command.VariableType.NUMBER;
 import static io.easeci.extension.command.VariableType.STRING;
@@ -191,4 +197,53 @@ class GlobalVariablesManagerTest extends BaseWorkspaceContextTest {
                 () -> assertTrue(allVariables.containsKey(added.getName())),
                 () -> assertEquals(1, allVariables.size()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should write many changes made by many threads to file in one batch and load them again")
+    void batchedSaveTest() throws Exception {
+        Path varsFile = Files.createTempFile("vars", ".json");
+        Files.delete(varsFile);
+        GlobalVariablesManager vars = new GlobalVariablesManager(varsFile, 60_000);
+        long commitsBefore = vars.commits();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int number = i;
+            futures.add(executorService.submit(() -> vars.put(Variable.of(NUMBER, "var" + number, number))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        Map<String, Variable<?>> snapshot = vars.getAllVariables();
+        vars.remove("var0");
+
+        assertEquals(commitsBefore, vars.commits());
+        vars.flush();
+        GlobalVariablesManager loaded = new GlobalVariablesManager(varsFile, 60_000);
+
+        assertAll(() -> assertEquals(commitsBefore + 1, vars.commits()),
+                  () -> assertEquals(100, snapshot.size()),
+                  () -> assertEquals(99, vars.getAllVariables().size()),
+                  () -> assertEquals(99, loaded.variableSize()),
+                  () -> assertEquals(42, loaded.get("var42").get().getValue()),
+                  () -> assertFalse(Files.exists(varsFile.resolveSibling(varsFile.getFileName() + ".tmp"))));
+        Files.deleteIfExists(varsFile);
+    }
+
+    @Test
+    @DisplayName("Should import all variables at once or none of them, and export them sorted by name")
+    void importExportTest() {
+        GlobalVariables vars = GlobalVariablesManager.getInstance();
+        vars.put(Variable.of(STRING, "name", "EaseCI"));
+
+        int imported = vars.importVariables(List.of(Variable.of(STRING, "version", "1.0"), Variable.of(NUMBER, "port", 9000)), false);
+
+        assertAll(() -> assertEquals(2, imported),
+                  () -> assertThrows(IllegalStateException.class, () -> vars.importVariables(List.of(Variable.of(STRING, "other", "value"), Variable.of(STRING, "name", "other")), false)),
+                  () -> assertThrows(IllegalArgumentException.class, () -> vars.importVariables(List.of(Variable.of(STRING, "other", "value"), Variable.of(STRING, "$illegal", "value")), true)),
+                  () -> assertFalse(vars.get("other").isPresent()),
+                  () -> assertEquals(List.of("name", "port", "version"), vars.exportVariables().stream().map(Variable::getName).collect(Collectors.toList())),
+                  () -> assertEquals(3, vars.importVariables(vars.exportVariables(), true)));
+    }
+}